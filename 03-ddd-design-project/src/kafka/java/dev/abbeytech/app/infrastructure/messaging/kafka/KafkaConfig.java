@@ -0,0 +1,17 @@
+package dev.abbeytech.app.infrastructure.messaging.kafka;
+
+import dev.abbeytech.app.infrastructure.config.MessagingProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "app.messaging.enabled", havingValue = "true")
+public class KafkaConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.messaging.transport", havingValue = "KAFKA")
+    public KafkaTransport kafkaTransport(MessagingProperties properties) {
+        return new KafkaTransport(properties.kafka().bootstrapServers());
+    }
+}
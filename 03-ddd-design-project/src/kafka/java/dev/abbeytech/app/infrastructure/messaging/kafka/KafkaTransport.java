@@ -0,0 +1,160 @@
+package dev.abbeytech.app.infrastructure.messaging.kafka;
+
+import dev.abbeytech.app.infrastructure.messaging.transport.MessageTransport;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * {@link MessageTransport} on a Kafka cluster. Each {@link dev.abbeytech.app.infrastructure.messaging.transport.MessageBatch}
+ * is sent as one Kafka record, so Kafka offsets are batch offsets. Batches are already
+ * compressed, so Kafka's own compression is off; its idempotent producer takes the place of
+ * the producer id and sequence check of the local transport.
+ *
+ * <p>Kafka consumers are not thread-safe: fetches share one consumer without a group, and
+ * every group gets one consumer for its offsets, each used under its own lock.
+ */
+public final class KafkaTransport implements MessageTransport {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(100);
+
+    private final String bootstrapServers;
+    private final KafkaProducer<byte[], byte[]> producer;
+    private final KafkaConsumer<byte[], byte[]> fetcher;
+    private final Map<String, KafkaConsumer<byte[], byte[]>> groups = new HashMap<>();
+
+    public KafkaTransport(String bootstrapServers) {
+        this.bootstrapServers = bootstrapServers;
+        this.producer = new KafkaProducer<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true,
+                ProducerConfig.ACKS_CONFIG, "all",
+                ProducerConfig.COMPRESSION_TYPE_CONFIG, "none",
+                ProducerConfig.LINGER_MS_CONFIG, 0),
+                new ByteArraySerializer(), new ByteArraySerializer());
+        this.fetcher = consumer(null);
+    }
+
+    @Override
+    public int partitions(String topic) {
+        return producer.partitionsFor(topic).size();
+    }
+
+    @Override
+    public long append(String topic, int partition, byte[] batch) throws IOException {
+        try {
+            return producer.send(new ProducerRecord<>(topic, partition, null, batch)).get().offset();
+        } catch (ExecutionException e) {
+            throw new IOException("Sending to " + topic + "-" + partition + " failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted sending to " + topic + "-" + partition);
+        }
+    }
+
+    @Override
+    public List<StoredBatch> fetch(String topic, int partition, long offset, int maxBatches) throws IOException {
+        TopicPartition tp = new TopicPartition(topic, partition);
+        List<StoredBatch> batches = new ArrayList<>();
+        synchronized (fetcher) {
+            try {
+                fetcher.assign(List.of(tp));
+                fetcher.seek(tp, offset);
+                for (ConsumerRecord<byte[], byte[]> record : fetcher.poll(POLL_TIMEOUT).records(tp)) {
+                    if (batches.size() == maxBatches) {
+                        break;
+                    }
+                    batches.add(new StoredBatch(record.offset(), record.value()));
+                }
+            } catch (KafkaException e) {
+                throw new IOException("Fetching from " + tp + " failed", e);
+            }
+        }
+        return batches;
+    }
+
+    @Override
+    public void commit(String group, String topic, int partition, long nextOffset) throws IOException {
+        KafkaConsumer<byte[], byte[]> consumer = group(group);
+        synchronized (consumer) {
+            try {
+                consumer.commitSync(Map.of(new TopicPartition(topic, partition), new OffsetAndMetadata(nextOffset)));
+            } catch (KafkaException e) {
+                throw new IOException("Committing " + group + " at " + topic + "-" + partition + " failed", e);
+            }
+        }
+    }
+
+    @Override
+    public long committed(String group, String topic, int partition) throws IOException {
+        TopicPartition tp = new TopicPartition(topic, partition);
+        KafkaConsumer<byte[], byte[]> consumer = group(group);
+        synchronized (consumer) {
+            try {
+                OffsetAndMetadata committed = consumer.committed(Set.of(tp)).get(tp);
+                return committed == null ? 0 : committed.offset();
+            } catch (KafkaException e) {
+                throw new IOException("Reading the offset of " + group + " at " + tp + " failed", e);
+            }
+        }
+    }
+
+    @Override
+    public long endOffset(String topic, int partition) throws IOException {
+        TopicPartition tp = new TopicPartition(topic, partition);
+        synchronized (fetcher) {
+            try {
+                return fetcher.endOffsets(List.of(tp)).get(tp);
+            } catch (KafkaException e) {
+                throw new IOException("Reading the end offset of " + tp + " failed", e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        producer.close();
+        synchronized (fetcher) {
+            fetcher.close();
+        }
+        synchronized (groups) {
+            groups.values().forEach(KafkaConsumer::close);
+            groups.clear();
+        }
+    }
+
+    private KafkaConsumer<byte[], byte[]> group(String group) {
+        synchronized (groups) {
+            return groups.computeIfAbsent(group, this::consumer);
+        }
+    }
+
+    private KafkaConsumer<byte[], byte[]> consumer(String group) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        config.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        if (group != null) {
+            config.put(ConsumerConfig.GROUP_ID_CONFIG, group);
+        }
+        return new KafkaConsumer<>(config, new ByteArrayDeserializer(), new ByteArrayDeserializer());
+    }
+}
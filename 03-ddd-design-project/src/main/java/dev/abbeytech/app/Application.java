@@ -1,9 +1,17 @@
 package dev.abbeytech.app;
 
+import dev.abbeytech.app.infrastructure.config.EventBusProperties;
+import dev.abbeytech.app.infrastructure.config.InventoryProperties;
+import dev.abbeytech.app.infrastructure.config.MessagingProperties;
+import dev.abbeytech.app.infrastructure.config.OrderStoreProperties;
+import dev.abbeytech.app.infrastructure.config.ProjectionProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 @SpringBootApplication
+@EnableConfigurationProperties({EventBusProperties.class, ProjectionProperties.class, OrderStoreProperties.class,
+        InventoryProperties.class, MessagingProperties.class})
 public class Application {
 
     public static void main(String[] args) {
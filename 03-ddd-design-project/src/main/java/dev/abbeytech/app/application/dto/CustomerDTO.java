@@ -0,0 +1,12 @@
+package dev.abbeytech.app.application.dto;
+
+import dev.abbeytech.app.shared.model.CustomerId;
+import dev.abbeytech.app.shared.model.Email;
+
+import java.time.Instant;
+
+/**
+ * Customer read model; {@code lastOrderAt} is {@code null} until the first order
+ */
+public record CustomerDTO(CustomerId customerId, String name, Email email, int orderCount, Instant lastOrderAt) {
+}
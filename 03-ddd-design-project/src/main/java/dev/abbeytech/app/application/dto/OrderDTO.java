@@ -0,0 +1,24 @@
+package dev.abbeytech.app.application.dto;
+
+import dev.abbeytech.app.domain.model.order.OrderStatus;
+import dev.abbeytech.app.shared.model.CustomerId;
+import dev.abbeytech.app.shared.model.Email;
+import dev.abbeytech.app.shared.model.OrderId;
+import dev.abbeytech.app.shared.model.ProductId;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Order read model with the customer and product names copied in when the order was placed,
+ * and its status kept current, so showing an order needs no other lookups
+ */
+public record OrderDTO(OrderId orderId, CustomerId customerId, String customerName, Email customerEmail,
+                       List<Line> lines, long totalMinor, String currency, OrderStatus status, Instant placedAt) {
+
+    public record Line(ProductId productId, String productName, int quantity, long unitPriceMinor) {}
+
+    public OrderDTO {
+        lines = List.copyOf(lines);
+    }
+}
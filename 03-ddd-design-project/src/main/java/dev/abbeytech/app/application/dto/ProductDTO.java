@@ -0,0 +1,10 @@
+package dev.abbeytech.app.application.dto;
+
+import dev.abbeytech.app.shared.model.ProductId;
+
+/**
+ * Product read model. {@code unitsOrdered} counts units in placed orders since creation.
+ */
+public record ProductDTO(ProductId productId, String name, long priceMinor, String currency, int stock,
+                         long unitsOrdered) {
+}
@@ -0,0 +1,191 @@
+package dev.abbeytech.app.application.projection;
+
+import dev.abbeytech.app.application.dto.CustomerDTO;
+import dev.abbeytech.app.application.dto.OrderDTO;
+import dev.abbeytech.app.application.dto.ProductDTO;
+import dev.abbeytech.app.domain.event.DomainEvent;
+import dev.abbeytech.app.domain.event.DomainEventHandler;
+import dev.abbeytech.app.infrastructure.config.ProjectionProperties;
+import dev.abbeytech.app.infrastructure.messaging.outbox.FileOutbox;
+import dev.abbeytech.app.shared.model.CustomerId;
+import dev.abbeytech.app.shared.model.OrderId;
+import dev.abbeytech.app.shared.model.ProductId;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+
+/**
+ * Keeps the read models up to date from domain events, one event at a time, so queries are
+ * single key reads instead of joins over the normalised write model.
+ *
+ * <p>The read models live in memory. They are saved to a snapshot file, together with the
+ * position in the event log they reflect, every {@code snapshotInterval} and on shutdown. On
+ * startup the snapshot is loaded and the events after its position are read back from the
+ * event log; without a snapshot, or with {@code rebuildOnStart}, the whole log is replayed.
+ * Events the bus delivers again after a restart are recognised by position and skipped.
+ * Without an event log the read models are rebuilt from nothing on every start.
+ *
+ * <p>Once a snapshot is saved, the event log segments below its position are released, which
+ * keeps a retained log bounded. A rebuild then starts from the oldest event still kept; with
+ * {@code keepFullHistory} nothing is released and a rebuild replays every event ever published.
+ */
+@Slf4j
+@Component
+public class ProjectionEngine implements DomainEventHandler {
+
+    private static final int SNAPSHOT_MAGIC = 0x50524a32;
+
+    private final ReadModels models = new ReadModels();
+    private final Path snapshotFile;
+    private final FileOutbox eventLog;
+    private final long snapshotIntervalNanos;
+    private final boolean rebuildOnStart;
+    private final boolean keepFullHistory;
+    private volatile long position;
+    private long lastSnapshot = System.nanoTime();
+
+    @Autowired
+    public ProjectionEngine(ProjectionProperties properties, ObjectProvider<FileOutbox> eventLog) {
+        this(Path.of(properties.snapshotFile()), eventLog.getIfAvailable(), properties.snapshotInterval(),
+                properties.rebuildOnStart(), properties.keepFullHistory());
+    }
+
+    ProjectionEngine(Path snapshotFile, FileOutbox eventLog, Duration snapshotInterval, boolean rebuildOnStart,
+                     boolean keepFullHistory) {
+        this.snapshotFile = snapshotFile;
+        this.eventLog = eventLog;
+        this.snapshotIntervalNanos = snapshotInterval.toNanos();
+        this.rebuildOnStart = rebuildOnStart;
+        this.keepFullHistory = keepFullHistory;
+    }
+
+    /**
+     * Brings the read models up to date with the event log before the bus starts delivering
+     */
+    @PostConstruct
+    public void load() throws IOException {
+        if (eventLog == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        if (!rebuildOnStart) {
+            restore();
+            release(position);
+        }
+        if (eventLog.firstOffset() > position) {
+            log.warn("Event log starts at {} but the read models are at {}; events in between are lost. "
+                    + "Set app.eventbus.outbox.retain-segments=true and app.projections.keep-full-history=true "
+                    + "to keep the full history.", eventLog.firstOffset(), position);
+        }
+        long before = position;
+        eventLog.read(position, this::apply);
+        log.info("Read models at event log position {} ({} bytes of events replayed in {} ms)",
+                position, position - before, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public void onEvent(DomainEvent event, long position, boolean endOfBatch) throws IOException {
+        if (eventLog == null) {
+            models.apply(event);
+            return;
+        }
+        if (position <= this.position) {
+            // already applied before a restart
+            return;
+        }
+        apply(event, position);
+        if (endOfBatch && System.nanoTime() - lastSnapshot >= snapshotIntervalNanos) {
+            snapshot();
+        }
+    }
+
+    public ProductDTO product(ProductId productId) {
+        return models.products.get(productId.value());
+    }
+
+    public OrderDTO order(OrderId orderId) {
+        return models.orders.get(orderId.value());
+    }
+
+    public CustomerDTO customer(CustomerId customerId) {
+        return models.customers.get(customerId.value());
+    }
+
+    /**
+     * Log position of the last event applied
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * Saves the read models; runs on the projection thread, or once it has stopped
+     */
+    @PreDestroy
+    public void snapshot() throws IOException {
+        if (eventLog == null) {
+            return;
+        }
+        Path parent = snapshotFile.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, snapshotFile.getFileName().toString(), ".tmp");
+        long saved = position;
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeLong(saved);
+                models.write(out);
+            }
+            Files.move(temp, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        lastSnapshot = System.nanoTime();
+        release(saved);
+    }
+
+    /**
+     * The snapshot covers the log up to {@code position}; a restart reads nothing before it
+     */
+    private void release(long position) {
+        if (!keepFullHistory) {
+            eventLog.release(position);
+        }
+    }
+
+    private void apply(DomainEvent event, long position) {
+        models.apply(event);
+        this.position = position;
+    }
+
+    private void restore() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a read model snapshot");
+            }
+            long snapshotPosition = in.readLong();
+            models.read(in);
+            position = snapshotPosition;
+        } catch (NoSuchFileException e) {
+            log.info("No read model snapshot at {}; rebuilding from the event log", snapshotFile);
+        } catch (IOException e) {
+            log.warn("Could not read read model snapshot {}; rebuilding from the event log", snapshotFile, e);
+            models.clear();
+            position = 0;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package dev.abbeytech.app.application.projection;
+
+import dev.abbeytech.app.application.dto.CustomerDTO;
+import dev.abbeytech.app.application.dto.OrderDTO;
+import dev.abbeytech.app.application.dto.ProductDTO;
+import dev.abbeytech.app.domain.event.CustomerRegisteredEvent;
+import dev.abbeytech.app.domain.event.DomainEvent;
+import dev.abbeytech.app.domain.event.OrderPlacedEvent;
+import dev.abbeytech.app.domain.event.OrderStatusChangedEvent;
+import dev.abbeytech.app.domain.event.ProductCreatedEvent;
+import dev.abbeytech.app.domain.model.order.OrderStatus;
+import dev.abbeytech.app.shared.model.CustomerId;
+import dev.abbeytech.app.shared.model.Email;
+import dev.abbeytech.app.shared.model.OrderId;
+import dev.abbeytech.app.shared.model.ProductId;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The denormalised, query-shaped views kept by {@link ProjectionEngine}, one map per view
+ * keyed by aggregate id. Views are immutable and replaced whole on every change, so readers
+ * on other threads always see a consistent view without locking. Only the projection thread
+ * writes.
+ */
+final class ReadModels {
+
+    final Map<Long, ProductDTO> products = new ConcurrentHashMap<>();
+    final Map<Long, CustomerDTO> customers = new ConcurrentHashMap<>();
+    final Map<Long, OrderDTO> orders = new ConcurrentHashMap<>();
+
+    void apply(DomainEvent event) {
+        switch (event) {
+            case ProductCreatedEvent e -> products.put(e.productId(),
+                    new ProductDTO(ProductId.of(e.productId()), e.name(), e.priceMinor(), e.currency(), e.stock(), 0));
+            case CustomerRegisteredEvent e -> customers.put(e.customerId(),
+                    new CustomerDTO(CustomerId.of(e.customerId()), e.name(), Email.of(e.email()), 0, null));
+            case OrderPlacedEvent e -> applyOrder(e);
+            case OrderStatusChangedEvent e -> orders.computeIfPresent(e.orderId(), (id, o) -> new OrderDTO(
+                    o.orderId(), o.customerId(), o.customerName(), o.customerEmail(), o.lines(), o.totalMinor(),
+                    o.currency(), e.status(), o.placedAt()));
+            default -> {
+                // not projected
+            }
+        }
+    }
+
+    private void applyOrder(OrderPlacedEvent e) {
+        List<OrderDTO.Line> lines = new ArrayList<>(e.lines().size());
+        for (OrderPlacedEvent.Line line : e.lines()) {
+            ProductDTO product = products.get(line.productId());
+            lines.add(new OrderDTO.Line(ProductId.of(line.productId()), product != null ? product.name() : null,
+                    line.quantity(), line.unitPriceMinor()));
+            if (product != null) {
+                products.put(line.productId(), new ProductDTO(product.productId(), product.name(),
+                        product.priceMinor(), product.currency(), product.stock(),
+                        product.unitsOrdered() + line.quantity()));
+            }
+        }
+        CustomerDTO customer = customers.get(e.customerId());
+        orders.put(e.orderId(), new OrderDTO(OrderId.of(e.orderId()), CustomerId.of(e.customerId()),
+                customer != null ? customer.name() : null, customer != null ? customer.email() : null,
+                lines, e.totalMinor(), e.currency(), OrderStatus.PLACED, e.occurredAt()));
+        if (customer != null) {
+            customers.put(e.customerId(), new CustomerDTO(customer.customerId(), customer.name(),
+                    customer.email(), customer.orderCount() + 1, e.occurredAt()));
+        }
+    }
+
+    void clear() {
+        products.clear();
+        customers.clear();
+        orders.clear();
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeInt(products.size());
+        for (ProductDTO p : products.values()) {
+            out.writeLong(p.productId().value());
+            out.writeUTF(p.name());
+            out.writeLong(p.priceMinor());
+            out.writeUTF(p.currency());
+            out.writeInt(p.stock());
+            out.writeLong(p.unitsOrdered());
+        }
+        out.writeInt(customers.size());
+        for (CustomerDTO c : customers.values()) {
+            out.writeLong(c.customerId().value());
+            out.writeUTF(c.name());
+            out.writeUTF(c.email().value());
+            out.writeInt(c.orderCount());
+            writeInstant(out, c.lastOrderAt());
+        }
+        out.writeInt(orders.size());
+        for (OrderDTO o : orders.values()) {
+            out.writeLong(o.orderId().value());
+            out.writeLong(o.customerId().value());
+            writeNullable(out, o.customerName());
+            writeNullable(out, o.customerEmail() != null ? o.customerEmail().value() : null);
+            out.writeInt(o.lines().size());
+            for (OrderDTO.Line line : o.lines()) {
+                out.writeLong(line.productId().value());
+                writeNullable(out, line.productName());
+                out.writeInt(line.quantity());
+                out.writeLong(line.unitPriceMinor());
+            }
+            out.writeLong(o.totalMinor());
+            out.writeUTF(o.currency());
+            out.writeUTF(o.status().name());
+            writeInstant(out, o.placedAt());
+        }
+    }
+
+    void read(DataInput in) throws IOException {
+        clear();
+        for (int n = in.readInt(); n > 0; n--) {
+            ProductDTO p = new ProductDTO(ProductId.of(in.readLong()), in.readUTF(), in.readLong(), in.readUTF(),
+                    in.readInt(), in.readLong());
+            products.put(p.productId().value(), p);
+        }
+        for (int n = in.readInt(); n > 0; n--) {
+            CustomerDTO c = new CustomerDTO(CustomerId.of(in.readLong()), in.readUTF(), Email.of(in.readUTF()),
+                    in.readInt(), readInstant(in));
+            customers.put(c.customerId().value(), c);
+        }
+        for (int n = in.readInt(); n > 0; n--) {
+            OrderId orderId = OrderId.of(in.readLong());
+            CustomerId customerId = CustomerId.of(in.readLong());
+            String customerName = readNullable(in);
+            String email = readNullable(in);
+            Email customerEmail = email != null ? Email.of(email) : null;
+            int count = in.readInt();
+            List<OrderDTO.Line> lines = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                lines.add(new OrderDTO.Line(ProductId.of(in.readLong()), readNullable(in), in.readInt(), in.readLong()));
+            }
+            orders.put(orderId.value(), new OrderDTO(orderId, customerId, customerName, customerEmail, lines, in.readLong(),
+                    in.readUTF(), OrderStatus.valueOf(in.readUTF()), readInstant(in)));
+        }
+    }
+
+    private static void writeNullable(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeInstant(DataOutput out, Instant instant) throws IOException {
+        out.writeBoolean(instant != null);
+        if (instant != null) {
+            out.writeLong(instant.getEpochSecond());
+            out.writeInt(instant.getNano());
+        }
+    }
+
+    private static Instant readInstant(DataInput in) throws IOException {
+        return in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+    }
+}
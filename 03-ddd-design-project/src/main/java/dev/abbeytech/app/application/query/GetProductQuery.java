@@ -0,0 +1,6 @@
+package dev.abbeytech.app.application.query;
+
+import dev.abbeytech.app.shared.model.ProductId;
+
+public record GetProductQuery(ProductId productId) {
+}
@@ -0,0 +1,33 @@
+package dev.abbeytech.app.application.query;
+
+import dev.abbeytech.app.application.dto.CustomerDTO;
+import dev.abbeytech.app.application.dto.OrderDTO;
+import dev.abbeytech.app.application.dto.ProductDTO;
+import dev.abbeytech.app.application.projection.ProjectionEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Answers queries from the projected read models: each is a single key lookup in memory.
+ * Read models trail the write side by however long the projection takes to see an event.
+ */
+@Service
+@RequiredArgsConstructor
+public class QueryService {
+
+    private final ProjectionEngine projections;
+
+    public Optional<ProductDTO> handle(GetProductQuery query) {
+        return Optional.ofNullable(projections.product(query.productId()));
+    }
+
+    public Optional<OrderDTO> handle(GetOrderQuery query) {
+        return Optional.ofNullable(projections.order(query.orderId()));
+    }
+
+    public Optional<CustomerDTO> handle(GetCustomerQuery query) {
+        return Optional.ofNullable(projections.customer(query.customerId()));
+    }
+}
@@ -0,0 +1,15 @@
+package dev.abbeytech.app.domain.event;
+
+import java.time.Instant;
+
+/**
+ * A new customer signed up
+ */
+public record CustomerRegisteredEvent(long customerId, String name, String email, Instant occurredAt)
+        implements DomainEvent {
+
+    @Override
+    public long aggregateId() {
+        return customerId;
+    }
+}
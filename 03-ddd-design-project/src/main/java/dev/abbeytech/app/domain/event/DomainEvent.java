@@ -0,0 +1,14 @@
+package dev.abbeytech.app.domain.event;
+
+import java.time.Instant;
+
+/**
+ * Something that happened to an aggregate. Events are immutable and identify their aggregate
+ * by its numeric id, so they can be routed and ordered per aggregate without decoding them.
+ */
+public interface DomainEvent {
+
+    long aggregateId();
+
+    Instant occurredAt();
+}
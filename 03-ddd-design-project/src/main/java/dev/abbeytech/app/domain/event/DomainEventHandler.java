@@ -0,0 +1,24 @@
+package dev.abbeytech.app.domain.event;
+
+/**
+ * Receives every published event on a thread of its own. Events arrive in batches:
+ * {@code endOfBatch} marks the last event currently available, which is the point to flush
+ * any work buffered across the batch.
+ *
+ * <p>Each event comes with its position in the event log. Positions grow with every event and
+ * survive restarts when the log is durable, so a handler that persists its state can record
+ * how far it got and skip events delivered again after a restart.
+ */
+public interface DomainEventHandler {
+
+    void onEvent(DomainEvent event, long position, boolean endOfBatch) throws Exception;
+
+    /**
+     * Whether an event this handler fails on is retried until it succeeds, holding back the
+     * events after it, rather than logged and skipped. Handlers that forward events elsewhere
+     * return {@code true}, so the event log is not checkpointed past events they lost.
+     */
+    default boolean retryFailures() {
+        return false;
+    }
+}
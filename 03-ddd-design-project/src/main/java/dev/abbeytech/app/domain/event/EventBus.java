@@ -0,0 +1,19 @@
+package dev.abbeytech.app.domain.event;
+
+import java.util.List;
+
+/**
+ * Publishes domain events to every {@link DomainEventHandler}. Publishing never waits for
+ * handlers; they see each publisher's events in the order that publisher published them.
+ */
+public interface EventBus {
+
+    void publish(DomainEvent event);
+
+    /**
+     * Publishes {@code events} in order; implementations may claim room for all of them at once
+     */
+    default void publishAll(List<? extends DomainEvent> events) {
+        events.forEach(this::publish);
+    }
+}
@@ -0,0 +1,22 @@
+package dev.abbeytech.app.domain.event;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A customer placed an order. Amounts are in minor units of {@code currency}.
+ */
+public record OrderPlacedEvent(long orderId, long customerId, List<Line> lines, long totalMinor, String currency,
+                               Instant occurredAt) implements DomainEvent {
+
+    public record Line(long productId, int quantity, long unitPriceMinor) {}
+
+    public OrderPlacedEvent {
+        lines = List.copyOf(lines);
+    }
+
+    @Override
+    public long aggregateId() {
+        return orderId;
+    }
+}
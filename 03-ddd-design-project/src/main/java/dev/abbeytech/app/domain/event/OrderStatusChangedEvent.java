@@ -0,0 +1,16 @@
+package dev.abbeytech.app.domain.event;
+
+import dev.abbeytech.app.domain.model.order.OrderStatus;
+
+import java.time.Instant;
+
+/**
+ * An order moved on in its lifecycle: it was paid for, shipped or cancelled
+ */
+public record OrderStatusChangedEvent(long orderId, OrderStatus status, Instant occurredAt) implements DomainEvent {
+
+    @Override
+    public long aggregateId() {
+        return orderId;
+    }
+}
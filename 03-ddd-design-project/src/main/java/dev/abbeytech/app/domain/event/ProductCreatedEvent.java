@@ -0,0 +1,15 @@
+package dev.abbeytech.app.domain.event;
+
+import java.time.Instant;
+
+/**
+ * A product was added to the catalogue. The price is in minor units of {@code currency}.
+ */
+public record ProductCreatedEvent(long productId, String name, long priceMinor, String currency, int stock,
+                                  Instant occurredAt) implements DomainEvent {
+
+    @Override
+    public long aggregateId() {
+        return productId;
+    }
+}
@@ -0,0 +1,11 @@
+package dev.abbeytech.app.domain.exception;
+
+/**
+ * Not enough unreserved stock of a product to reserve the requested quantity
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    public InsufficientStockException(long productId, int requested) {
+        super("Cannot reserve " + requested + " of product " + productId + ": not enough stock");
+    }
+}
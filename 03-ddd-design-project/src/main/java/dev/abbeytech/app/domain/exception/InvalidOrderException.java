@@ -0,0 +1,11 @@
+package dev.abbeytech.app.domain.exception;
+
+/**
+ * An order was built or changed in a way that breaks its rules
+ */
+public class InvalidOrderException extends RuntimeException {
+
+    public InvalidOrderException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package dev.abbeytech.app.domain.exception;
+
+/**
+ * An order was saved from a stale copy: someone else saved changes to it after it was loaded
+ */
+public class OrderVersionConflictException extends RuntimeException {
+
+    public OrderVersionConflictException(long orderId, long expectedVersion, long actualVersion) {
+        super("Order " + orderId + " is at version " + actualVersion + ", expected " + expectedVersion);
+    }
+}
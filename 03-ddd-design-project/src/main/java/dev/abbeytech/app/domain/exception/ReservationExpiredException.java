@@ -0,0 +1,11 @@
+package dev.abbeytech.app.domain.exception;
+
+/**
+ * A stock reservation was confirmed after it had expired or been released
+ */
+public class ReservationExpiredException extends RuntimeException {
+
+    public ReservationExpiredException(long reservationId) {
+        super("Reservation " + reservationId + " has expired or was released");
+    }
+}
@@ -0,0 +1,185 @@
+package dev.abbeytech.app.domain.model.order;
+
+import dev.abbeytech.app.domain.event.DomainEvent;
+import dev.abbeytech.app.domain.event.OrderPlacedEvent;
+import dev.abbeytech.app.domain.event.OrderStatusChangedEvent;
+import dev.abbeytech.app.domain.exception.InvalidOrderException;
+import dev.abbeytech.app.shared.model.Money;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * Order aggregate root. Its state is derived from its events: every change is recorded as a
+ * {@link DomainEvent} and applied, so an order can be stored as the events it has not yet
+ * committed and rebuilt by replaying them, optionally on top of a {@link Snapshot}.
+ *
+ * <p>{@link #version} counts the events applied, committed or not.
+ */
+public final class Order {
+
+    /**
+     * The full state of an order at {@code version}
+     */
+    public record Snapshot(long orderId, long customerId, List<OrderItem> items, String currency, OrderStatus status,
+                           Instant placedAt, long version) {
+
+        public Snapshot {
+            items = List.copyOf(items);
+        }
+    }
+
+    private long id;
+    private long customerId;
+    private OrderLines lines = OrderLines.of(List.of());
+    private String currency;
+    private OrderStatus status;
+    private Instant placedAt;
+    private long version;
+    private final List<DomainEvent> uncommitted = new ArrayList<>();
+
+    private Order() {
+    }
+
+    public static Order place(long orderId, long customerId, List<OrderItem> items, String currency, Instant now) {
+        if (items.isEmpty()) {
+            throw new InvalidOrderException("An order needs at least one item");
+        }
+        List<OrderPlacedEvent.Line> lines = new ArrayList<>(items.size());
+        for (OrderItem item : items) {
+            lines.add(new OrderPlacedEvent.Line(item.productId(), item.quantity(), item.unitPriceMinor()));
+        }
+        long total = OrderLines.of(items).totalMinor();
+        Order order = new Order();
+        order.raise(new OrderPlacedEvent(orderId, customerId, lines, total, currency, now));
+        return order;
+    }
+
+    /**
+     * Rebuilds an order from its history, or from a snapshot and the events after it
+     *
+     * @param snapshot the latest snapshot, or {@code null} to replay from the first event
+     */
+    public static Order replay(Snapshot snapshot, List<? extends DomainEvent> events) {
+        Order order = new Order();
+        if (snapshot != null) {
+            order.id = snapshot.orderId();
+            order.customerId = snapshot.customerId();
+            order.lines = OrderLines.of(snapshot.items());
+            order.currency = snapshot.currency();
+            order.status = snapshot.status();
+            order.placedAt = snapshot.placedAt();
+            order.version = snapshot.version();
+        }
+        events.forEach(order::apply);
+        return order;
+    }
+
+    public void pay(Instant now) {
+        requireStatus(OrderStatus.PLACED, "paid");
+        raise(new OrderStatusChangedEvent(id, OrderStatus.PAID, now));
+    }
+
+    public void ship(Instant now) {
+        requireStatus(OrderStatus.PAID, "shipped");
+        raise(new OrderStatusChangedEvent(id, OrderStatus.SHIPPED, now));
+    }
+
+    public void cancel(Instant now) {
+        if (status != OrderStatus.PLACED && status != OrderStatus.PAID) {
+            throw new InvalidOrderException("Order " + id + " is " + status + " and can no longer be cancelled");
+        }
+        raise(new OrderStatusChangedEvent(id, OrderStatus.CANCELLED, now));
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(id, customerId, lines.asList(), currency, status, placedAt, version);
+    }
+
+    /**
+     * Events raised since the order was loaded or last saved, oldest first
+     */
+    public List<DomainEvent> uncommittedEvents() {
+        return List.copyOf(uncommitted);
+    }
+
+    public void markCommitted() {
+        uncommitted.clear();
+    }
+
+    /**
+     * Sum of the lines in minor units of {@link #currency}; allocates nothing
+     */
+    public long totalMinor() {
+        return lines.totalMinor();
+    }
+
+    public Money total() {
+        return lines.total(Currency.getInstance(currency));
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public long customerId() {
+        return customerId;
+    }
+
+    public OrderLines lines() {
+        return lines;
+    }
+
+    public List<OrderItem> items() {
+        return lines.asList();
+    }
+
+    public String currency() {
+        return currency;
+    }
+
+    public OrderStatus status() {
+        return status;
+    }
+
+    public Instant placedAt() {
+        return placedAt;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    private void raise(DomainEvent event) {
+        apply(event);
+        uncommitted.add(event);
+    }
+
+    private void apply(DomainEvent event) {
+        switch (event) {
+            case OrderPlacedEvent e -> {
+                id = e.orderId();
+                customerId = e.customerId();
+                OrderLines.Builder builder = OrderLines.builder(e.lines().size());
+                for (OrderPlacedEvent.Line line : e.lines()) {
+                    builder.add(line.productId(), line.quantity(), line.unitPriceMinor());
+                }
+                lines = builder.build();
+                currency = e.currency();
+                status = OrderStatus.PLACED;
+                placedAt = e.occurredAt();
+            }
+            case OrderStatusChangedEvent e -> status = e.status();
+            default -> throw new IllegalArgumentException("Not an order event: " + event.getClass().getName());
+        }
+        version++;
+    }
+
+    private void requireStatus(OrderStatus required, String action) {
+        if (status != required) {
+            throw new InvalidOrderException("Order " + id + " is " + status + " and cannot be " + action);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package dev.abbeytech.app.domain.model.order;
+
+import dev.abbeytech.app.domain.exception.InvalidOrderException;
+
+/**
+ * One line of an order. The unit price is in minor units of the order's currency and is fixed
+ * when the order is placed.
+ */
+public record OrderItem(long productId, int quantity, long unitPriceMinor) {
+
+    public OrderItem {
+        validate(quantity, unitPriceMinor);
+    }
+
+    static void validate(int quantity, long unitPriceMinor) {
+        if (quantity <= 0) {
+            throw new InvalidOrderException("Quantity must be positive: " + quantity);
+        }
+        if (unitPriceMinor < 0) {
+            throw new InvalidOrderException("Unit price must not be negative: " + unitPriceMinor);
+        }
+    }
+
+    public long subtotalMinor() {
+        return Math.multiplyExact(unitPriceMinor, (long) quantity);
+    }
+}
@@ -0,0 +1,168 @@
+package dev.abbeytech.app.domain.model.order;
+
+import dev.abbeytech.app.shared.model.Money;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * The lines of an order held as parallel primitive arrays rather than a list of objects, so
+ * an order's lines take the same four objects however many there are and {@link #totalMinor}
+ * is a loop over two arrays that allocates nothing. Immutable.
+ */
+public final class OrderLines {
+
+    private static final OrderLines EMPTY = new OrderLines(new long[0], new int[0], new long[0]);
+
+    private final long[] productIds;
+    private final int[] quantities;
+    private final long[] unitPricesMinor;
+
+    private OrderLines(long[] productIds, int[] quantities, long[] unitPricesMinor) {
+        this.productIds = productIds;
+        this.quantities = quantities;
+        this.unitPricesMinor = unitPricesMinor;
+    }
+
+    public static OrderLines of(List<OrderItem> items) {
+        if (items.isEmpty()) {
+            return EMPTY;
+        }
+        Builder builder = new Builder(items.size());
+        for (OrderItem item : items) {
+            builder.add(item.productId(), item.quantity(), item.unitPriceMinor());
+        }
+        return builder.build();
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    public int size() {
+        return productIds.length;
+    }
+
+    public boolean isEmpty() {
+        return productIds.length == 0;
+    }
+
+    public long productId(int line) {
+        return productIds[line];
+    }
+
+    public int quantity(int line) {
+        return quantities[line];
+    }
+
+    public long unitPriceMinor(int line) {
+        return unitPricesMinor[line];
+    }
+
+    /**
+     * Sum of quantity times unit price over all lines
+     *
+     * @throws ArithmeticException on overflow
+     */
+    public long totalMinor() {
+        long total = 0;
+        for (int i = 0; i < unitPricesMinor.length; i++) {
+            total = Math.addExact(total, Math.multiplyExact(unitPricesMinor[i], (long) quantities[i]));
+        }
+        return total;
+    }
+
+    public Money total(Currency currency) {
+        return Money.ofMinor(totalMinor(), currency);
+    }
+
+    /**
+     * The lines as {@link OrderItem}s, created as they are read
+     */
+    public List<OrderItem> asList() {
+        return new AbstractList<>() {
+            @Override
+            public OrderItem get(int line) {
+                return new OrderItem(productIds[line], quantities[line], unitPricesMinor[line]);
+            }
+
+            @Override
+            public int size() {
+                return productIds.length;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof OrderLines other
+                && Arrays.equals(productIds, other.productIds)
+                && Arrays.equals(quantities, other.quantities)
+                && Arrays.equals(unitPricesMinor, other.unitPricesMinor);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(productIds) + Arrays.hashCode(quantities)) + Arrays.hashCode(unitPricesMinor);
+    }
+
+    @Override
+    public String toString() {
+        return asList().toString();
+    }
+
+    /**
+     * Collects lines for one {@link OrderLines}; it cannot be used again once built
+     */
+    public static final class Builder {
+
+        private long[] productIds;
+        private int[] quantities;
+        private long[] unitPricesMinor;
+        private int size;
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(1, expectedSize);
+            productIds = new long[capacity];
+            quantities = new int[capacity];
+            unitPricesMinor = new long[capacity];
+        }
+
+        /**
+         * @throws dev.abbeytech.app.domain.exception.InvalidOrderException if the quantity or price is invalid
+         */
+        public Builder add(long productId, int quantity, long unitPriceMinor) {
+            if (productIds == null) {
+                throw new IllegalStateException("Already built");
+            }
+            OrderItem.validate(quantity, unitPriceMinor);
+            if (size == productIds.length) {
+                int capacity = size * 2;
+                productIds = Arrays.copyOf(productIds, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                unitPricesMinor = Arrays.copyOf(unitPricesMinor, capacity);
+            }
+            productIds[size] = productId;
+            quantities[size] = quantity;
+            unitPricesMinor[size] = unitPriceMinor;
+            size++;
+            return this;
+        }
+
+        public OrderLines build() {
+            if (productIds == null) {
+                throw new IllegalStateException("Already built");
+            }
+            OrderLines lines = size == 0 ? EMPTY : size == productIds.length
+                    ? new OrderLines(productIds, quantities, unitPricesMinor)
+                    : new OrderLines(Arrays.copyOf(productIds, size), Arrays.copyOf(quantities, size),
+                            Arrays.copyOf(unitPricesMinor, size));
+            productIds = null;
+            quantities = null;
+            unitPricesMinor = null;
+            return lines;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package dev.abbeytech.app.domain.model.order;
+
+public enum OrderStatus {
+    PLACED,
+    PAID,
+    SHIPPED,
+    CANCELLED
+}
@@ -0,0 +1,19 @@
+package dev.abbeytech.app.domain.repository;
+
+import java.util.Map;
+
+/**
+ * Durable on-hand stock per product
+ */
+public interface InventoryRepository {
+
+    /**
+     * On-hand quantity of every product with stock recorded
+     */
+    Map<Long, Long> loadStock();
+
+    /**
+     * Adds each delta to its product's on-hand quantity, all or nothing
+     */
+    void applyStockChanges(Map<Long, Long> deltas);
+}
@@ -0,0 +1,18 @@
+package dev.abbeytech.app.domain.repository;
+
+import dev.abbeytech.app.domain.model.order.Order;
+
+import java.util.Optional;
+
+public interface OrderRepository {
+
+    Optional<Order> findById(long orderId);
+
+    /**
+     * Stores the order's uncommitted changes and marks them committed
+     *
+     * @throws dev.abbeytech.app.domain.exception.OrderVersionConflictException if the order was
+     *                                                                          changed since it was loaded
+     */
+    void save(Order order);
+}
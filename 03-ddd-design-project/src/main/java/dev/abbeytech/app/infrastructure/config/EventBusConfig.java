@@ -0,0 +1,25 @@
+package dev.abbeytech.app.infrastructure.config;
+
+import dev.abbeytech.app.infrastructure.messaging.outbox.FileOutbox;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+public class EventBusConfig {
+
+    /**
+     * The event log behind the bus. It is closed by the bus once the handlers have drained,
+     * not by the container.
+     */
+    @Bean(destroyMethod = "")
+    @ConditionalOnProperty(name = "app.eventbus.outbox.enabled", matchIfMissing = true)
+    public FileOutbox eventOutbox(EventBusProperties properties) throws IOException {
+        EventBusProperties.Outbox outbox = properties.outbox();
+        return new FileOutbox(Path.of(outbox.directory()), outbox.segmentSize().toBytes(), outbox.fsync(),
+                outbox.retainSegments());
+    }
+}
@@ -0,0 +1,41 @@
+package dev.abbeytech.app.infrastructure.config;
+
+import dev.abbeytech.app.infrastructure.messaging.eventbus.WaitStrategy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * In-process event bus settings mapped from properties with prefix "app.eventbus"
+ *
+ * @param bufferSize   ring slots, a power of two; publishers wait when the slowest handler is this far behind
+ * @param waitStrategy how idle handlers wait for events, from lowest latency to lowest CPU use:
+ *                     BUSY_SPIN, YIELDING, SLEEPING, BLOCKING
+ * @param outbox       the local log that lets unprocessed events survive a restart
+ */
+@ConfigurationProperties(prefix = "app.eventbus")
+public record EventBusProperties(
+        @DefaultValue("65536") int bufferSize,
+        @DefaultValue("SLEEPING") WaitStrategy.Type waitStrategy,
+        @DefaultValue Outbox outbox) {
+
+    /**
+     * @param enabled            journal events before handlers see them and replay unprocessed ones on startup
+     * @param directory          where the log segments and checkpoint are kept
+     * @param segmentSize        size at which a new segment file is started
+     * @param fsync              force each batch to disk before handing it to handlers
+     * @param checkpointInterval how often the processed position is recorded; a crash replays at most this much
+     * @param retainSegments     keep processed segments as the event history that read models are rebuilt from,
+     *                           until the projections release them (see app.projections.keep-full-history)
+     */
+    public record Outbox(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("data/outbox") String directory,
+            @DefaultValue("64MB") DataSize segmentSize,
+            @DefaultValue("true") boolean fsync,
+            @DefaultValue("100ms") Duration checkpointInterval,
+            @DefaultValue("true") boolean retainSegments) {
+    }
+}
@@ -0,0 +1,20 @@
+package dev.abbeytech.app.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Inventory reservation settings mapped from properties with prefix "app.inventory"
+ *
+ * @param reservationTtl how long reserved stock is held for an order before it is released unconfirmed
+ * @param flushInterval  how often confirmed stock changes are written to the inventory repository
+ * @param stockFile      where the file-backed inventory repository keeps on-hand stock
+ */
+@ConfigurationProperties(prefix = "app.inventory")
+public record InventoryProperties(
+        @DefaultValue("10m") Duration reservationTtl,
+        @DefaultValue("1s") Duration flushInterval,
+        @DefaultValue("data/inventory.stock") String stockFile) {
+}
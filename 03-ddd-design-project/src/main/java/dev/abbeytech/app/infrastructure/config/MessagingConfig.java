@@ -0,0 +1,23 @@
+package dev.abbeytech.app.infrastructure.config;
+
+import dev.abbeytech.app.infrastructure.messaging.transport.FileLogTransport;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+@ConditionalOnProperty(name = "app.messaging.enabled", havingValue = "true")
+public class MessagingConfig {
+
+    /**
+     * The embedded transport, used unless a Kafka broker is configured
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.messaging.transport", havingValue = "LOCAL", matchIfMissing = true)
+    public FileLogTransport fileLogTransport(MessagingProperties properties) throws IOException {
+        return new FileLogTransport(Path.of(properties.directory()), properties.partitions(), properties.fsync());
+    }
+}
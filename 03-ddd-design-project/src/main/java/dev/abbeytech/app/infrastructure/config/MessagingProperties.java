@@ -0,0 +1,53 @@
+package dev.abbeytech.app.infrastructure.config;
+
+import dev.abbeytech.app.infrastructure.messaging.transport.Compression;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Messaging settings mapped from properties with prefix "app.messaging"
+ *
+ * @param enabled    publish domain events to the message transport
+ * @param transport  LOCAL for the embedded file log, KAFKA for a broker (needs a build with -Pkafka)
+ * @param topic      topic domain events are sent to
+ * @param partitions partitions per topic of the local transport
+ * @param directory  where the local transport keeps its partition files and consumer offsets
+ * @param fsync      force each local append to disk before acknowledging it
+ * @param producer   batching of sent events
+ * @param kafka      broker connection, used when transport is KAFKA
+ */
+@ConfigurationProperties(prefix = "app.messaging")
+public record MessagingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("LOCAL") Transport transport,
+        @DefaultValue("domain-events") String topic,
+        @DefaultValue("8") int partitions,
+        @DefaultValue("data/messaging") String directory,
+        @DefaultValue("false") boolean fsync,
+        @DefaultValue Producer producer,
+        @DefaultValue Kafka kafka) {
+
+    public enum Transport {
+        LOCAL, KAFKA
+    }
+
+    /**
+     * @param linger      how long a partition's first unsent event waits for more to share its batch
+     * @param batchSize   events at which a batch is sent without waiting out the linger
+     * @param compression how batches are compressed: NONE or ZSTD
+     */
+    public record Producer(
+            @DefaultValue("5ms") Duration linger,
+            @DefaultValue("1000") int batchSize,
+            @DefaultValue("ZSTD") Compression compression) {
+    }
+
+    /**
+     * @param bootstrapServers comma-separated broker addresses
+     */
+    public record Kafka(
+            @DefaultValue("localhost:9092") String bootstrapServers) {
+    }
+}
@@ -0,0 +1,25 @@
+package dev.abbeytech.app.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Event-sourced order storage settings mapped from properties with prefix "app.orders.event-store"
+ *
+ * @param enabled       store orders as events in a local log
+ * @param directory     where the log segments are kept
+ * @param segmentSize   size of each preallocated segment file; must not change once the log has data
+ * @param fsync         force each group of appends to disk before the saves return
+ * @param snapshotEvery events after which an order's full state is written, so loading it replays no more than this
+ * @param maxBatch      most saves committed together by one disk sync
+ */
+@ConfigurationProperties(prefix = "app.orders.event-store")
+public record OrderStoreProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("data/orders") String directory,
+        @DefaultValue("64MB") DataSize segmentSize,
+        @DefaultValue("true") boolean fsync,
+        @DefaultValue("3") int snapshotEvery,
+        @DefaultValue("256") int maxBatch) {
+}
@@ -0,0 +1,24 @@
+package dev.abbeytech.app.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Read model projection settings mapped from properties with prefix "app.projections"
+ *
+ * @param snapshotFile     where the read models are saved, with the event log position they reflect
+ * @param snapshotInterval how often the read models are saved while events arrive
+ * @param rebuildOnStart   ignore the snapshot and replay the whole event log on startup
+ * @param keepFullHistory  keep every event log segment rather than releasing those below the last snapshot;
+ *                         needed for rebuildOnStart to replay from the first event, but the log then grows
+ *                         without bound
+ */
+@ConfigurationProperties(prefix = "app.projections")
+public record ProjectionProperties(
+        @DefaultValue("data/projections.snapshot") String snapshotFile,
+        @DefaultValue("30s") Duration snapshotInterval,
+        @DefaultValue("false") boolean rebuildOnStart,
+        @DefaultValue("false") boolean keepFullHistory) {
+}
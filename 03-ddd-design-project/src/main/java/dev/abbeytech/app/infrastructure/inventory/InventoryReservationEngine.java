@@ -0,0 +1,240 @@
+package dev.abbeytech.app.infrastructure.inventory;
+
+import dev.abbeytech.app.domain.exception.InsufficientStockException;
+import dev.abbeytech.app.domain.exception.ReservationExpiredException;
+import dev.abbeytech.app.domain.repository.InventoryRepository;
+import dev.abbeytech.app.infrastructure.config.InventoryProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reserves stock for orders in memory, so placing an order never takes a row lock on a hot
+ * product.
+ *
+ * <p>Each product's unreserved stock is a {@link StockCounter}, reserved from with
+ * compare-and-set and striped across cores once it gets contended. A reservation holds its
+ * stock for {@code reservationTtl}: confirming it makes the sale final, releasing it or
+ * letting it expire puts the stock back. Expiry is one periodic sweep of a {@link TimerWheel}
+ * per stripe rather than a timer per reservation; confirming or releasing takes the
+ * reservation off its wheel, so the wheels only hold reservations still open.
+ *
+ * <p>Only confirmed sales and restocks change on-hand stock. They are summed per product and
+ * written to the {@link InventoryRepository} in one batch every {@code flushInterval}; if a
+ * write fails the changes are kept for the next one. Stock still held by unconfirmed
+ * reservations is not written, so after a restart it is simply available again.
+ */
+@Slf4j
+@Component
+public class InventoryReservationEngine {
+
+    /**
+     * Stock held for an order until {@code expiresAtMillis}
+     */
+    public record Reservation(long id, long productId, int quantity, long expiresAtMillis) {}
+
+    private record Hold(Reservation reservation, TimerWheel.Timeout<Long> expiry) {}
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 1024;
+
+    private final InventoryRepository repository;
+    private final Clock clock;
+    private final long ttlMillis;
+    private final Map<Long, StockCounter> counters = new ConcurrentHashMap<>();
+    private final Map<Long, Hold> reservations = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> unflushed = new ConcurrentHashMap<>();
+    private final AtomicLong reservationIds = new AtomicLong();
+    private final TimerWheel<Long>[] wheels;
+    private final ScheduledExecutorService scheduler;
+
+    @Autowired
+    public InventoryReservationEngine(InventoryRepository repository, InventoryProperties properties) {
+        this(repository, properties.reservationTtl(), properties.flushInterval(), Clock.systemUTC());
+    }
+
+    @SuppressWarnings("unchecked")
+    InventoryReservationEngine(InventoryRepository repository, Duration reservationTtl, Duration flushInterval,
+                               Clock clock) {
+        this.repository = repository;
+        this.clock = clock;
+        this.ttlMillis = reservationTtl.toMillis();
+        repository.loadStock().forEach((productId, stock) -> counters.put(productId, new StockCounter(stock)));
+        this.wheels = new TimerWheel[StockCounter.STRIPES];
+        for (int i = 0; i < wheels.length; i++) {
+            wheels[i] = new TimerWheel<>(TICK_MILLIS, WHEEL_SIZE, clock.millis());
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "inventory-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::expire, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Holds {@code quantity} of a product for an order
+     *
+     * @throws InsufficientStockException if less than that is unreserved
+     */
+    public Reservation reserve(long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+        StockCounter counter = counters.get(productId);
+        if (counter == null || !counter.tryReserve(quantity)) {
+            throw new InsufficientStockException(productId, quantity);
+        }
+        Reservation reservation = new Reservation(reservationIds.incrementAndGet(), productId, quantity,
+                clock.millis() + ttlMillis);
+        TimerWheel<Long> wheel = wheel(reservation.id());
+        synchronized (wheel) {
+            // under the wheel's lock, so the sweep cannot see the timeout before the hold exists
+            reservations.put(reservation.id(),
+                    new Hold(reservation, wheel.schedule(reservation.id(), reservation.expiresAtMillis())));
+        }
+        return reservation;
+    }
+
+    /**
+     * Makes the sale final; the stock leaves on-hand inventory at the next flush
+     *
+     * @throws ReservationExpiredException if the reservation expired or was released first
+     */
+    public void confirm(long reservationId) {
+        Hold hold = remove(reservationId);
+        if (hold == null) {
+            throw new ReservationExpiredException(reservationId);
+        }
+        record(hold.reservation().productId(), -hold.reservation().quantity());
+    }
+
+    /**
+     * Puts the reserved stock back; does nothing if the reservation is already gone
+     */
+    public void release(long reservationId) {
+        Hold hold = remove(reservationId);
+        if (hold != null) {
+            counters.get(hold.reservation().productId()).add(hold.reservation().quantity());
+        }
+    }
+
+    /**
+     * Adds stock of a product, which need not have had any before
+     */
+    public void restock(long productId, long quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+        counters.computeIfAbsent(productId, id -> new StockCounter(0)).add(quantity);
+        record(productId, quantity);
+    }
+
+    /**
+     * Unreserved stock of a product
+     */
+    public long available(long productId) {
+        StockCounter counter = counters.get(productId);
+        return counter == null ? 0 : counter.available();
+    }
+
+    /**
+     * Number of reservations neither confirmed, released nor expired
+     */
+    public int openReservations() {
+        return reservations.size();
+    }
+
+    /**
+     * Writes the confirmed changes since the last flush to the repository
+     */
+    public void flush() {
+        Map<Long, Long> batch = new HashMap<>();
+        for (Map.Entry<Long, AtomicLong> entry : unflushed.entrySet()) {
+            long delta = entry.getValue().getAndSet(0);
+            if (delta != 0) {
+                batch.put(entry.getKey(), delta);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            repository.applyStockChanges(batch);
+        } catch (RuntimeException e) {
+            batch.forEach(this::record);
+            throw e;
+        }
+    }
+
+    void expire() {
+        long now = clock.millis();
+        for (TimerWheel<Long> wheel : wheels) {
+            synchronized (wheel) {
+                wheel.advance(now, (reservationId, deadline) -> release(reservationId));
+            }
+        }
+    }
+
+    /**
+     * Reservations waiting on the expiry wheels
+     */
+    int scheduledExpiries() {
+        int scheduled = 0;
+        for (TimerWheel<Long> wheel : wheels) {
+            synchronized (wheel) {
+                scheduled += wheel.size();
+            }
+        }
+        return scheduled;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        flush();
+    }
+
+    private TimerWheel<Long> wheel(long reservationId) {
+        return wheels[(int) reservationId & (wheels.length - 1)];
+    }
+
+    /**
+     * Ends a reservation and takes it off its wheel; a no-op on the wheel when it is expiring
+     */
+    private Hold remove(long reservationId) {
+        Hold hold = reservations.remove(reservationId);
+        if (hold != null) {
+            TimerWheel<Long> wheel = wheel(reservationId);
+            synchronized (wheel) {
+                wheel.cancel(hold.expiry());
+            }
+        }
+        return hold;
+    }
+
+    private void record(long productId, long delta) {
+        unflushed.computeIfAbsent(productId, id -> new AtomicLong()).addAndGet(delta);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Inventory flush failed; the changes will be retried with the next one", e);
+        }
+    }
+}
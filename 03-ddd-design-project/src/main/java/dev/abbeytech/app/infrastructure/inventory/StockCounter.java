@@ -0,0 +1,142 @@
+package dev.abbeytech.app.infrastructure.inventory;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Unreserved stock of one product that never goes below zero, taken with compare-and-set
+ * instead of a lock.
+ *
+ * <p>Stock starts out in a single {@code base} counter. When threads keep colliding on it, as
+ * on a flash-sale product, the counter grows one cell per stripe, each padded onto its own
+ * cache lines, and a thread then reserves from its own stripe's cell, refilling it from
+ * {@code base} in chunks. A thread whose cell and {@code base} are short looks in the other
+ * cells, and only if none of them holds enough on its own are the cells gathered back into
+ * {@code base} under a lock, so a reservation fails only when the whole counter is short.
+ * Stock returned or added always goes to {@code base}.
+ */
+final class StockCounter {
+
+    // next power of two at or above the core count, at most 64
+    static final int STRIPES = Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+    // longs per cell: 128 bytes, so neighbouring cells never share a cache line or its prefetch pair
+    private static final int PAD = 16;
+    private static final int INFLATE_AFTER = 32;
+
+    private final AtomicLong base;
+    private volatile AtomicLongArray cells;
+    // racy on purpose: it only decides when to inflate
+    private int collisions;
+
+    StockCounter(long stock) {
+        this.base = new AtomicLong(stock);
+    }
+
+    boolean tryReserve(long quantity) {
+        AtomicLongArray cs = cells;
+        if (cs == null) {
+            long v;
+            while ((v = base.get()) >= quantity) {
+                if (base.compareAndSet(v, v - quantity)) {
+                    return true;
+                }
+                if (++collisions >= INFLATE_AFTER) {
+                    return tryReserveStriped(inflate(), quantity);
+                }
+            }
+            return cells != null && gatherAndReserve(quantity);
+        }
+        return tryReserveStriped(cs, quantity);
+    }
+
+    void add(long quantity) {
+        base.addAndGet(quantity);
+    }
+
+    /**
+     * Unreserved stock; only a snapshot while reservations are in flight
+     */
+    long available() {
+        long sum = base.get();
+        AtomicLongArray cs = cells;
+        if (cs != null) {
+            for (int s = 0; s < STRIPES; s++) {
+                sum += cs.get(s * PAD);
+            }
+        }
+        return sum;
+    }
+
+    boolean striped() {
+        return cells != null;
+    }
+
+    private boolean tryReserveStriped(AtomicLongArray cs, long quantity) {
+        int home = stripe();
+        if (take(cs, home, quantity)) {
+            return true;
+        }
+        long v;
+        while ((v = base.get()) >= quantity) {
+            long chunk = Math.max(quantity, v / STRIPES);
+            if (base.compareAndSet(v, v - chunk)) {
+                if (chunk > quantity) {
+                    cs.getAndAdd(home * PAD, chunk - quantity);
+                }
+                return true;
+            }
+        }
+        for (int i = 1; i < STRIPES; i++) {
+            if (take(cs, (home + i) & (STRIPES - 1), quantity)) {
+                return true;
+            }
+        }
+        return gatherAndReserve(quantity);
+    }
+
+    private static boolean take(AtomicLongArray cs, int stripe, long quantity) {
+        int index = stripe * PAD;
+        long v;
+        while ((v = cs.get(index)) >= quantity) {
+            if (cs.compareAndSet(index, v, v - quantity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Slow path for stock spread too thinly over the cells: moves it all back to {@code base}
+     */
+    private synchronized boolean gatherAndReserve(long quantity) {
+        AtomicLongArray cs = cells;
+        if (cs != null) {
+            for (int s = 0; s < STRIPES; s++) {
+                long moved = cs.getAndSet(s * PAD, 0);
+                if (moved != 0) {
+                    base.addAndGet(moved);
+                }
+            }
+        }
+        long v;
+        while ((v = base.get()) >= quantity) {
+            if (base.compareAndSet(v, v - quantity)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized AtomicLongArray inflate() {
+        if (cells == null) {
+            cells = new AtomicLongArray(STRIPES * PAD);
+        }
+        return cells;
+    }
+
+    private static int stripe() {
+        long h = Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,129 @@
+package dev.abbeytech.app.infrastructure.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Hashed timer wheel for bulk expiry. Deadlines are bucketed by tick, so scheduling is O(1)
+ * and a single periodic {@link #advance} call expires everything that is due, instead of one
+ * scheduled task per entry. Deadlines more than one revolution away stay in their bucket until
+ * the wheel comes round to them again. Each bucket is a doubly linked list, so a timeout that
+ * is no longer wanted is taken off in O(1) with {@link #cancel} rather than lingering until
+ * its deadline. Not thread-safe; callers serialise access.
+ */
+final class TimerWheel<K> {
+
+    /**
+     * A scheduled key, to be passed to {@link #cancel} if it should not expire after all
+     */
+    static final class Timeout<K> {
+
+        private final K key;
+        private final long deadlineMillis;
+        private Timeout<K> prev;
+        private Timeout<K> next;
+        private int bucket = -1;
+
+        private Timeout(K key, long deadlineMillis) {
+            this.key = key;
+            this.deadlineMillis = deadlineMillis;
+        }
+    }
+
+    private final long tickMillis;
+    private final Timeout<K>[] heads;
+    private final int mask;
+    private long lastTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimerWheel(long tickMillis, int wheelSize, long nowMillis) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        this.tickMillis = tickMillis;
+        this.heads = new Timeout[wheelSize];
+        this.mask = wheelSize - 1;
+        this.lastTick = nowMillis / tickMillis;
+    }
+
+    Timeout<K> schedule(K key, long deadlineMillis) {
+        // first tick boundary at or after the deadline, but never a bucket already swept this revolution
+        long tick = Math.max((deadlineMillis + tickMillis - 1) / tickMillis, lastTick + 1);
+        Timeout<K> timeout = new Timeout<>(key, deadlineMillis);
+        link(timeout, (int) (tick & mask));
+        return timeout;
+    }
+
+    /**
+     * Takes a timeout off the wheel; returns {@code false} if it had already expired or been
+     * cancelled
+     */
+    boolean cancel(Timeout<K> timeout) {
+        if (timeout.bucket < 0) {
+            return false;
+        }
+        unlink(timeout);
+        return true;
+    }
+
+    /**
+     * Sweeps every bucket whose tick has passed and hands each due key and its deadline to
+     * {@code expired}
+     */
+    void advance(long nowMillis, BiConsumer<K, Long> expired) {
+        long nowTick = nowMillis / tickMillis;
+        long ticks = Math.min(nowTick - lastTick, heads.length);
+        List<Timeout<K>> due = new ArrayList<>();
+        for (long t = 1; t <= ticks; t++) {
+            Timeout<K> timeout = heads[(int) ((lastTick + t) & mask)];
+            while (timeout != null) {
+                Timeout<K> next = timeout.next;
+                if (timeout.deadlineMillis <= nowMillis) {
+                    unlink(timeout);
+                    due.add(timeout);
+                }
+                timeout = next;
+            }
+        }
+        lastTick = Math.max(lastTick, nowTick);
+        // off the wheel before any callback runs, so callbacks may cancel or schedule freely
+        for (Timeout<K> timeout : due) {
+            expired.accept(timeout.key, timeout.deadlineMillis);
+        }
+    }
+
+    /**
+     * Number of timeouts still on the wheel
+     */
+    int size() {
+        return size;
+    }
+
+    private void link(Timeout<K> timeout, int bucket) {
+        Timeout<K> head = heads[bucket];
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        heads[bucket] = timeout;
+        timeout.bucket = bucket;
+        size++;
+    }
+
+    private void unlink(Timeout<K> timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            heads[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+        size--;
+    }
+}
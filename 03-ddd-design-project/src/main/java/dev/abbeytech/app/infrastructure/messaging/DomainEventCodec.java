@@ -0,0 +1,124 @@
+package dev.abbeytech.app.infrastructure.messaging;
+
+import dev.abbeytech.app.domain.event.CustomerRegisteredEvent;
+import dev.abbeytech.app.domain.event.DomainEvent;
+import dev.abbeytech.app.domain.event.OrderPlacedEvent;
+import dev.abbeytech.app.domain.event.OrderStatusChangedEvent;
+import dev.abbeytech.app.domain.event.ProductCreatedEvent;
+import dev.abbeytech.app.domain.model.order.OrderStatus;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary form of domain events for logs and the wire: a one-byte type tag followed by
+ * the fields in declaration order, numbers fixed-width big-endian and strings as a length and
+ * UTF-8 bytes. Type tags are part of the stored format and must never be reused.
+ */
+public final class DomainEventCodec {
+
+    static final byte ORDER_PLACED = 1;
+    static final byte PRODUCT_CREATED = 2;
+    static final byte CUSTOMER_REGISTERED = 3;
+    static final byte ORDER_STATUS_CHANGED = 4;
+
+    private DomainEventCodec() {
+    }
+
+    /**
+     * Writes {@code event} at the buffer's position
+     *
+     * @throws java.nio.BufferOverflowException if it does not fit; the position is then undefined
+     */
+    public static void encode(DomainEvent event, ByteBuffer out) {
+        switch (event) {
+            case OrderPlacedEvent e -> {
+                out.put(ORDER_PLACED);
+                out.putLong(e.orderId());
+                out.putLong(e.customerId());
+                out.putInt(e.lines().size());
+                for (OrderPlacedEvent.Line line : e.lines()) {
+                    out.putLong(line.productId());
+                    out.putInt(line.quantity());
+                    out.putLong(line.unitPriceMinor());
+                }
+                out.putLong(e.totalMinor());
+                putString(out, e.currency());
+                putInstant(out, e.occurredAt());
+            }
+            case ProductCreatedEvent e -> {
+                out.put(PRODUCT_CREATED);
+                out.putLong(e.productId());
+                putString(out, e.name());
+                out.putLong(e.priceMinor());
+                putString(out, e.currency());
+                out.putInt(e.stock());
+                putInstant(out, e.occurredAt());
+            }
+            case CustomerRegisteredEvent e -> {
+                out.put(CUSTOMER_REGISTERED);
+                out.putLong(e.customerId());
+                putString(out, e.name());
+                putString(out, e.email());
+                putInstant(out, e.occurredAt());
+            }
+            case OrderStatusChangedEvent e -> {
+                out.put(ORDER_STATUS_CHANGED);
+                out.putLong(e.orderId());
+                putString(out, e.status().name());
+                putInstant(out, e.occurredAt());
+            }
+            default -> throw new IllegalArgumentException("No encoding for " + event.getClass().getName());
+        }
+    }
+
+    /**
+     * Reads one event from the buffer's position
+     */
+    public static DomainEvent decode(ByteBuffer in) {
+        byte type = in.get();
+        return switch (type) {
+            case ORDER_PLACED -> {
+                long orderId = in.getLong();
+                long customerId = in.getLong();
+                int count = in.getInt();
+                List<OrderPlacedEvent.Line> lines = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    lines.add(new OrderPlacedEvent.Line(in.getLong(), in.getInt(), in.getLong()));
+                }
+                yield new OrderPlacedEvent(orderId, customerId, lines, in.getLong(), getString(in), getInstant(in));
+            }
+            case PRODUCT_CREATED -> new ProductCreatedEvent(in.getLong(), getString(in), in.getLong(), getString(in),
+                    in.getInt(), getInstant(in));
+            case CUSTOMER_REGISTERED -> new CustomerRegisteredEvent(in.getLong(), getString(in), getString(in),
+                    getInstant(in));
+            case ORDER_STATUS_CHANGED -> new OrderStatusChangedEvent(in.getLong(), OrderStatus.valueOf(getString(in)),
+                    getInstant(in));
+            default -> throw new IllegalArgumentException("Unknown event type " + type);
+        };
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putInstant(ByteBuffer out, Instant instant) {
+        out.putLong(instant.getEpochSecond());
+        out.putInt(instant.getNano());
+    }
+
+    private static Instant getInstant(ByteBuffer in) {
+        return Instant.ofEpochSecond(in.getLong(), in.getInt());
+    }
+}
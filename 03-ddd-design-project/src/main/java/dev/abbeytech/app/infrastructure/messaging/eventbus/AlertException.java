@@ -0,0 +1,14 @@
+package dev.abbeytech.app.infrastructure.messaging.eventbus;
+
+/**
+ * Thrown out of a wait when the consumer is being stopped. A single stackless instance is
+ * reused, so alerting costs no allocation.
+ */
+final class AlertException extends Exception {
+
+    static final AlertException INSTANCE = new AlertException();
+
+    private AlertException() {
+        super(null, null, false, false);
+    }
+}
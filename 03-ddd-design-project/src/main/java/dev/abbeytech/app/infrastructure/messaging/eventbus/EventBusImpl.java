@@ -0,0 +1,239 @@
+package dev.abbeytech.app.infrastructure.messaging.eventbus;
+
+import dev.abbeytech.app.domain.event.DomainEvent;
+import dev.abbeytech.app.domain.event.DomainEventHandler;
+import dev.abbeytech.app.domain.event.EventBus;
+import dev.abbeytech.app.infrastructure.config.EventBusProperties;
+import dev.abbeytech.app.infrastructure.messaging.outbox.FileOutbox;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link EventBus} on a preallocated {@link RingBuffer}, in the style of the LMAX Disruptor.
+ * Publishing claims a slot with one CAS and never blocks on handlers unless the ring is full.
+ *
+ * <p>Consumers form a pipeline, each stage on its own thread:
+ * <ol>
+ *     <li>the outbox journal appends each batch to the {@link FileOutbox} and syncs it once</li>
+ *     <li>every {@link DomainEventHandler}, in parallel, sees only events that are already durable</li>
+ *     <li>the checkpointer records how far all handlers have got, so a restart replays only the rest</li>
+ * </ol>
+ * Delivery is at least once: events a handler may already have seen before a crash are
+ * delivered again after it. An event the journal fails to append or sync is retried until it
+ * succeeds, so handlers never run ahead of the outbox. An event a handler fails on is logged
+ * and skipped for that handler, unless the handler asks for {@link DomainEventHandler#retryFailures
+ * retries}: then it is retried, and the checkpoint stays behind it until it succeeds. Without
+ * the outbox the first and last stages are left out.
+ */
+@Slf4j
+@Component
+public class EventBusImpl implements EventBus {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(10);
+
+    private final RingBuffer ring;
+    private final FileOutbox outbox;
+    private final List<EventProcessor> processors = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private final Sequence[] drained;
+    private final Checkpointer checkpointer;
+    private List<FileOutbox.Entry> recovered = List.of();
+
+    @Autowired
+    public EventBusImpl(EventBusProperties properties, ObjectProvider<FileOutbox> outbox,
+                        ObjectProvider<DomainEventHandler> handlers) throws IOException {
+        this(properties.bufferSize(), WaitStrategy.of(properties.waitStrategy()), outbox.getIfAvailable(),
+                properties.outbox().checkpointInterval(), handlers.orderedStream().toList());
+    }
+
+    EventBusImpl(int bufferSize, WaitStrategy waitStrategy, FileOutbox outbox, Duration checkpointInterval,
+                 List<DomainEventHandler> handlers) throws IOException {
+        this.ring = new RingBuffer(bufferSize, waitStrategy);
+        this.outbox = outbox;
+
+        Sequence[] upstream = {};
+        if (outbox != null) {
+            recovered = outbox.recover();
+            EventProcessor journal = add("outbox-journal", ring.newBarrier(), new Journal(outbox), true);
+            upstream = new Sequence[]{journal.sequence()};
+        }
+
+        SequenceBarrier handlerBarrier = ring.newBarrier(upstream);
+        List<Sequence> handlerSequences = new ArrayList<>();
+        for (DomainEventHandler handler : handlers) {
+            EventProcessor processor = add(handler.getClass().getSimpleName(), handlerBarrier,
+                    (slot, sequence, endOfBatch) -> handler.onEvent(slot.event, position(slot, sequence), endOfBatch),
+                    handler.retryFailures());
+            handlerSequences.add(processor.sequence());
+        }
+        Sequence[] handled = handlerSequences.isEmpty() ? upstream : handlerSequences.toArray(Sequence[]::new);
+
+        if (outbox != null) {
+            checkpointer = new Checkpointer(outbox, checkpointInterval.toNanos());
+            EventProcessor tail = add("outbox-checkpoint", ring.newBarrier(handled), checkpointer, false);
+            drained = new Sequence[]{tail.sequence()};
+        } else {
+            checkpointer = null;
+            drained = handled;
+        }
+        ring.setGatingSequences(drained);
+    }
+
+    @PostConstruct
+    public void start() {
+        for (EventProcessor processor : processors) {
+            threads.add(Thread.ofPlatform().name("eventbus-" + processor.name()).daemon().start(processor));
+        }
+        if (!recovered.isEmpty()) {
+            log.info("Replaying {} events from the outbox", recovered.size());
+            for (FileOutbox.Entry entry : recovered) {
+                long sequence = ring.next(1);
+                RingBuffer.Slot slot = ring.get(sequence);
+                slot.event = entry.event();
+                slot.outboxOffset = entry.endOffset();
+                slot.replayed = true;
+                ring.publish(sequence);
+            }
+            recovered = List.of();
+        }
+    }
+
+    @Override
+    public void publish(DomainEvent event) {
+        long sequence = ring.next(1);
+        RingBuffer.Slot slot = ring.get(sequence);
+        slot.event = event;
+        slot.replayed = false;
+        ring.publish(sequence);
+    }
+
+    @Override
+    public void publishAll(List<? extends DomainEvent> events) {
+        int from = 0;
+        while (from < events.size()) {
+            int n = Math.min(events.size() - from, ring.size());
+            long high = ring.next(n);
+            long low = high - n + 1;
+            for (long sequence = low; sequence <= high; sequence++) {
+                RingBuffer.Slot slot = ring.get(sequence);
+                slot.event = events.get(from++);
+                slot.replayed = false;
+            }
+            ring.publish(low, high);
+        }
+    }
+
+    /**
+     * Waits for every stage to finish what has been published, then stops them and records
+     * the final checkpoint
+     */
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        long published = ring.cursor().get();
+        while (Sequence.minimum(drained, published) < published && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        stopProcessors();
+        if (outbox != null) {
+            if (checkpointer.lastOffset > 0) {
+                outbox.checkpoint(checkpointer.lastOffset);
+            }
+            outbox.close();
+        }
+    }
+
+    /**
+     * Stops consuming without draining or checkpointing, as a crash would
+     */
+    void halt() throws IOException, InterruptedException {
+        stopProcessors();
+        if (outbox != null) {
+            outbox.close();
+        }
+    }
+
+    private void stopProcessors() throws InterruptedException {
+        processors.forEach(EventProcessor::halt);
+        for (Thread thread : threads) {
+            thread.join(DRAIN_TIMEOUT.toMillis());
+        }
+    }
+
+    /**
+     * The event's outbox offset, which is stable across restarts, or else its ring sequence
+     */
+    private long position(RingBuffer.Slot slot, long sequence) {
+        return outbox != null ? slot.outboxOffset : sequence + 1;
+    }
+
+    private EventProcessor add(String name, SequenceBarrier barrier, EventProcessor.SlotHandler handler,
+                               boolean retryFailures) {
+        EventProcessor processor = new EventProcessor(name, ring, barrier, handler, retryFailures);
+        processors.add(processor);
+        return processor;
+    }
+
+    /**
+     * First stage: appends each new event to the outbox and syncs it at the end of every run.
+     * A failed append or sync is retried from the failed event on, so an event appended before
+     * the failure is not appended again.
+     */
+    private static final class Journal implements EventProcessor.SlotHandler {
+
+        private final FileOutbox outbox;
+        private long appended = Sequence.INITIAL;
+
+        Journal(FileOutbox outbox) {
+            this.outbox = outbox;
+        }
+
+        @Override
+        public void onSlot(RingBuffer.Slot slot, long sequence, boolean endOfBatch) throws IOException {
+            if (!slot.replayed && sequence > appended) {
+                slot.outboxOffset = outbox.append(slot.event);
+                appended = sequence;
+            }
+            if (endOfBatch) {
+                outbox.flush();
+            }
+        }
+    }
+
+    /**
+     * Last stage: remembers the outbox position every handler has passed and records it at
+     * most once per interval
+     */
+    private static final class Checkpointer implements EventProcessor.SlotHandler {
+
+        private final FileOutbox outbox;
+        private final long intervalNanos;
+        private long lastCheckpoint = System.nanoTime();
+        long lastOffset;
+
+        Checkpointer(FileOutbox outbox, long intervalNanos) {
+            this.outbox = outbox;
+            this.intervalNanos = intervalNanos;
+        }
+
+        @Override
+        public void onSlot(RingBuffer.Slot slot, long sequence, boolean endOfBatch) throws IOException {
+            lastOffset = slot.outboxOffset;
+            if (endOfBatch && System.nanoTime() - lastCheckpoint >= intervalNanos) {
+                outbox.checkpoint(lastOffset);
+                lastCheckpoint = System.nanoTime();
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package dev.abbeytech.app.infrastructure.messaging.eventbus;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs one consumer of the ring on its own thread. Each wait returns every event published
+ * since the last one, and the whole run is handed over before the consumer's sequence is
+ * advanced once, so a consumer that falls behind catches up in large batches.
+ *
+ * <p>An event the handler fails on is either skipped, so it does not stall everything behind
+ * it, or, for a stage later stages must not run ahead of, retried with backoff until it
+ * succeeds or the processor is halted; the sequence does not pass it in the meantime.
+ */
+@Slf4j
+final class EventProcessor implements Runnable {
+
+    /**
+     * Consumer callback; {@code endOfBatch} marks the last slot of the current run
+     */
+    @FunctionalInterface
+    interface SlotHandler {
+
+        void onSlot(RingBuffer.Slot slot, long sequence, boolean endOfBatch) throws Exception;
+    }
+
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final String name;
+    private final RingBuffer ring;
+    private final SequenceBarrier barrier;
+    private final SlotHandler handler;
+    private final boolean retryFailures;
+    private final Sequence sequence = new Sequence();
+    private volatile boolean running = true;
+
+    EventProcessor(String name, RingBuffer ring, SequenceBarrier barrier, SlotHandler handler,
+                   boolean retryFailures) {
+        this.name = name;
+        this.ring = ring;
+        this.barrier = barrier;
+        this.handler = handler;
+        this.retryFailures = retryFailures;
+    }
+
+    String name() {
+        return name;
+    }
+
+    Sequence sequence() {
+        return sequence;
+    }
+
+    @Override
+    public void run() {
+        long next = sequence.get() + 1;
+        long backoffNanos = 0;
+        while (true) {
+            try {
+                long available = barrier.waitFor(next);
+                while (next <= available) {
+                    handler.onSlot(ring.get(next), next, next == available);
+                    next++;
+                }
+                sequence.set(available);
+                backoffNanos = 0;
+            } catch (AlertException e) {
+                if (!running) {
+                    return;
+                }
+            } catch (Throwable e) {
+                log.error("Event consumer {} failed on sequence {}", name, next, e);
+                if (retryFailures) {
+                    // the sequence stays put and the next wait resumes at the failed event
+                    backoffNanos = Math.clamp(backoffNanos * 2, MIN_BACKOFF_NANOS, MAX_BACKOFF_NANOS);
+                    LockSupport.parkNanos(backoffNanos);
+                    if (!running) {
+                        return;
+                    }
+                } else {
+                    // skip the event that failed rather than stall everything behind it
+                    sequence.set(next);
+                    next++;
+                }
+            }
+        }
+    }
+
+    void halt() {
+        running = false;
+        barrier.alert();
+    }
+}
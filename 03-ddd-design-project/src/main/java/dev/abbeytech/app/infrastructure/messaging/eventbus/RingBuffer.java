@@ -0,0 +1,133 @@
+package dev.abbeytech.app.infrastructure.messaging.eventbus;
+
+import dev.abbeytech.app.domain.event.DomainEvent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed-size ring of preallocated {@link Slot}s shared by any number of publishers. A publisher
+ * claims the next sequence with a single CAS on the cursor, fills the slot and marks it
+ * published; no locks are taken and no per-event objects are created beyond the event itself.
+ *
+ * <p>Because claiming and publishing are separate steps, slots can be published out of order.
+ * Each slot therefore records the lap on which it was last published, and consumers only read
+ * up to the first slot not yet published on the current lap. Publishers never overtake the
+ * slowest consumer (the gating sequences): a full ring makes them wait.
+ */
+final class RingBuffer {
+
+    /**
+     * A preallocated entry, reused every lap
+     */
+    static final class Slot {
+
+        DomainEvent event;
+        // end of this event's record in the outbox, set by the journal
+        long outboxOffset;
+        // already in the outbox: replayed after a restart
+        boolean replayed;
+    }
+
+    private static final VarHandle AVAILABLE = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final Slot[] slots;
+    private final int mask;
+    private final int indexShift;
+    private final int[] published;
+    private final Sequence cursor = new Sequence();
+    private final Sequence gatingCache = new Sequence();
+    private final WaitStrategy waitStrategy;
+    private volatile Sequence[] gatingSequences = new Sequence[0];
+
+    RingBuffer(int size, WaitStrategy waitStrategy) {
+        if (size < 2 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Ring size must be a power of two: " + size);
+        }
+        this.slots = new Slot[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = size - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(size);
+        this.published = new int[size];
+        for (int i = 0; i < size; i++) {
+            AVAILABLE.setRelease(published, i, -1);
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    int size() {
+        return slots.length;
+    }
+
+    Sequence cursor() {
+        return cursor;
+    }
+
+    /**
+     * The consumers publishers must not overtake, i.e. the last ones in the pipeline
+     */
+    void setGatingSequences(Sequence... sequences) {
+        this.gatingSequences = sequences;
+    }
+
+    Slot get(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+
+    /**
+     * Claims the next {@code n} sequences, waiting while the ring is full; returns the highest
+     */
+    long next(int n) {
+        if (n < 1 || n > slots.length) {
+            throw new IllegalArgumentException("Cannot claim " + n + " slots of " + slots.length);
+        }
+        while (true) {
+            long current = cursor.get();
+            long next = current + n;
+            long wrapPoint = next - slots.length;
+            long cachedGating = gatingCache.get();
+            if (wrapPoint > cachedGating || cachedGating > current) {
+                long gating = Sequence.minimum(gatingSequences, current);
+                if (wrapPoint > gating) {
+                    // the slowest consumer has not freed the slots yet
+                    LockSupport.parkNanos(1);
+                    continue;
+                }
+                gatingCache.set(gating);
+            } else if (cursor.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    void publish(long sequence) {
+        AVAILABLE.setRelease(published, (int) sequence & mask, (int) (sequence >>> indexShift));
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    void publish(long low, long high) {
+        for (long sequence = low; sequence <= high; sequence++) {
+            AVAILABLE.setRelease(published, (int) sequence & mask, (int) (sequence >>> indexShift));
+        }
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    /**
+     * Highest sequence in {@code [low, available]} before which every sequence is published
+     */
+    long highestPublished(long low, long available) {
+        for (long sequence = low; sequence <= available; sequence++) {
+            if ((int) AVAILABLE.getAcquire(published, (int) sequence & mask) != (int) (sequence >>> indexShift)) {
+                return sequence - 1;
+            }
+        }
+        return available;
+    }
+
+    SequenceBarrier newBarrier(Sequence... dependencies) {
+        return new SequenceBarrier(this, waitStrategy, dependencies);
+    }
+}
@@ -0,0 +1,43 @@
+package dev.abbeytech.app.infrastructure.messaging.eventbus;
+
+/**
+ * What a consumer waits on: the ring's published sequences and, for consumers further down
+ * the pipeline, the sequences of the consumers it runs behind
+ */
+final class SequenceBarrier {
+
+    private final RingBuffer ring;
+    private final WaitStrategy waitStrategy;
+    private final Sequence[] dependencies;
+    private volatile boolean alerted;
+
+    SequenceBarrier(RingBuffer ring, WaitStrategy waitStrategy, Sequence[] dependencies) {
+        this.ring = ring;
+        this.waitStrategy = waitStrategy;
+        this.dependencies = dependencies;
+    }
+
+    /**
+     * Returns the highest published sequence at or after {@code sequence} that is safe to read,
+     * or less than {@code sequence} if a producer has claimed but not yet published it
+     */
+    long waitFor(long sequence) throws AlertException {
+        checkAlert();
+        long available = waitStrategy.waitFor(sequence, ring.cursor(), dependencies, this);
+        if (available < sequence) {
+            return available;
+        }
+        return ring.highestPublished(sequence, available);
+    }
+
+    void alert() {
+        alerted = true;
+        waitStrategy.signalAllWhenBlocking();
+    }
+
+    void checkAlert() throws AlertException {
+        if (alerted) {
+            throw AlertException.INSTANCE;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package dev.abbeytech.app.infrastructure.messaging.eventbus;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * How a consumer waits for the next sequence to be published. The strategies trade latency
+ * against CPU use: {@link Type#BUSY_SPIN} and {@link Type#YIELDING} keep a core busy for the
+ * lowest latency, {@link Type#SLEEPING} backs off to short parks when idle, and
+ * {@link Type#BLOCKING} sleeps on a condition that publishers signal.
+ */
+public interface WaitStrategy {
+
+    enum Type {
+        BUSY_SPIN, YIELDING, SLEEPING, BLOCKING
+    }
+
+    static WaitStrategy of(Type type) {
+        return switch (type) {
+            case BUSY_SPIN -> new BusySpin();
+            case YIELDING -> new Yielding();
+            case SLEEPING -> new Sleeping();
+            case BLOCKING -> new Blocking();
+        };
+    }
+
+    /**
+     * Waits until {@code sequence} is published and every dependency has passed it; returns
+     * the highest sequence that is safe to read, which may be well beyond {@code sequence}
+     */
+    long waitFor(long sequence, Sequence cursor, Sequence[] dependencies, SequenceBarrier barrier)
+            throws AlertException;
+
+    /**
+     * Called by publishers after each publish; only blocking strategies need to act on it
+     */
+    default void signalAllWhenBlocking() {
+    }
+
+    private static long available(Sequence cursor, Sequence[] dependencies) {
+        return dependencies.length == 0 ? cursor.get() : Sequence.minimum(dependencies, Long.MAX_VALUE);
+    }
+
+    final class BusySpin implements WaitStrategy {
+
+        @Override
+        public long waitFor(long sequence, Sequence cursor, Sequence[] dependencies, SequenceBarrier barrier)
+                throws AlertException {
+            long available;
+            while ((available = available(cursor, dependencies)) < sequence) {
+                barrier.checkAlert();
+                Thread.onSpinWait();
+            }
+            return available;
+        }
+    }
+
+    final class Yielding implements WaitStrategy {
+
+        private static final int SPIN_TRIES = 100;
+
+        @Override
+        public long waitFor(long sequence, Sequence cursor, Sequence[] dependencies, SequenceBarrier barrier)
+                throws AlertException {
+            int counter = SPIN_TRIES;
+            long available;
+            while ((available = available(cursor, dependencies)) < sequence) {
+                barrier.checkAlert();
+                if (counter > 0) {
+                    counter--;
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+            return available;
+        }
+    }
+
+    final class Sleeping implements WaitStrategy {
+
+        private static final int RETRIES = 200;
+        private static final long SLEEP_NANOS = 100_000;
+
+        @Override
+        public long waitFor(long sequence, Sequence cursor, Sequence[] dependencies, SequenceBarrier barrier)
+                throws AlertException {
+            int counter = RETRIES;
+            long available;
+            while ((available = available(cursor, dependencies)) < sequence) {
+                barrier.checkAlert();
+                if (counter > 100) {
+                    counter--;
+                    Thread.onSpinWait();
+                } else if (counter > 0) {
+                    counter--;
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(SLEEP_NANOS);
+                }
+            }
+            return available;
+        }
+    }
+
+    final class Blocking implements WaitStrategy {
+
+        private final Lock lock = new ReentrantLock();
+        private final Condition published = lock.newCondition();
+
+        @Override
+        public long waitFor(long sequence, Sequence cursor, Sequence[] dependencies, SequenceBarrier barrier)
+                throws AlertException {
+            if (cursor.get() < sequence) {
+                lock.lock();
+                try {
+                    while (cursor.get() < sequence) {
+                        barrier.checkAlert();
+                        published.awaitUninterruptibly();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            // dependencies are other consumers, which do not signal; they are never far behind
+            long available;
+            while ((available = available(cursor, dependencies)) < sequence) {
+                barrier.checkAlert();
+                Thread.onSpinWait();
+            }
+            return available;
+        }
+
+        @Override
+        public void signalAllWhenBlocking() {
+            lock.lock();
+            try {
+                published.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package dev.abbeytech.app.infrastructure.messaging.kafka.consumer;
+
+import dev.abbeytech.app.domain.event.DomainEvent;
+import dev.abbeytech.app.domain.event.DomainEventHandler;
+import dev.abbeytech.app.infrastructure.messaging.DomainEventCodec;
+import dev.abbeytech.app.infrastructure.messaging.transport.MessageBatch;
+import dev.abbeytech.app.infrastructure.messaging.transport.MessageTransport;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Consumes a topic of the {@link MessageTransport} for one consumer group and applies the
+ * events on several lanes at once while keeping every aggregate's events in order.
+ *
+ * <p>One poller thread fetches batches from all partitions and hands each event to the lane its
+ * aggregate id hashes to, so one aggregate's events always go to the same lane, in the order
+ * they were stored. Each lane is a virtual thread with a bounded queue; it takes whatever has
+ * queued up, up to {@code maxBatch} events, and passes them to the handler as one batch,
+ * {@code endOfBatch} marking the last. A handler failure is retried with the same events, so a
+ * lane stalls rather than applying an aggregate's events out of order.
+ *
+ * <p>A fetched batch is done once every lane has applied its events. The committed offset of a
+ * partition is its low-water mark: the first batch not yet done, so after a restart nothing is
+ * skipped, though some events may be applied again. Events sent again by a producer, which
+ * carry an id no higher than one the same producer already delivered to the partition, are
+ * dropped. Ids are only compared within one producer id: a producer's ids are not comparable
+ * with those of another, or of the same service after a restart when they are ring sequences.
+ *
+ * <p>The handler is called from all lanes at once, but for any one aggregate from one lane only.
+ *
+ * <p>This application only produces to the topic, so no consumer is created here; a service
+ * consuming it creates one per consumer group and binds it to its {@link MeterRegistry} for
+ * the per-lane and per-partition metrics.
+ */
+@Slf4j
+public class EventConsumer implements MeterBinder, Closeable {
+
+    /**
+     * A lane's applied events and those queued for it but not yet applied
+     */
+    public record LaneStats(int lane, long applied, long backlog) {}
+
+    private static final int FETCH_BATCHES = 16;
+    private static final int LANE_QUEUE = 4096;
+    private static final long IDLE_MILLIS = 10;
+    private static final long RETRY_BACKOFF_MILLIS = 100;
+
+    private record Delivery(long id, byte[] value, Fetched batch) {}
+
+    /**
+     * A fetched batch and how many of its events are still to be applied
+     */
+    private record Fetched(long offset, AtomicInteger remaining) {}
+
+    private final MessageTransport transport;
+    private final String topic;
+    private final String group;
+    private final DomainEventHandler handler;
+    private final int maxBatch;
+    private final long commitIntervalNanos;
+    private final Lane[] lanes;
+    private final PartitionState[] partitions;
+    private final Thread poller;
+    private volatile boolean running = true;
+    // set once the poller has stopped, so lanes know nothing more will be queued
+    private volatile boolean polled;
+
+    /**
+     * @param lanes          number of lanes events are spread over by aggregate id
+     * @param maxBatch       most events a lane passes to the handler at once
+     * @param commitInterval how often the low-water mark is committed while events are flowing
+     */
+    public EventConsumer(MessageTransport transport, String topic, String group, DomainEventHandler handler,
+                         int lanes, int maxBatch, Duration commitInterval) throws IOException {
+        this.transport = transport;
+        this.topic = topic;
+        this.group = group;
+        this.handler = handler;
+        this.maxBatch = maxBatch;
+        this.commitIntervalNanos = commitInterval.toNanos();
+        this.partitions = new PartitionState[transport.partitions(topic)];
+        for (int p = 0; p < partitions.length; p++) {
+            partitions[p] = new PartitionState(transport.committed(group, topic, p));
+        }
+        this.lanes = new Lane[lanes];
+        for (int i = 0; i < lanes; i++) {
+            this.lanes[i] = new Lane(i);
+        }
+        this.poller = Thread.ofPlatform().name("event-consumer-" + group).daemon().start(this::poll);
+    }
+
+    /**
+     * Per-lane counts, in lane order
+     */
+    public List<LaneStats> lanes() {
+        return Arrays.stream(lanes).map(lane -> new LaneStats(lane.index, lane.applied.get(), lane.backlog())).toList();
+    }
+
+    /**
+     * Batches stored in the partition after the group's committed offset
+     */
+    public long lag(int partition) {
+        PartitionState state = partitions[partition];
+        return Math.max(0, state.endOffset - state.committed);
+    }
+
+    /**
+     * Offset the group has committed for the partition, as of the last commit
+     */
+    public long committed(int partition) {
+        return partitions[partition].committed;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Lane lane : lanes) {
+            String index = Integer.toString(lane.index);
+            Gauge.builder("messaging.consumer.lane.backlog", lane, Lane::backlog)
+                    .description("Events queued for the lane but not yet applied")
+                    .tags("group", group, "lane", index)
+                    .register(registry);
+            FunctionCounter.builder("messaging.consumer.lane.applied", lane.applied, AtomicLong::get)
+                    .description("Events the lane has applied")
+                    .tags("group", group, "lane", index)
+                    .register(registry);
+        }
+        for (int p = 0; p < partitions.length; p++) {
+            int partition = p;
+            Gauge.builder("messaging.consumer.partition.lag", this, consumer -> consumer.lag(partition))
+                    .description("Batches in the partition after the committed offset")
+                    .tags("group", group, "topic", topic, "partition", Integer.toString(partition))
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Stops fetching, lets the lanes apply what they already have, and commits how far they got.
+     * Events the poller could not hand to a lane any more stay uncommitted.
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            poller.join();
+            polled = true;
+            for (Lane lane : lanes) {
+                lane.thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        commit();
+    }
+
+    private void poll() {
+        long lastCommit = System.nanoTime();
+        while (running) {
+            boolean fetched = false;
+            try {
+                for (int p = 0; p < partitions.length; p++) {
+                    fetched |= fetch(p);
+                }
+                if (System.nanoTime() - lastCommit >= commitIntervalNanos) {
+                    commit();
+                    lastCommit = System.nanoTime();
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Consumer {} failed to poll {}, retrying", group, topic, e);
+                sleep(RETRY_BACKOFF_MILLIS);
+            }
+            if (!fetched) {
+                sleep(IDLE_MILLIS);
+            }
+        }
+    }
+
+    private boolean fetch(int partition) throws IOException {
+        PartitionState state = partitions[partition];
+        List<MessageTransport.StoredBatch> batches = transport.fetch(topic, partition, state.nextFetch, FETCH_BATCHES);
+        for (MessageTransport.StoredBatch stored : batches) {
+            MessageBatch decoded = MessageBatch.decode(stored.batch());
+            List<MessageBatch.Message> messages = decoded.messages();
+            // one extra count, released once every event has been handed out
+            Fetched batch = new Fetched(stored.offset(), new AtomicInteger(messages.size() + 1));
+            synchronized (state) {
+                state.inFlight.add(batch);
+            }
+            long lastId = state.lastIds.getOrDefault(decoded.producerId(), -1L);
+            for (MessageBatch.Message message : messages) {
+                if (message.id() <= lastId) {
+                    batch.remaining().decrementAndGet();
+                    continue;
+                }
+                lastId = message.id();
+                if (!lanes[lane(message.key())].put(new Delivery(message.id(), message.value(), batch))) {
+                    // closing: the batch is never done, so it is fetched again after a restart
+                    return true;
+                }
+            }
+            state.lastIds.put(decoded.producerId(), lastId);
+            batch.remaining().decrementAndGet();
+            state.nextFetch = stored.offset() + 1;
+        }
+        state.endOffset = transport.endOffset(topic, partition);
+        return !batches.isEmpty();
+    }
+
+    private synchronized void commit() throws IOException {
+        for (int p = 0; p < partitions.length; p++) {
+            PartitionState state = partitions[p];
+            long lowWaterMark;
+            synchronized (state) {
+                while (!state.inFlight.isEmpty() && state.inFlight.peekFirst().remaining().get() == 0) {
+                    state.doneUpTo = state.inFlight.pollFirst().offset() + 1;
+                }
+                lowWaterMark = state.doneUpTo;
+            }
+            if (lowWaterMark > state.committed) {
+                transport.commit(group, topic, p, lowWaterMark);
+                state.committed = lowWaterMark;
+            }
+        }
+    }
+
+    private int lane(long aggregateId) {
+        // a different mix from the producer's partitioning, so a partition's aggregates spread over all lanes
+        long h = aggregateId * 0xC2B2AE3D27D4EB4FL;
+        return (int) Math.floorMod(h >>> 29, (long) lanes.length);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class PartitionState {
+
+        // batches fetched and not yet known to be done, oldest first
+        private final ArrayDeque<Fetched> inFlight = new ArrayDeque<>();
+        private long nextFetch;
+        private long doneUpTo;
+        // highest id delivered per producer id
+        private final Map<Long, Long> lastIds = new HashMap<>();
+        private volatile long committed;
+        private volatile long endOffset;
+
+        PartitionState(long committed) {
+            this.nextFetch = committed;
+            this.doneUpTo = committed;
+            this.committed = committed;
+        }
+    }
+
+    private final class Lane {
+
+        private final int index;
+        private final BlockingQueue<Delivery> queue = new ArrayBlockingQueue<>(LANE_QUEUE);
+        private final AtomicLong dispatched = new AtomicLong();
+        private final AtomicLong applied = new AtomicLong();
+        private final Thread thread;
+
+        Lane(int index) {
+            this.index = index;
+            this.thread = Thread.ofVirtual().name("event-consumer-" + group + "-lane-" + index).start(this::run);
+        }
+
+        /**
+         * @return false if the consumer is closing before the lane had room: it may have stopped
+         * with a failing handler and will not take any more
+         */
+        boolean put(Delivery delivery) {
+            dispatched.incrementAndGet();
+            try {
+                while (!queue.offer(delivery, IDLE_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (!running) {
+                        dispatched.decrementAndGet();
+                        return false;
+                    }
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted handing an event to lane " + index, e);
+            }
+        }
+
+        long backlog() {
+            return dispatched.get() - applied.get();
+        }
+
+        private void run() {
+            List<Delivery> batch = new ArrayList<>(maxBatch);
+            List<DomainEvent> events = new ArrayList<>(maxBatch);
+            while (!polled || !queue.isEmpty()) {
+                try {
+                    Delivery first = queue.poll(IDLE_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatch - 1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (Delivery delivery : batch) {
+                    events.add(DomainEventCodec.decode(ByteBuffer.wrap(delivery.value())));
+                }
+                if (!apply(batch, events)) {
+                    // closing with a failing handler: leave the rest uncommitted for the next run
+                    return;
+                }
+                for (Delivery delivery : batch) {
+                    delivery.batch().remaining().decrementAndGet();
+                }
+                applied.addAndGet(batch.size());
+                batch.clear();
+                events.clear();
+            }
+        }
+
+        private boolean apply(List<Delivery> batch, List<DomainEvent> events) {
+            while (true) {
+                try {
+                    for (int i = 0; i < events.size(); i++) {
+                        handler.onEvent(events.get(i), batch.get(i).id(), i == events.size() - 1);
+                    }
+                    return true;
+                } catch (Exception e) {
+                    if (!running) {
+                        log.error("Lane {} of consumer {} is closing with {} events it could not apply", index,
+                                group, batch.size(), e);
+                        return false;
+                    }
+                    log.warn("Lane {} of consumer {} failed to apply {} events, retrying", index, group,
+                            batch.size(), e);
+                    sleep(RETRY_BACKOFF_MILLIS);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package dev.abbeytech.app.infrastructure.messaging.kafka.producer;
+
+import dev.abbeytech.app.domain.event.DomainEvent;
+import dev.abbeytech.app.domain.event.DomainEventHandler;
+import dev.abbeytech.app.infrastructure.config.MessagingProperties;
+import dev.abbeytech.app.infrastructure.messaging.DomainEventCodec;
+import dev.abbeytech.app.infrastructure.messaging.outbox.FileOutbox;
+import dev.abbeytech.app.infrastructure.messaging.transport.Compression;
+import dev.abbeytech.app.infrastructure.messaging.transport.MessageBatch;
+import dev.abbeytech.app.infrastructure.messaging.transport.MessageTransport;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends domain events to a topic of the {@link MessageTransport}, keyed by aggregate id so all
+ * events of one aggregate land in one partition, in order.
+ *
+ * <p>Events are collected per partition and sent as one compressed {@link MessageBatch} when
+ * {@code batchSize} have gathered or the oldest has waited {@code linger}, by a single sender
+ * thread. Every batch carries this producer's id and a per-partition sequence number, and a
+ * failed send is retried with the same sequence, so a retry after a lost acknowledgement is not
+ * stored twice. Each message carries an idempotency id chosen by the caller; for events from
+ * the event bus it is their event log position, which stays the same when the bus replays them
+ * after a restart. So that consumers recognise those replays, the producer id is kept next to
+ * the event log and reused for as long as the log exists, under a new epoch on every start;
+ * without an event log, positions start over on every start and so does the producer id.
+ *
+ * <p>A batch that still fails after {@value #MAX_ATTEMPTS} attempts is held back together with
+ * every batch of its partition sealed after it, since sending those would leave a gap in the
+ * partition, and the {@link #flush} waiting for them fails. The held batches are sent again, in
+ * order and with their original sequence numbers, by the next flush or after
+ * {@value #HOLD_MILLIS} ms, so an outage delays a partition rather than ending it.
+ *
+ * <p>As an event bus handler it sends what it has at the end of every bus batch and waits for
+ * it. It asks the bus to {@link #retryFailures retry} a failed flush, so the bus only
+ * checkpoints past events the transport has acknowledged.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.messaging.enabled", havingValue = "true")
+public class EventProducer implements DomainEventHandler {
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long RETRY_BACKOFF_MILLIS = 100;
+    private static final int MAX_SEALED = 256;
+    private static final long HOLD_MILLIS = 1000;
+
+    private record Sealed(int partition, MessageBatch batch, CompletableFuture<Long> sent) {}
+
+    private final MessageTransport transport;
+    private final String topic;
+    private final Compression compression;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final ProducerIdentity identity;
+    private final Accumulator[] accumulators;
+    private final AtomicInteger sealedCount = new AtomicInteger();
+    private final AtomicInteger heldCount = new AtomicInteger();
+    private final Thread sender;
+    private final ThreadLocal<ByteBuffer> scratch = ThreadLocal.withInitial(() -> ByteBuffer.allocate(4096));
+    private volatile boolean running = true;
+
+    @Autowired
+    public EventProducer(MessageTransport transport, MessagingProperties properties, ObjectProvider<FileOutbox> outbox)
+            throws IOException {
+        this(transport, properties.topic(), properties.producer().compression(), properties.producer().batchSize(),
+                properties.producer().linger(), identity(outbox.getIfAvailable()));
+    }
+
+    EventProducer(MessageTransport transport, String topic, Compression compression, int batchSize, Duration linger,
+                  ProducerIdentity identity) {
+        this.identity = identity;
+        this.transport = transport;
+        this.topic = topic;
+        this.compression = compression;
+        this.batchSize = batchSize;
+        this.lingerNanos = linger.toNanos();
+        this.accumulators = new Accumulator[transport.partitions(topic)];
+        for (int i = 0; i < accumulators.length; i++) {
+            accumulators[i] = new Accumulator(i);
+        }
+        this.sender = Thread.ofPlatform().name("event-producer").daemon().start(this::run);
+    }
+
+    /**
+     * Queues an event for sending; blocks only when the sender is far behind
+     *
+     * @param id idempotency id: the same for every send of the same event
+     */
+    public void send(DomainEvent event, long id) {
+        Accumulator accumulator = accumulators[partition(event.aggregateId())];
+        MessageBatch.Message message = new MessageBatch.Message(event.aggregateId(), id, encode(event));
+        if (accumulator.add(message)) {
+            LockSupport.unpark(sender);
+            while (sealedCount.get() + heldCount.get() > MAX_SEALED && running) {
+                // the sender is far behind: wait for it rather than buffer without bound
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            }
+        }
+    }
+
+    /**
+     * Sends everything queued so far and waits until the transport has stored it
+     */
+    public void flush() throws IOException {
+        List<CompletableFuture<Long>> pending = new ArrayList<>();
+        for (Accumulator accumulator : accumulators) {
+            CompletableFuture<Long> last = accumulator.sealAll();
+            if (last != null) {
+                pending.add(last);
+            }
+        }
+        LockSupport.unpark(sender);
+        try {
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException("Send failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void onEvent(DomainEvent event, long position, boolean endOfBatch) throws IOException {
+        send(event, position);
+        if (endOfBatch) {
+            flush();
+        }
+    }
+
+    /**
+     * A failed flush is retried by the bus, which sends the same event again; the consumer
+     * drops the copy by its id
+     */
+    @Override
+    public boolean retryFailures() {
+        return true;
+    }
+
+    public long producerId() {
+        return identity.id();
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        try {
+            flush();
+        } finally {
+            running = false;
+            LockSupport.unpark(sender);
+            sender.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    private static ProducerIdentity identity(FileOutbox outbox) throws IOException {
+        return outbox != null ? ProducerIdentity.next(outbox.directory()) : ProducerIdentity.random();
+    }
+
+    private int partition(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) Math.floorMod(h ^ (h >>> 32), (long) accumulators.length);
+    }
+
+    private byte[] encode(DomainEvent event) {
+        ByteBuffer buffer = scratch.get();
+        while (true) {
+            try {
+                DomainEventCodec.encode(event, buffer.clear());
+                return Arrays.copyOf(buffer.array(), buffer.position());
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                scratch.set(buffer);
+            }
+        }
+    }
+
+    private void run() {
+        long idleNanos = Math.max(lingerNanos, TimeUnit.MILLISECONDS.toNanos(1));
+        while (running || sealedCount.get() > 0) {
+            LockSupport.parkNanos(idleNanos);
+            long now = System.nanoTime();
+            for (Accumulator accumulator : accumulators) {
+                accumulator.sealLingered(now - lingerNanos);
+                if (running) {
+                    accumulator.resendHeld(now - TimeUnit.MILLISECONDS.toNanos(HOLD_MILLIS));
+                }
+                Sealed sealed;
+                while ((sealed = accumulator.next()) != null) {
+                    Exception failure = sendWithRetries(sealed);
+                    if (failure != null) {
+                        accumulator.hold(sealed, failure);
+                    }
+                    sealedCount.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the failure the batch was given up on, or null once it is stored
+     */
+    private Exception sendWithRetries(Sealed sealed) {
+        byte[] encoded;
+        try {
+            encoded = sealed.batch().encode(compression);
+        } catch (RuntimeException e) {
+            return e;
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                sealed.sent().complete(transport.append(topic, sealed.partition(), encoded));
+                return null;
+            } catch (IOException | RuntimeException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    log.error("Holding back batch {} for {}-{} after {} attempts; it is sent again later",
+                            sealed.batch().sequence(), topic, sealed.partition(), attempt, e);
+                    return e;
+                }
+                log.warn("Sending batch {} to {}-{} failed, retrying", sealed.batch().sequence(), topic,
+                        sealed.partition(), e);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(RETRY_BACKOFF_MILLIS * attempt));
+            }
+        }
+    }
+
+    /**
+     * Messages waiting for one partition, the batches sealed from them in order, and the
+     * batches held back after a failed send. Only the sender thread takes sealed batches, so a
+     * partition's batches are sent in sequence order; while any are held, newer ones join them
+     * instead of being sent.
+     */
+    private final class Accumulator {
+
+        private final int partition;
+        private final ArrayDeque<Sealed> sealed = new ArrayDeque<>();
+        private final ArrayDeque<Sealed> held = new ArrayDeque<>();
+        private List<MessageBatch.Message> messages = new ArrayList<>();
+        private long firstAddedAt;
+        private long heldAt;
+        private int nextSequence;
+        private CompletableFuture<Long> lastSent;
+
+        Accumulator(int partition) {
+            this.partition = partition;
+        }
+
+        /**
+         * @return whether the message completed a batch
+         */
+        synchronized boolean add(MessageBatch.Message message) {
+            if (messages.isEmpty()) {
+                firstAddedAt = System.nanoTime();
+            }
+            messages.add(message);
+            if (messages.size() < batchSize) {
+                return false;
+            }
+            seal();
+            return true;
+        }
+
+        /**
+         * Queues the held batches to be sent again, seals what is waiting and returns the
+         * future of the partition's last batch
+         */
+        synchronized CompletableFuture<Long> sealAll() {
+            resend();
+            seal();
+            return lastSent;
+        }
+
+        synchronized void sealLingered(long lingeredBefore) {
+            if (!messages.isEmpty() && firstAddedAt - lingeredBefore <= 0) {
+                seal();
+            }
+        }
+
+        synchronized void resendHeld(long heldBefore) {
+            if (!held.isEmpty() && heldAt - heldBefore <= 0) {
+                resend();
+            }
+        }
+
+        /**
+         * The next batch to send, or null; batches sealed while others are held join them
+         */
+        synchronized Sealed next() {
+            while (!held.isEmpty() && !sealed.isEmpty()) {
+                hold(sealed.poll(), null);
+                sealedCount.decrementAndGet();
+            }
+            return sealed.poll();
+        }
+
+        synchronized void hold(Sealed batch, Exception failure) {
+            if (held.isEmpty()) {
+                heldAt = System.nanoTime();
+            }
+            held.add(batch);
+            heldCount.incrementAndGet();
+            batch.sent().completeExceptionally(new IOException("Batch " + batch.batch().sequence() + " for "
+                    + topic + "-" + partition + " is held back after a failed send", failure));
+        }
+
+        private void resend() {
+            if (held.isEmpty()) {
+                return;
+            }
+            // held batches are older than any sealed one, so they go first, in their order
+            for (var batches = held.descendingIterator(); batches.hasNext(); ) {
+                Sealed batch = batches.next();
+                sealed.addFirst(new Sealed(partition, batch.batch(), new CompletableFuture<>()));
+                sealedCount.incrementAndGet();
+            }
+            heldCount.addAndGet(-held.size());
+            held.clear();
+            lastSent = sealed.peekLast().sent();
+        }
+
+        private void seal() {
+            if (messages.isEmpty()) {
+                return;
+            }
+            Sealed batch = new Sealed(partition, new MessageBatch(identity.id(), identity.epoch(), nextSequence++, messages),
+                    new CompletableFuture<>());
+            messages = new ArrayList<>(Math.min(batchSize, 1024));
+            sealed.add(batch);
+            sealedCount.incrementAndGet();
+            lastSent = batch.sent();
+        }
+    }
+}
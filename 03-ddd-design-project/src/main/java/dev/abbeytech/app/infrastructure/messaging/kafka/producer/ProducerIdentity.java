@@ -0,0 +1,80 @@
+package dev.abbeytech.app.infrastructure.messaging.kafka.producer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The producer id and epoch batches are sent under. Consumers drop redelivered events by
+ * comparing ids within one producer id, so a producer whose ids survive a restart must keep
+ * its producer id too; the epoch goes up on every start, so the transport takes its sequences
+ * starting over for a new session rather than a retry of old batches.
+ *
+ * <p>Stored as {@code [id][epoch][check]} in a file written by replacing it atomically.
+ */
+@Slf4j
+record ProducerIdentity(long id, int epoch) {
+
+    static final String FILE = "producer";
+    private static final long MAGIC = 0x70726f6475636572L;
+
+    /**
+     * A fresh identity, for a producer whose ids start over on every start
+     */
+    static ProducerIdentity random() {
+        return new ProducerIdentity(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 0);
+    }
+
+    /**
+     * Reads the identity kept in {@code directory} and stores it back with the next epoch, or
+     * creates one if there is none yet
+     */
+    static ProducerIdentity next(Path directory) throws IOException {
+        Path file = directory.resolve(FILE);
+        ProducerIdentity stored = read(file);
+        ProducerIdentity next = stored == null ? random() : new ProducerIdentity(stored.id, stored.epoch + 1);
+        Path temp = directory.resolve(FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(20)
+                    .putLong(next.id)
+                    .putInt(next.epoch)
+                    .putLong(next.id ^ next.epoch ^ MAGIC)
+                    .flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return next;
+    }
+
+    private static ProducerIdentity read(Path file) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        ByteBuffer stored = ByteBuffer.wrap(bytes);
+        if (bytes.length == 20) {
+            long id = stored.getLong();
+            int epoch = stored.getInt();
+            if ((id ^ epoch ^ MAGIC) == stored.getLong()) {
+                return new ProducerIdentity(id, epoch);
+            }
+        }
+        // events already sent under the lost id may then be applied again
+        log.warn("Ignoring unreadable producer identity {}; starting a new one", file);
+        return null;
+    }
+}
@@ -0,0 +1,338 @@
+package dev.abbeytech.app.infrastructure.messaging.outbox;
+
+import dev.abbeytech.app.domain.event.DomainEvent;
+import dev.abbeytech.app.infrastructure.messaging.DomainEventCodec;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Local append-only log of published events, so events that handlers had not finished with
+ * survive a restart without an external broker.
+ *
+ * <p>Events are addressed by a byte offset that only ever grows. The log is split into segment
+ * files named after the offset they start at; each record is {@code [length][crc32c][payload]}
+ * in {@link DomainEventCodec} form. A separate checkpoint file holds the offset below which
+ * every handler has processed every event: on startup the records after it are handed back
+ * for replay, a torn record at the tail (a crash mid-write) is cut off, and segments wholly
+ * below the checkpoint are deleted as it advances. A log retained as a history to rebuild read
+ * models from keeps them until its reader also {@link #release releases} them, typically once
+ * a snapshot covers them, so the history is bounded by what a restart could still need.
+ *
+ * <p>Appends are buffered and written by {@link #flush}, which is also where the log is
+ * fsynced if configured, so the cost of a sync is shared by the whole batch. Appending and
+ * flushing must happen on one thread; checkpointing may happen on another.
+ */
+@Slf4j
+public final class FileOutbox implements Closeable {
+
+    /**
+     * An event read back from the log and the offset just past its record
+     */
+    public record Entry(DomainEvent event, long endOffset) {}
+
+    static final int HEADER_BYTES = 8;
+    static final String SEGMENT_SUFFIX = ".log";
+    static final String CHECKPOINT_FILE = "checkpoint";
+    private static final long CHECKPOINT_MAGIC = 0x6f7574626f782e31L;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final boolean fsync;
+    private final boolean retainSegments;
+    private final ConcurrentLinkedDeque<Long> segmentStarts = new ConcurrentLinkedDeque<>();
+    private final FileChannel checkpointChannel;
+    private final ByteBuffer checkpointBuffer = ByteBuffer.allocate(16);
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+    private FileChannel segment;
+    private long segmentStart;
+    private long writeOffset;
+    private volatile long checkpointed;
+    private volatile long released;
+
+    public FileOutbox(Path directory, long segmentBytes, boolean fsync) throws IOException {
+        this(directory, segmentBytes, fsync, false);
+    }
+
+    /**
+     * @param retainSegments keep processed segments until they are {@link #release released}, so they can be read
+     *                       back with {@link #read}
+     */
+    public FileOutbox(Path directory, long segmentBytes, boolean fsync, boolean retainSegments) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+        this.retainSegments = retainSegments;
+        this.checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.checkpointed = readCheckpoint();
+    }
+
+    /**
+     * Opens the log for appending and returns the events after the checkpoint, oldest first.
+     * Must be called once, before anything is appended.
+     */
+    public List<Entry> recover() throws IOException {
+        List<Long> starts = listSegments();
+        List<Entry> pending = new ArrayList<>();
+        if (starts.isEmpty()) {
+            openSegment(checkpointed);
+            return pending;
+        }
+        for (int i = 0; i < starts.size(); i++) {
+            long start = starts.get(i);
+            boolean last = i == starts.size() - 1;
+            if (!last && starts.get(i + 1) <= checkpointed) {
+                // every record in it is below the checkpoint
+                if (!retainSegments) {
+                    Files.deleteIfExists(segmentPath(start));
+                    continue;
+                }
+            } else {
+                long validEnd = scan(start, checkpointed, (event, endOffset) -> pending.add(new Entry(event, endOffset)));
+                if (last) {
+                    segment = FileChannel.open(segmentPath(start), StandardOpenOption.WRITE);
+                    if (segment.size() > validEnd) {
+                        log.warn("Cutting torn tail of outbox segment {} at {} of {} bytes",
+                                segmentPath(start), validEnd, segment.size());
+                        segment.truncate(validEnd);
+                    }
+                    segment.position(validEnd);
+                    segmentStart = start;
+                    writeOffset = start + validEnd;
+                }
+            }
+            segmentStarts.add(start);
+        }
+        return pending;
+    }
+
+    /**
+     * Reads every retained event whose record ends after {@code afterOffset}, oldest first,
+     * passing each with the offset just past its record. Reads the files directly, so it
+     * sees what has been flushed and may run while the log is being appended to.
+     */
+    public void read(long afterOffset, RecordConsumer consumer) throws IOException {
+        List<Long> starts = listSegments();
+        for (int i = 0; i < starts.size(); i++) {
+            if (i < starts.size() - 1 && starts.get(i + 1) <= afterOffset) {
+                continue;
+            }
+            try {
+                scan(starts.get(i), afterOffset, consumer);
+            } catch (NoSuchFileException e) {
+                // deleted by a checkpoint since it was listed
+            }
+        }
+    }
+
+    /**
+     * Offset of the oldest retained record; anything before it has been deleted
+     */
+    public long firstOffset() throws IOException {
+        List<Long> starts = listSegments();
+        return starts.isEmpty() ? checkpointed : starts.get(0);
+    }
+
+    @FunctionalInterface
+    public interface RecordConsumer {
+
+        void accept(DomainEvent event, long endOffset) throws IOException;
+    }
+
+    /**
+     * Buffers {@code event} and returns the offset just past its record
+     */
+    public long append(DomainEvent event) throws IOException {
+        while (true) {
+            int start = buffer.position();
+            if (buffer.remaining() > HEADER_BYTES) {
+                try {
+                    buffer.position(start + HEADER_BYTES);
+                    DomainEventCodec.encode(event, buffer);
+                    int length = buffer.position() - start - HEADER_BYTES;
+                    crc.reset();
+                    crc.update(buffer.slice(start + HEADER_BYTES, length));
+                    buffer.putInt(start, length);
+                    buffer.putInt(start + 4, (int) crc.getValue());
+                    return writeOffset + buffer.position();
+                } catch (BufferOverflowException e) {
+                    buffer.position(start);
+                } catch (RuntimeException e) {
+                    // leave no half-encoded record behind for the next flush
+                    buffer.position(start);
+                    throw e;
+                }
+            }
+            if (start > 0) {
+                flush();
+            } else {
+                // a single event larger than the buffer
+                buffer = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+            }
+        }
+    }
+
+    /**
+     * Writes the buffered records and, if configured, forces them to disk
+     */
+    public void flush() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            writeOffset += segment.write(buffer);
+        }
+        buffer.clear();
+        if (fsync) {
+            segment.force(false);
+        }
+        if (writeOffset - segmentStart >= segmentBytes) {
+            segment.close();
+            openSegment(writeOffset);
+        }
+    }
+
+    /**
+     * Lets a retained log delete the segments wholly below {@code offset} once the checkpoint
+     * has passed them too; a reader calls this when it no longer needs to read them back
+     */
+    public void release(long offset) {
+        if (offset > released) {
+            released = offset;
+        }
+    }
+
+    /**
+     * Records that every event ending at or below {@code offset} has been fully processed,
+     * and deletes the segments that leaves unneeded
+     */
+    public void checkpoint(long offset) throws IOException {
+        if (offset <= checkpointed) {
+            return;
+        }
+        checkpointBuffer.clear();
+        checkpointBuffer.putLong(offset).putLong(offset ^ CHECKPOINT_MAGIC).flip();
+        checkpointChannel.write(checkpointBuffer, 0);
+        checkpointed = offset;
+        long deleteBelow = retainSegments ? Math.min(offset, released) : offset;
+        while (segmentStarts.size() > 1) {
+            Iterator<Long> starts = segmentStarts.iterator();
+            long oldest = starts.next();
+            if (starts.next() > deleteBelow) {
+                break;
+            }
+            Files.deleteIfExists(segmentPath(oldest));
+            segmentStarts.pollFirst();
+        }
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    public long checkpointed() {
+        return checkpointed;
+    }
+
+    /**
+     * Offset just past the last flushed record
+     */
+    public long writeOffset() {
+        return writeOffset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (segment != null) {
+                flush();
+                segment.close();
+            }
+        } finally {
+            checkpointChannel.close();
+        }
+    }
+
+    private void openSegment(long start) throws IOException {
+        segment = FileChannel.open(segmentPath(start), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        segment.position(segment.size());
+        segmentStart = start;
+        writeOffset = start + segment.size();
+        segmentStarts.add(start);
+    }
+
+    /**
+     * Reads the valid records of a segment, passing on those that end after {@code afterOffset};
+     * returns the length of its valid prefix
+     */
+    private long scan(long start, long afterOffset, RecordConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(start), StandardOpenOption.READ)) {
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CRC32C check = new CRC32C();
+            while (data.remaining() >= HEADER_BYTES) {
+                int position = data.position();
+                int length = data.getInt();
+                int expected = data.getInt();
+                if (length <= 0 || length > data.remaining()) {
+                    return position;
+                }
+                check.reset();
+                check.update(data.slice(position + HEADER_BYTES, length));
+                if ((int) check.getValue() != expected) {
+                    return position;
+                }
+                long endOffset = start + position + HEADER_BYTES + length;
+                if (endOffset > afterOffset) {
+                    consumer.accept(DomainEventCodec.decode(data.slice(position + HEADER_BYTES, length)), endOffset);
+                }
+                data.position(position + HEADER_BYTES + length);
+            }
+            return data.position();
+        }
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        ByteBuffer stored = ByteBuffer.allocate(16);
+        while (stored.hasRemaining() && checkpointChannel.read(stored, stored.position()) > 0) {
+            // keep reading
+        }
+        if (stored.position() < 16) {
+            return 0;
+        }
+        long offset = stored.getLong(0);
+        // a torn or foreign checkpoint means replaying everything, which is safe
+        return (offset ^ CHECKPOINT_MAGIC) == stored.getLong(8) ? offset : 0;
+    }
+
+    private Path segmentPath(long start) {
+        return directory.resolve(String.format("%020d%s", start, SEGMENT_SUFFIX));
+    }
+}
@@ -0,0 +1,68 @@
+package dev.abbeytech.app.infrastructure.messaging.transport;
+
+import com.github.luben.zstd.Zstd;
+
+import java.util.Arrays;
+
+/**
+ * How the records of a {@link MessageBatch} are compressed. The id is part of the stored batch
+ * format and must never be reused.
+ */
+public enum Compression {
+
+    NONE(0) {
+        @Override
+        byte[] compress(byte[] data, int length) {
+            return Arrays.copyOf(data, length);
+        }
+
+        @Override
+        byte[] decompress(byte[] data, int offset, int length, int originalLength) {
+            return Arrays.copyOfRange(data, offset, offset + length);
+        }
+    },
+
+    /**
+     * Zstandard at level 1, its fastest standard level
+     */
+    ZSTD(1) {
+        @Override
+        byte[] compress(byte[] data, int length) {
+            byte[] out = new byte[(int) Zstd.compressBound(length)];
+            long size = Zstd.compressByteArray(out, 0, out.length, data, 0, length, 1);
+            if (Zstd.isError(size)) {
+                throw new IllegalStateException("zstd compression failed: " + Zstd.getErrorName(size));
+            }
+            return Arrays.copyOf(out, (int) size);
+        }
+
+        @Override
+        byte[] decompress(byte[] data, int offset, int length, int originalLength) {
+            byte[] out = new byte[originalLength];
+            long size = Zstd.decompressByteArray(out, 0, originalLength, data, offset, length);
+            if (Zstd.isError(size) || size != originalLength) {
+                throw new IllegalArgumentException("Corrupt zstd batch");
+            }
+            return out;
+        }
+    };
+
+    final byte id;
+
+    Compression(int id) {
+        this.id = (byte) id;
+    }
+
+    abstract byte[] compress(byte[] data, int length);
+
+    abstract byte[] decompress(byte[] data, int offset, int length, int originalLength);
+
+    static Compression of(byte id) {
+        for (Compression compression : values()) {
+            if (compression.id == id) {
+                return compression;
+            }
+        }
+        throw new IllegalArgumentException("Unknown compression " + id);
+    }
+}
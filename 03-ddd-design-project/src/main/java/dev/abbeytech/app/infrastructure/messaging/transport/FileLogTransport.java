@@ -0,0 +1,316 @@
+package dev.abbeytech.app.infrastructure.messaging.transport;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Embedded stand-in for a Kafka broker: every topic has a fixed number of partitions, each an
+ * append-only file of {@code [length][crc32c][batch]} records under {@code directory/topic/},
+ * and each consumer group's committed offsets are a small file rewritten on commit.
+ *
+ * <p>An in-memory index of batch positions, rebuilt by scanning the files on first use, makes
+ * a fetch a positional read, and appends and fetches on different partitions never contend. A
+ * torn record at the end of a partition (a crash mid-write) is cut off when it is opened.
+ * A producer's batches must arrive in sequence: a retry of its last one is acknowledged again,
+ * and one that skips a sequence is rejected rather than stored after a gap. A restarted
+ * producer starts again from sequence 0 under a higher epoch, which fences off its old one.
+ */
+@Slf4j
+public final class FileLogTransport implements MessageTransport {
+
+    static final int HEADER_BYTES = 8;
+
+    private final Path directory;
+    private final int partitions;
+    private final boolean fsync;
+    private final Map<String, PartitionLog[]> topics = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Long>> groupOffsets = new ConcurrentHashMap<>();
+
+    /**
+     * @param partitions number of partitions of every topic
+     * @param fsync      force each append to disk before acknowledging it
+     */
+    public FileLogTransport(Path directory, int partitions, boolean fsync) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.partitions = partitions;
+        this.fsync = fsync;
+    }
+
+    @Override
+    public int partitions(String topic) {
+        return partitions;
+    }
+
+    @Override
+    public long append(String topic, int partition, byte[] batch) throws IOException {
+        return log(topic, partition).append(batch);
+    }
+
+    @Override
+    public List<StoredBatch> fetch(String topic, int partition, long offset, int maxBatches) throws IOException {
+        return log(topic, partition).fetch(offset, maxBatches);
+    }
+
+    @Override
+    public void commit(String group, String topic, int partition, long nextOffset) throws IOException {
+        Map<String, Long> offsets = offsets(group);
+        synchronized (offsets) {
+            Map<String, Long> updated = new HashMap<>(offsets);
+            updated.put(topic + "/" + partition, nextOffset);
+            writeOffsets(group, updated);
+            offsets.putAll(updated);
+        }
+    }
+
+    @Override
+    public long committed(String group, String topic, int partition) throws IOException {
+        return offsets(group).getOrDefault(topic + "/" + partition, 0L);
+    }
+
+    @Override
+    public long endOffset(String topic, int partition) throws IOException {
+        return log(topic, partition).endOffset();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (PartitionLog[] logs : topics.values()) {
+            for (PartitionLog log : logs) {
+                if (log != null) {
+                    log.close();
+                }
+            }
+        }
+    }
+
+    private PartitionLog log(String topic, int partition) throws IOException {
+        if (partition < 0 || partition >= partitions) {
+            throw new IllegalArgumentException("Topic " + topic + " has no partition " + partition);
+        }
+        PartitionLog[] logs = topics.computeIfAbsent(topic, t -> new PartitionLog[partitions]);
+        synchronized (logs) {
+            if (logs[partition] == null) {
+                logs[partition] = new PartitionLog(
+                        Files.createDirectories(directory.resolve(topic)).resolve("partition-" + partition + ".log"),
+                        fsync);
+            }
+            return logs[partition];
+        }
+    }
+
+    private Map<String, Long> offsets(String group) throws IOException {
+        try {
+            return groupOffsets.computeIfAbsent(group, g -> {
+                try {
+                    return readOffsets(g);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Map<String, Long> readOffsets(String group) throws IOException {
+        Map<String, Long> offsets = new ConcurrentHashMap<>();
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(offsetsFile(group))))) {
+            for (int n = in.readInt(); n > 0; n--) {
+                offsets.put(in.readUTF(), in.readLong());
+            }
+        } catch (NoSuchFileException e) {
+            // nothing committed yet
+        }
+        return offsets;
+    }
+
+    private void writeOffsets(String group, Map<String, Long> offsets) throws IOException {
+        Path file = offsetsFile(group);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(offsets.size());
+                for (Map.Entry<String, Long> entry : offsets.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue());
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path offsetsFile(String group) {
+        if (!group.matches("[A-Za-z0-9._-]+")) {
+            throw new IllegalArgumentException("Invalid consumer group name: " + group);
+        }
+        return directory.resolve("offsets-" + group);
+    }
+
+    /**
+     * One partition's file and the index of its batches. Appends are serialised; fetches read
+     * positionally and only take the lock to look up positions.
+     */
+    private static final class PartitionLog {
+
+        private final Path path;
+        private final FileChannel channel;
+        private final boolean fsync;
+        private final CRC32C crc = new CRC32C();
+        private final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        // last epoch, sequence and offset per producer, to recognise retried batches
+        private final Map<Long, long[]> producers = new HashMap<>();
+        private long[] positions = new long[1024];
+        private int count;
+        private long end;
+
+        PartitionLog(Path path, boolean fsync) throws IOException {
+            this.path = path;
+            this.fsync = fsync;
+            this.channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            recover();
+        }
+
+        synchronized long append(byte[] batch) throws IOException {
+            long producerId = MessageBatch.producerId(batch);
+            int epoch = MessageBatch.epoch(batch);
+            int sequence = MessageBatch.sequence(batch);
+            long[] last = producers.get(producerId);
+            if (last != null && epoch < last[0]) {
+                throw new IllegalArgumentException("Batch " + sequence + " of producer " + producerId
+                        + " is from epoch " + epoch + ", which epoch " + last[0] + " has replaced");
+            }
+            if (last == null || epoch > last[0]) {
+                if (sequence != 0) {
+                    throw new IllegalArgumentException("Batch " + sequence + " of producer " + producerId
+                            + " does not start epoch " + epoch);
+                }
+            } else if (sequence <= last[1]) {
+                if (sequence == last[1]) {
+                    return last[2];
+                }
+                throw new IllegalArgumentException("Batch " + sequence + " of producer " + producerId
+                        + " is older than its last one, " + last[1]);
+            } else if (sequence != last[1] + 1) {
+                throw new IllegalArgumentException("Batch " + sequence + " of producer " + producerId
+                        + " does not follow its last one, " + last[1]);
+            }
+            crc.reset();
+            crc.update(batch);
+            header.clear();
+            header.putInt(batch.length).putInt((int) crc.getValue()).flip();
+            ByteBuffer body = ByteBuffer.wrap(batch);
+            long position = end;
+            while (header.hasRemaining()) {
+                position += channel.write(header, position);
+            }
+            while (body.hasRemaining()) {
+                position += channel.write(body, position);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+            long offset = index(end, producerId, epoch, sequence);
+            end = position;
+            return offset;
+        }
+
+        List<StoredBatch> fetch(long offset, int maxBatches) throws IOException {
+            long[] from;
+            synchronized (this) {
+                if (offset >= count) {
+                    return List.of();
+                }
+                int upTo = (int) Math.min(count, offset + maxBatches);
+                from = Arrays.copyOfRange(positions, (int) offset, upTo);
+            }
+            List<StoredBatch> batches = new ArrayList<>(from.length);
+            ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+            for (int i = 0; i < from.length; i++) {
+                lengthBuffer.clear();
+                readFully(lengthBuffer, from[i]);
+                ByteBuffer batch = ByteBuffer.allocate(lengthBuffer.getInt(0));
+                readFully(batch, from[i] + HEADER_BYTES);
+                batches.add(new StoredBatch(offset + i, batch.array()));
+            }
+            return batches;
+        }
+
+        synchronized long endOffset() {
+            return count;
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+
+        private long index(long position, long producerId, int epoch, int sequence) {
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            positions[count] = position;
+            producers.put(producerId, new long[]{epoch, sequence, count});
+            return count++;
+        }
+
+        private void recover() throws IOException {
+            long size = channel.size();
+            long position = 0;
+            ByteBuffer recordHeader = ByteBuffer.allocate(HEADER_BYTES);
+            while (position + HEADER_BYTES <= size) {
+                recordHeader.clear();
+                readFully(recordHeader, position);
+                int length = recordHeader.getInt(0);
+                if (length < MessageBatch.HEADER_BYTES || position + HEADER_BYTES + length > size) {
+                    break;
+                }
+                ByteBuffer batch = ByteBuffer.allocate(length);
+                readFully(batch, position + HEADER_BYTES);
+                crc.reset();
+                crc.update(batch.array());
+                if ((int) crc.getValue() != recordHeader.getInt(4)) {
+                    break;
+                }
+                index(position, MessageBatch.producerId(batch.array()), MessageBatch.epoch(batch.array()),
+                        MessageBatch.sequence(batch.array()));
+                position += HEADER_BYTES + length;
+            }
+            if (position < size) {
+                log.warn("Cutting torn tail of {} at {} of {} bytes", path, position, size);
+                channel.truncate(position);
+            }
+            end = position;
+        }
+
+        private void readFully(ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of " + path);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package dev.abbeytech.app.infrastructure.messaging.transport;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The unit a {@link MessageTransport} stores and delivers: messages for one partition from one
+ * producer, compressed together.
+ *
+ * <p>Each batch carries its producer's id and a per-partition sequence number, so a transport
+ * can recognise a batch it already has when a producer retries after a lost acknowledgement.
+ * A producer keeps its id across restarts and starts its sequences over under a higher epoch,
+ * so consumers can tell its events apart from other producers' for as long as it exists.
+ * Each message carries a routing key, the aggregate id, which picks its partition, and an
+ * idempotency id that stays the same when the same event is sent again, so consumers can drop
+ * redeliveries.
+ *
+ * <p>Encoded form: {@code [version][compression][producerId][epoch][sequence][count][rawLength]} and
+ * then the messages, compressed, each {@code [key][id][length][value]}.
+ */
+public record MessageBatch(long producerId, int epoch, int sequence, List<Message> messages) {
+
+    public record Message(long key, long id, byte[] value) {}
+
+    static final byte VERSION = 2;
+    static final int HEADER_BYTES = 1 + 1 + 8 + 4 + 4 + 4 + 4;
+
+    public MessageBatch {
+        messages = List.copyOf(messages);
+    }
+
+    public byte[] encode(Compression compression) {
+        int rawLength = 0;
+        for (Message message : messages) {
+            rawLength += 8 + 8 + 4 + message.value().length;
+        }
+        ByteBuffer raw = ByteBuffer.allocate(rawLength);
+        for (Message message : messages) {
+            raw.putLong(message.key()).putLong(message.id()).putInt(message.value().length).put(message.value());
+        }
+        byte[] body = compression.compress(raw.array(), rawLength);
+        return ByteBuffer.allocate(HEADER_BYTES + body.length)
+                .put(VERSION)
+                .put(compression.id)
+                .putLong(producerId)
+                .putInt(epoch)
+                .putInt(sequence)
+                .putInt(messages.size())
+                .putInt(rawLength)
+                .put(body)
+                .array();
+    }
+
+    public static MessageBatch decode(byte[] batch) {
+        ByteBuffer header = ByteBuffer.wrap(batch);
+        if (header.get() != VERSION) {
+            throw new IllegalArgumentException("Unknown batch version " + batch[0]);
+        }
+        Compression compression = Compression.of(header.get());
+        long producerId = header.getLong();
+        int epoch = header.getInt();
+        int sequence = header.getInt();
+        int count = header.getInt();
+        int rawLength = header.getInt();
+        ByteBuffer raw = ByteBuffer.wrap(
+                compression.decompress(batch, HEADER_BYTES, batch.length - HEADER_BYTES, rawLength));
+        List<Message> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long key = raw.getLong();
+            long id = raw.getLong();
+            byte[] value = new byte[raw.getInt()];
+            raw.get(value);
+            messages.add(new Message(key, id, value));
+        }
+        return new MessageBatch(producerId, epoch, sequence, messages);
+    }
+
+    static long producerId(byte[] batch) {
+        return ByteBuffer.wrap(batch).getLong(2);
+    }
+
+    static int epoch(byte[] batch) {
+        return ByteBuffer.wrap(batch).getInt(10);
+    }
+
+    static int sequence(byte[] batch) {
+        return ByteBuffer.wrap(batch).getInt(14);
+    }
+}
@@ -0,0 +1,48 @@
+package dev.abbeytech.app.infrastructure.messaging.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A partitioned, replayable log of {@link MessageBatch}es with consumer group offsets: the part
+ * of Kafka the messaging layer relies on, so producers and consumers run the same against a
+ * broker or against the embedded {@link FileLogTransport}.
+ *
+ * <p>Offsets count batches, starting at zero in each partition. A committed offset is the next
+ * batch a group will read.
+ */
+public interface MessageTransport extends Closeable {
+
+    /**
+     * A batch as read back, with its offset
+     */
+    record StoredBatch(long offset, byte[] batch) {}
+
+    int partitions(String topic);
+
+    /**
+     * Appends an encoded batch and returns its offset. A batch with the same producer id and
+     * sequence as one already in the partition is not stored again; its original offset is
+     * returned instead.
+     */
+    long append(String topic, int partition, byte[] batch) throws IOException;
+
+    /**
+     * Up to {@code maxBatches} batches starting at {@code offset}, oldest first; empty when
+     * the consumer is caught up
+     */
+    List<StoredBatch> fetch(String topic, int partition, long offset, int maxBatches) throws IOException;
+
+    void commit(String group, String topic, int partition, long nextOffset) throws IOException;
+
+    /**
+     * The group's committed offset, or 0 if it has not committed one
+     */
+    long committed(String group, String topic, int partition) throws IOException;
+
+    /**
+     * Offset the next batch appended to the partition will get
+     */
+    long endOffset(String topic, int partition) throws IOException;
+}
@@ -0,0 +1,283 @@
+package dev.abbeytech.app.infrastructure.persistence.eventstore;
+
+import dev.abbeytech.app.domain.event.DomainEvent;
+import dev.abbeytech.app.domain.event.EventBus;
+import dev.abbeytech.app.domain.exception.OrderVersionConflictException;
+import dev.abbeytech.app.domain.model.order.Order;
+import dev.abbeytech.app.domain.repository.OrderRepository;
+import dev.abbeytech.app.infrastructure.config.OrderStoreProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Stores orders as their events in a local {@link MappedSegmentLog} instead of mapping the
+ * whole aggregate to tables on every save. Saving an order appends its new events, a few
+ * hundred bytes written sequentially; every {@code snapshotEvery} events the order's full
+ * state is appended as well, and loading an order reads its latest snapshot and the events
+ * after it.
+ *
+ * <p>An in-memory index holds, per order, its version and the offsets of its latest snapshot
+ * and later events; it is rebuilt by scanning the log on startup. Saves are checked against
+ * the indexed version, so saving a stale copy fails with {@link OrderVersionConflictException}.
+ *
+ * <p>Saves are group committed: callers hand their events to a single writer thread and wait;
+ * the writer appends whatever has queued up, up to {@code maxBatch} saves, forces the log to
+ * disk once and only then makes the new events visible and releases the callers. A batch that
+ * fails is truncated from the log again, so none of it is recovered after a restart; if even
+ * that fails, the store stops and every later save fails.
+ *
+ * <p>Once a batch is durable its events are published to the {@link EventBus}, by the writer
+ * and in commit order, so each order's events reach the read models in version order. Events
+ * committed but not yet taken by the bus when the process dies are not published after a
+ * restart.
+ */
+@Slf4j
+@Repository
+@ConditionalOnProperty(name = "app.orders.event-store.enabled", matchIfMissing = true)
+public class EventSourcedOrderRepository implements OrderRepository {
+
+    private static final long[] NO_EVENTS = new long[0];
+
+    /**
+     * Where an order's records are: {@code snapshotOffset} is -1 until it has a snapshot
+     */
+    private record StreamIndex(long version, long snapshotOffset, long[] eventOffsets) {}
+
+    private record Pending(long orderId, long expectedVersion, List<DomainEvent> events, Order.Snapshot snapshot,
+                           CompletableFuture<Void> done) {}
+
+    private final MappedSegmentLog eventLog;
+    private final EventBus eventBus;
+    private final Map<Long, StreamIndex> index = new ConcurrentHashMap<>();
+    private final boolean fsync;
+    private final int snapshotEvery;
+    private final int maxBatch;
+    private final BlockingQueue<Pending> queue;
+    private final Thread writer;
+    private ByteBuffer scratch = ByteBuffer.allocate(4096);
+    private volatile boolean running = true;
+    private volatile Exception stoppedBy;
+
+    @Autowired
+    public EventSourcedOrderRepository(OrderStoreProperties properties, EventBus eventBus) throws IOException {
+        this(Path.of(properties.directory()), properties.segmentSize().toBytes(), properties.fsync(),
+                properties.snapshotEvery(), properties.maxBatch(), eventBus);
+    }
+
+    /**
+     * @param eventBus where committed events are published, or null to publish nothing
+     */
+    EventSourcedOrderRepository(Path directory, long segmentBytes, boolean fsync, int snapshotEvery, int maxBatch,
+                                EventBus eventBus) throws IOException {
+        this.eventBus = eventBus;
+        this.fsync = fsync;
+        this.snapshotEvery = snapshotEvery;
+        this.maxBatch = maxBatch;
+        long start = System.nanoTime();
+        this.eventLog = MappedSegmentLog.open(directory, segmentBytes, this::indexRecord);
+        log.info("Indexed {} orders from {} in {} ms", index.size(), directory,
+                (System.nanoTime() - start) / 1_000_000);
+        this.queue = new ArrayBlockingQueue<>(maxBatch * 4);
+        this.writer = Thread.ofPlatform().name("order-event-store").daemon().start(this::run);
+    }
+
+    @Override
+    public Optional<Order> findById(long orderId) {
+        StreamIndex stream = index.get(orderId);
+        if (stream == null) {
+            return Optional.empty();
+        }
+        Order.Snapshot snapshot = stream.snapshotOffset() < 0 ? null
+                : OrderRecordCodec.decodeSnapshot(eventLog.read(stream.snapshotOffset()));
+        List<DomainEvent> events = new ArrayList<>(stream.eventOffsets().length);
+        for (long offset : stream.eventOffsets()) {
+            events.add(OrderRecordCodec.decodeEvent(eventLog.read(offset)));
+        }
+        return Optional.of(Order.replay(snapshot, events));
+    }
+
+    @Override
+    public void save(Order order) {
+        List<DomainEvent> events = order.uncommittedEvents();
+        if (events.isEmpty()) {
+            return;
+        }
+        if (!running || stoppedBy != null) {
+            throw new IllegalStateException(stoppedBy == null ? "Order event store is closed"
+                    : "Order event store stopped after a failed write", stoppedBy);
+        }
+        Pending pending = new Pending(order.id(), order.version() - events.size(), events, order.snapshot(),
+                new CompletableFuture<>());
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing order save", e);
+        }
+        try {
+            pending.done().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        order.markCommitted();
+    }
+
+    /**
+     * Number of orders in the store
+     */
+    public int size() {
+        return index.size();
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        eventLog.close();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // no waiting for more: saves that arrive while this batch syncs make up the next one
+                queue.drainTo(batch, maxBatch - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        if (stoppedBy != null) {
+            IllegalStateException stopped =
+                    new IllegalStateException("Order event store stopped after a failed write", stoppedBy);
+            batch.forEach(pending -> pending.done().completeExceptionally(stopped));
+            return;
+        }
+        Map<Long, StreamIndex> staged = new HashMap<>();
+        List<Pending> appended = new ArrayList<>(batch.size());
+        long batchStart = eventLog.writeOffset();
+        try {
+            for (Pending pending : batch) {
+                StreamIndex current = staged.getOrDefault(pending.orderId(), index.get(pending.orderId()));
+                long version = current == null ? 0 : current.version();
+                if (version != pending.expectedVersion()) {
+                    pending.done().completeExceptionally(
+                            new OrderVersionConflictException(pending.orderId(), pending.expectedVersion(), version));
+                    continue;
+                }
+                staged.put(pending.orderId(), append(pending, current));
+                appended.add(pending);
+            }
+            if (fsync) {
+                eventLog.force();
+            }
+        } catch (IOException | RuntimeException e) {
+            // nothing is published, so readers never see events that may not have reached the disk
+            log.error("Failed to append {} order saves", appended.size(), e);
+            try {
+                // or the next force makes them durable and a restart indexes them
+                eventLog.truncate(batchStart);
+            } catch (RuntimeException truncateFailure) {
+                log.error("Could not take back the failed saves; stopping the order event store", truncateFailure);
+                e.addSuppressed(truncateFailure);
+                stoppedBy = e instanceof IOException io ? io : (RuntimeException) e;
+            }
+            RuntimeException failure = e instanceof IOException io ? new UncheckedIOException(io) : (RuntimeException) e;
+            batch.forEach(pending -> pending.done().completeExceptionally(failure));
+            return;
+        }
+        index.putAll(staged);
+        publish(appended);
+        appended.forEach(pending -> pending.done().complete(null));
+    }
+
+    private void publish(List<Pending> committed) {
+        if (eventBus == null || committed.isEmpty()) {
+            return;
+        }
+        List<DomainEvent> events = new ArrayList<>();
+        committed.forEach(pending -> events.addAll(pending.events()));
+        try {
+            eventBus.publishAll(events);
+        } catch (RuntimeException e) {
+            // the saves are durable, so they still succeed; only the read models miss these events
+            log.error("Could not publish {} committed order events", events.size(), e);
+        }
+    }
+
+    private StreamIndex append(Pending pending, StreamIndex current) throws IOException {
+        long version = current == null ? 0 : current.version();
+        long snapshotOffset = current == null ? -1 : current.snapshotOffset();
+        long[] offsets = current == null ? NO_EVENTS : current.eventOffsets();
+        int first = offsets.length;
+        offsets = Arrays.copyOf(offsets, first + pending.events().size());
+        for (int i = 0; i < pending.events().size(); i++) {
+            DomainEvent event = pending.events().get(i);
+            long eventVersion = ++version;
+            offsets[first + i] = eventLog.append(encode(out -> OrderRecordCodec.encodeEvent(event, eventVersion, out)));
+        }
+        if (offsets.length >= snapshotEvery) {
+            snapshotOffset = eventLog.append(encode(out -> OrderRecordCodec.encodeSnapshot(pending.snapshot(), out)));
+            offsets = NO_EVENTS;
+        }
+        return new StreamIndex(version, snapshotOffset, offsets);
+    }
+
+    private ByteBuffer encode(Consumer<ByteBuffer> encoder) {
+        while (true) {
+            try {
+                encoder.accept(scratch.clear());
+                return scratch.flip();
+            } catch (BufferOverflowException e) {
+                scratch = ByteBuffer.allocate(scratch.capacity() * 2);
+            }
+        }
+    }
+
+    private void indexRecord(long offset, ByteBuffer record) {
+        long orderId = OrderRecordCodec.orderId(record);
+        long version = OrderRecordCodec.version(record);
+        StreamIndex current = index.get(orderId);
+        if (OrderRecordCodec.kind(record) == OrderRecordCodec.SNAPSHOT) {
+            index.put(orderId, new StreamIndex(version, offset, NO_EVENTS));
+        } else if (current == null) {
+            index.put(orderId, new StreamIndex(version, -1, new long[]{offset}));
+        } else {
+            long[] offsets = Arrays.copyOf(current.eventOffsets(), current.eventOffsets().length + 1);
+            offsets[offsets.length - 1] = offset;
+            index.put(orderId, new StreamIndex(version, current.snapshotOffset(), offsets));
+        }
+    }
+}
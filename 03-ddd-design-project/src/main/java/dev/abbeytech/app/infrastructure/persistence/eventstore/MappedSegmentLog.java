@@ -0,0 +1,246 @@
+package dev.abbeytech.app.infrastructure.persistence.eventstore;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of opaque records in memory-mapped segment files.
+ *
+ * <p>Segments are preallocated to {@code segmentBytes} and mapped whole, so an append is a
+ * copy into memory and reading a record is a slice of the mapping, without a system call
+ * either way. Each record is {@code [length][crc32c][payload]}; a record is never split across
+ * segments, and unused space at the end of a segment reads as length zero. Records are
+ * addressed by their offset, which is the segment number times {@code segmentBytes} plus the
+ * position in the segment.
+ *
+ * <p>Appended records are visible to readers immediately but only durable once {@link #force}
+ * returns; records not yet forced can be taken back with {@link #truncate}. On open, the log is
+ * scanned up to the end of the last segment or the first bad length or checksum, in whichever
+ * segment it is: a crash can tear a record at the end of one segment while the next one has
+ * already reached the disk. The bad record marks the end of what was written before the last
+ * shutdown or crash; anything after it is zeroed and later segments are deleted. Appending,
+ * forcing and truncating must happen on one thread; reading may happen on any.
+ */
+@Slf4j
+final class MappedSegmentLog implements Closeable {
+
+    /**
+     * Receives each record found by {@link #open}, in log order
+     */
+    @FunctionalInterface
+    interface RecordVisitor {
+        void visit(long offset, ByteBuffer payload);
+    }
+
+    static final int HEADER_BYTES = 8;
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final List<MappedByteBuffer> segments = new CopyOnWriteArrayList<>();
+    private final CRC32C crc = new CRC32C();
+    private int writeSegment;
+    private int writePosition;
+    private int forcedSegment;
+    private int forcedPosition;
+
+    private MappedSegmentLog(Path directory, long segmentBytes) {
+        if (segmentBytes <= HEADER_BYTES || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size must be between " + HEADER_BYTES + " bytes and 2GB");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Maps the existing segments, hands every valid record to {@code visitor} and positions the
+     * log for appending after the last one
+     */
+    static MappedSegmentLog open(Path directory, long segmentBytes, RecordVisitor visitor) throws IOException {
+        MappedSegmentLog log = new MappedSegmentLog(Files.createDirectories(directory), segmentBytes);
+        log.recover(visitor);
+        return log;
+    }
+
+    /**
+     * Appends one record and returns its offset
+     */
+    long append(ByteBuffer payload) throws IOException {
+        int length = payload.remaining();
+        if (HEADER_BYTES + (long) length > segmentBytes) {
+            throw new IllegalArgumentException("Record of " + length + " bytes does not fit in a segment");
+        }
+        if (writePosition + HEADER_BYTES + length > segmentBytes) {
+            writeSegment++;
+            writePosition = 0;
+            if (writeSegment == segments.size()) {
+                segments.add(map(writeSegment));
+            }
+        }
+        crc.reset();
+        crc.update(payload.duplicate());
+        ByteBuffer out = segments.get(writeSegment).duplicate();
+        // payload before header, so a record is never visible with a length but no content
+        out.position(writePosition + HEADER_BYTES).put(payload);
+        out.putInt(writePosition + 4, (int) crc.getValue());
+        out.putInt(writePosition, length);
+        long offset = writeSegment * segmentBytes + writePosition;
+        writePosition += HEADER_BYTES + length;
+        return offset;
+    }
+
+    /**
+     * Writes everything appended since the last call through to disk
+     */
+    void force() {
+        for (int s = forcedSegment; s <= writeSegment; s++) {
+            MappedByteBuffer segment = segments.get(s);
+            int from = s == forcedSegment ? forcedPosition : 0;
+            int to = s == writeSegment ? writePosition : (int) segmentBytes;
+            if (to > from) {
+                segment.force(from, to - from);
+            }
+        }
+        forcedSegment = writeSegment;
+        forcedPosition = writePosition;
+    }
+
+    /**
+     * Discards the records from {@code offset}, the offset of a record not yet forced, to the
+     * end: they are zeroed and the zeros forced, so neither a later {@link #force} nor the next
+     * open brings them back, and the next append is written at {@code offset}
+     */
+    void truncate(long offset) {
+        int segment = (int) (offset / segmentBytes);
+        int position = (int) (offset % segmentBytes);
+        if (segment < forcedSegment || segment == forcedSegment && position < forcedPosition) {
+            throw new IllegalArgumentException("Offset " + offset + " has already been forced");
+        }
+        for (int s = segment; s <= writeSegment; s++) {
+            int from = s == segment ? position : 0;
+            int to = s == writeSegment ? writePosition : (int) segmentBytes;
+            if (to > from) {
+                zero(segments.get(s), from, to);
+                segments.get(s).force(from, to - from);
+            }
+        }
+        writeSegment = segment;
+        writePosition = position;
+    }
+
+    /**
+     * The payload of the record at {@code offset}, as a read-only view of the mapping
+     */
+    ByteBuffer read(long offset) {
+        ByteBuffer segment = segments.get((int) (offset / segmentBytes));
+        int position = (int) (offset % segmentBytes);
+        int length = segment.getInt(position);
+        return segment.slice(position + HEADER_BYTES, length).asReadOnlyBuffer();
+    }
+
+    /**
+     * Offset the next record will be written at, unless it has to start a new segment
+     */
+    long writeOffset() {
+        return writeSegment * segmentBytes + writePosition;
+    }
+
+    @Override
+    public void close() {
+        force();
+        // the mappings are released once they are garbage collected
+        segments.clear();
+    }
+
+    private void recover(RecordVisitor visitor) throws IOException {
+        long lastStart;
+        try (Stream<Path> files = Files.list(directory)) {
+            lastStart = files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .mapToLong(name -> Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .max().orElse(0);
+        }
+        for (int s = 0; s <= lastStart / segmentBytes; s++) {
+            segments.add(map(s));
+        }
+        for (int s = 0; s < segments.size(); s++) {
+            MappedByteBuffer segment = segments.get(s);
+            boolean torn = false;
+            int position = 0;
+            while (position + HEADER_BYTES <= segmentBytes) {
+                int length = segment.getInt(position);
+                if (length == 0) {
+                    break;
+                }
+                if (length < 0 || position + HEADER_BYTES + (long) length > segmentBytes
+                        || !checksumMatches(segment, position, length)) {
+                    log.warn("Cutting torn tail of event log {} at offset {}", directory,
+                            s * segmentBytes + position);
+                    zero(segment, position, (int) segmentBytes);
+                    segment.force();
+                    torn = true;
+                    break;
+                }
+                visitor.visit(s * segmentBytes + position, segment.slice(position + HEADER_BYTES, length));
+                position += HEADER_BYTES + length;
+            }
+            writeSegment = s;
+            writePosition = position;
+            if (torn) {
+                dropSegmentsAfter(s);
+                break;
+            }
+        }
+        forcedSegment = writeSegment;
+        forcedPosition = writePosition;
+    }
+
+    private boolean checksumMatches(ByteBuffer segment, int position, int length) {
+        crc.reset();
+        crc.update(segment.slice(position + HEADER_BYTES, length));
+        return (int) crc.getValue() == segment.getInt(position + 4);
+    }
+
+    private static void zero(MappedByteBuffer segment, int from, int to) {
+        byte[] zeros = new byte[64 * 1024];
+        for (int i = from; i < to; i += zeros.length) {
+            segment.put(i, zeros, 0, Math.min(zeros.length, to - i));
+        }
+    }
+
+    /**
+     * Deletes the segments after {@code segment}, which follow a torn record and so were never
+     * acknowledged
+     */
+    private void dropSegmentsAfter(int segment) throws IOException {
+        while (segments.size() > segment + 1) {
+            int s = segments.size() - 1;
+            segments.remove(s);
+            Files.deleteIfExists(segmentPath(s));
+            log.warn("Deleted segment {} of event log {}, written after a torn record", s, directory);
+        }
+    }
+
+    private Path segmentPath(int segment) {
+        return directory.resolve(String.format("%020d%s", segment * segmentBytes, SEGMENT_SUFFIX));
+    }
+
+    private MappedByteBuffer map(int segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+    }
+}
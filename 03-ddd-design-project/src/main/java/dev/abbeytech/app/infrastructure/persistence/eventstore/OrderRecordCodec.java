@@ -0,0 +1,95 @@
+package dev.abbeytech.app.infrastructure.persistence.eventstore;
+
+import dev.abbeytech.app.domain.event.DomainEvent;
+import dev.abbeytech.app.domain.model.order.Order;
+import dev.abbeytech.app.domain.model.order.OrderItem;
+import dev.abbeytech.app.domain.model.order.OrderStatus;
+import dev.abbeytech.app.infrastructure.messaging.DomainEventCodec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Payload of the records in the order event log: a kind byte, the order id and the version the
+ * order is at after the record, then either one event in {@link DomainEventCodec} form or a
+ * snapshot of the order's state.
+ */
+final class OrderRecordCodec {
+
+    static final byte EVENT = 1;
+    static final byte SNAPSHOT = 2;
+
+    private OrderRecordCodec() {
+    }
+
+    static void encodeEvent(DomainEvent event, long version, ByteBuffer out) {
+        out.put(EVENT);
+        out.putLong(event.aggregateId());
+        out.putLong(version);
+        DomainEventCodec.encode(event, out);
+    }
+
+    static void encodeSnapshot(Order.Snapshot snapshot, ByteBuffer out) {
+        out.put(SNAPSHOT);
+        out.putLong(snapshot.orderId());
+        out.putLong(snapshot.version());
+        out.putLong(snapshot.customerId());
+        out.putInt(snapshot.items().size());
+        for (OrderItem item : snapshot.items()) {
+            out.putLong(item.productId());
+            out.putInt(item.quantity());
+            out.putLong(item.unitPriceMinor());
+        }
+        putString(out, snapshot.currency());
+        putString(out, snapshot.status().name());
+        out.putLong(snapshot.placedAt().getEpochSecond());
+        out.putInt(snapshot.placedAt().getNano());
+    }
+
+    static byte kind(ByteBuffer record) {
+        return record.get(0);
+    }
+
+    static long orderId(ByteBuffer record) {
+        return record.getLong(1);
+    }
+
+    static long version(ByteBuffer record) {
+        return record.getLong(9);
+    }
+
+    static DomainEvent decodeEvent(ByteBuffer record) {
+        return DomainEventCodec.decode(record.position(17));
+    }
+
+    static Order.Snapshot decodeSnapshot(ByteBuffer record) {
+        ByteBuffer in = record.position(1);
+        long orderId = in.getLong();
+        long version = in.getLong();
+        long customerId = in.getLong();
+        int count = in.getInt();
+        List<OrderItem> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new OrderItem(in.getLong(), in.getInt(), in.getLong()));
+        }
+        String currency = getString(in);
+        OrderStatus status = OrderStatus.valueOf(getString(in));
+        Instant placedAt = Instant.ofEpochSecond(in.getLong(), in.getInt());
+        return new Order.Snapshot(orderId, customerId, items, currency, status, placedAt, version);
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putInt(bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,85 @@
+package dev.abbeytech.app.infrastructure.persistence.inventory;
+
+import dev.abbeytech.app.domain.repository.InventoryRepository;
+import dev.abbeytech.app.infrastructure.config.InventoryProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * On-hand stock in a local file of {@code (productId, quantity)} pairs. The table is kept in
+ * memory and the file is rewritten, through a temporary file and an atomic rename, on every
+ * change; changes arrive as batches, so that is once per batch rather than once per order.
+ */
+@Repository
+public class FileInventoryRepository implements InventoryRepository {
+
+    private final Path file;
+    private final Map<Long, Long> stock = new HashMap<>();
+
+    @Autowired
+    public FileInventoryRepository(InventoryProperties properties) {
+        this(Path.of(properties.stockFile()));
+    }
+
+    FileInventoryRepository(Path file) {
+        this.file = file;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            for (int n = in.readInt(); n > 0; n--) {
+                stock.put(in.readLong(), in.readLong());
+            }
+        } catch (NoSuchFileException e) {
+            // no stock recorded yet
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read inventory file " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized Map<Long, Long> loadStock() {
+        return Map.copyOf(stock);
+    }
+
+    @Override
+    public synchronized void applyStockChanges(Map<Long, Long> deltas) {
+        Map<Long, Long> updated = new HashMap<>(stock);
+        deltas.forEach((productId, delta) -> updated.merge(productId, delta, Long::sum));
+        try {
+            write(updated);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write inventory file " + file, e);
+        }
+        stock.clear();
+        stock.putAll(updated);
+    }
+
+    private void write(Map<Long, Long> table) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(table.size());
+                for (Map.Entry<Long, Long> entry : table.entrySet()) {
+                    out.writeLong(entry.getKey());
+                    out.writeLong(entry.getValue());
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
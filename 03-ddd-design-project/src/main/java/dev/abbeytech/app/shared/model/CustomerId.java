@@ -0,0 +1,22 @@
+package dev.abbeytech.app.shared.model;
+
+/**
+ * Identity of a customer; see {@link OrderId}
+ */
+public record CustomerId(long value) {
+
+    public CustomerId {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Customer id must be positive: " + value);
+        }
+    }
+
+    public static CustomerId of(long value) {
+        return new CustomerId(value);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(value);
+    }
+}
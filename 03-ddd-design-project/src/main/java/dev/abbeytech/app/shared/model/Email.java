@@ -0,0 +1,81 @@
+package dev.abbeytech.app.shared.model;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A validated email address, with the domain lower-cased.
+ *
+ * <p>Addresses are interned: {@link #of} hands out one shared instance per address, so the
+ * same customer's email read from many events or rows is one object rather than one string
+ * per copy, and looking up an address already in its normal form allocates nothing. The pool
+ * stops growing at {@value #MAX_INTERNED} addresses; later ones are still valid but not shared,
+ * which is why equality is by value.
+ */
+public final class Email {
+
+    static final int MAX_INTERNED = 100_000;
+
+    private static final Map<String, Email> INTERNED = new ConcurrentHashMap<>();
+
+    private final String value;
+
+    private Email(String value) {
+        this.value = value;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code address} is not a plausible email address
+     */
+    public static Email of(String address) {
+        Email interned = INTERNED.get(address);
+        if (interned != null) {
+            return interned;
+        }
+        String normalised = normalise(address);
+        interned = INTERNED.get(normalised);
+        if (interned != null) {
+            return interned;
+        }
+        Email email = new Email(normalised);
+        if (INTERNED.size() < MAX_INTERNED) {
+            Email raced = INTERNED.putIfAbsent(normalised, email);
+            return raced != null ? raced : email;
+        }
+        return email;
+    }
+
+    public String value() {
+        return value;
+    }
+
+    public String domain() {
+        return value.substring(value.indexOf('@') + 1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof Email other && value.equals(other.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+
+    private static String normalise(String address) {
+        String trimmed = address.strip();
+        int at = trimmed.indexOf('@');
+        if (at <= 0 || at != trimmed.lastIndexOf('@') || at == trimmed.length() - 1
+                || trimmed.indexOf('.', at) < 0 || trimmed.chars().anyMatch(Character::isWhitespace)) {
+            throw new IllegalArgumentException("Invalid email address: " + address);
+        }
+        return trimmed.substring(0, at + 1) + trimmed.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,23 @@
+package dev.abbeytech.app.shared.model;
+
+/**
+ * Identity of an order. Ids are positive {@code long}s from a sequence: eight bytes that
+ * compare, hash and serialise as a primitive, where a UUID costs two objects and a string form.
+ */
+public record OrderId(long value) {
+
+    public OrderId {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Order id must be positive: " + value);
+        }
+    }
+
+    public static OrderId of(long value) {
+        return new OrderId(value);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(value);
+    }
+}
@@ -0,0 +1,22 @@
+package dev.abbeytech.app.shared.model;
+
+/**
+ * Identity of a product; see {@link OrderId}
+ */
+public record ProductId(long value) {
+
+    public ProductId {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Product id must be positive: " + value);
+        }
+    }
+
+    public static ProductId of(long value) {
+        return new ProductId(value);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(value);
+    }
+}
@@ -0,0 +1,164 @@
+package dev.abbeytech.app.application.projection;
+
+import dev.abbeytech.app.application.dto.OrderDTO;
+import dev.abbeytech.app.domain.event.CustomerRegisteredEvent;
+import dev.abbeytech.app.domain.event.DomainEvent;
+import dev.abbeytech.app.domain.event.EventBus;
+import dev.abbeytech.app.domain.event.OrderPlacedEvent;
+import dev.abbeytech.app.domain.event.OrderStatusChangedEvent;
+import dev.abbeytech.app.domain.event.ProductCreatedEvent;
+import dev.abbeytech.app.domain.model.order.Order;
+import dev.abbeytech.app.domain.model.order.OrderItem;
+import dev.abbeytech.app.domain.model.order.OrderStatus;
+import dev.abbeytech.app.infrastructure.config.OrderStoreProperties;
+import dev.abbeytech.app.infrastructure.messaging.outbox.FileOutbox;
+import dev.abbeytech.app.infrastructure.persistence.eventstore.EventSourcedOrderRepository;
+import dev.abbeytech.app.shared.model.CustomerId;
+import dev.abbeytech.app.shared.model.Email;
+import dev.abbeytech.app.shared.model.OrderId;
+import dev.abbeytech.app.shared.model.ProductId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ProjectionEngineTest {
+
+    static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    static final DomainEvent PRODUCT = new ProductCreatedEvent(11, "Keyboard", 1999, "EUR", 40, NOW);
+    static final DomainEvent CUSTOMER = new CustomerRegisteredEvent(3, "Ada", "ada@example.com", NOW);
+    static final DomainEvent ORDER =
+            new OrderPlacedEvent(7, 3, List.of(new OrderPlacedEvent.Line(11, 2, 1999)), 3998, "EUR", NOW);
+
+    @Test
+    void ordersAreDenormalisedAndCountersUpdated() throws Exception {
+        ProjectionEngine engine = new ProjectionEngine(null, null, Duration.ofSeconds(30), false, false);
+        engine.onEvent(PRODUCT, 1, true);
+        engine.onEvent(CUSTOMER, 2, true);
+        engine.onEvent(ORDER, 3, true);
+
+        OrderDTO order = engine.order(OrderId.of(7));
+        assertEquals("Ada", order.customerName());
+        assertEquals(Email.of("ada@example.com"), order.customerEmail());
+        assertEquals(List.of(new OrderDTO.Line(ProductId.of(11), "Keyboard", 2, 1999)), order.lines());
+        assertEquals(2, engine.product(ProductId.of(11)).unitsOrdered());
+        assertEquals(1, engine.customer(CustomerId.of(3)).orderCount());
+        assertEquals(NOW, engine.customer(CustomerId.of(3)).lastOrderAt());
+        assertNull(engine.order(OrderId.of(8)));
+    }
+
+    @Test
+    void ordersSavedToTheRepositoryReachTheReadModel(@TempDir Path dir) throws Exception {
+        ProjectionEngine engine = new ProjectionEngine(null, null, Duration.ofSeconds(30), false, false);
+        engine.onEvent(PRODUCT, 1, true);
+        engine.onEvent(CUSTOMER, 2, true);
+        AtomicLong position = new AtomicLong(2);
+        EventBus bus = event -> {
+            try {
+                engine.onEvent(event, position.incrementAndGet(), true);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        EventSourcedOrderRepository repository = new EventSourcedOrderRepository(
+                new OrderStoreProperties(true, dir.toString(), DataSize.ofMegabytes(1), false, 3, 64), bus);
+        try {
+            Order order = Order.place(7, 3, List.of(new OrderItem(11, 2, 1999)), "EUR", NOW);
+            repository.save(order);
+            order.pay(NOW);
+            repository.save(order);
+        } finally {
+            repository.close();
+        }
+
+        OrderDTO projected = engine.order(OrderId.of(7));
+        assertEquals("Ada", projected.customerName());
+        assertEquals(OrderStatus.PAID, projected.status());
+        assertEquals(2, engine.product(ProductId.of(11)).unitsOrdered());
+        assertEquals(1, engine.customer(CustomerId.of(3)).orderCount());
+    }
+
+    @Test
+    void ordersFollowTheirStatusChangesAcrossASnapshot(@TempDir Path dir) throws Exception {
+        Path snapshot = dir.resolve("projections.snapshot");
+        try (FileOutbox log = new FileOutbox(dir.resolve("outbox"), 1024 * 1024, false, true)) {
+            log.recover();
+            ProjectionEngine engine = new ProjectionEngine(snapshot, log, Duration.ofHours(1), false, true);
+            engine.load();
+            engine.onEvent(ORDER, log.append(ORDER), true);
+            assertEquals(OrderStatus.PLACED, engine.order(OrderId.of(7)).status());
+            DomainEvent paid = new OrderStatusChangedEvent(7, OrderStatus.PAID, NOW.plusSeconds(60));
+            engine.onEvent(paid, log.append(paid), true);
+            // a status change for an order the read model never saw placed is ignored
+            DomainEvent unknown = new OrderStatusChangedEvent(8, OrderStatus.SHIPPED, NOW);
+            engine.onEvent(unknown, log.append(unknown), true);
+            engine.snapshot();
+            log.flush();
+
+            ProjectionEngine restarted = new ProjectionEngine(snapshot, log, Duration.ofHours(1), false, true);
+            restarted.load();
+            assertEquals(OrderStatus.PAID, restarted.order(OrderId.of(7)).status());
+            assertEquals(NOW, restarted.order(OrderId.of(7)).placedAt());
+            assertNull(restarted.order(OrderId.of(8)));
+        }
+    }
+
+    @Test
+    void restartLoadsTheSnapshotCatchesUpFromTheLogAndSkipsRedeliveries(@TempDir Path dir) throws Exception {
+        Path snapshot = dir.resolve("projections.snapshot");
+        try (FileOutbox log = new FileOutbox(dir.resolve("outbox"), 1024 * 1024, false, true)) {
+            log.recover();
+            ProjectionEngine engine = new ProjectionEngine(snapshot, log, Duration.ofHours(1), false, true);
+            engine.load();
+            engine.onEvent(PRODUCT, log.append(PRODUCT), true);
+            engine.onEvent(CUSTOMER, log.append(CUSTOMER), true);
+            engine.snapshot();
+            long orderOffset = log.append(ORDER);
+            log.flush();
+
+            ProjectionEngine restarted = new ProjectionEngine(snapshot, log, Duration.ofHours(1), false, true);
+            restarted.load();
+            assertEquals(orderOffset, restarted.position());
+            assertEquals(1, restarted.customer(CustomerId.of(3)).orderCount());
+            assertEquals(Email.of("ada@example.com"), restarted.customer(CustomerId.of(3)).email());
+
+            // the bus redelivers the unacknowledged order after recovery
+            restarted.onEvent(ORDER, orderOffset, true);
+            assertEquals(2, restarted.product(ProductId.of(11)).unitsOrdered());
+            assertEquals(1, restarted.customer(CustomerId.of(3)).orderCount());
+        }
+    }
+
+    @Test
+    void rebuildOnStartIgnoresTheSnapshot(@TempDir Path dir) throws Exception {
+        Path snapshot = dir.resolve("projections.snapshot");
+        try (FileOutbox log = new FileOutbox(dir.resolve("outbox"), 1024 * 1024, false, true)) {
+            log.recover();
+            ProjectionEngine engine = new ProjectionEngine(snapshot, log, Duration.ofHours(1), false, true);
+            engine.load();
+            engine.onEvent(PRODUCT, log.append(PRODUCT), true);
+            engine.snapshot();
+            engine.onEvent(CUSTOMER, log.append(CUSTOMER), true);
+            long end = log.append(ORDER);
+            log.flush();
+            log.checkpoint(end);
+
+            ProjectionEngine rebuilt = new ProjectionEngine(snapshot, log, Duration.ofHours(1), true, true);
+            rebuilt.load();
+            assertEquals(end, rebuilt.position());
+            assertEquals("Keyboard", rebuilt.order(OrderId.of(7)).lines().get(0).productName());
+            assertEquals(2, rebuilt.product(ProductId.of(11)).unitsOrdered());
+        }
+    }
+}
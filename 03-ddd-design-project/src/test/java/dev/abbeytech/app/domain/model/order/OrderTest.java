@@ -0,0 +1,68 @@
+package dev.abbeytech.app.domain.model.order;
+
+import dev.abbeytech.app.domain.event.OrderPlacedEvent;
+import dev.abbeytech.app.domain.event.OrderStatusChangedEvent;
+import dev.abbeytech.app.domain.exception.InvalidOrderException;
+import dev.abbeytech.app.shared.model.Money;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Currency;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderTest {
+
+    static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Test
+    void changesAreRecordedAsEventsAndReplayToTheSameState() {
+        Order order = Order.place(7, 3, List.of(new OrderItem(11, 2, 1999), new OrderItem(12, 1, 500)), "EUR", NOW);
+        order.pay(NOW);
+
+        assertEquals(4498, order.totalMinor());
+        assertEquals(OrderStatus.PAID, order.status());
+        assertEquals(2, order.version());
+        assertInstanceOf(OrderPlacedEvent.class, order.uncommittedEvents().get(0));
+        assertInstanceOf(OrderStatusChangedEvent.class, order.uncommittedEvents().get(1));
+
+        Order replayed = Order.replay(null, order.uncommittedEvents());
+        assertEquals(order.snapshot(), replayed.snapshot());
+        assertTrue(replayed.uncommittedEvents().isEmpty());
+
+        Order fromSnapshot = Order.replay(order.snapshot(), List.of());
+        fromSnapshot.ship(NOW);
+        assertEquals(OrderStatus.SHIPPED, fromSnapshot.status());
+        assertEquals(3, fromSnapshot.version());
+    }
+
+    @Test
+    void linesArePrimitiveBackedAndTotalInMoney() {
+        Order order = Order.place(7, 3, List.of(new OrderItem(11, 2, 1999), new OrderItem(12, 1, 500)), "EUR", NOW);
+
+        OrderLines lines = order.lines();
+        assertEquals(2, lines.size());
+        assertEquals(12, lines.productId(1));
+        assertEquals(List.of(new OrderItem(11, 2, 1999), new OrderItem(12, 1, 500)), order.items());
+        assertEquals(Money.parse("44.98", Currency.getInstance("EUR")), order.total());
+        assertEquals(lines, OrderLines.of(order.items()));
+        assertThrows(ArithmeticException.class,
+                () -> OrderLines.builder(1).add(11, 2, Long.MAX_VALUE / 2 + 1).build().totalMinor());
+    }
+
+    @Test
+    void lifecycleRulesAreEnforced() {
+        assertThrows(InvalidOrderException.class, () -> Order.place(7, 3, List.of(), "EUR", NOW));
+        assertThrows(InvalidOrderException.class, () -> new OrderItem(11, 0, 1999));
+
+        Order order = Order.place(7, 3, List.of(new OrderItem(11, 2, 1999)), "EUR", NOW);
+        assertThrows(InvalidOrderException.class, () -> order.ship(NOW));
+        order.cancel(NOW);
+        assertThrows(InvalidOrderException.class, () -> order.pay(NOW));
+        assertThrows(InvalidOrderException.class, () -> order.cancel(NOW));
+    }
+}
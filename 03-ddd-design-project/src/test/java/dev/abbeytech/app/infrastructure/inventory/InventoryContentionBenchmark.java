@@ -0,0 +1,120 @@
+package dev.abbeytech.app.infrastructure.inventory;
+
+import dev.abbeytech.app.domain.repository.InventoryRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reservations per second on a single hot product, every thread reserving and releasing one
+ * unit: a lock per product, standing in for a row lock, against the {@link StockCounter}
+ * alone and the full {@link InventoryReservationEngine} with reservation tracking and expiry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(Threads.MAX)
+@Fork(1)
+public class InventoryContentionBenchmark {
+
+    static final long HOT_PRODUCT = 1;
+    static final long STOCK = 1_000_000;
+
+    private LockedStock locked;
+    private StockCounter counter;
+    private InventoryReservationEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        locked = new LockedStock(STOCK);
+        counter = new StockCounter(STOCK);
+        InventoryRepository repository = new InventoryRepository() {
+            @Override
+            public Map<Long, Long> loadStock() {
+                return Map.of(HOT_PRODUCT, STOCK);
+            }
+
+            @Override
+            public void applyStockChanges(Map<Long, Long> deltas) {
+            }
+        };
+        // released reservations stay on the expiry wheel until their deadline; a short TTL keeps it small
+        engine = new InventoryReservationEngine(repository, Duration.ofSeconds(2), Duration.ofSeconds(1),
+                Clock.systemUTC());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engine.shutdown();
+    }
+
+    @Benchmark
+    public boolean lockedRow() {
+        boolean reserved = locked.tryReserve(1);
+        if (reserved) {
+            locked.add(1);
+        }
+        return reserved;
+    }
+
+    @Benchmark
+    public boolean stripedCounter() {
+        boolean reserved = counter.tryReserve(1);
+        if (reserved) {
+            counter.add(1);
+        }
+        return reserved;
+    }
+
+    @Benchmark
+    public long engine() {
+        InventoryReservationEngine.Reservation reservation = engine.reserve(HOT_PRODUCT, 1);
+        engine.release(reservation.id());
+        return reservation.id();
+    }
+
+    static final class LockedStock {
+
+        private long stock;
+
+        LockedStock(long stock) {
+            this.stock = stock;
+        }
+
+        synchronized boolean tryReserve(long quantity) {
+            if (stock < quantity) {
+                return false;
+            }
+            stock -= quantity;
+            return true;
+        }
+
+        synchronized void add(long quantity) {
+            stock += quantity;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(InventoryContentionBenchmark.class.getSimpleName()).build()).run();
+    }
+}
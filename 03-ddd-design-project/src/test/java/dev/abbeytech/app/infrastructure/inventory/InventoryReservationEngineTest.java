@@ -0,0 +1,162 @@
+package dev.abbeytech.app.infrastructure.inventory;
+
+import dev.abbeytech.app.domain.exception.InsufficientStockException;
+import dev.abbeytech.app.domain.exception.ReservationExpiredException;
+import dev.abbeytech.app.domain.repository.InventoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InventoryReservationEngineTest {
+
+    final MutableClock clock = new MutableClock();
+    final InMemoryInventory repository = new InMemoryInventory(Map.of(11L, 100L));
+    InventoryReservationEngine engine;
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    void aHotProductIsNeverOversold() throws Exception {
+        engine = new InventoryReservationEngine(repository, Duration.ofMinutes(10), Duration.ofHours(1), clock);
+        engine.restock(12, 20_000);
+        AtomicLong reserved = new AtomicLong();
+        try (ExecutorService pool = Executors.newFixedThreadPool(16)) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                workers.add(pool.submit(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        try {
+                            engine.reserve(12, 3);
+                            reserved.addAndGet(3);
+                        } catch (InsufficientStockException e) {
+                            // sold out
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        // 80,000 requested of 20,000: everything that can be sold is, and no more
+        assertEquals(19_998, reserved.get());
+        assertEquals(2, engine.available(12));
+        assertThrows(InsufficientStockException.class, () -> engine.reserve(12, 3));
+        assertEquals(2, engine.reserve(12, 2).quantity());
+    }
+
+    @Test
+    void unconfirmedReservationsAreReleasedAfterTheirTtl() {
+        engine = new InventoryReservationEngine(repository, Duration.ofMinutes(10), Duration.ofHours(1), clock);
+        InventoryReservationEngine.Reservation kept = engine.reserve(11, 30);
+        InventoryReservationEngine.Reservation abandoned = engine.reserve(11, 50);
+        InventoryReservationEngine.Reservation released = engine.reserve(11, 20);
+        assertThrows(InsufficientStockException.class, () -> engine.reserve(11, 1));
+
+        engine.release(released.id());
+        engine.confirm(kept.id());
+        assertEquals(20, engine.available(11));
+        // only the open reservation is still waiting to expire
+        assertEquals(1, engine.scheduledExpiries());
+
+        clock.advance(Duration.ofMinutes(11));
+        engine.expire();
+        assertEquals(70, engine.available(11));
+        assertEquals(0, engine.openReservations());
+        assertEquals(0, engine.scheduledExpiries());
+        assertThrows(ReservationExpiredException.class, () -> engine.confirm(abandoned.id()));
+    }
+
+    @Test
+    void confirmedChangesAreFlushedInOneBatchAndRetriedOnFailure() {
+        engine = new InventoryReservationEngine(repository, Duration.ofMinutes(10), Duration.ofHours(1), clock);
+        for (int i = 0; i < 10; i++) {
+            engine.confirm(engine.reserve(11, 2).id());
+        }
+        engine.restock(12, 5);
+        engine.reserve(11, 7);
+
+        repository.failNext = true;
+        assertThrows(IllegalStateException.class, engine::flush);
+        assertEquals(Map.of(11L, 100L), repository.loadStock());
+
+        engine.flush();
+        assertEquals(Map.of(11L, 80L, 12L, 5L), repository.loadStock());
+        assertEquals(1, repository.writes);
+
+        // a restart sees the flushed on-hand stock; the unconfirmed reservation is gone
+        engine.shutdown();
+        engine = new InventoryReservationEngine(repository, Duration.ofMinutes(10), Duration.ofHours(1), clock);
+        assertEquals(80, engine.available(11));
+    }
+
+    static final class InMemoryInventory implements InventoryRepository {
+
+        final Map<Long, Long> stock;
+        boolean failNext;
+        int writes;
+
+        InMemoryInventory(Map<Long, Long> stock) {
+            this.stock = new HashMap<>(stock);
+        }
+
+        @Override
+        public synchronized Map<Long, Long> loadStock() {
+            return Map.copyOf(stock);
+        }
+
+        @Override
+        public synchronized void applyStockChanges(Map<Long, Long> deltas) {
+            if (failNext) {
+                failNext = false;
+                throw new IllegalStateException("disk full");
+            }
+            deltas.forEach((productId, delta) -> stock.merge(productId, delta, Long::sum));
+            writes++;
+        }
+    }
+
+    static final class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package dev.abbeytech.app.infrastructure.messaging.eventbus;
+
+import dev.abbeytech.app.domain.event.DomainEvent;
+import dev.abbeytech.app.domain.event.DomainEventHandler;
+import dev.abbeytech.app.domain.event.ProductCreatedEvent;
+import dev.abbeytech.app.infrastructure.messaging.outbox.FileOutbox;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Events per second through {@link EventBusImpl} to two handlers: publishing a batch and
+ * waiting until both handlers have consumed it, with and without the outbox journal
+ * (unsynced, so the figure is the bus rather than the disk).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventBusBenchmark {
+
+    static final int BATCH = 65_536;
+
+    @Param({"false", "true"})
+    private boolean outbox;
+
+    @Param({"YIELDING", "SLEEPING"})
+    private WaitStrategy.Type waitStrategy;
+
+    private EventBusImpl bus;
+    private CountingHandler first;
+    private CountingHandler second;
+    private List<DomainEvent> events;
+    private long expected;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        first = new CountingHandler();
+        second = new CountingHandler();
+        FileOutbox log = outbox
+                ? new FileOutbox(Files.createTempDirectory("outbox-bench"), 256L * 1024 * 1024, false)
+                : null;
+        bus = new EventBusImpl(BATCH, WaitStrategy.of(waitStrategy), log, Duration.ofMillis(100),
+                List.of(first, second));
+        bus.start();
+        Instant now = Instant.now();
+        events = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            events.add(new ProductCreatedEvent(i, "product", 100, "EUR", 1, now));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        bus.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long publishAndConsume() {
+        bus.publishAll(events);
+        expected += BATCH;
+        while (first.count.get() < expected || second.count.get() < expected) {
+            Thread.onSpinWait();
+        }
+        return expected;
+    }
+
+    static final class CountingHandler implements DomainEventHandler {
+
+        final AtomicLong count = new AtomicLong();
+        private long pending;
+
+        @Override
+        public void onEvent(DomainEvent event, long position, boolean endOfBatch) {
+            pending++;
+            if (endOfBatch) {
+                count.addAndGet(pending);
+                pending = 0;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EventBusBenchmark.class.getSimpleName()).build()).run();
+    }
+}
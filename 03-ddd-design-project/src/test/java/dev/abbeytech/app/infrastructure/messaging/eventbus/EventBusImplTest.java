@@ -0,0 +1,236 @@
+package dev.abbeytech.app.infrastructure.messaging.eventbus;
+
+import dev.abbeytech.app.domain.event.DomainEvent;
+import dev.abbeytech.app.domain.event.DomainEventHandler;
+import dev.abbeytech.app.domain.event.ProductCreatedEvent;
+import dev.abbeytech.app.infrastructure.messaging.outbox.FileOutbox;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventBusImplTest {
+
+    static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @ParameterizedTest
+    @EnumSource(WaitStrategy.Type.class)
+    void everyHandlerSeesEachPublishersEventsInOrder(WaitStrategy.Type type) throws Exception {
+        int producers = 4;
+        int perProducer = 50_000;
+        OrderCheckingHandler first = new OrderCheckingHandler(producers, producers * perProducer);
+        OrderCheckingHandler second = new OrderCheckingHandler(producers, producers * perProducer);
+        EventBusImpl bus = new EventBusImpl(1024, WaitStrategy.of(type), null, Duration.ZERO, List.of(first, second));
+        bus.start();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    bus.publish(event(producer, i));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(first.done.await(30, TimeUnit.SECONDS));
+        assertTrue(second.done.await(30, TimeUnit.SECONDS));
+        assertEquals(0, first.outOfOrder);
+        assertEquals(0, second.outOfOrder);
+        bus.close();
+    }
+
+    @Test
+    void slowHandlersReceiveBatches() throws Exception {
+        int total = 10_000;
+        CountDownLatch done = new CountDownLatch(total);
+        int[] batchEnds = {0};
+        DomainEventHandler slow = (event, position, endOfBatch) -> {
+            if (endOfBatch) {
+                batchEnds[0]++;
+            }
+            if (event.aggregateId() % 1000 == 0) {
+                Thread.sleep(5);
+            }
+            done.countDown();
+        };
+        EventBusImpl bus = new EventBusImpl(4096, WaitStrategy.of(WaitStrategy.Type.BLOCKING), null, Duration.ZERO,
+                List.of(slow));
+        bus.start();
+        List<DomainEvent> events = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            events.add(event(i, i));
+        }
+        bus.publishAll(events);
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        bus.close();
+        assertTrue(batchEnds[0] < total / 10, "batches: " + batchEnds[0]);
+    }
+
+    @Test
+    void unprocessedEventsAreReplayedAfterACrash(@TempDir Path dir) throws Exception {
+        CollectingHandler handler = new CollectingHandler(100);
+        EventBusImpl bus = new EventBusImpl(256, WaitStrategy.of(WaitStrategy.Type.SLEEPING),
+                new FileOutbox(dir, 1024 * 1024, true), Duration.ofHours(1), List.of(handler));
+        bus.start();
+        for (int i = 0; i < 100; i++) {
+            bus.publish(event(1, i));
+        }
+        assertTrue(handler.done.await(10, TimeUnit.SECONDS));
+        // the checkpoint interval has not elapsed, so nothing is recorded as processed
+        bus.halt();
+
+        CollectingHandler afterCrash = new CollectingHandler(100);
+        EventBusImpl restarted = new EventBusImpl(256, WaitStrategy.of(WaitStrategy.Type.SLEEPING),
+                new FileOutbox(dir, 1024 * 1024, true), Duration.ofHours(1), List.of(afterCrash));
+        restarted.start();
+        assertTrue(afterCrash.done.await(10, TimeUnit.SECONDS));
+        assertEquals(handler.events, afterCrash.events);
+        restarted.publish(event(1, 100));
+        // a clean shutdown drains and checkpoints everything
+        restarted.close();
+
+        CollectingHandler afterShutdown = new CollectingHandler(1);
+        EventBusImpl again = new EventBusImpl(256, WaitStrategy.of(WaitStrategy.Type.SLEEPING),
+                new FileOutbox(dir, 1024 * 1024, true), Duration.ofHours(1), List.of(afterShutdown));
+        again.start();
+        assertFalse(afterShutdown.done.await(200, TimeUnit.MILLISECONDS));
+        assertTrue(afterShutdown.events.isEmpty());
+        again.close();
+    }
+
+    @Test
+    void handlersDoNotRunAheadOfAFailingJournal(@TempDir Path dir) throws Exception {
+        CollectingHandler handler = new CollectingHandler(1);
+        EventBusImpl bus = new EventBusImpl(256, WaitStrategy.of(WaitStrategy.Type.SLEEPING),
+                new FileOutbox(dir, 1024 * 1024, true), Duration.ofHours(1), List.of(handler));
+        bus.start();
+        bus.publish(event(1, 0));
+        assertTrue(handler.done.await(10, TimeUnit.SECONDS));
+        // a null name cannot be encoded, so this event never reaches the outbox
+        bus.publish(new ProductCreatedEvent(1, null, 1, "EUR", 0, NOW));
+        bus.publish(event(1, 2));
+        Thread.sleep(200);
+        bus.halt();
+        assertEquals(List.of(event(1, 0)), handler.events);
+
+        CollectingHandler afterCrash = new CollectingHandler(1);
+        EventBusImpl restarted = new EventBusImpl(256, WaitStrategy.of(WaitStrategy.Type.SLEEPING),
+                new FileOutbox(dir, 1024 * 1024, true), Duration.ofHours(1), List.of(afterCrash));
+        restarted.start();
+        assertTrue(afterCrash.done.await(10, TimeUnit.SECONDS));
+        restarted.close();
+        assertEquals(List.of(event(1, 0)), afterCrash.events);
+    }
+
+    @Test
+    void aHandlerThatAsksForRetriesGetsAFailedEventAgainBeforeTheNextOne(@TempDir Path dir) throws Exception {
+        int[] failuresLeft = {3};
+        CollectingHandler handler = new CollectingHandler(3) {
+            @Override
+            public synchronized void onEvent(DomainEvent event, long position, boolean endOfBatch) {
+                if (event.equals(event(1, 1)) && failuresLeft[0]-- > 0) {
+                    throw new IllegalStateException("downstream unavailable");
+                }
+                super.onEvent(event, position, endOfBatch);
+            }
+
+            @Override
+            public boolean retryFailures() {
+                return true;
+            }
+        };
+        EventBusImpl bus = new EventBusImpl(256, WaitStrategy.of(WaitStrategy.Type.SLEEPING),
+                new FileOutbox(dir, 1024 * 1024, true), Duration.ZERO, List.of(handler));
+        bus.start();
+        for (int i = 0; i < 3; i++) {
+            bus.publish(event(1, i));
+        }
+        assertTrue(handler.done.await(10, TimeUnit.SECONDS));
+        bus.close();
+        assertEquals(List.of(event(1, 0), event(1, 1), event(1, 2)), handler.events);
+    }
+
+    @Test
+    void closeWithoutAnOutboxDrainsTheHandlers() throws Exception {
+        int total = 1000;
+        CollectingHandler handler = new CollectingHandler(total) {
+            @Override
+            public synchronized void onEvent(DomainEvent event, long position, boolean endOfBatch) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(500));
+                super.onEvent(event, position, endOfBatch);
+            }
+        };
+        // a small ring, so the handler is still several runs behind when close is called
+        EventBusImpl bus = new EventBusImpl(64, WaitStrategy.of(WaitStrategy.Type.BLOCKING), null, Duration.ZERO,
+                List.of(handler));
+        bus.start();
+        for (int i = 0; i < total; i++) {
+            bus.publish(event(1, i));
+        }
+        bus.close();
+        assertEquals(total, handler.events.size());
+    }
+
+    static ProductCreatedEvent event(long producer, long index) {
+        return new ProductCreatedEvent(producer, "p", index, "EUR", 0, NOW);
+    }
+
+    static final class OrderCheckingHandler implements DomainEventHandler {
+
+        final long[] last;
+        final CountDownLatch done;
+        int outOfOrder;
+
+        OrderCheckingHandler(int producers, int total) {
+            this.last = new long[producers];
+            Arrays.fill(last, -1);
+            this.done = new CountDownLatch(total);
+        }
+
+        @Override
+        public void onEvent(DomainEvent event, long position, boolean endOfBatch) {
+            ProductCreatedEvent e = (ProductCreatedEvent) event;
+            int producer = (int) e.productId();
+            if (e.priceMinor() != last[producer] + 1) {
+                outOfOrder++;
+            }
+            last[producer] = e.priceMinor();
+            done.countDown();
+        }
+    }
+
+    static class CollectingHandler implements DomainEventHandler {
+
+        final List<DomainEvent> events = new ArrayList<>();
+        final CountDownLatch done;
+
+        CollectingHandler(int expected) {
+            this.done = new CountDownLatch(expected);
+        }
+
+        @Override
+        public synchronized void onEvent(DomainEvent event, long position, boolean endOfBatch) {
+            events.add(event);
+            done.countDown();
+        }
+    }
+}
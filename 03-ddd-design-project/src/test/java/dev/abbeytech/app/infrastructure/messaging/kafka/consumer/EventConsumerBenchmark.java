@@ -0,0 +1,121 @@
+package dev.abbeytech.app.infrastructure.messaging.kafka.consumer;
+
+import dev.abbeytech.app.domain.event.DomainEvent;
+import dev.abbeytech.app.domain.event.DomainEventHandler;
+import dev.abbeytech.app.domain.event.OrderStatusChangedEvent;
+import dev.abbeytech.app.domain.model.order.OrderStatus;
+import dev.abbeytech.app.infrastructure.messaging.DomainEventCodec;
+import dev.abbeytech.app.infrastructure.messaging.transport.Compression;
+import dev.abbeytech.app.infrastructure.messaging.transport.FileLogTransport;
+import dev.abbeytech.app.infrastructure.messaging.transport.MessageBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Events per second through {@link EventConsumer} from the embedded transport, with one lane
+ * against several. The handler waits 50us at the end of every batch, standing in for a write
+ * to a store, so lanes pay off even where cores are few.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventConsumerBenchmark {
+
+    static final int BATCHES = 64;
+    static final int EVENTS_PER_BATCH = 64;
+    static final int PARTITIONS = 4;
+
+    @Param({"1", "8"})
+    private int lanes;
+
+    private FileLogTransport transport;
+    private EventConsumer consumer;
+    private final AtomicLong applied = new AtomicLong();
+    private List<List<MessageBatch.Message>> batches;
+    private long nextId;
+    private final int[] sequences = new int[PARTITIONS];
+    private long expected;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        transport = new FileLogTransport(Files.createTempDirectory("consumer-bench"), PARTITIONS, false);
+        consumer = new EventConsumer(transport, "events", "bench", new DomainEventHandler() {
+            @Override
+            public void onEvent(DomainEvent event, long position, boolean endOfBatch) {
+                if (endOfBatch) {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+                }
+                applied.incrementAndGet();
+            }
+        }, lanes, 100, Duration.ofMillis(100));
+        Instant now = Instant.now();
+        batches = new ArrayList<>(BATCHES);
+        for (int b = 0; b < BATCHES; b++) {
+            List<MessageBatch.Message> messages = new ArrayList<>(EVENTS_PER_BATCH);
+            for (int i = 0; i < EVENTS_PER_BATCH; i++) {
+                long orderId = b * EVENTS_PER_BATCH + i;
+                ByteBuffer value = ByteBuffer.allocate(256);
+                DomainEventCodec.encode(new OrderStatusChangedEvent(orderId, OrderStatus.PAID, now), value);
+                messages.add(new MessageBatch.Message(orderId, 0, Arrays.copyOf(value.array(), value.position())));
+            }
+            batches.add(messages);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        consumer.close();
+        transport.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCHES * EVENTS_PER_BATCH)
+    public long consume() throws Exception {
+        for (int b = 0; b < BATCHES; b++) {
+            List<MessageBatch.Message> messages = new ArrayList<>(EVENTS_PER_BATCH);
+            for (MessageBatch.Message message : batches.get(b)) {
+                messages.add(new MessageBatch.Message(message.key(), nextId++, message.value()));
+            }
+            transport.append("events", b % PARTITIONS,
+                    new MessageBatch(1, 0, sequences[b % PARTITIONS]++, messages).encode(Compression.NONE));
+        }
+        expected += BATCHES * EVENTS_PER_BATCH;
+        while (applied.get() < expected) {
+            Thread.onSpinWait();
+        }
+        return expected;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EventConsumerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
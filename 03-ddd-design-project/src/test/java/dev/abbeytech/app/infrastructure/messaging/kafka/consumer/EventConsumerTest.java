@@ -0,0 +1,218 @@
+package dev.abbeytech.app.infrastructure.messaging.kafka.consumer;
+
+import dev.abbeytech.app.domain.event.DomainEvent;
+import dev.abbeytech.app.domain.event.DomainEventHandler;
+import dev.abbeytech.app.domain.event.OrderStatusChangedEvent;
+import dev.abbeytech.app.domain.model.order.OrderStatus;
+import dev.abbeytech.app.infrastructure.messaging.DomainEventCodec;
+import dev.abbeytech.app.infrastructure.messaging.transport.Compression;
+import dev.abbeytech.app.infrastructure.messaging.transport.FileLogTransport;
+import dev.abbeytech.app.infrastructure.messaging.transport.MessageBatch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventConsumerTest {
+
+    static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+    static final Duration COMMIT_INTERVAL = Duration.ofMillis(10);
+
+    /**
+     * Appends one batch per message list to the partition, as a producer with the given id would
+     */
+    static void append(FileLogTransport transport, int partition, long producerId, int sequence, long orderId,
+                       long... ids) throws Exception {
+        List<MessageBatch.Message> messages = new ArrayList<>();
+        for (long id : ids) {
+            ByteBuffer value = ByteBuffer.allocate(256);
+            DomainEventCodec.encode(new OrderStatusChangedEvent(orderId, OrderStatus.PAID, NOW), value);
+            messages.add(new MessageBatch.Message(orderId, id, Arrays.copyOf(value.array(), value.position())));
+        }
+        transport.append("events", partition, new MessageBatch(producerId, 0, sequence, messages).encode(Compression.ZSTD));
+    }
+
+    static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out");
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Records the ids each aggregate's events arrive with and fails on overlapping calls for one
+     */
+    static final class RecordingHandler implements DomainEventHandler {
+
+        final Map<Long, List<Long>> ids = new ConcurrentHashMap<>();
+        final Set<Long> busy = ConcurrentHashMap.newKeySet();
+        final AtomicInteger batches = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+
+        @Override
+        public void onEvent(DomainEvent event, long id, boolean endOfBatch) throws Exception {
+            if (!busy.add(event.aggregateId())) {
+                overlaps.incrementAndGet();
+            }
+            ids.computeIfAbsent(event.aggregateId(), k -> new ArrayList<>()).add(id);
+            busy.remove(event.aggregateId());
+            if (endOfBatch) {
+                batches.incrementAndGet();
+            }
+        }
+
+        int count() {
+            return ids.values().stream().mapToInt(List::size).sum();
+        }
+    }
+
+    @Test
+    void eachAggregatesEventsAreAppliedInOrderAcrossLanes(@TempDir Path dir) throws Exception {
+        try (FileLogTransport transport = new FileLogTransport(dir, 4, false)) {
+            long id = 0;
+            int[] sequences = new int[4];
+            for (int round = 0; round < 40; round++) {
+                for (long orderId = 1; orderId <= 50; orderId++) {
+                    append(transport, (int) (orderId % 4), 1, sequences[(int) (orderId % 4)]++, orderId, id++);
+                }
+            }
+            RecordingHandler handler = new RecordingHandler();
+            EventConsumer consumer = new EventConsumer(transport, "events", "billing", handler, 4, 100, COMMIT_INTERVAL);
+            await(() -> handler.count() == 2000);
+            consumer.close();
+
+            assertEquals(0, handler.overlaps.get());
+            assertEquals(50, handler.ids.size());
+            for (List<Long> ids : handler.ids.values()) {
+                assertEquals(40, ids.size());
+                for (int i = 1; i < ids.size(); i++) {
+                    assertTrue(ids.get(i) > ids.get(i - 1));
+                }
+            }
+            assertTrue(handler.batches.get() < 2000, "consecutive events are applied in batches");
+            assertEquals(2000, consumer.lanes().stream().mapToLong(EventConsumer.LaneStats::applied).sum());
+            assertTrue(consumer.lanes().stream().filter(lane -> lane.applied() > 0).count() > 1);
+            for (int p = 0; p < 4; p++) {
+                assertEquals(transport.endOffset("events", p), transport.committed("billing", "events", p));
+                assertEquals(0, consumer.lag(p));
+            }
+        }
+    }
+
+    @Test
+    void theCommittedOffsetStopsAtTheFirstBatchAStalledLaneHasNotApplied(@TempDir Path dir) throws Exception {
+        try (FileLogTransport transport = new FileLogTransport(dir, 1, false)) {
+            append(transport, 0, 1, 0, 1, 0);
+            append(transport, 0, 1, 1, 2, 1);
+            append(transport, 0, 1, 2, 3, 2);
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicInteger applied = new AtomicInteger();
+            DomainEventHandler handler = new DomainEventHandler() {
+                @Override
+                public void onEvent(DomainEvent event, long position, boolean endOfBatch) throws Exception {
+                    if (event.aggregateId() == 2) {
+                        release.await();
+                    }
+                    applied.incrementAndGet();
+                }
+            };
+            // one lane per aggregate's batch at most, so the others are not held up by the stall
+            EventConsumer consumer = new EventConsumer(transport, "events", "shipping", handler, 64, 100,
+                    COMMIT_INTERVAL);
+            try {
+                await(() -> consumer.committed(0) == 1 && applied.get() == 2);
+                Thread.sleep(50);
+                assertEquals(1, transport.committed("shipping", "events", 0));
+                assertEquals(2, consumer.lag(0));
+
+                release.countDown();
+                await(() -> consumer.committed(0) == 3);
+            } finally {
+                release.countDown();
+                consumer.close();
+            }
+        }
+    }
+
+    @Test
+    void eventsSentAgainAreDroppedAndARestartResumesAtTheCommittedOffset(@TempDir Path dir) throws Exception {
+        try (FileLogTransport transport = new FileLogTransport(dir, 1, false)) {
+            append(transport, 0, 1, 0, 7, 10, 11, 12);
+            // the same producer sending part of it again
+            append(transport, 0, 1, 1, 7, 11, 12, 13);
+            // another producer, whose ids are not comparable with the first one's
+            append(transport, 0, 2, 0, 7, 0, 1);
+            RecordingHandler handler = new RecordingHandler();
+            EventConsumer consumer = new EventConsumer(transport, "events", "billing", handler, 2, 100, COMMIT_INTERVAL);
+            await(() -> consumer.committed(0) == 3);
+            consumer.close();
+            assertEquals(List.of(10L, 11L, 12L, 13L, 0L, 1L), handler.ids.get(7L));
+
+            append(transport, 0, 2, 1, 7, 2);
+            RecordingHandler restarted = new RecordingHandler();
+            EventConsumer again = new EventConsumer(transport, "events", "billing", restarted, 2, 100, COMMIT_INTERVAL);
+            await(() -> again.committed(0) == 4);
+            again.close();
+            assertEquals(List.of(2L), restarted.ids.get(7L));
+        }
+    }
+
+    @Test
+    void closeReturnsWhileAFailingLaneIsFull(@TempDir Path dir) throws Exception {
+        try (FileLogTransport transport = new FileLogTransport(dir, 1, false)) {
+            append(transport, 0, 1, 0, 7, LongStream.range(0, 5000).toArray());
+            DomainEventHandler failing = (event, position, endOfBatch) -> {
+                throw new IllegalStateException("store unavailable");
+            };
+            EventConsumer consumer = new EventConsumer(transport, "events", "billing", failing, 1, 100,
+                    COMMIT_INTERVAL);
+            // the poller is left waiting for room in the lane's queue
+            await(() -> consumer.lanes().getFirst().backlog() > 4096);
+
+            assertTimeoutPreemptively(Duration.ofSeconds(10), consumer::close);
+            assertEquals(0, transport.committed("billing", "events", 0));
+        }
+    }
+
+    @Test
+    void laneBacklogAndPartitionLagAreReportedAsMetrics(@TempDir Path dir) throws Exception {
+        try (FileLogTransport transport = new FileLogTransport(dir, 2, false)) {
+            EventConsumer consumer = new EventConsumer(transport, "events", "billing", new RecordingHandler(), 3, 100,
+                    COMMIT_INTERVAL);
+            try {
+                SimpleMeterRegistry registry = new SimpleMeterRegistry();
+                consumer.bindTo(registry);
+                assertEquals(3, registry.find("messaging.consumer.lane.backlog").gauges().size());
+                assertEquals(3, registry.find("messaging.consumer.lane.applied").functionCounters().size());
+                assertNotNull(registry.find("messaging.consumer.partition.lag").tag("partition", "1").gauge());
+
+                append(transport, 1, 1, 0, 5, 1, 2);
+                await(() -> registry.find("messaging.consumer.lane.applied").functionCounters().stream()
+                        .mapToDouble(c -> c.count()).sum() == 2);
+                await(() -> registry.get("messaging.consumer.partition.lag").tag("partition", "1").gauge().value() == 0);
+            } finally {
+                consumer.close();
+            }
+        }
+    }
+}
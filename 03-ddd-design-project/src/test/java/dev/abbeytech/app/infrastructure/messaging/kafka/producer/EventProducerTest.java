@@ -0,0 +1,209 @@
+package dev.abbeytech.app.infrastructure.messaging.kafka.producer;
+
+import dev.abbeytech.app.domain.event.DomainEvent;
+import dev.abbeytech.app.domain.event.OrderStatusChangedEvent;
+import dev.abbeytech.app.domain.model.order.OrderStatus;
+import dev.abbeytech.app.infrastructure.messaging.DomainEventCodec;
+import dev.abbeytech.app.infrastructure.messaging.kafka.consumer.EventConsumer;
+import dev.abbeytech.app.infrastructure.messaging.transport.Compression;
+import dev.abbeytech.app.infrastructure.messaging.transport.FileLogTransport;
+import dev.abbeytech.app.infrastructure.messaging.transport.MessageBatch;
+import dev.abbeytech.app.infrastructure.messaging.transport.MessageTransport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventProducerTest {
+
+    static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    static List<MessageBatch> batches(MessageTransport transport, int partition) throws Exception {
+        List<MessageBatch> batches = new ArrayList<>();
+        for (MessageTransport.StoredBatch stored : transport.fetch("events", partition, 0, 1000)) {
+            batches.add(MessageBatch.decode(stored.batch()));
+        }
+        return batches;
+    }
+
+    @Test
+    void eventsOfOneAggregateGoToOnePartitionInOrder(@TempDir Path dir) throws Exception {
+        try (FileLogTransport transport = new FileLogTransport(dir, 4, false)) {
+            EventProducer producer = new EventProducer(transport, "events", Compression.ZSTD, 10,
+                    Duration.ofSeconds(10), ProducerIdentity.random());
+            OrderStatus[] statuses = OrderStatus.values();
+            long position = 0;
+            for (int round = 0; round < 25; round++) {
+                for (long orderId = 1; orderId <= 20; orderId++) {
+                    producer.send(new OrderStatusChangedEvent(orderId, statuses[round % statuses.length], NOW),
+                            position++);
+                }
+            }
+            producer.close();
+
+            Map<Long, Integer> partitionOfKey = new HashMap<>();
+            Map<Long, Long> lastIdOfKey = new HashMap<>();
+            int messages = 0;
+            for (int partition = 0; partition < 4; partition++) {
+                int p = partition;
+                for (MessageBatch batch : batches(transport, partition)) {
+                    assertEquals(producer.producerId(), batch.producerId());
+                    assertTrue(batch.messages().size() <= 10);
+                    for (MessageBatch.Message message : batch.messages()) {
+                        DomainEvent event = DomainEventCodec.decode(ByteBuffer.wrap(message.value()));
+                        assertEquals(message.key(), event.aggregateId());
+                        assertEquals(partition, partitionOfKey.computeIfAbsent(message.key(), k -> p));
+                        assertTrue(message.id() > lastIdOfKey.getOrDefault(message.key(), -1L));
+                        lastIdOfKey.put(message.key(), message.id());
+                        messages++;
+                    }
+                }
+            }
+            assertEquals(500, messages);
+        }
+    }
+
+    @Test
+    void aPartialBatchIsSentOnceItHasLingered(@TempDir Path dir) throws Exception {
+        try (FileLogTransport transport = new FileLogTransport(dir, 1, false)) {
+            EventProducer producer = new EventProducer(transport, "events", Compression.NONE, 1000,
+                    Duration.ofMillis(20), ProducerIdentity.random());
+            producer.send(new OrderStatusChangedEvent(1, OrderStatus.PAID, NOW), 1);
+            producer.send(new OrderStatusChangedEvent(2, OrderStatus.PAID, NOW), 2);
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (transport.endOffset("events", 0) == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            List<MessageBatch> batches = batches(transport, 0);
+            assertEquals(1, batches.size());
+            assertEquals(2, batches.getFirst().messages().size());
+            producer.close();
+        }
+    }
+
+    @Test
+    void theEndOfABusBatchIsSentBeforeTheHandlerReturns(@TempDir Path dir) throws Exception {
+        try (FileLogTransport transport = new FileLogTransport(dir, 2, false)) {
+            EventProducer producer = new EventProducer(transport, "events", Compression.ZSTD, 1000,
+                    Duration.ofMinutes(1), ProducerIdentity.random());
+            producer.onEvent(new OrderStatusChangedEvent(1, OrderStatus.PAID, NOW), 41, false);
+            producer.onEvent(new OrderStatusChangedEvent(2, OrderStatus.PAID, NOW), 42, true);
+            List<Long> ids = new ArrayList<>();
+            for (int partition = 0; partition < 2; partition++) {
+                batches(transport, partition).forEach(batch -> batch.messages().forEach(m -> ids.add(m.id())));
+            }
+            assertEquals(Set.of(41L, 42L), Set.copyOf(ids));
+            producer.close();
+        }
+    }
+
+    @Test
+    void eventsReplayedToARestartedProducerAreDroppedByConsumers(@TempDir Path dir) throws Exception {
+        Path outbox = Files.createDirectories(dir.resolve("outbox"));
+        try (FileLogTransport transport = new FileLogTransport(dir.resolve("log"), 1, false)) {
+            EventProducer producer = new EventProducer(transport, "events", Compression.ZSTD, 1000,
+                    Duration.ofMinutes(1), ProducerIdentity.next(outbox));
+            for (long position = 1; position <= 3; position++) {
+                producer.send(new OrderStatusChangedEvent(1, OrderStatus.PAID, NOW), position);
+            }
+            producer.close();
+
+            // the bus had not checkpointed past position 1, so it replays 2 and 3 after the restart
+            EventProducer restarted = new EventProducer(transport, "events", Compression.ZSTD, 1000,
+                    Duration.ofMinutes(1), ProducerIdentity.next(outbox));
+            assertEquals(producer.producerId(), restarted.producerId());
+            for (long position = 2; position <= 4; position++) {
+                restarted.send(new OrderStatusChangedEvent(1, OrderStatus.SHIPPED, NOW), position);
+            }
+            restarted.close();
+            assertEquals(2, batches(transport, 0).size());
+
+            List<Long> applied = new CopyOnWriteArrayList<>();
+            EventConsumer consumer = new EventConsumer(transport, "events", "billing",
+                    (event, id, endOfBatch) -> applied.add(id), 1, 100, Duration.ofMillis(10));
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (transport.committed("billing", "events", 0) < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            consumer.close();
+            assertEquals(List.of(1L, 2L, 3L, 4L), applied);
+        }
+    }
+
+    @Test
+    void aPartitionHeldBackByAnOutageIsSentOnceTheTransportRecovers(@TempDir Path dir) throws Exception {
+        AtomicBoolean down = new AtomicBoolean(true);
+        try (FileLogTransport files = new FileLogTransport(dir, 1, false)) {
+            MessageTransport transport = new MessageTransport() {
+                @Override
+                public int partitions(String topic) {
+                    return 1;
+                }
+
+                @Override
+                public long append(String topic, int partition, byte[] batch) throws IOException {
+                    if (down.get()) {
+                        throw new IOException("broker unavailable");
+                    }
+                    return files.append(topic, partition, batch);
+                }
+
+                @Override
+                public List<StoredBatch> fetch(String topic, int partition, long offset, int maxBatches)
+                        throws IOException {
+                    return files.fetch(topic, partition, offset, maxBatches);
+                }
+
+                @Override
+                public void commit(String group, String topic, int partition, long nextOffset) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public long committed(String group, String topic, int partition) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public long endOffset(String topic, int partition) throws IOException {
+                    return files.endOffset(topic, partition);
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+            EventProducer producer = new EventProducer(transport, "events", Compression.NONE, 1,
+                    Duration.ofMinutes(1), ProducerIdentity.random());
+            producer.send(new OrderStatusChangedEvent(1, OrderStatus.PAID, NOW), 1);
+            producer.send(new OrderStatusChangedEvent(1, OrderStatus.SHIPPED, NOW), 2);
+
+            // the first batch is given up on; the second must not be stored after the gap
+            assertThrows(IOException.class, producer::flush);
+            assertTrue(batches(transport, 0).isEmpty());
+
+            down.set(false);
+            producer.flush();
+            List<MessageBatch> stored = batches(transport, 0);
+            assertEquals(List.of(0, 1), stored.stream().map(MessageBatch::sequence).toList());
+            assertEquals(List.of(1L, 2L), stored.stream().map(batch -> batch.messages().get(0).id()).toList());
+            producer.close();
+        }
+    }
+}
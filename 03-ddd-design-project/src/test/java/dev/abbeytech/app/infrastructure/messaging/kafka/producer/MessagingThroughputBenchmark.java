@@ -0,0 +1,90 @@
+package dev.abbeytech.app.infrastructure.messaging.kafka.producer;
+
+import dev.abbeytech.app.domain.event.DomainEvent;
+import dev.abbeytech.app.domain.event.ProductCreatedEvent;
+import dev.abbeytech.app.infrastructure.messaging.transport.Compression;
+import dev.abbeytech.app.infrastructure.messaging.transport.FileLogTransport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Events per second from {@link EventProducer} into the embedded {@link FileLogTransport}
+ * (unsynced, so the figure is the producer and the file writes rather than the disk): one
+ * event per batch against batches of up to 1000, with and without compression.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessagingThroughputBenchmark {
+
+    static final int EVENTS = 16_384;
+
+    @Param({"1", "1000"})
+    private int batchSize;
+
+    @Param({"NONE", "ZSTD"})
+    private Compression compression;
+
+    private FileLogTransport transport;
+    private EventProducer producer;
+    private List<DomainEvent> events;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        transport = new FileLogTransport(Files.createTempDirectory("messaging-bench"), 8, false);
+        producer = new EventProducer(transport, "events", compression, batchSize, Duration.ofMillis(5),
+                ProducerIdentity.random());
+        Instant now = Instant.now();
+        events = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            events.add(new ProductCreatedEvent(i, "product-" + (i % 100), 100 + i % 1000, "EUR", 10, now));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        producer.close();
+        transport.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public long sendAndFlush() throws IOException {
+        for (DomainEvent event : events) {
+            producer.send(event, nextId++);
+        }
+        producer.flush();
+        return nextId;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MessagingThroughputBenchmark.class.getSimpleName()).build()).run();
+    }
+}
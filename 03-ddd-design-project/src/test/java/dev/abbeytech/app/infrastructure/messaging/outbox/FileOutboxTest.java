@@ -0,0 +1,100 @@
+package dev.abbeytech.app.infrastructure.messaging.outbox;
+
+import dev.abbeytech.app.domain.event.CustomerRegisteredEvent;
+import dev.abbeytech.app.domain.event.DomainEvent;
+import dev.abbeytech.app.domain.event.OrderPlacedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileOutboxTest {
+
+    static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Test
+    void recoveryReturnsEventsPastTheCheckpointAndCutsATornTail(@TempDir Path dir) throws Exception {
+        DomainEvent order = new OrderPlacedEvent(7, 3, List.of(new OrderPlacedEvent.Line(11, 2, 1999)), 3998, "EUR", NOW);
+        DomainEvent customer = new CustomerRegisteredEvent(3, "Ada", "ada@example.com", NOW);
+        long end;
+        try (FileOutbox outbox = new FileOutbox(dir, 1024 * 1024, false)) {
+            assertTrue(outbox.recover().isEmpty());
+            long first = outbox.append(customer);
+            outbox.append(order);
+            end = outbox.append(customer);
+            outbox.flush();
+            outbox.checkpoint(first);
+        }
+        Files.write(segments(dir).get(0), new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        try (FileOutbox outbox = new FileOutbox(dir, 1024 * 1024, false)) {
+            List<FileOutbox.Entry> pending = outbox.recover();
+            assertEquals(List.of(order, customer), pending.stream().map(FileOutbox.Entry::event).toList());
+            assertEquals(end, pending.get(1).endOffset());
+            assertEquals(end, outbox.writeOffset());
+            assertTrue(outbox.append(order) > end);
+        }
+    }
+
+    @Test
+    void segmentsBelowTheCheckpointAreDeleted(@TempDir Path dir) throws Exception {
+        DomainEvent customer = new CustomerRegisteredEvent(3, "Ada", "ada@example.com", NOW);
+        try (FileOutbox outbox = new FileOutbox(dir, 256, false)) {
+            outbox.recover();
+            long last = 0;
+            for (int i = 0; i < 50; i++) {
+                last = outbox.append(customer);
+                outbox.flush();
+            }
+            int before = segments(dir).size();
+            outbox.checkpoint(last);
+
+            assertTrue(before > 5);
+            assertEquals(1, segments(dir).size());
+        }
+        try (FileOutbox outbox = new FileOutbox(dir, 256, false)) {
+            assertTrue(outbox.recover().isEmpty());
+        }
+    }
+
+    @Test
+    void retainedSegmentsAreDeletedOnceReleased(@TempDir Path dir) throws Exception {
+        DomainEvent customer = new CustomerRegisteredEvent(3, "Ada", "ada@example.com", NOW);
+        try (FileOutbox outbox = new FileOutbox(dir, 256, false, true)) {
+            outbox.recover();
+            long[] ends = new long[50];
+            for (int i = 0; i < ends.length; i++) {
+                ends[i] = outbox.append(customer);
+                outbox.flush();
+            }
+            int before = segments(dir).size();
+            outbox.checkpoint(ends[9]);
+            assertEquals(before, segments(dir).size());
+
+            // released up to a snapshot position: only what is below both marks goes
+            outbox.release(ends[29]);
+            outbox.checkpoint(ends[49]);
+            int after = segments(dir).size();
+            assertTrue(after > 1 && after < before, after + " of " + before);
+            assertTrue(outbox.firstOffset() <= ends[29]);
+            List<DomainEvent> kept = new ArrayList<>();
+            outbox.read(ends[29], (event, endOffset) -> kept.add(event));
+            assertEquals(20, kept.size());
+        }
+    }
+
+    private static List<Path> segments(Path dir) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.toString().endsWith(FileOutbox.SEGMENT_SUFFIX)).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package dev.abbeytech.app.infrastructure.messaging.transport;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FileLogTransportTest {
+
+    static byte[] batch(long producerId, int sequence, String... values) {
+        return batch(producerId, 0, sequence, values);
+    }
+
+    static byte[] batch(long producerId, int epoch, int sequence, String... values) {
+        return new MessageBatch(producerId, epoch, sequence, Arrays.stream(values)
+                .map(v -> new MessageBatch.Message(v.length(), sequence, v.getBytes(StandardCharsets.UTF_8)))
+                .toList()).encode(Compression.ZSTD);
+    }
+
+    static String firstValue(MessageTransport.StoredBatch stored) {
+        return new String(MessageBatch.decode(stored.batch()).messages().getFirst().value(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void batchesAreFetchedInOrderFromTheirPartitionAfterARestart(@TempDir Path dir) throws Exception {
+        try (FileLogTransport transport = new FileLogTransport(dir, 4, false)) {
+            assertEquals(0, transport.append("t", 1, batch(1, 0, "a", "b")));
+            assertEquals(1, transport.append("t", 1, batch(1, 1, "c")));
+            assertEquals(0, transport.append("t", 2, batch(1, 0, "x")));
+        }
+        try (FileLogTransport transport = new FileLogTransport(dir, 4, false)) {
+            List<MessageTransport.StoredBatch> batches = transport.fetch("t", 1, 0, 10);
+            assertEquals(2, batches.size());
+            assertEquals(List.of("a", "c"), batches.stream().map(FileLogTransportTest::firstValue).toList());
+            assertEquals(2, MessageBatch.decode(batches.get(0).batch()).messages().size());
+            assertEquals(List.of(), transport.fetch("t", 1, 2, 10));
+            assertEquals(1, transport.fetch("t", 1, 1, 10).getFirst().offset());
+            assertEquals(1, transport.endOffset("t", 2));
+            assertEquals(0, transport.endOffset("t", 3));
+        }
+    }
+
+    @Test
+    void aRetriedBatchIsStoredOnce(@TempDir Path dir) throws Exception {
+        try (FileLogTransport transport = new FileLogTransport(dir, 1, false)) {
+            transport.append("t", 0, batch(5, 0, "a"));
+            transport.append("t", 0, batch(5, 1, "b"));
+            assertEquals(1, transport.append("t", 0, batch(5, 1, "b")));
+            assertThrows(IllegalArgumentException.class, () -> transport.append("t", 0, batch(5, 0, "a")));
+            // a batch after a gap, as if the one before it had been given up on
+            assertThrows(IllegalArgumentException.class, () -> transport.append("t", 0, batch(5, 3, "d")));
+            // another producer has sequences of its own
+            assertEquals(2, transport.append("t", 0, batch(6, 0, "c")));
+        }
+        try (FileLogTransport transport = new FileLogTransport(dir, 1, false)) {
+            assertEquals(1, transport.append("t", 0, batch(5, 1, "b")));
+            assertEquals(3, transport.endOffset("t", 0));
+        }
+    }
+
+    @Test
+    void aNewEpochStartsTheSequencesOverAndFencesOffTheOldOne(@TempDir Path dir) throws Exception {
+        try (FileLogTransport transport = new FileLogTransport(dir, 1, false)) {
+            transport.append("t", 0, batch(5, 0, 0, "a"));
+            transport.append("t", 0, batch(5, 0, 1, "b"));
+            assertThrows(IllegalArgumentException.class, () -> transport.append("t", 0, batch(5, 1, 1, "c")));
+            assertEquals(2, transport.append("t", 0, batch(5, 1, 0, "c")));
+            assertThrows(IllegalArgumentException.class, () -> transport.append("t", 0, batch(5, 0, 2, "d")));
+        }
+        try (FileLogTransport transport = new FileLogTransport(dir, 1, false)) {
+            assertEquals(2, transport.append("t", 0, batch(5, 1, 0, "c")));
+            assertEquals(3, transport.append("t", 0, batch(5, 1, 1, "d")));
+        }
+    }
+
+    @Test
+    void aTornTailIsCutOffOnRecovery(@TempDir Path dir) throws Exception {
+        try (FileLogTransport transport = new FileLogTransport(dir, 1, false)) {
+            transport.append("t", 0, batch(1, 0, "a"));
+            transport.append("t", 0, batch(1, 1, "b"));
+        }
+        Path file = dir.resolve("t").resolve("partition-0.log");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+        try (FileLogTransport transport = new FileLogTransport(dir, 1, false)) {
+            assertEquals(1, transport.endOffset("t", 0));
+            assertEquals(1, transport.append("t", 0, batch(1, 1, "b")));
+            assertEquals("b", firstValue(transport.fetch("t", 0, 1, 1).getFirst()));
+        }
+    }
+
+    @Test
+    void committedOffsetsSurviveARestart(@TempDir Path dir) throws Exception {
+        try (FileLogTransport transport = new FileLogTransport(dir, 2, false)) {
+            assertEquals(0, transport.committed("billing", "t", 0));
+            transport.commit("billing", "t", 0, 5);
+            transport.commit("billing", "t", 1, 2);
+            transport.commit("shipping", "t", 0, 1);
+        }
+        try (FileLogTransport transport = new FileLogTransport(dir, 2, false)) {
+            assertEquals(5, transport.committed("billing", "t", 0));
+            assertEquals(2, transport.committed("billing", "t", 1));
+            assertEquals(1, transport.committed("shipping", "t", 0));
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package dev.abbeytech.app.infrastructure.persistence.eventstore;
+
+import dev.abbeytech.app.domain.exception.OrderVersionConflictException;
+import dev.abbeytech.app.domain.model.order.Order;
+import dev.abbeytech.app.domain.model.order.OrderItem;
+import dev.abbeytech.app.domain.model.order.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EventSourcedOrderRepositoryTest {
+
+    static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    static Order newOrder(long orderId) {
+        return Order.place(orderId, 3, List.of(new OrderItem(11, 2, 1999), new OrderItem(12, 1, 500)), "EUR", NOW);
+    }
+
+    @Test
+    void ordersAreLoadedFromTheirSnapshotAndLaterEventsAfterARestart(@TempDir Path dir) throws Exception {
+        EventSourcedOrderRepository repository = new EventSourcedOrderRepository(dir, 4096, true, 3, 64, null);
+        Order order = newOrder(7);
+        repository.save(order);
+        order.pay(NOW);
+        order.ship(NOW);
+        // third event: a snapshot is written
+        repository.save(order);
+        Order other = newOrder(8);
+        repository.save(other);
+        for (int i = 9; i < 100; i++) {
+            // enough to roll over several segments
+            repository.save(newOrder(i));
+        }
+        repository.close();
+
+        EventSourcedOrderRepository reopened = new EventSourcedOrderRepository(dir, 4096, true, 3, 64, null);
+        try {
+            assertEquals(93, reopened.size());
+            Order loaded = reopened.findById(7).orElseThrow();
+            assertEquals(order.snapshot(), loaded.snapshot());
+            assertEquals(OrderStatus.SHIPPED, loaded.status());
+
+            Order loadedOther = reopened.findById(8).orElseThrow();
+            loadedOther.cancel(NOW);
+            reopened.save(loadedOther);
+            assertEquals(OrderStatus.CANCELLED, reopened.findById(8).orElseThrow().status());
+            assertTrue(reopened.findById(6).isEmpty());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void savingAStaleCopyFails(@TempDir Path dir) throws Exception {
+        EventSourcedOrderRepository repository = new EventSourcedOrderRepository(dir, 1024 * 1024, false, 3, 64, null);
+        try {
+            repository.save(newOrder(7));
+            Order first = repository.findById(7).orElseThrow();
+            Order second = repository.findById(7).orElseThrow();
+            first.pay(NOW);
+            repository.save(first);
+            second.cancel(NOW);
+
+            assertThrows(OrderVersionConflictException.class, () -> repository.save(second));
+            assertThrows(OrderVersionConflictException.class, () -> repository.save(newOrder(7)));
+            assertEquals(OrderStatus.PAID, repository.findById(7).orElseThrow().status());
+        } finally {
+            repository.close();
+        }
+    }
+
+    @Test
+    void concurrentSavesAreAllDurable(@TempDir Path dir) throws Exception {
+        EventSourcedOrderRepository repository = new EventSourcedOrderRepository(dir, 1024 * 1024, true, 3, 64, null);
+        try (ExecutorService pool = Executors.newFixedThreadPool(16)) {
+            List<Future<?>> saves = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                long orderId = i;
+                saves.add(pool.submit(() -> repository.save(newOrder(orderId))));
+            }
+            for (Future<?> save : saves) {
+                save.get();
+            }
+        }
+        repository.close();
+
+        EventSourcedOrderRepository reopened = new EventSourcedOrderRepository(dir, 1024 * 1024, true, 3, 64, null);
+        assertEquals(500, reopened.size());
+        reopened.close();
+    }
+
+    @Test
+    void aTornTailIsCutOffOnOpen(@TempDir Path dir) throws Exception {
+        EventSourcedOrderRepository repository = new EventSourcedOrderRepository(dir, 1024 * 1024, true, 3, 64, null);
+        repository.save(newOrder(7));
+        repository.save(newOrder(8));
+        repository.close();
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        // corrupt the last byte of the second record, as if the crash hit mid-write
+        long end = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var map = channel.map(FileChannel.MapMode.READ_WRITE, 0, end);
+            int second = MappedSegmentLog.HEADER_BYTES + map.getInt(0);
+            int last = second + MappedSegmentLog.HEADER_BYTES + map.getInt(second) - 1;
+            map.put(last, (byte) (map.get(last) ^ 1));
+            map.force();
+        }
+
+        EventSourcedOrderRepository reopened = new EventSourcedOrderRepository(dir, 1024 * 1024, true, 3, 64, null);
+        try {
+            assertEquals(1, reopened.size());
+            reopened.save(newOrder(8));
+            assertEquals(OrderStatus.PLACED, reopened.findById(8).orElseThrow().status());
+        } finally {
+            reopened.close();
+        }
+        EventSourcedOrderRepository again = new EventSourcedOrderRepository(dir, 1024 * 1024, true, 3, 64, null);
+        assertEquals(2, again.size());
+        again.close();
+    }
+
+    @Test
+    void aTornRecordInAnEarlierSegmentEndsTheLog(@TempDir Path dir) throws Exception {
+        EventSourcedOrderRepository repository = new EventSourcedOrderRepository(dir, 4096, true, 3, 64, null);
+        for (int i = 0; i < 100; i++) {
+            repository.save(newOrder(i));
+        }
+        repository.close();
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(dir)) {
+            segments = files.sorted().toList();
+        }
+        assertTrue(segments.size() > 2);
+        // corrupt the second record of the first segment: later segments reached the disk, it did not
+        try (FileChannel channel = FileChannel.open(segments.getFirst(), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            var map = channel.map(FileChannel.MapMode.READ_WRITE, 0, 4096);
+            int payload = MappedSegmentLog.HEADER_BYTES + map.getInt(0) + MappedSegmentLog.HEADER_BYTES;
+            map.put(payload, (byte) (map.get(payload) ^ 1));
+            map.force();
+        }
+
+        EventSourcedOrderRepository reopened = new EventSourcedOrderRepository(dir, 4096, true, 3, 64, null);
+        try {
+            assertEquals(1, reopened.size());
+            try (Stream<Path> files = Files.list(dir)) {
+                assertEquals(1, files.count());
+            }
+            reopened.save(newOrder(1));
+        } finally {
+            reopened.close();
+        }
+        EventSourcedOrderRepository again = new EventSourcedOrderRepository(dir, 4096, true, 3, 64, null);
+        assertEquals(2, again.size());
+        again.close();
+    }
+}
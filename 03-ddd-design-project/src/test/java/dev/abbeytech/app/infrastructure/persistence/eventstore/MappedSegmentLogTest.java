@@ -0,0 +1,55 @@
+package dev.abbeytech.app.infrastructure.persistence.eventstore;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedSegmentLogTest {
+
+    static ByteBuffer record(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static List<String> reopen(Path dir, long segmentBytes) throws Exception {
+        List<String> records = new ArrayList<>();
+        MappedSegmentLog log = MappedSegmentLog.open(dir, segmentBytes,
+                (offset, payload) -> records.add(StandardCharsets.UTF_8.decode(payload).toString()));
+        log.close();
+        return records;
+    }
+
+    @Test
+    void truncatedRecordsAreNotRecoveredAndTheirSpaceIsReused(@TempDir Path dir) throws Exception {
+        MappedSegmentLog log = MappedSegmentLog.open(dir, 64, (offset, payload) -> { });
+        log.append(record("kept"));
+        log.force();
+        long start = log.writeOffset();
+        for (int i = 0; i < 10; i++) {
+            // rolls over into later segments
+            log.append(record("failed batch " + i));
+        }
+        log.truncate(start);
+        assertEquals(start, log.append(record("next")));
+        log.close();
+
+        assertEquals(List.of("kept", "next"), reopen(dir, 64));
+    }
+
+    @Test
+    void forcedRecordsCannotBeTruncated(@TempDir Path dir) throws Exception {
+        MappedSegmentLog log = MappedSegmentLog.open(dir, 64, (offset, payload) -> { });
+        long offset = log.append(record("durable"));
+        log.force();
+
+        assertThrows(IllegalArgumentException.class, () -> log.truncate(offset));
+        log.close();
+    }
+}
@@ -0,0 +1,27 @@
+package dev.abbeytech.app.shared.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EmailTest {
+
+    @Test
+    void addressesAreNormalisedAndShared() {
+        Email email = Email.of(" Ada@Example.COM ");
+
+        assertEquals("Ada@example.com", email.value());
+        assertEquals("example.com", email.domain());
+        assertSame(email, Email.of("Ada@example.com"));
+        assertSame(email, Email.of("Ada@EXAMPLE.com"));
+    }
+
+    @Test
+    void implausibleAddressesAreRejected() {
+        for (String address : new String[]{"", "ada", "@example.com", "ada@", "ada@example", "a@b@c.com", "a da@x.com"}) {
+            assertThrows(IllegalArgumentException.class, () -> Email.of(address), address);
+        }
+    }
+}
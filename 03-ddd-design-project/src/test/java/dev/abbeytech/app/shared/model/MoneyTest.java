@@ -0,0 +1,37 @@
+package dev.abbeytech.app.shared.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyTest {
+
+    static final Currency EUR = Currency.getInstance("EUR");
+    static final Currency JPY = Currency.getInstance("JPY");
+
+    @Test
+    void amountsAreExactMinorUnits() {
+        Money price = Money.parse("19.99", EUR);
+
+        assertEquals(1999, price.minorUnits());
+        assertEquals(Money.ofMinor(5997, EUR), price.times(3));
+        assertEquals(Money.ofMinor(2099, "EUR"), price.plus(Money.parse("1.00", EUR)));
+        assertTrue(price.minus(Money.ofMinor(2000, EUR)).isNegative());
+        assertEquals(new BigDecimal("19.99"), price.toDecimal());
+        assertEquals("19.99 EUR", price.toString());
+        assertEquals("500 JPY", Money.parse("500", JPY).toString());
+    }
+
+    @Test
+    void precisionLossOverflowAndMixedCurrenciesAreRejected() {
+        assertThrows(ArithmeticException.class, () -> Money.parse("0.001", EUR));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE, EUR).plus(Money.ofMinor(1, EUR)));
+        assertThrows(IllegalArgumentException.class, () -> Money.zero(EUR).plus(Money.zero(JPY)));
+        assertThrows(IllegalArgumentException.class, () -> Money.zero(EUR).compareTo(Money.zero(JPY)));
+    }
+}
@@ -0,0 +1,412 @@
+package dev.abbeytech.app;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compact, schema-versioned binary codec for the {@link AppConfig} record tree.
+ *
+ * <p>Wire layout (schema version 1):
+ * <pre>
+ * byte    schema version
+ * byte    kind (0 = full, 1 = delta)
+ * varint  config version
+ * varint  base version          (delta only)
+ * varint  field mask            bit i set = top-level field i is present
+ * ...     present fields, in record component order
+ * </pre>
+ * Strings and lists carry {@code length + 1} so that 0 encodes {@code null}, ints and longs
+ * are zig-zag varints, doubles are 8 little-endian bytes, enums are {@code ordinal + 1} and
+ * nested records are prefixed with a presence byte.
+ */
+public final class AppConfigCodec {
+
+    public static final String MEDIA_TYPE = "application/vnd.abbeytech.appconfig";
+
+    public static final byte SCHEMA_VERSION = 1;
+
+    static final byte KIND_FULL = 0;
+    static final byte KIND_DELTA = 1;
+
+    private static final int FIELD_COUNT = 11;
+    private static final int ALL_FIELDS = (1 << FIELD_COUNT) - 1;
+
+    private static final AppConfig.Environment[] ENVIRONMENTS = AppConfig.Environment.values();
+
+    private AppConfigCodec() {
+    }
+
+    /**
+     * Decoded payload: the config version it describes and the resulting config
+     */
+    public record Payload(long version, AppConfig config, boolean delta) {}
+
+    /**
+     * Encodes the complete configuration
+     */
+    public static byte[] encode(long version, AppConfig config) {
+        Writer out = new Writer(256);
+        out.writeByte(SCHEMA_VERSION);
+        out.writeByte(KIND_FULL);
+        out.writeVarLong(version);
+        writeFields(out, ALL_FIELDS, config);
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes only the top-level fields of {@code config} that differ from {@code base}
+     */
+    public static byte[] encodeDelta(long baseVersion, AppConfig base, long version, AppConfig config) {
+        Writer out = new Writer(64);
+        out.writeByte(SCHEMA_VERSION);
+        out.writeByte(KIND_DELTA);
+        out.writeVarLong(version);
+        out.writeVarLong(baseVersion);
+        writeFields(out, changedFields(base, config), config);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a full payload
+     */
+    public static Payload decode(byte[] bytes) {
+        return decode(bytes, -1, null);
+    }
+
+    /**
+     * Decodes a full or delta payload. A delta is applied on top of {@code base}, which must be
+     * the config the client holds for {@code baseVersion}.
+     */
+    public static Payload decode(byte[] bytes, long baseVersion, AppConfig base) {
+        Reader in = new Reader(bytes);
+        byte schema = in.readByte();
+        if (schema != SCHEMA_VERSION) {
+            throw new IllegalArgumentException("Unsupported config schema version: " + schema);
+        }
+        byte kind = in.readByte();
+        long version = in.readVarLong();
+        if (kind == KIND_FULL) {
+            return new Payload(version, readFields(in, null), false);
+        }
+        if (kind != KIND_DELTA) {
+            throw new IllegalArgumentException("Unknown payload kind: " + kind);
+        }
+        long deltaBase = in.readVarLong();
+        if (base == null || deltaBase != baseVersion) {
+            throw new IllegalStateException("Delta is against version " + deltaBase
+                    + " but the supplied base is version " + baseVersion);
+        }
+        return new Payload(version, readFields(in, base), true);
+    }
+
+    static int changedFields(AppConfig base, AppConfig config) {
+        int mask = 0;
+        if (!equal(base.name(), config.name())) mask |= 1;
+        if (!equal(base.description(), config.description())) mask |= 1 << 1;
+        if (!equal(base.version(), config.version())) mask |= 1 << 2;
+        if (base.enabled() != config.enabled()) mask |= 1 << 3;
+        if (base.maxConnections() != config.maxConnections()) mask |= 1 << 4;
+        if (Double.compare(base.timeout(), config.timeout()) != 0) mask |= 1 << 5;
+        if (base.environment() != config.environment()) mask |= 1 << 6;
+        if (!equal(base.supportedFormats(), config.supportedFormats())) mask |= 1 << 7;
+        if (!equal(base.rates(), config.rates())) mask |= 1 << 8;
+        if (!equal(base.database(), config.database())) mask |= 1 << 9;
+        if (!equal(base.security(), config.security())) mask |= 1 << 10;
+        return mask;
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static void writeFields(Writer out, int mask, AppConfig config) {
+        out.writeVarLong(mask);
+        if ((mask & 1) != 0) out.writeString(config.name());
+        if ((mask & 1 << 1) != 0) out.writeString(config.description());
+        if ((mask & 1 << 2) != 0) out.writeString(config.version());
+        if ((mask & 1 << 3) != 0) out.writeBoolean(config.enabled());
+        if ((mask & 1 << 4) != 0) out.writeZigZag(config.maxConnections());
+        if ((mask & 1 << 5) != 0) out.writeDouble(config.timeout());
+        if ((mask & 1 << 6) != 0) out.writeVarLong(config.environment() == null ? 0 : config.environment().ordinal() + 1);
+        if ((mask & 1 << 7) != 0) out.writeStringList(config.supportedFormats());
+        if ((mask & 1 << 8) != 0) out.writeDoubleList(config.rates());
+        if ((mask & 1 << 9) != 0) writeDatabase(out, config.database());
+        if ((mask & 1 << 10) != 0) writeSecurity(out, config.security());
+    }
+
+    private static AppConfig readFields(Reader in, AppConfig base) {
+        int mask = (int) in.readVarLong();
+        if ((mask & ~ALL_FIELDS) != 0) {
+            throw new IllegalArgumentException("Unknown fields in mask: " + Integer.toBinaryString(mask));
+        }
+        if (base == null && mask != ALL_FIELDS) {
+            throw new IllegalArgumentException("Full payload is missing fields");
+        }
+        AppConfig.AppConfigBuilder builder = base == null ? AppConfig.builder() : toBuilder(base);
+        if ((mask & 1) != 0) builder.name(in.readString());
+        if ((mask & 1 << 1) != 0) builder.description(in.readString());
+        if ((mask & 1 << 2) != 0) builder.version(in.readString());
+        if ((mask & 1 << 3) != 0) builder.enabled(in.readBoolean());
+        if ((mask & 1 << 4) != 0) builder.maxConnections((int) in.readZigZag());
+        if ((mask & 1 << 5) != 0) builder.timeout(in.readDouble());
+        if ((mask & 1 << 6) != 0) {
+            int ordinal = (int) in.readVarLong();
+            if (ordinal > ENVIRONMENTS.length) {
+                throw new IllegalArgumentException("Unknown environment ordinal: " + (ordinal - 1));
+            }
+            builder.environment(ordinal == 0 ? null : ENVIRONMENTS[ordinal - 1]);
+        }
+        if ((mask & 1 << 7) != 0) builder.supportedFormats(in.readStringList());
+        if ((mask & 1 << 8) != 0) builder.rates(in.readDoubleList());
+        if ((mask & 1 << 9) != 0) builder.database(readDatabase(in));
+        if ((mask & 1 << 10) != 0) builder.security(readSecurity(in));
+        return builder.build();
+    }
+
+    private static AppConfig.AppConfigBuilder toBuilder(AppConfig config) {
+        return AppConfig.builder()
+                .name(config.name())
+                .description(config.description())
+                .version(config.version())
+                .enabled(config.enabled())
+                .maxConnections(config.maxConnections())
+                .timeout(config.timeout())
+                .environment(config.environment())
+                .supportedFormats(config.supportedFormats())
+                .rates(config.rates())
+                .database(config.database())
+                .security(config.security());
+    }
+
+    private static void writeDatabase(Writer out, AppConfig.DatabaseConfig database) {
+        out.writeBoolean(database != null);
+        if (database != null) {
+            out.writeString(database.url());
+            out.writeString(database.username());
+            out.writeString(database.password());
+            out.writeZigZag(database.poolSize());
+            out.writeZigZag(database.timeout());
+        }
+    }
+
+    private static AppConfig.DatabaseConfig readDatabase(Reader in) {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return AppConfig.DatabaseConfig.builder()
+                .url(in.readString())
+                .username(in.readString())
+                .password(in.readString())
+                .poolSize((int) in.readZigZag())
+                .timeout(in.readZigZag())
+                .build();
+    }
+
+    private static void writeSecurity(Writer out, AppConfig.SecurityConfig security) {
+        out.writeBoolean(security != null);
+        if (security != null) {
+            out.writeBoolean(security.enabled());
+            out.writeZigZag(security.tokenExpiration());
+            out.writeStringList(security.allowedOrigins());
+        }
+    }
+
+    private static AppConfig.SecurityConfig readSecurity(Reader in) {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return AppConfig.SecurityConfig.builder()
+                .enabled(in.readBoolean())
+                .tokenExpiration(in.readZigZag())
+                .allowedOrigins(in.readStringList())
+                .build();
+    }
+
+    /**
+     * Unsynchronized growable byte buffer
+     */
+    private static final class Writer {
+
+        private byte[] buf;
+        private int pos;
+
+        Writer(int initialCapacity) {
+            this.buf = new byte[initialCapacity];
+        }
+
+        private void ensure(int extra) {
+            if (pos + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length << 1, pos + extra));
+            }
+        }
+
+        void writeByte(int b) {
+            ensure(1);
+            buf[pos++] = (byte) b;
+        }
+
+        void writeBoolean(boolean b) {
+            writeByte(b ? 1 : 0);
+        }
+
+        void writeVarLong(long v) {
+            ensure(10);
+            while ((v & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            buf[pos++] = (byte) v;
+        }
+
+        void writeZigZag(long v) {
+            writeVarLong((v << 1) ^ (v >> 63));
+        }
+
+        void writeDouble(double d) {
+            ensure(8);
+            long bits = Double.doubleToRawLongBits(d);
+            for (int i = 0; i < 8; i++) {
+                buf[pos++] = (byte) (bits >>> (i << 3));
+            }
+        }
+
+        void writeString(String s) {
+            if (s == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length + 1L);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, buf, pos, utf8.length);
+            pos += utf8.length;
+        }
+
+        void writeStringList(List<String> list) {
+            if (list == null) {
+                writeVarLong(0);
+                return;
+            }
+            writeVarLong(list.size() + 1L);
+            for (String s : list) {
+                writeString(s);
+            }
+        }
+
+        void writeDoubleList(List<Double> list) {
+            if (list == null) {
+                writeVarLong(0);
+                return;
+            }
+            writeVarLong(list.size() + 1L);
+            for (Double d : list) {
+                if (d == null) {
+                    throw new IllegalArgumentException("rates must not contain null values");
+                }
+                writeDouble(d);
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] buf;
+        private int pos;
+
+        Reader(byte[] buf) {
+            this.buf = buf;
+        }
+
+        private void require(int n) {
+            if (pos + n > buf.length) {
+                throw new IllegalArgumentException("Truncated config payload");
+            }
+        }
+
+        byte readByte() {
+            require(1);
+            return buf[pos++];
+        }
+
+        boolean readBoolean() {
+            return readByte() != 0;
+        }
+
+        long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        long readZigZag() {
+            long v = readVarLong();
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        double readDouble() {
+            require(8);
+            long bits = 0;
+            for (int i = 0; i < 8; i++) {
+                bits |= (buf[pos++] & 0xFFL) << (i << 3);
+            }
+            return Double.longBitsToDouble(bits);
+        }
+
+        private int readLength() {
+            long n = readVarLong();
+            if (n > buf.length - pos + 1L) {
+                throw new IllegalArgumentException("Truncated config payload");
+            }
+            return (int) n;
+        }
+
+        String readString() {
+            int n = readLength();
+            if (n == 0) {
+                return null;
+            }
+            int len = n - 1;
+            require(len);
+            String s = new String(buf, pos, len, StandardCharsets.UTF_8);
+            pos += len;
+            return s;
+        }
+
+        List<String> readStringList() {
+            int n = readLength();
+            if (n == 0) {
+                return null;
+            }
+            List<String> list = new ArrayList<>(n - 1);
+            for (int i = 1; i < n; i++) {
+                list.add(readString());
+            }
+            return Collections.unmodifiableList(list);
+        }
+
+        List<Double> readDoubleList() {
+            int n = readLength();
+            if (n == 0) {
+                return null;
+            }
+            Double[] values = new Double[n - 1];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = readDouble();
+            }
+            return List.of(values);
+        }
+    }
+}
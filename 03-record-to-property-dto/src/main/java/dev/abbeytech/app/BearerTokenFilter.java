@@ -0,0 +1,50 @@
+package dev.abbeytech.app;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Requires a valid {@code Authorization: Bearer} token, checked through the
+ * {@link ValidatedTokenCache}. The verified subject is exposed as the {@link #SUBJECT_ATTRIBUTE}
+ * request attribute. Registered for {@code /api/config/*} by {@link TokenSecurityConfig}.
+ */
+public class BearerTokenFilter extends OncePerRequestFilter {
+
+    public static final String SUBJECT_ATTRIBUTE = BearerTokenFilter.class.getName() + ".subject";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final ValidatedTokenCache tokenCache;
+
+    public BearerTokenFilter(ValidatedTokenCache tokenCache) {
+        this.tokenCache = tokenCache;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            reject(response, "Bearer");
+            return;
+        }
+        TokenService.VerifiedToken token = tokenCache.validate(authorization.substring(BEARER_PREFIX.length()).trim());
+        if (token == null) {
+            reject(response, "Bearer error=\"invalid_token\"");
+            return;
+        }
+        request.setAttribute(SUBJECT_ATTRIBUTE, token.subject());
+        chain.doFilter(request, response);
+    }
+
+    private static void reject(HttpServletResponse response, String challenge) throws IOException {
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, challenge);
+        response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+    }
+}
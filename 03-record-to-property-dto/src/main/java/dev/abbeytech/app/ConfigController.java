@@ -1,10 +1,15 @@
 package dev.abbeytech.app;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -15,10 +20,22 @@ import java.util.Map;
 @RequestMapping("/api/config")
 public class ConfigController {
 
+    static final String VERSION_HEADER = "X-Config-Version";
+
+    private static final MediaType BINARY_CONFIG = MediaType.parseMediaType(AppConfigCodec.MEDIA_TYPE);
+
     private final AppConfig appConfig;
+    private final ConfigVersionHistory history;
+
+    // the config is immutable, so everything except the status timestamp is built once
+    private final Map<String, Object> databaseStatus;
+    private final Map<String, Object> environmentInfo;
 
-    public ConfigController(AppConfig appConfig) {
+    public ConfigController(AppConfig appConfig, ConfigVersionHistory history) {
         this.appConfig = appConfig;
+        this.history = history;
+        this.databaseStatus = databaseStatus(appConfig);
+        this.environmentInfo = environmentInfo(appConfig);
     }
 
     /**
@@ -29,6 +46,27 @@ public class ConfigController {
         return appConfig;
     }
 
+    /**
+     * Returns the configuration in the compact binary format of {@link AppConfigCodec}.
+     * Clients pass the version they hold as {@code since} and receive a delta when that
+     * version is still known, 304 when it is current, or the full config otherwise. Until a
+     * refresh source publishes new versions to {@link ConfigVersionHistory}, there are no deltas
+     * to serve.
+     */
+    @GetMapping(value = "/bin", produces = AppConfigCodec.MEDIA_TYPE)
+    public ResponseEntity<byte[]> getBinaryConfig(@RequestParam(required = false) Long since) {
+        ConfigVersionHistory.Snapshot head = history.current();
+        String version = Long.toString(head.version());
+        if (since != null && since == head.version()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).header(VERSION_HEADER, version).build();
+        }
+        byte[] payload = since == null ? head.payload() : history.payloadSince(head, since);
+        return ResponseEntity.ok()
+                .contentType(BINARY_CONFIG)
+                .header(VERSION_HEADER, version)
+                .body(payload);
+    }
+
     /**
      * Returns just the database configuration
      */
@@ -50,19 +88,13 @@ public class ConfigController {
      */
     @GetMapping("/status")
     public Map<String, Object> getStatus() {
-        Map<String, Object> status = new HashMap<>();
+        Map<String, Object> status = new HashMap<>(8);
         status.put("name", appConfig.name());
         status.put("version", appConfig.version());
         status.put("environment", appConfig.environment().toString());
         status.put("timestamp", LocalDateTime.now());
         status.put("enabled", appConfig.enabled());
-
-        Map<String, Object> database = new HashMap<>();
-        database.put("url", appConfig.database().url());
-        database.put("poolSize", appConfig.database().poolSize());
-        database.put("timeout", appConfig.database().timeout());
-
-        status.put("database", database);
+        status.put("database", databaseStatus);
 
         return status;
     }
@@ -72,6 +104,18 @@ public class ConfigController {
      */
     @GetMapping("/environment-info")
     public Map<String, Object> getEnvironmentInfo() {
+        return environmentInfo;
+    }
+
+    private static Map<String, Object> databaseStatus(AppConfig appConfig) {
+        Map<String, Object> database = new HashMap<>();
+        database.put("url", appConfig.database().url());
+        database.put("poolSize", appConfig.database().poolSize());
+        database.put("timeout", appConfig.database().timeout());
+        return Collections.unmodifiableMap(database);
+    }
+
+    private static Map<String, Object> environmentInfo(AppConfig appConfig) {
         Map<String, Object> info = new HashMap<>();
 
         switch (appConfig.environment()) {
@@ -92,6 +136,6 @@ public class ConfigController {
                 break;
         }
 
-        return info;
+        return Collections.unmodifiableMap(info);
     }
-}
\ No newline at end of file
+}
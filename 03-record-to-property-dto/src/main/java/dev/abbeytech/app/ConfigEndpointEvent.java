@@ -0,0 +1,34 @@
+package dev.abbeytech.app;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event committed for every {@link ConfigController} request, so recordings show each
+ * call together with what it cost the handling thread
+ */
+@Name("dev.abbeytech.ConfigEndpoint")
+@Label("Config Endpoint Request")
+@Category({"Application", "Config"})
+@Description("A request handled by ConfigController")
+class ConfigEndpointEvent extends Event {
+
+    @Label("Endpoint")
+    String endpoint;
+
+    @Label("HTTP Status")
+    int status;
+
+    @Label("Thread CPU Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long cpuTime;
+
+    @Label("Allocated")
+    @DataAmount(DataAmount.BYTES)
+    long allocated;
+}
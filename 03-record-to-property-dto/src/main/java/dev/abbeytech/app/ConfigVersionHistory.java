@@ -0,0 +1,102 @@
+package dev.abbeytech.app;
+
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a bounded history of published {@link AppConfig} versions so that binary clients can
+ * be served a delta against the version they already hold. Encoded payloads are cached per
+ * version, so repeated fetches of an unchanged config never re-encode it.
+ *
+ * <p>A version is derived from the config's content rather than counted, so the same config
+ * has the same version after a restart: a client holding it still gets 304, and a client
+ * holding a config this instance has never seen gets the full payload, never a stale 304.
+ *
+ * <p>Nothing in this application calls {@link #publish} yet: {@link AppConfig} is bound once at
+ * startup and there is no config-refresh source, so {@code since} only ever yields 304 or the
+ * full payload. The delta path is in place for such a source (a refresh event listener, say)
+ * to feed.
+ */
+@Component
+public class ConfigVersionHistory {
+
+    static final int MAX_VERSIONS = 16;
+
+    private final Map<Long, Snapshot> versions = new ConcurrentHashMap<>();
+    // retained versions, oldest first; guarded by this
+    private final ArrayDeque<Long> retained = new ArrayDeque<>();
+    private volatile Snapshot current;
+
+    public ConfigVersionHistory(AppConfig appConfig) {
+        this.current = retain(snapshot(appConfig));
+    }
+
+    /**
+     * An immutable config version together with its full binary encoding and the deltas
+     * computed so far from older versions to this one
+     */
+    public record Snapshot(long version, AppConfig config, byte[] payload, Map<Long, byte[]> deltas) {}
+
+    public Snapshot current() {
+        return current;
+    }
+
+    /**
+     * Publishes a new config; returns the current snapshot unchanged if the config is equal.
+     * Only tests call this so far.
+     */
+    public synchronized Snapshot publish(AppConfig config) {
+        if (current.config().equals(config)) {
+            return current;
+        }
+        current = retain(snapshot(config));
+        return current;
+    }
+
+    /**
+     * Returns the payload a client holding {@code sinceVersion} needs to reach {@code head}:
+     * a delta when that version is still retained, otherwise the full config
+     */
+    public byte[] payloadSince(Snapshot head, long sinceVersion) {
+        Snapshot base = versions.get(sinceVersion);
+        if (base == null || base.version() == head.version()) {
+            return head.payload();
+        }
+        return head.deltas().computeIfAbsent(sinceVersion, v ->
+                AppConfigCodec.encodeDelta(v, base.config(), head.version(), head.config()));
+    }
+
+    /**
+     * The version of {@code config}: the leading 63 bits of the SHA-256 of its encoding
+     */
+    static long versionOf(AppConfig config) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(AppConfigCodec.encode(0, config));
+            return ByteBuffer.wrap(digest).getLong() & Long.MAX_VALUE;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Snapshot snapshot(AppConfig config) {
+        long version = versionOf(config);
+        return new Snapshot(version, config, AppConfigCodec.encode(version, config), new ConcurrentHashMap<>());
+    }
+
+    private synchronized Snapshot retain(Snapshot snapshot) {
+        // a config published again, say after a rollback, moves to the newest end
+        retained.remove(snapshot.version());
+        retained.addLast(snapshot.version());
+        versions.put(snapshot.version(), snapshot);
+        while (retained.size() > MAX_VERSIONS) {
+            versions.remove(retained.pollFirst());
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,97 @@
+package dev.abbeytech.app;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enforces {@code SecurityConfig.allowedOrigins} for every cross-origin request: allowed
+ * origins get the CORS response headers (and preflights are answered directly), anything else
+ * is rejected with 403. Browsers also send {@code Origin} on same-origin POSTs and the like;
+ * an Origin matching the request's own scheme, host and port is passed through untouched.
+ *
+ * <p>Matcher latency is recorded in the {@code cors.origin.match} timer, tagged with whether
+ * the decision came from the cache.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class CorsOriginFilter extends OncePerRequestFilter {
+
+    static final String ALLOWED_METHODS = "GET, HEAD, OPTIONS";
+    static final long PREFLIGHT_MAX_AGE = 1800;
+
+    private final OriginMatcher matcher;
+    private final Timer cachedTimer;
+    private final Timer evaluatedTimer;
+    private final Counter rejected;
+
+    public CorsOriginFilter(AppConfig appConfig, MeterRegistry meterRegistry,
+                            @Value("${app.cors.cache-size:1024}") int cacheSize) {
+        this.matcher = new OriginMatcher(appConfig.security().allowedOrigins(), cacheSize);
+        this.cachedTimer = Timer.builder("cors.origin.match")
+                .description("Time to decide whether an Origin is allowed")
+                .tag("cached", "true")
+                .register(meterRegistry);
+        this.evaluatedTimer = Timer.builder("cors.origin.match")
+                .description("Time to decide whether an Origin is allowed")
+                .tag("cached", "false")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("cors.origin.rejected")
+                .description("Requests rejected because their Origin is not allowed")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        // no Origin, or the request's own scheme, host and port
+        if (!CorsUtils.isCorsRequest(request)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String origin = request.getHeader(HttpHeaders.ORIGIN);
+
+        long start = System.nanoTime();
+        OriginMatcher.Decision decision = matcher.match(origin);
+        (decision.cached() ? cachedTimer : evaluatedTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (!decision.allowed()) {
+            rejected.increment();
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "Origin not allowed");
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, origin);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ORIGIN);
+
+        boolean preflight = HttpMethod.OPTIONS.matches(request.getMethod())
+                && request.getHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD) != null;
+        if (preflight) {
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS, ALLOWED_METHODS);
+            String requestHeaders = request.getHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS);
+            if (requestHeaders != null) {
+                response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, requestHeaders);
+            }
+            response.setHeader(HttpHeaders.ACCESS_CONTROL_MAX_AGE, Long.toString(PREFLIGHT_MAX_AGE));
+            response.setStatus(HttpServletResponse.SC_OK);
+            return;
+        }
+
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,108 @@
+package dev.abbeytech.app;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures every {@link ConfigController} request: wall time, thread CPU time and bytes
+ * allocated by the handling thread. Results go to Micrometer ({@code config.endpoint.*},
+ * tagged by endpoint), to a {@link ConfigEndpointEvent} JFR event and to
+ * {@link HotPathsEndpoint}.
+ */
+@Component
+public class EndpointInstrumentationInterceptor implements HandlerInterceptor {
+
+    private static final String SAMPLE_ATTRIBUTE = EndpointInstrumentationInterceptor.class.getName() + ".sample";
+
+    private final com.sun.management.ThreadMXBean threads;
+    private final boolean cpuTimeSupported;
+    private final boolean allocationSupported;
+    private final MeterRegistry meterRegistry;
+    private final HotPathsEndpoint hotPaths;
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+
+    public EndpointInstrumentationInterceptor(MeterRegistry meterRegistry, HotPathsEndpoint hotPaths) {
+        this.meterRegistry = meterRegistry;
+        this.hotPaths = hotPaths;
+        this.threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        this.cpuTimeSupported = threads.isCurrentThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled();
+        this.allocationSupported = threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+    }
+
+    private record Meters(Timer latency, Timer cpu, DistributionSummary allocated) {}
+
+    private record Sample(String endpoint, ConfigEndpointEvent event, long startNanos, long startCpu, long startAllocated) {}
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod method && method.getBeanType() == ConfigController.class) {
+            ConfigEndpointEvent event = new ConfigEndpointEvent();
+            event.begin();
+            request.setAttribute(SAMPLE_ATTRIBUTE, new Sample(method.getMethod().getName(), event,
+                    System.nanoTime(), cpuTime(), allocatedBytes()));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(SAMPLE_ATTRIBUTE) instanceof Sample sample)) {
+            return;
+        }
+        long allocated = allocatedBytes() - sample.startAllocated();
+        long cpu = cpuTime() - sample.startCpu();
+        long wall = System.nanoTime() - sample.startNanos();
+
+        Meters m = meters.computeIfAbsent(sample.endpoint(), this::registerMeters);
+        m.latency().record(wall, TimeUnit.NANOSECONDS);
+        m.cpu().record(cpu, TimeUnit.NANOSECONDS);
+        m.allocated().record(allocated);
+
+        hotPaths.record(sample.endpoint(), wall, cpu, allocated);
+
+        ConfigEndpointEvent event = sample.event();
+        event.end();
+        if (event.shouldCommit()) {
+            event.endpoint = sample.endpoint();
+            event.status = response.getStatus();
+            event.cpuTime = cpu;
+            event.allocated = allocated;
+            event.commit();
+        }
+    }
+
+    private Meters registerMeters(String endpoint) {
+        return new Meters(
+                Timer.builder("config.endpoint.latency")
+                        .tag("endpoint", endpoint)
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry),
+                Timer.builder("config.endpoint.cpu")
+                        .tag("endpoint", endpoint)
+                        .register(meterRegistry),
+                DistributionSummary.builder("config.endpoint.allocated")
+                        .tag("endpoint", endpoint)
+                        .baseUnit("bytes")
+                        .register(meterRegistry));
+    }
+
+    private long cpuTime() {
+        return cpuTimeSupported ? threads.getCurrentThreadCpuTime() : 0;
+    }
+
+    private long allocatedBytes() {
+        return allocationSupported ? threads.getCurrentThreadAllocatedBytes() : 0;
+    }
+}
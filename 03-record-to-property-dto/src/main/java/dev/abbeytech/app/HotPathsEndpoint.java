@@ -0,0 +1,64 @@
+package dev.abbeytech.app;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code /actuator/hotpaths}: instrumented endpoints ranked by the total thread CPU time they
+ * have consumed ({@code ?sort=allocation} ranks by allocated bytes instead)
+ */
+@Component
+@Endpoint(id = "hotpaths")
+public class HotPathsEndpoint {
+
+    private final Map<String, Totals> totals = new ConcurrentHashMap<>();
+
+    /**
+     * Accumulated cost of one endpoint since startup
+     */
+    public record HotPath(String endpoint, long calls, long totalCpuNanos, long totalAllocatedBytes,
+                          long totalWallNanos, long meanCpuNanos, long meanAllocatedBytes) {}
+
+    void record(String endpoint, long wallNanos, long cpuNanos, long allocatedBytes) {
+        Totals t = totals.computeIfAbsent(endpoint, k -> new Totals());
+        t.calls.increment();
+        t.wallNanos.add(wallNanos);
+        t.cpuNanos.add(cpuNanos);
+        t.allocatedBytes.add(allocatedBytes);
+    }
+
+    @ReadOperation
+    public List<HotPath> hotPaths(@Nullable String sort) {
+        Comparator<HotPath> order = "allocation".equalsIgnoreCase(sort)
+                ? Comparator.comparingLong(HotPath::totalAllocatedBytes)
+                : Comparator.comparingLong(HotPath::totalCpuNanos);
+        return totals.entrySet().stream()
+                .map(e -> e.getValue().snapshot(e.getKey()))
+                .sorted(order.reversed())
+                .toList();
+    }
+
+    private static final class Totals {
+
+        final LongAdder calls = new LongAdder();
+        final LongAdder wallNanos = new LongAdder();
+        final LongAdder cpuNanos = new LongAdder();
+        final LongAdder allocatedBytes = new LongAdder();
+
+        HotPath snapshot(String endpoint) {
+            long n = calls.sum();
+            long cpu = cpuNanos.sum();
+            long allocated = allocatedBytes.sum();
+            return new HotPath(endpoint, n, cpu, allocated, wallNanos.sum(),
+                    n == 0 ? 0 : cpu / n, n == 0 ? 0 : allocated / n);
+        }
+    }
+}
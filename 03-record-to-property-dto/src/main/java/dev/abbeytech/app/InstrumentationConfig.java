@@ -0,0 +1,23 @@
+package dev.abbeytech.app;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Installs the request instrumentation for the config endpoints
+ */
+@Configuration
+public class InstrumentationConfig implements WebMvcConfigurer {
+
+    private final EndpointInstrumentationInterceptor instrumentationInterceptor;
+
+    public InstrumentationConfig(EndpointInstrumentationInterceptor instrumentationInterceptor) {
+        this.instrumentationInterceptor = instrumentationInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(instrumentationInterceptor).addPathPatterns("/api/config/**");
+    }
+}
@@ -0,0 +1,166 @@
+package dev.abbeytech.app;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Matches request {@code Origin} values against {@code SecurityConfig.allowedOrigins}.
+ *
+ * <p>Supported entries are exact origins ({@code https://example.com}), wildcard subdomains
+ * ({@code https://*.example.com}, which matches any depth of subdomain but not the apex) and
+ * {@code *}. Exact origins go into a hash set; wildcard hosts into a trie of reversed host
+ * labels keyed by scheme and port. Decisions are remembered in a fixed-size, lock-free,
+ * direct-mapped cache, so repeat origins cost one array read.
+ */
+public class OriginMatcher {
+
+    private final boolean allowAll;
+    private final Set<String> exact = new HashSet<>();
+    private final Map<String, Label> wildcardRoots = new HashMap<>();
+    private final AtomicReferenceArray<Decision> cache;
+    private final int cacheMask;
+
+    public OriginMatcher(List<String> allowedOrigins, int cacheSize) {
+        if (Integer.bitCount(cacheSize) != 1) {
+            throw new IllegalArgumentException("Cache size must be a power of two: " + cacheSize);
+        }
+        this.cache = new AtomicReferenceArray<>(cacheSize);
+        this.cacheMask = cacheSize - 1;
+
+        boolean any = false;
+        for (String entry : allowedOrigins == null ? List.<String>of() : allowedOrigins) {
+            String value = entry.trim();
+            if (value.equals("*")) {
+                any = true;
+                continue;
+            }
+            Origin origin = Origin.parse(value);
+            if (origin == null) {
+                throw new IllegalArgumentException("Invalid allowed origin: " + entry);
+            }
+            if (origin.host().startsWith("*.")) {
+                Label node = wildcardRoots.computeIfAbsent(origin.schemeAndPort(), k -> new Label());
+                String host = origin.host().substring(2);
+                for (int end = host.length(); end > 0; ) {
+                    int dot = host.lastIndexOf('.', end - 1);
+                    node = node.child(host.substring(dot + 1, end));
+                    end = dot;
+                }
+                node.wildcard = true;
+            } else {
+                exact.add(origin.toString());
+            }
+        }
+        this.allowAll = any;
+    }
+
+    /**
+     * Cached result of a single origin check
+     */
+    public record Decision(String origin, boolean allowed, boolean cached) {}
+
+    public Decision match(String origin) {
+        int slot = spread(origin.hashCode()) & cacheMask;
+        Decision cached = cache.get(slot);
+        if (cached != null && cached.origin().equals(origin)) {
+            return cached;
+        }
+        boolean allowed = allowAll || evaluate(origin);
+        cache.set(slot, new Decision(origin, allowed, true));
+        return new Decision(origin, allowed, false);
+    }
+
+    public boolean isAllowed(String origin) {
+        return match(origin).allowed();
+    }
+
+    private boolean evaluate(String value) {
+        Origin origin = Origin.parse(value);
+        if (origin == null) {
+            return false;
+        }
+        if (exact.contains(origin.toString())) {
+            return true;
+        }
+        Label node = wildcardRoots.get(origin.schemeAndPort());
+        String host = origin.host();
+        for (int end = host.length(); node != null && end > 0; ) {
+            int dot = host.lastIndexOf('.', end - 1);
+            node = node.children.get(host.substring(dot + 1, end));
+            end = dot;
+            // a wildcard node only matches when at least one more label remains
+            if (node != null && node.wildcard && end > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Label {
+
+        final Map<String, Label> children = new HashMap<>();
+        boolean wildcard;
+
+        Label child(String label) {
+            return children.computeIfAbsent(label, k -> new Label());
+        }
+    }
+
+    /**
+     * Normalised {@code scheme://host[:port]} with the scheme's default port made explicit
+     */
+    record Origin(String scheme, String host, int port) {
+
+        static Origin parse(String value) {
+            int sep = value.indexOf("://");
+            if (sep <= 0) {
+                return null;
+            }
+            String scheme = value.substring(0, sep).toLowerCase(Locale.ROOT);
+            String authority = value.substring(sep + 3);
+            if (authority.endsWith("/")) {
+                authority = authority.substring(0, authority.length() - 1);
+            }
+            if (authority.isEmpty() || authority.indexOf('/') >= 0 || authority.indexOf('@') >= 0) {
+                return null;
+            }
+            int port;
+            int colon = authority.lastIndexOf(':');
+            String host;
+            if (colon > 0 && authority.indexOf(']') < colon) {
+                try {
+                    port = Integer.parseInt(authority.substring(colon + 1));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+                host = authority.substring(0, colon);
+            } else {
+                port = switch (scheme) {
+                    case "https" -> 443;
+                    case "http" -> 80;
+                    default -> -1;
+                };
+                host = authority;
+            }
+            return new Origin(scheme, host.toLowerCase(Locale.ROOT), port);
+        }
+
+        String schemeAndPort() {
+            return scheme + ":" + port;
+        }
+
+        @Override
+        public String toString() {
+            return scheme + "://" + host + ":" + port;
+        }
+    }
+}
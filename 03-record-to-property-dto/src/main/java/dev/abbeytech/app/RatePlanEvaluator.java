@@ -0,0 +1,114 @@
+package dev.abbeytech.app;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Per-request pricing over {@code AppConfig.rates}. The boxed rate list is compiled once into
+ * primitive lookup tables, so every lookup below is allocation-free.
+ *
+ * <p>Rate {@code i} is the unit rate of tier {@code i}, which covers quantities
+ * {@code [i * tierWidth, (i + 1) * tierWidth)}; the last tier is open-ended.
+ */
+@Service
+public class RatePlanEvaluator {
+
+    private final double tierWidth;
+    private final double[] rates;
+    // cumulativePrice[i] = price of a quantity that exactly fills tiers 0..i-1
+    private final double[] cumulativePrice;
+
+    @Autowired
+    public RatePlanEvaluator(AppConfig appConfig, @Value("${app.rates.tier-width:100}") double tierWidth) {
+        this(appConfig.rates(), tierWidth);
+    }
+
+    RatePlanEvaluator(List<Double> rates, double tierWidth) {
+        if (rates == null || rates.isEmpty()) {
+            throw new IllegalArgumentException("app.config.rates must contain at least one rate");
+        }
+        if (!(tierWidth > 0)) {
+            throw new IllegalArgumentException("Tier width must be positive: " + tierWidth);
+        }
+        this.tierWidth = tierWidth;
+        this.rates = new double[rates.size()];
+        this.cumulativePrice = new double[rates.size()];
+        for (int i = 0; i < this.rates.length; i++) {
+            this.rates[i] = rates.get(i);
+            if (i > 0) {
+                cumulativePrice[i] = cumulativePrice[i - 1] + this.rates[i - 1] * tierWidth;
+            }
+        }
+    }
+
+    public int tierCount() {
+        return rates.length;
+    }
+
+    /**
+     * Returns the unit rate of the tier that {@code quantity} falls into
+     */
+    public double tierRate(double quantity) {
+        return rates[tierIndex(quantity)];
+    }
+
+    /**
+     * Returns a unit rate linearly interpolated between the rates of adjacent tiers, with each
+     * rate anchored at the start of its tier and flat beyond the last one
+     */
+    public double interpolatedRate(double quantity) {
+        double position = Math.max(quantity, 0) / tierWidth;
+        int last = rates.length - 1;
+        if (position >= last) {
+            return rates[last];
+        }
+        int i = (int) position;
+        double fraction = position - i;
+        return rates[i] + (rates[i + 1] - rates[i]) * fraction;
+    }
+
+    /**
+     * Returns the graduated price of {@code quantity}: every unit is charged the rate of the
+     * tier it falls into
+     */
+    public double price(double quantity) {
+        if (quantity <= 0) {
+            return 0;
+        }
+        int i = tierIndex(quantity);
+        return cumulativePrice[i] + (quantity - i * tierWidth) * rates[i];
+    }
+
+    /**
+     * Prices {@code quantities[from, from + length)} into {@code prices} at the same offsets.
+     * The loop body is branch-light and operates on primitive arrays only.
+     */
+    public void priceAll(double[] quantities, double[] prices, int from, int length) {
+        if (from < 0 || length < 0 || from + length > quantities.length || from + length > prices.length) {
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + (from + length) + ") out of bounds");
+        }
+        double[] r = rates;
+        double[] c = cumulativePrice;
+        double width = tierWidth;
+        int last = r.length - 1;
+        for (int k = from, end = from + length; k < end; k++) {
+            double q = Math.max(quantities[k], 0);
+            int i = (int) Math.min(q / width, last);
+            prices[k] = c[i] + (q - i * width) * r[i];
+        }
+    }
+
+    public void priceAll(double[] quantities, double[] prices) {
+        priceAll(quantities, prices, 0, quantities.length);
+    }
+
+    private int tierIndex(double quantity) {
+        if (quantity <= 0) {
+            return 0;
+        }
+        return (int) Math.min(quantity / tierWidth, rates.length - 1);
+    }
+}
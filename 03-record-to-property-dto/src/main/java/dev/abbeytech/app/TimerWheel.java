@@ -0,0 +1,64 @@
+package dev.abbeytech.app;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Hashed timer wheel for bulk expiry. Deadlines are bucketed by tick, so scheduling is O(1)
+ * and a single periodic {@link #advance} call expires everything that is due, instead of one
+ * scheduled task per entry. Deadlines more than one revolution away stay in their bucket until
+ * the wheel comes round to them again. Not thread-safe; callers serialise access.
+ */
+final class TimerWheel<K> {
+
+    private final long tickMillis;
+    private final List<Timeout<K>>[] buckets;
+    private final int mask;
+    private long lastTick;
+
+    @SuppressWarnings("unchecked")
+    TimerWheel(long tickMillis, int wheelSize, long nowMillis) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        this.tickMillis = tickMillis;
+        this.buckets = new List[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.mask = wheelSize - 1;
+        this.lastTick = nowMillis / tickMillis;
+    }
+
+    private record Timeout<K>(K key, long deadlineMillis) {}
+
+    void schedule(K key, long deadlineMillis) {
+        // first tick boundary at or after the deadline, but never a bucket already swept this revolution
+        long tick = Math.max((deadlineMillis + tickMillis - 1) / tickMillis, lastTick + 1);
+        buckets[(int) (tick & mask)].add(new Timeout<>(key, deadlineMillis));
+    }
+
+    /**
+     * Sweeps every bucket whose tick has passed and hands each due key and its deadline to
+     * {@code expired}
+     */
+    void advance(long nowMillis, BiConsumer<K, Long> expired) {
+        long nowTick = nowMillis / tickMillis;
+        long ticks = Math.min(nowTick - lastTick, buckets.length);
+        for (long t = 1; t <= ticks; t++) {
+            List<Timeout<K>> bucket = buckets[(int) ((lastTick + t) & mask)];
+            int kept = 0;
+            for (int i = 0; i < bucket.size(); i++) {
+                Timeout<K> timeout = bucket.get(i);
+                if (timeout.deadlineMillis() <= nowMillis) {
+                    expired.accept(timeout.key(), timeout.deadlineMillis());
+                } else {
+                    bucket.set(kept++, timeout);
+                }
+            }
+            bucket.subList(kept, bucket.size()).clear();
+        }
+        lastTick = Math.max(lastTick, nowTick);
+    }
+}
@@ -0,0 +1,26 @@
+package dev.abbeytech.app;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Registers the {@link BearerTokenFilter} on the config endpoints when
+ * {@code app.config.security.enabled} is set
+ */
+@Configuration
+public class TokenSecurityConfig {
+
+    @Bean
+    public FilterRegistrationBean<BearerTokenFilter> bearerTokenFilter(AppConfig appConfig,
+                                                                        ValidatedTokenCache tokenCache) {
+        FilterRegistrationBean<BearerTokenFilter> registration =
+                new FilterRegistrationBean<>(new BearerTokenFilter(tokenCache));
+        registration.addUrlPatterns("/api/config/*");
+        // runs after CorsOriginFilter so that preflights are answered without a token
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        registration.setEnabled(appConfig.security().enabled());
+        return registration;
+    }
+}
@@ -0,0 +1,113 @@
+package dev.abbeytech.app;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.util.Base64;
+
+/**
+ * Issues and verifies HMAC-SHA256 signed bearer tokens.
+ *
+ * <p>A token is {@code base64url(subject:issuedAtSeconds).base64url(signature)} and is valid
+ * for {@code SecurityConfig.tokenExpiration} seconds after it was issued.
+ */
+@Service
+public class TokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long tokenExpirationSeconds;
+    private final Clock clock;
+    private final ThreadLocal<Mac> macs;
+
+    @Autowired
+    public TokenService(AppConfig appConfig, @Value("${app.security.token-secret}") String secret) {
+        this(secret, appConfig.security().tokenExpiration(), Clock.systemUTC());
+    }
+
+    TokenService(String secret, long tokenExpirationSeconds, Clock clock) {
+        if (secret == null || secret.length() < 32) {
+            throw new IllegalArgumentException(
+                    "app.security.token-secret (TOKEN_SECRET) must be set to at least 32 characters");
+        }
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.tokenExpirationSeconds = tokenExpirationSeconds;
+        this.clock = clock;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * A successfully verified token
+     */
+    public record VerifiedToken(String subject, long expiresAtMillis) {}
+
+    public String issue(String subject) {
+        if (subject.indexOf(':') >= 0) {
+            throw new IllegalArgumentException("Subject must not contain ':'");
+        }
+        String claims = subject + ":" + clock.instant().getEpochSecond();
+        byte[] claimBytes = claims.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(claimBytes) + "." + ENCODER.encodeToString(sign(claimBytes));
+    }
+
+    /**
+     * Fully verifies the signature and expiry of {@code token}; returns {@code null} if either fails
+     */
+    public VerifiedToken verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+        byte[] claims;
+        byte[] signature;
+        try {
+            claims = DECODER.decode(token.substring(0, dot));
+            signature = DECODER.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(sign(claims), signature)) {
+            return null;
+        }
+        String value = new String(claims, StandardCharsets.UTF_8);
+        int colon = value.lastIndexOf(':');
+        if (colon <= 0) {
+            return null;
+        }
+        long issuedAt;
+        try {
+            issuedAt = Long.parseLong(value.substring(colon + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        long expiresAtMillis = (issuedAt + tokenExpirationSeconds) * 1000;
+        if (expiresAtMillis <= clock.millis()) {
+            return null;
+        }
+        return new VerifiedToken(value.substring(0, colon), expiresAtMillis);
+    }
+
+    private byte[] sign(byte[] claims) {
+        return macs.get().doFinal(claims);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
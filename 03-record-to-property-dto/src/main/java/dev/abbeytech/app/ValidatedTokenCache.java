@@ -0,0 +1,132 @@
+package dev.abbeytech.app;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent cache of already verified bearer tokens, so the HMAC is only computed the first
+ * time a token is seen. An entry lives until its token expires, i.e. {@code tokenExpiration}
+ * seconds after issue.
+ *
+ * <p>Entries are spread over independent stripes by token hash. Lookups are a lock-free map
+ * read plus a deadline check; only inserts and the sweeper take a stripe's lock. Expired
+ * entries are removed by one periodic sweep of each stripe's {@link TimerWheel}.
+ *
+ * <p>Metrics: {@code token.cache.requests} tagged {@code result=hit|miss},
+ * {@code token.verify} (the cost of a full verification) and {@code token.cache.size}.
+ */
+@Component
+public class ValidatedTokenCache {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int WHEEL_SIZE = 512;
+
+    private final TokenService tokenService;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final int maxEntriesPerStripe;
+    private final ScheduledExecutorService sweeper;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer verifyTimer;
+
+    public ValidatedTokenCache(TokenService tokenService, MeterRegistry meterRegistry,
+                               @Value("${app.security.token-cache.max-entries:100000}") int maxEntries) {
+        this.tokenService = tokenService;
+        // next power of two at or above 4 stripes per core
+        int stripeCount = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 4 - 1) << 1;
+        this.stripes = new Stripe[stripeCount];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(now);
+        }
+        this.stripeMask = stripeCount - 1;
+        this.maxEntriesPerStripe = Math.max(1, maxEntries / stripeCount);
+
+        this.hits = Counter.builder("token.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("token.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.verifyTimer = Timer.builder("token.verify")
+                .description("Full HMAC verification of a bearer token on a cache miss")
+                .register(meterRegistry);
+        Gauge.builder("token.cache.size", this, ValidatedTokenCache::size).register(meterRegistry);
+
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "token-cache-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleAtFixedRate(this::sweep, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the verified token, from the cache when possible; {@code null} if it is invalid
+     */
+    public TokenService.VerifiedToken validate(String token) {
+        Stripe stripe = stripes[spread(token.hashCode()) & stripeMask];
+        TokenService.VerifiedToken cached = stripe.entries.get(token);
+        if (cached != null && cached.expiresAtMillis() > System.currentTimeMillis()) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        long start = System.nanoTime();
+        TokenService.VerifiedToken verified = tokenService.verify(token);
+        verifyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (verified != null && stripe.entries.size() < maxEntriesPerStripe
+                && stripe.entries.putIfAbsent(token, verified) == null) {
+            synchronized (stripe) {
+                stripe.wheel.schedule(token, verified.expiresAtMillis());
+            }
+        }
+        return verified;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.entries.size();
+        }
+        return size;
+    }
+
+    void sweep() {
+        long now = System.currentTimeMillis();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.wheel.advance(now, (token, deadline) -> stripe.entries.remove(token));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Stripe {
+
+        final ConcurrentHashMap<String, TokenService.VerifiedToken> entries = new ConcurrentHashMap<>();
+        final TimerWheel<String> wheel;
+
+        Stripe(long now) {
+            this.wheel = new TimerWheel<>(TICK_MILLIS, WHEEL_SIZE, now);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package dev.abbeytech.app;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decode cost of the binary config payload against the JSON served by {@code /api/config}.
+ * Payload sizes are printed during setup.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=dev.abbeytech.app.AppConfigCodecBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AppConfigCodecBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private AppConfig base;
+    private byte[] json;
+    private byte[] binary;
+    private byte[] delta;
+
+    @Setup
+    public void setUp() throws Exception {
+        base = sampleConfig();
+        AppConfig changed = AppConfig.builder()
+                .name(base.name()).description(base.description()).version("1.0.1")
+                .enabled(base.enabled()).maxConnections(base.maxConnections()).timeout(base.timeout())
+                .environment(base.environment()).supportedFormats(base.supportedFormats())
+                .rates(List.of(1.30, 2.50, 3.75, 4.99))
+                .database(base.database()).security(base.security())
+                .build();
+
+        json = objectMapper.writeValueAsBytes(base);
+        binary = AppConfigCodec.encode(1, base);
+        delta = AppConfigCodec.encodeDelta(1, base, 2, changed);
+        System.out.printf("%npayload bytes: json=%d binary=%d delta=%d%n", json.length, binary.length, delta.length);
+    }
+
+    @Benchmark
+    public AppConfig decodeJson() throws Exception {
+        return objectMapper.readValue(json, AppConfig.class);
+    }
+
+    @Benchmark
+    public AppConfig decodeBinary() {
+        return AppConfigCodec.decode(binary).config();
+    }
+
+    @Benchmark
+    public AppConfig decodeDelta() {
+        return AppConfigCodec.decode(delta, 1, base).config();
+    }
+
+    static AppConfig sampleConfig() {
+        return AppConfig.builder()
+                .name("Record Properties Demo")
+                .description("Spring Boot 3.4.0 application using Java 21 records with properties")
+                .version("1.0.0")
+                .enabled(true)
+                .maxConnections(100)
+                .timeout(30.5)
+                .environment(AppConfig.Environment.PRODUCTION)
+                .supportedFormats(List.of("JSON", "XML", "CSV", "YAML"))
+                .rates(List.of(1.25, 2.50, 3.75, 4.99))
+                .database(AppConfig.DatabaseConfig.builder()
+                        .url("jdbc:mysql://localhost:3306/demo")
+                        .username("admin")
+                        .password("password")
+                        .poolSize(10)
+                        .timeout(5000L)
+                        .build())
+                .security(AppConfig.SecurityConfig.builder()
+                        .enabled(true)
+                        .tokenExpiration(3600L)
+                        .allowedOrigins(List.of("https://example.com", "https://dev.example.com",
+                                "https://api.example.com"))
+                        .build())
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AppConfigCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,110 @@
+package dev.abbeytech.app;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AppConfigCodecTest {
+
+    private final AppConfig config = AppConfig.builder()
+            .name("Codec Test")
+            .description("Fixture for the binary config codec")
+            .version("2.3.4")
+            .enabled(true)
+            .maxConnections(42)
+            .timeout(12.5)
+            .environment(AppConfig.Environment.TESTING)
+            .supportedFormats(List.of("JSON", "CSV"))
+            .rates(List.of(0.5, 1.75))
+            .database(AppConfig.DatabaseConfig.builder()
+                    .url("jdbc:h2:mem:codec")
+                    .username("sa")
+                    .password("")
+                    .poolSize(2)
+                    .timeout(250L)
+                    .build())
+            .security(AppConfig.SecurityConfig.builder()
+                    .enabled(true)
+                    .tokenExpiration(600L)
+                    .allowedOrigins(List.of("https://codec.example.com"))
+                    .build())
+            .build();
+
+    @Test
+    void fullPayloadRoundTrips() throws Exception {
+        byte[] bytes = AppConfigCodec.encode(7, config);
+
+        AppConfigCodec.Payload payload = AppConfigCodec.decode(bytes);
+
+        assertEquals(7, payload.version());
+        assertFalse(payload.delta());
+        assertEquals(config, payload.config());
+        assertTrue(bytes.length < new ObjectMapper().writeValueAsBytes(config).length);
+    }
+
+    @Test
+    void deltaCarriesOnlyChangedFields() {
+        AppConfig changed = AppConfig.builder()
+                .name(config.name()).description(config.description()).version(config.version())
+                .enabled(false).maxConnections(config.maxConnections()).timeout(config.timeout())
+                .environment(AppConfig.Environment.STAGING).supportedFormats(config.supportedFormats())
+                .rates(config.rates()).database(config.database()).security(null)
+                .build();
+
+        byte[] delta = AppConfigCodec.encodeDelta(1, config, 2, changed);
+        AppConfigCodec.Payload payload = AppConfigCodec.decode(delta, 1, config);
+
+        assertTrue(payload.delta());
+        assertEquals(2, payload.version());
+        assertEquals(changed, payload.config());
+        assertTrue(delta.length < 16);
+    }
+
+    @Test
+    void deltaAgainstWrongBaseIsRejected() {
+        byte[] delta = AppConfigCodec.encodeDelta(1, config, 2, config);
+
+        assertThrows(IllegalStateException.class, () -> AppConfigCodec.decode(delta, 3, config));
+    }
+
+    @Test
+    void historyServesDeltaForKnownVersionsAndFullOtherwise() {
+        ConfigVersionHistory history = new ConfigVersionHistory(config);
+        AppConfig changed = AppConfig.builder()
+                .name("renamed").description(config.description()).version(config.version())
+                .enabled(config.enabled()).maxConnections(config.maxConnections()).timeout(config.timeout())
+                .environment(config.environment()).supportedFormats(List.of("JSON"))
+                .rates(config.rates()).database(config.database()).security(config.security())
+                .build();
+
+        long base = history.current().version();
+        ConfigVersionHistory.Snapshot head = history.publish(changed);
+
+        assertEquals(ConfigVersionHistory.versionOf(changed), head.version());
+        assertEquals(changed, AppConfigCodec.decode(history.payloadSince(head, base), base, config).config());
+        assertEquals(changed, AppConfigCodec.decode(history.payloadSince(head, 42)).config());
+    }
+
+    @Test
+    void versionsFollowTheContentAcrossRestarts() {
+        AppConfig changed = AppConfig.builder()
+                .name("renamed").description(config.description()).version(config.version())
+                .enabled(config.enabled()).maxConnections(config.maxConnections()).timeout(config.timeout())
+                .environment(config.environment()).supportedFormats(config.supportedFormats())
+                .rates(config.rates()).database(config.database()).security(config.security())
+                .build();
+
+        long before = new ConfigVersionHistory(config).current().version();
+        // a restart with the same config serves the same version, so clients holding it get 304
+        assertEquals(before, new ConfigVersionHistory(config).current().version());
+        // a restart with a changed config never serves a version a client may already hold
+        assertNotEquals(before, new ConfigVersionHistory(changed).current().version());
+    }
+}
@@ -1,13 +1,24 @@
 package dev.abbeytech.app;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SpringBootTest
+@ActiveProfiles("test")
 class ApplicationTests {
 
     @Test
     void contextLoads() {
     }
 
+    @Test
+    void startupFailsWithoutATokenSecret() {
+        assertThrows(Exception.class, () -> new SpringApplicationBuilder(Application.class)
+                .run("--server.port=0", "--app.security.token-secret=").close());
+    }
+
 }
@@ -0,0 +1,92 @@
+package dev.abbeytech.app;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ConfigControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private AppConfig appConfig;
+
+    @Autowired
+    private HotPathsEndpoint hotPathsEndpoint;
+
+    @Test
+    void configEndpointsRequireBearerToken() throws Exception {
+        mockMvc.perform(get("/api/config"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer"));
+
+        mockMvc.perform(get("/api/config/status").header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenService.issue("test")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(appConfig.name()));
+    }
+
+    @Test
+    void binaryEndpointServesFullPayloadAndNotModified() throws Exception {
+        String bearer = "Bearer " + tokenService.issue("test");
+        long version = ConfigVersionHistory.versionOf(appConfig);
+
+        byte[] body = mockMvc.perform(get("/api/config/bin").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ConfigController.VERSION_HEADER, Long.toString(version)))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(appConfig, AppConfigCodec.decode(body).config());
+
+        mockMvc.perform(get("/api/config/bin?since=" + version).header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isNotModified());
+        // a version from a config this instance never served gets the full payload
+        mockMvc.perform(get("/api/config/bin?since=1").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void disallowedOriginIsRejected() throws Exception {
+        mockMvc.perform(get("/api/config").header(HttpHeaders.ORIGIN, "https://evil.example.org"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void sameOriginRequestsAreNotTreatedAsCrossOrigin() throws Exception {
+        // MockMvc requests are addressed to http://localhost:80
+        mockMvc.perform(get("/api/config/status").header(HttpHeaders.ORIGIN, "http://localhost")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenService.issue("test")))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN));
+        mockMvc.perform(get("/api/config/status").header(HttpHeaders.ORIGIN, "http://localhost:8081"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void instrumentedRequestsShowUpInHotPaths() throws Exception {
+        String bearer = "Bearer " + tokenService.issue("test");
+        mockMvc.perform(get("/api/config/environment-info").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+
+        List<HotPathsEndpoint.HotPath> hotPaths = hotPathsEndpoint.hotPaths(null);
+        assertTrue(hotPaths.stream().anyMatch(p -> p.endpoint().equals("getEnvironmentInfo") && p.calls() > 0));
+    }
+}
@@ -0,0 +1,42 @@
+package dev.abbeytech.app;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OriginMatcherTest {
+
+    private final OriginMatcher matcher = new OriginMatcher(List.of(
+            "https://example.com",
+            "https://*.apps.example.com",
+            "http://localhost:3000"), 64);
+
+    @Test
+    void exactOriginsMatchIgnoringCaseAndDefaultPort() {
+        assertTrue(matcher.isAllowed("https://example.com"));
+        assertTrue(matcher.isAllowed("HTTPS://Example.com:443"));
+        assertTrue(matcher.isAllowed("http://localhost:3000"));
+        assertFalse(matcher.isAllowed("http://example.com"));
+        assertFalse(matcher.isAllowed("http://localhost:3001"));
+    }
+
+    @Test
+    void wildcardMatchesSubdomainsButNotApex() {
+        assertTrue(matcher.isAllowed("https://a.apps.example.com"));
+        assertTrue(matcher.isAllowed("https://a.b.apps.example.com"));
+        assertFalse(matcher.isAllowed("https://apps.example.com"));
+        assertFalse(matcher.isAllowed("https://evilapps.example.com"));
+        assertFalse(matcher.isAllowed("http://a.apps.example.com"));
+    }
+
+    @Test
+    void decisionsAreCached() {
+        assertFalse(matcher.match("https://other.org").cached());
+        assertTrue(matcher.match("https://other.org").cached());
+        assertFalse(matcher.isAllowed("https://other.org"));
+        assertFalse(matcher.isAllowed("null"));
+    }
+}
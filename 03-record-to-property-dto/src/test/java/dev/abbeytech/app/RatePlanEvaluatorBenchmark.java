@@ -0,0 +1,84 @@
+package dev.abbeytech.app;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Graduated pricing of a batch of quantities: {@link RatePlanEvaluator} against walking the
+ * boxed {@code List<Double>} bound from {@code app.config.rates} for every quantity.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RatePlanEvaluatorBenchmark {
+
+    private static final double TIER_WIDTH = 100;
+
+    @Param({"1024"})
+    private int batchSize;
+
+    private List<Double> boxedRates;
+    private RatePlanEvaluator evaluator;
+    private double[] quantities;
+    private double[] prices;
+
+    @Setup
+    public void setUp() {
+        boxedRates = List.of(1.25, 2.50, 3.75, 4.99);
+        evaluator = new RatePlanEvaluator(boxedRates, TIER_WIDTH);
+        quantities = new Random(42).doubles(batchSize, 0, 600).toArray();
+        prices = new double[batchSize];
+    }
+
+    @Benchmark
+    public double[] boxedList() {
+        for (int k = 0; k < quantities.length; k++) {
+            double q = quantities[k];
+            double price = 0;
+            for (int i = 0; i < boxedRates.size() && q > i * TIER_WIDTH; i++) {
+                boolean lastTier = i == boxedRates.size() - 1;
+                double units = lastTier ? q - i * TIER_WIDTH : Math.min(q - i * TIER_WIDTH, TIER_WIDTH);
+                price += units * boxedRates.get(i);
+            }
+            prices[k] = price;
+        }
+        return prices;
+    }
+
+    @Benchmark
+    public double[] evaluatorPerQuantity() {
+        for (int k = 0; k < quantities.length; k++) {
+            prices[k] = evaluator.price(quantities[k]);
+        }
+        return prices;
+    }
+
+    @Benchmark
+    public double[] evaluatorBatch() {
+        evaluator.priceAll(quantities, prices);
+        return prices;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RatePlanEvaluatorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,41 @@
+package dev.abbeytech.app;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RatePlanEvaluatorTest {
+
+    private final RatePlanEvaluator evaluator = new RatePlanEvaluator(List.of(1.0, 2.0, 4.0), 10);
+
+    @Test
+    void tieredLookup() {
+        assertEquals(1.0, evaluator.tierRate(0));
+        assertEquals(2.0, evaluator.tierRate(10));
+        assertEquals(4.0, evaluator.tierRate(1_000));
+    }
+
+    @Test
+    void interpolatedLookup() {
+        assertEquals(1.5, evaluator.interpolatedRate(5), 1e-9);
+        assertEquals(3.0, evaluator.interpolatedRate(15), 1e-9);
+        assertEquals(4.0, evaluator.interpolatedRate(50), 1e-9);
+    }
+
+    @Test
+    void graduatedPriceMatchesBatch() {
+        double[] quantities = {-3, 5, 10, 25, 40};
+        double[] expected = {0, 5, 10, 10 + 20 + 20, 10 + 20 + 80};
+        double[] prices = new double[quantities.length];
+
+        evaluator.priceAll(quantities, prices);
+
+        assertArrayEquals(expected, prices, 1e-9);
+        for (int i = 0; i < quantities.length; i++) {
+            assertEquals(expected[i], evaluator.price(quantities[i]), 1e-9);
+        }
+    }
+}
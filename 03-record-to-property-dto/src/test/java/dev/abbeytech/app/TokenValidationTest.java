@@ -0,0 +1,69 @@
+package dev.abbeytech.app;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenValidationTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret";
+
+    @Test
+    void issuedTokenVerifiesUntilItExpires() {
+        Instant issuedAt = Instant.now().minusSeconds(30);
+        TokenService issuer = new TokenService(SECRET, 3600, Clock.fixed(issuedAt, ZoneOffset.UTC));
+        String token = issuer.issue("agent-1");
+
+        TokenService.VerifiedToken verified = new TokenService(SECRET, 3600, Clock.systemUTC()).verify(token);
+
+        assertNotNull(verified);
+        assertEquals("agent-1", verified.subject());
+        assertNull(new TokenService(SECRET, 10, Clock.systemUTC()).verify(token));
+        assertNull(new TokenService(SECRET + "x", 3600, Clock.systemUTC()).verify(token));
+        assertNull(issuer.verify(token.substring(0, token.length() - 2)));
+    }
+
+    @Test
+    void cacheSkipsVerificationForKnownTokens() {
+        TokenService tokenService = new TokenService(SECRET, 3600, Clock.systemUTC());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ValidatedTokenCache cache = new ValidatedTokenCache(tokenService, registry, 1000);
+        String token = tokenService.issue("agent-1");
+
+        assertNotNull(cache.validate(token));
+        assertNotNull(cache.validate(token));
+        assertNull(cache.validate("not-a-token"));
+        cache.shutdown();
+
+        assertEquals(1, registry.get("token.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(2, registry.get("token.verify").timer().count());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void timerWheelExpiresDueEntriesOnly() {
+        TimerWheel<String> wheel = new TimerWheel<>(100, 8, 0);
+        wheel.schedule("soon", 250);
+        wheel.schedule("next-revolution", 1_050);
+        List<String> expired = new ArrayList<>();
+
+        wheel.advance(300, (key, deadline) -> expired.add(key));
+        assertEquals(List.of("soon"), expired);
+
+        wheel.advance(1_000, (key, deadline) -> expired.add(key));
+        assertEquals(List.of("soon"), expired);
+
+        wheel.advance(1_100, (key, deadline) -> expired.add(key));
+        assertTrue(expired.contains("next-revolution"));
+    }
+}
@@ -0,0 +1,67 @@
+package dev.abbeytech.app;
+
+import dev.abbeytech.perf.LoadGenerator;
+import dev.abbeytech.perf.LoadProfile;
+import dev.abbeytech.perf.PerfSuite;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The config project's benchmarks, and {@link ConfigController} under HTTP load on an embedded
+ * server, against the stored baseline. Run with {@code mvn test -Pperf}.
+ */
+@Tag("perf")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ConfigPerfTest {
+
+    static final PerfSuite SUITE = PerfSuite.forModule("config");
+    static final LoadProfile PROFILE = LoadProfile.fromSystemProperties(32, Duration.ofSeconds(5), Duration.ofSeconds(10));
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    TokenService tokenService;
+
+    @Autowired
+    ConfigVersionHistory history;
+
+    @Test
+    void microbenchmarks() throws Exception {
+        SUITE.runJmh(AppConfigCodecBenchmark.class, RatePlanEvaluatorBenchmark.class);
+    }
+
+    @Test
+    void configEndpointsUnderLoad() throws Exception {
+        String bearer = "Bearer " + tokenService.issue("perf");
+        LoadGenerator generator = new LoadGenerator(PROFILE);
+        SUITE.runLoad(generator, "config-json", List.of(get("/config", bearer), get("/config/status", bearer)));
+        // a client polling with the version it holds gets 304s
+        String since = "/config/bin?since=" + history.current().version();
+        SUITE.runLoad(generator, "config-binary", List.of(get("/config/bin", bearer), get(since, bearer)));
+    }
+
+    @AfterAll
+    static void verify() throws Exception {
+        SUITE.verify();
+    }
+
+    private HttpRequest get(String path, String bearer) {
+        // the servlet context path is /api and the controller is mapped under /api/config
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/api" + path))
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .build();
+    }
+}
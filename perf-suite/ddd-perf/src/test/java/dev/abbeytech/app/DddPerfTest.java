@@ -0,0 +1,25 @@
+package dev.abbeytech.app;
+
+import dev.abbeytech.app.domain.model.order.OrderTotalBenchmark;
+import dev.abbeytech.app.infrastructure.inventory.InventoryContentionBenchmark;
+import dev.abbeytech.app.infrastructure.messaging.eventbus.EventBusBenchmark;
+import dev.abbeytech.app.infrastructure.messaging.kafka.consumer.EventConsumerBenchmark;
+import dev.abbeytech.app.infrastructure.messaging.kafka.producer.MessagingThroughputBenchmark;
+import dev.abbeytech.perf.PerfSuite;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The DDD project's benchmarks against the stored baseline. Run with {@code mvn test -Pperf}.
+ */
+@Tag("perf")
+class DddPerfTest {
+
+    @Test
+    void microbenchmarks() throws Exception {
+        PerfSuite suite = PerfSuite.forModule("ddd");
+        suite.runJmh(OrderTotalBenchmark.class, InventoryContentionBenchmark.class, EventBusBenchmark.class,
+                MessagingThroughputBenchmark.class, EventConsumerBenchmark.class);
+        suite.verify();
+    }
+}
@@ -0,0 +1,65 @@
+package dev.abbeytech.imagestorage;
+
+import dev.abbeytech.imagestorage.storage.ImageHeader;
+import dev.abbeytech.imagestorage.storage.ImageHeaderParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading type and dimensions from the first bytes of an upload with {@link ImageHeaderParser},
+ * against decoding the whole image with ImageIO, which is what it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImageHeaderBenchmark {
+
+    private byte[] png;
+    private byte[] jpeg;
+
+    @Setup
+    public void setUp() throws IOException {
+        BufferedImage image = new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB);
+        png = encode(image, "png");
+        jpeg = encode(image, "jpg");
+    }
+
+    @Benchmark
+    public ImageHeader parsePngHeader() {
+        return ImageHeaderParser.parse(png, Math.min(png.length, 64 * 1024));
+    }
+
+    @Benchmark
+    public ImageHeader parseJpegHeader() {
+        return ImageHeaderParser.parse(jpeg, Math.min(jpeg.length, 64 * 1024));
+    }
+
+    @Benchmark
+    public int decodePngWithImageIo() throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(png)).getWidth();
+    }
+
+    static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+}
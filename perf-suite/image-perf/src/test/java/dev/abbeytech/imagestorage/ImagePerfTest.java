@@ -0,0 +1,94 @@
+package dev.abbeytech.imagestorage;
+
+import dev.abbeytech.imagestorage.model.Image;
+import dev.abbeytech.imagestorage.service.ImageService;
+import dev.abbeytech.perf.LoadGenerator;
+import dev.abbeytech.perf.LoadProfile;
+import dev.abbeytech.perf.PerfSuite;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The header parser benchmark, and the image endpoints under HTTP load on an embedded server,
+ * against the stored baseline. Run with {@code mvn test -Pperf}.
+ */
+@Tag("perf")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:perfdb;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.storage.location=target/perf-uploads",
+        "app.thumbnails.widths=160"})
+class ImagePerfTest {
+
+    static final PerfSuite SUITE = PerfSuite.forModule("image");
+    static final LoadProfile PROFILE = LoadProfile.fromSystemProperties(32, Duration.ofSeconds(5), Duration.ofSeconds(10));
+    static final int SEEDED_IMAGES = 200;
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    ImageService imageService;
+
+    @Test
+    void microbenchmarks() throws Exception {
+        SUITE.runJmh(ImageHeaderBenchmark.class);
+    }
+
+    @Test
+    void imageEndpointsUnderLoad() throws Exception {
+        List<Long> ids = new ArrayList<>(SEEDED_IMAGES);
+        for (int i = 0; i < SEEDED_IMAGES; i++) {
+            // distinct pixels, so every image is its own blob
+            BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+            image.setRGB(i % 64, i / 64, 0xFFFFFF);
+            byte[] png = ImageHeaderBenchmark.encode(image, "png");
+            Image stored = imageService.store(new ByteArrayInputStream(png), "seed-" + i + ".png", "perf seed " + i);
+            ids.add(stored.getId());
+        }
+        LoadGenerator generator = new LoadGenerator(PROFILE);
+
+        List<HttpRequest> reads = new ArrayList<>();
+        for (Long id : ids) {
+            reads.add(get("/api/images/" + id));
+            reads.add(get("/images/" + id + "/view"));
+        }
+        SUITE.runLoad(generator, "image-reads", reads);
+        SUITE.runLoad(generator, "image-list-search", List.of(get("/api/images?limit=50"), get("/api/images/search?q=seed")));
+
+        byte[] upload = ImageHeaderBenchmark.encode(new BufferedImage(32, 32, BufferedImage.TYPE_INT_RGB), "png");
+        SUITE.runLoad(generator, "image-uploads", List.of(HttpRequest.newBuilder(uri("/api/images?filename=load.png"))
+                .header(HttpHeaders.CONTENT_TYPE, "image/png")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(upload))
+                .build()));
+    }
+
+    @AfterAll
+    static void verify() throws Exception {
+        SUITE.verify();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,19 @@
+package dev.abbeytech.app;
+
+import dev.abbeytech.perf.PerfSuite;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Stream pipeline benchmarks against the stored baseline. Run with {@code mvn test -Pperf}.
+ */
+@Tag("perf")
+class LambdaPerfTest {
+
+    @Test
+    void streamPipelines() throws Exception {
+        PerfSuite suite = PerfSuite.forModule("lambda");
+        suite.runJmh(StreamPipelineBenchmark.class);
+        suite.verify();
+    }
+}
@@ -0,0 +1,100 @@
+package dev.abbeytech.app;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * The pipelines the stream tutorials compare by wall clock, measured properly: summing a boxed
+ * list sequentially, in parallel and as primitives, counting primes sequentially and in
+ * parallel, and grouping {@link StreamsWithLambda.Person}s by job.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamPipelineBenchmark {
+
+    static final int NUMBERS = 1_000_000;
+    static final int PRIME_LIMIT = 100_000;
+    static final String[] JOBS = {"Engineer", "Designer", "Manager", "Analyst"};
+
+    private List<Integer> boxed;
+    private int[] primitive;
+    private List<StreamsWithLambda.Person> people;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        primitive = random.ints(NUMBERS, 0, 100).toArray();
+        boxed = IntStream.of(primitive).boxed().toList();
+        people = new ArrayList<>(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            people.add(new StreamsWithLambda.Person("person-" + i, 20 + random.nextInt(45), JOBS[i % JOBS.length]));
+        }
+    }
+
+    @Benchmark
+    public long boxedSequentialSum() {
+        return boxed.stream().mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long boxedParallelSum() {
+        return boxed.parallelStream().mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    public long primitiveSum() {
+        return IntStream.of(primitive).asLongStream().sum();
+    }
+
+    @Benchmark
+    public long sequentialPrimeCount() {
+        return IntStream.range(1, PRIME_LIMIT).filter(StreamPipelineBenchmark::isPrime).count();
+    }
+
+    @Benchmark
+    public long parallelPrimeCount() {
+        return IntStream.range(1, PRIME_LIMIT).parallel().filter(StreamPipelineBenchmark::isPrime).count();
+    }
+
+    @Benchmark
+    public Map<String, Double> averageAgeByJob() {
+        return people.stream().collect(Collectors.groupingBy(StreamsWithLambda.Person::getJob,
+                Collectors.averagingInt(StreamsWithLambda.Person::getAge)));
+    }
+
+    // the tutorial's 6k +/- 1 trial division
+    static boolean isPrime(int n) {
+        if (n <= 3) {
+            return n > 1;
+        }
+        if (n % 2 == 0 || n % 3 == 0) {
+            return false;
+        }
+        for (int i = 5; i * i <= n; i += 6) {
+            if (n % i == 0 || n % (i + 2) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,71 @@
+package dev.abbeytech.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Reference values for a module's metrics on one runner, stored as JSON. A metric regresses
+ * when it is worse than its reference by more than {@code tolerance}, a fraction of the
+ * reference; being better by any amount is fine. A metric with a reference that the run did not
+ * measure at all is reported too, so a benchmark that stops running cannot pass unnoticed.
+ */
+public record Baseline(double tolerance, Map<String, Metric> metrics) {
+
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public Baseline {
+        if (tolerance < 0) {
+            throw new IllegalArgumentException("Tolerance must not be negative: " + tolerance);
+        }
+        metrics = new TreeMap<>(metrics);
+    }
+
+    public static Baseline read(Path file) throws IOException {
+        return JSON.readValue(file.toFile(), Baseline.class);
+    }
+
+    public void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        JSON.writeValue(file.toFile(), this);
+    }
+
+    /**
+     * One line per measured metric that is worse than its reference allows, and per reference
+     * that was not measured; measured metrics without a reference are not checked
+     */
+    public List<String> regressions(Map<String, Metric> measured) {
+        List<String> regressions = new ArrayList<>();
+        Set<String> names = new TreeSet<>(metrics.keySet());
+        names.addAll(measured.keySet());
+        names.forEach(name -> {
+            Metric reference = metrics.get(name);
+            Metric metric = measured.get(name);
+            if (reference == null) {
+                return;
+            }
+            if (metric == null) {
+                regressions.add(String.format("%s: not measured, against a baseline of %.3f", name, reference.value()));
+                return;
+            }
+            boolean worse = reference.higherIsBetter()
+                    ? metric.value() < reference.value() * (1 - tolerance)
+                    : metric.value() > reference.value() * (1 + tolerance);
+            if (worse) {
+                regressions.add(String.format("%s: %.3f against a baseline of %.3f (%s is better, tolerance %.0f%%)",
+                        name, metric.value(), reference.value(), reference.higherIsBetter() ? "higher" : "lower",
+                        tolerance * 100));
+            }
+        });
+        return regressions;
+    }
+}
@@ -0,0 +1,114 @@
+package dev.abbeytech.perf;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load: {@link LoadProfile#clients()} virtual threads each send the scenario's
+ * requests in turn, the next as soon as the previous response has been read in full.
+ *
+ * <p>Latencies of successful responses go to an HdrHistogram {@link Recorder}, whose interval
+ * histograms are written every second to an HdrHistogram log, so a run can be replayed and
+ * plotted later. Responses with a status of 400 or above, and failed sends, count as errors.
+ * A closed loop slows down with the server, so its percentiles understate what a fixed arrival
+ * rate would see when the server stalls.
+ */
+public final class LoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final long LOG_INTERVAL_MILLIS = 1000;
+
+    private final LoadProfile profile;
+    private final HttpClient client;
+
+    public LoadGenerator(LoadProfile profile) {
+        this.profile = profile;
+        this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    /**
+     * Runs the requests under load and writes the interval histograms to {@code histogramLog}
+     */
+    public LoadResult run(String scenario, List<HttpRequest> requests, Path histogramLog)
+            throws IOException, InterruptedException {
+        Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        AtomicLong errors = new AtomicLong();
+        Phase phase = new Phase();
+        List<Thread> clients = new ArrayList<>(profile.clients());
+        for (int i = 0; i < profile.clients(); i++) {
+            int first = i;
+            clients.add(Thread.ofVirtual().name("load-" + scenario + "-", i)
+                    .start(() -> drive(requests, first, recorder, errors, phase)));
+        }
+
+        Thread.sleep(profile.warmup().toMillis());
+        recorder.reset();
+        errors.set(0);
+        phase.recording = true;
+
+        Files.createDirectories(histogramLog.toAbsolutePath().getParent());
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        Histogram interval = null;
+        long start = System.nanoTime();
+        long end = start + profile.duration().toNanos();
+        try (PrintStream out = new PrintStream(Files.newOutputStream(histogramLog))) {
+            HistogramLogWriter writer = new HistogramLogWriter(out);
+            writer.outputLogFormatVersion();
+            writer.outputStartTime(System.currentTimeMillis());
+            writer.setBaseTime(System.currentTimeMillis());
+            writer.outputLegend();
+            while (System.nanoTime() < end) {
+                Thread.sleep(Math.min(LOG_INTERVAL_MILLIS, TimeUnit.NANOSECONDS.toMillis(end - System.nanoTime()) + 1));
+                interval = recorder.getIntervalHistogram(interval);
+                writer.outputIntervalHistogram(interval);
+                total.add(interval);
+            }
+        } finally {
+            phase.running = false;
+            for (Thread thread : clients) {
+                thread.join();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return LoadResult.of(scenario, total, errors.get(), seconds);
+    }
+
+    private void drive(List<HttpRequest> requests, int first, Recorder recorder, AtomicLong errors, Phase phase) {
+        for (int i = first; phase.running; i++) {
+            HttpRequest request = requests.get(i % requests.size());
+            long sent = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() >= 400) {
+                    errors.incrementAndGet();
+                } else if (phase.recording) {
+                    recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent),
+                            HIGHEST_TRACKABLE_MICROS));
+                }
+            } catch (IOException e) {
+                errors.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static final class Phase {
+        private volatile boolean recording;
+        private volatile boolean running = true;
+    }
+}
@@ -0,0 +1,24 @@
+package dev.abbeytech.perf;
+
+import java.time.Duration;
+
+/**
+ * How hard and how long a {@link LoadGenerator} drives a scenario
+ *
+ * @param clients  concurrent clients, each sending its next request as soon as the last one completes
+ * @param warmup   time spent sending before anything is recorded, for the JIT and the server's pools
+ * @param duration time recorded
+ */
+public record LoadProfile(int clients, Duration warmup, Duration duration) {
+
+    /**
+     * The given defaults, overridden by {@code -Dperf.clients}, {@code -Dperf.warmup} and
+     * {@code -Dperf.duration} (ISO-8601 durations such as {@code PT10S})
+     */
+    public static LoadProfile fromSystemProperties(int clients, Duration warmup, Duration duration) {
+        return new LoadProfile(
+                Integer.getInteger("perf.clients", clients),
+                Duration.parse(System.getProperty("perf.warmup", warmup.toString())),
+                Duration.parse(System.getProperty("perf.duration", duration.toString())));
+    }
+}
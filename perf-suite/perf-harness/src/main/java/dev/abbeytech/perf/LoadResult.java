@@ -0,0 +1,26 @@
+package dev.abbeytech.perf;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * What a {@link LoadGenerator} run measured; latencies are in microseconds
+ */
+public record LoadResult(String scenario, long requests, long errors, double seconds,
+                         double p50Micros, double p99Micros, double p999Micros, double maxMicros) {
+
+    static LoadResult of(String scenario, Histogram latencies, long errors, double seconds) {
+        return new LoadResult(scenario, latencies.getTotalCount(), errors, seconds,
+                latencies.getValueAtPercentile(50), latencies.getValueAtPercentile(99),
+                latencies.getValueAtPercentile(99.9), latencies.getMaxValue());
+    }
+
+    public double requestsPerSecond() {
+        return requests / seconds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-28s %,10.0f req/s  p50 %,8.0fus  p99 %,8.0fus  p99.9 %,8.0fus  max %,8.0fus  errors %d",
+                scenario, requestsPerSecond(), p50Micros, p99Micros, p999Micros, maxMicros, errors);
+    }
+}
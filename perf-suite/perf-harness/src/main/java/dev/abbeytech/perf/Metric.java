@@ -0,0 +1,7 @@
+package dev.abbeytech.perf;
+
+/**
+ * One measured number and which direction is an improvement
+ */
+public record Metric(double value, boolean higherIsBetter) {
+}
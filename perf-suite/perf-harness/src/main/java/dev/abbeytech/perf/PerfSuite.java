@@ -0,0 +1,186 @@
+package dev.abbeytech.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Collects the metrics of one module's perf run, writes them to {@code target/perf} and checks
+ * them against the module's {@link Baseline}.
+ *
+ * <p>JMH benchmarks are run with a short default schedule, overridable with
+ * {@code -Dperf.jmh.warmupIterations}, {@code -Dperf.jmh.iterations}, {@code -Dperf.jmh.time}
+ * (seconds) and {@code -Dperf.jmh.forks}; their raw results go to {@code <name>-jmh.json}. Load
+ * scenarios write an HdrHistogram log, {@code <name>-<scenario>.hlog}. {@link #verify} writes
+ * every metric to {@code <name>-results.json} and fails on regressions, or with
+ * {@code -Dperf.updateBaseline=true} stores the metrics as the new baseline.
+ *
+ * <p>Baselines are only comparable on the machine that recorded them, so they are kept per
+ * runner outside the source tree rather than checked in. The first run on a runner records its
+ * baseline; later runs there are checked against it. Both that and metrics missing from the
+ * baseline are logged as warnings, since nothing was checked for them.
+ */
+@Slf4j
+public final class PerfSuite {
+
+    static final double DEFAULT_TOLERANCE = 0.3;
+
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final String name;
+    private final Path outputDirectory;
+    private final Path baselineFile;
+    private final Map<String, Metric> metrics = new TreeMap<>();
+    private final List<String> failures = new ArrayList<>();
+
+    public PerfSuite(String name, Path outputDirectory, Path baselineFile) {
+        this.name = name;
+        this.outputDirectory = outputDirectory;
+        this.baselineFile = baselineFile;
+    }
+
+    /**
+     * A suite writing to the module's {@code target/perf}, with its baseline in
+     * {@code <perf.baselineDir>/<perf.runner>/<name>.json}. The directory defaults to
+     * {@code ~/.perf-baselines}, the runner to the host name and core count.
+     */
+    public static PerfSuite forModule(String name) {
+        Path directory = System.getProperty("perf.baselineDir") != null
+                ? Path.of(System.getProperty("perf.baselineDir"))
+                : Path.of(System.getProperty("user.home"), ".perf-baselines");
+        return new PerfSuite(name, Path.of("target", "perf"), directory.resolve(runner()).resolve(name + ".json"));
+    }
+
+    static String runner() {
+        String runner = System.getProperty("perf.runner");
+        if (runner != null) {
+            return runner;
+        }
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "localhost";
+        }
+        return host + "-" + Runtime.getRuntime().availableProcessors() + "cpu";
+    }
+
+    /**
+     * Runs every benchmark method of the given classes and records each score, with its
+     * parameters, as {@code jmh.<Class>.<method>[param=value,...]}
+     */
+    public void runJmh(Class<?>... benchmarks) throws RunnerException, IOException {
+        Files.createDirectories(outputDirectory);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .warmupIterations(Integer.getInteger("perf.jmh.warmupIterations", 2))
+                .measurementIterations(Integer.getInteger("perf.jmh.iterations", 3))
+                .warmupTime(TimeValue.seconds(Integer.getInteger("perf.jmh.time", 1)))
+                .measurementTime(TimeValue.seconds(Integer.getInteger("perf.jmh.time", 1)))
+                .forks(Integer.getInteger("perf.jmh.forks", 1))
+                .resultFormat(ResultFormatType.JSON)
+                .result(outputDirectory.resolve(name + "-jmh.json").toString());
+        for (Class<?> benchmark : benchmarks) {
+            options.include("^" + Pattern.quote(benchmark.getName()) + "\\.");
+        }
+        for (RunResult result : new Runner(options.build()).run()) {
+            BenchmarkParams params = result.getParams();
+            String benchmark = params.getBenchmark();
+            String metric = "jmh." + benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+            if (!params.getParamsKeys().isEmpty()) {
+                metric += params.getParamsKeys().stream().sorted()
+                        .map(key -> key + "=" + params.getParam(key))
+                        .collect(Collectors.joining(",", "[", "]"));
+            }
+            record(metric, result.getPrimaryResult().getScore(), params.getMode() == Mode.Throughput);
+        }
+    }
+
+    /**
+     * Runs a load scenario and records its throughput and 99th percentile latency; any error
+     * response fails the suite
+     */
+    public LoadResult runLoad(LoadGenerator generator, String scenario, List<HttpRequest> requests)
+            throws IOException, InterruptedException {
+        LoadResult result = generator.run(scenario, requests, outputDirectory.resolve(name + "-" + scenario + ".hlog"));
+        log.info("{}", result);
+        record("load." + scenario + ".requestsPerSecond", result.requestsPerSecond(), true);
+        record("load." + scenario + ".p99Micros", result.p99Micros(), false);
+        if (result.errors() > 0) {
+            synchronized (this) {
+                failures.add(scenario + ": " + result.errors() + " failed requests");
+            }
+        }
+        return result;
+    }
+
+    public synchronized void record(String metric, double value, boolean higherIsBetter) {
+        metrics.put(metric, new Metric(value, higherIsBetter));
+    }
+
+    public synchronized Map<String, Metric> metrics() {
+        return Map.copyOf(metrics);
+    }
+
+    /**
+     * Writes the results and checks them against the baseline
+     *
+     * @throws AssertionError listing every regression and failed scenario
+     */
+    public synchronized void verify() throws IOException {
+        Files.createDirectories(outputDirectory);
+        JSON.writeValue(outputDirectory.resolve(name + "-results.json").toFile(), Map.of("metrics", metrics));
+
+        List<String> problems = new ArrayList<>(failures);
+        boolean firstRun = !Files.exists(baselineFile);
+        if (Boolean.getBoolean("perf.updateBaseline") || firstRun) {
+            // a run with failed scenarios is no reference for later ones
+            if (problems.isEmpty()) {
+                double tolerance = firstRun ? DEFAULT_TOLERANCE : Baseline.read(baselineFile).tolerance();
+                new Baseline(tolerance, metrics).write(baselineFile);
+                if (firstRun) {
+                    log.warn("{}: no baseline for this runner yet, so nothing was checked; recorded {} metrics as the baseline in {}",
+                            name, metrics.size(), baselineFile.toAbsolutePath());
+                } else {
+                    log.info("{}: wrote {} metrics as the new baseline to {}", name, metrics.size(), baselineFile.toAbsolutePath());
+                }
+            }
+        } else {
+            Baseline stored = Baseline.read(baselineFile);
+            String tolerance = System.getProperty("perf.tolerance");
+            Baseline baseline = tolerance == null ? stored : new Baseline(Double.parseDouble(tolerance), stored.metrics());
+            problems.addAll(baseline.regressions(metrics));
+            List<String> unchecked = metrics.keySet().stream()
+                    .filter(metric -> !baseline.metrics().containsKey(metric))
+                    .toList();
+            if (!unchecked.isEmpty()) {
+                log.warn("{}: {} of {} metrics have no baseline in {} and were not checked: {}",
+                        name, unchecked.size(), metrics.size(), baselineFile.toAbsolutePath(), unchecked);
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new AssertionError(name + " performance regressed:\n  " + String.join("\n  ", problems));
+        }
+    }
+}
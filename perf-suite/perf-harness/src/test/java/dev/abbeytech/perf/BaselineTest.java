@@ -0,0 +1,86 @@
+package dev.abbeytech.perf;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BaselineTest {
+
+    static final Baseline BASELINE = new Baseline(0.2, Map.of(
+            "throughput", new Metric(1000, true),
+            "latency", new Metric(50, false)));
+
+    @Test
+    void onlyMetricsWorseThanTheToleranceRegress() {
+        assertEquals(List.of(), BASELINE.regressions(Map.of(
+                "throughput", new Metric(801, true),
+                "latency", new Metric(59, false),
+                "unknown", new Metric(1, true))));
+        assertEquals(List.of(), BASELINE.regressions(Map.of(
+                "throughput", new Metric(5000, true),
+                "latency", new Metric(1, false))));
+
+        List<String> regressions = BASELINE.regressions(Map.of(
+                "throughput", new Metric(799, true),
+                "latency", new Metric(61, false)));
+        assertEquals(2, regressions.size());
+        assertTrue(regressions.get(0).startsWith("latency: 61.000"));
+        assertTrue(regressions.get(1).startsWith("throughput: 799.000"));
+    }
+
+    @Test
+    void aMetricWithABaselineThatWasNotMeasuredIsReported() {
+        List<String> regressions = BASELINE.regressions(Map.of("throughput", new Metric(1000, true)));
+        assertEquals(List.of("latency: not measured, against a baseline of 50.000"), regressions);
+    }
+
+    @Test
+    void survivesARoundTripThroughJson(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("nested").resolve("perf-baseline.json");
+        BASELINE.write(file);
+        assertEquals(BASELINE, Baseline.read(file));
+    }
+
+    @Test
+    void aSuiteFailsOnRegressionsAndCanStoreItsMetricsAsTheBaseline(@TempDir Path dir) throws Exception {
+        Path baselineFile = dir.resolve("perf-baseline.json");
+        BASELINE.write(baselineFile);
+
+        PerfSuite suite = new PerfSuite("test", dir.resolve("out"), baselineFile);
+        suite.record("throughput", 500, true);
+        AssertionError error = assertThrows(AssertionError.class, suite::verify);
+        assertTrue(error.getMessage().contains("throughput: 500.000"));
+        assertTrue(dir.resolve("out").resolve("test-results.json").toFile().isFile());
+
+        System.setProperty("perf.updateBaseline", "true");
+        try {
+            suite.verify();
+        } finally {
+            System.clearProperty("perf.updateBaseline");
+        }
+        assertEquals(new Baseline(0.2, Map.of("throughput", new Metric(500, true))), Baseline.read(baselineFile));
+        suite.verify();
+    }
+
+    @Test
+    void theFirstRunOnARunnerRecordsItsBaseline(@TempDir Path dir) throws Exception {
+        Path baselineFile = dir.resolve("runner-a").resolve("test.json");
+        PerfSuite suite = new PerfSuite("test", dir.resolve("out"), baselineFile);
+        suite.record("throughput", 500, true);
+
+        suite.verify();
+        assertEquals(new Baseline(PerfSuite.DEFAULT_TOLERANCE, Map.of("throughput", new Metric(500, true))),
+                Baseline.read(baselineFile));
+
+        PerfSuite slower = new PerfSuite("test", dir.resolve("out"), baselineFile);
+        slower.record("throughput", 100, true);
+        assertThrows(AssertionError.class, slower::verify);
+    }
+}
@@ -0,0 +1,91 @@
+package dev.abbeytech.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * A JFR recording that runs for the life of the application and keeps its last {@code maxAge}
+ * on disk, so the minutes before a latency spike can be looked at after it has happened.
+ *
+ * <p>It starts from the JDK's "default" settings, made for production at around 1% overhead,
+ * with CPU sampling, lock and slow-request thresholds taken from {@link ProfilingProperties}.
+ * Allocations are sampled at the default's fixed rate, and GC pauses are always recorded.
+ *
+ * <p>The events of the default settings that copy the environment, system properties, JVM
+ * arguments and other processes' command lines are turned off, since those hold secrets and
+ * the dump is served over HTTP. JFR shares its data between recordings, so another recording
+ * of the same JVM that enables them puts them back into dumps.
+ */
+@Slf4j
+public class ContinuousRecording implements Closeable {
+
+    static final List<String> SENSITIVE_EVENTS = List.of("jdk.InitialEnvironmentVariable",
+            "jdk.InitialSystemProperty", "jdk.JVMInformation", "jdk.SystemProcess");
+
+    private final Recording recording;
+    private final Duration maxAge;
+    private final Path dumpOnExit;
+
+    public ContinuousRecording(ProfilingProperties properties) throws IOException, ParseException {
+        this.maxAge = properties.maxAge();
+        this.dumpOnExit = properties.dumpOnExit() == null ? null : Path.of(properties.dumpOnExit());
+        this.recording = new Recording(Configuration.getConfiguration("default"));
+        recording.setName("continuous");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(properties.maxSize().toBytes());
+        recording.enable("jdk.ExecutionSample").withPeriod(properties.cpuSamplePeriod());
+        recording.enable("jdk.JavaMonitorEnter").withThreshold(properties.lockThreshold()).withStackTrace();
+        recording.enable("jdk.ThreadPark").withThreshold(properties.lockThreshold()).withStackTrace();
+        recording.enable(SlowRequestEvent.class).withThreshold(properties.slowRequestThreshold());
+        SENSITIVE_EVENTS.forEach(recording::disable);
+        if (dumpOnExit != null) {
+            recording.setDestination(dumpOnExit);
+        }
+        recording.start();
+        log.info("Continuous JFR recording started, keeping the last {}", maxAge);
+    }
+
+    /**
+     * The longest window {@link #dump} can return
+     */
+    public Duration maxAge() {
+        return maxAge;
+    }
+
+    /**
+     * Writes at least the last {@code window} of recorded data to a new temporary file, which
+     * the caller deletes. Data is kept in chunks, so the file may reach further back.
+     */
+    public Path dump(Duration window) throws IOException {
+        Path file = Files.createTempFile("profile-", ".jfr");
+        try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot()) {
+            snapshot.setMaxAge(window);
+            snapshot.dump(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    @Override
+    public void close() {
+        if (dumpOnExit != null) {
+            // stopping a recording with a destination writes it there
+            recording.stop();
+            log.info("Continuous JFR recording written to {}", dumpOnExit);
+        }
+        recording.close();
+    }
+}
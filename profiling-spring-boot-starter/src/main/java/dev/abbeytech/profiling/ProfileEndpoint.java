@@ -0,0 +1,113 @@
+package dev.abbeytech.profiling;
+
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * {@code /actuator/profile?seconds=N}: the last N seconds (default 60) of the continuous
+ * recording as a .jfr file, for JDK Mission Control or {@code jfr print}.
+ * {@code /actuator/profile/cpu}, {@code /allocation} and {@code /lock} render the same window
+ * as collapsed stacks for a flame graph, and {@code /markers} lists its GC pauses and slow
+ * requests. One dump is taken at a time; a request during another gets 429.
+ */
+@WebEndpoint(id = "profile")
+public class ProfileEndpoint {
+
+    private static final long DEFAULT_SECONDS = 60;
+
+    private final ContinuousRecording recording;
+    private final Lock lock = new ReentrantLock();
+
+    public ProfileEndpoint(ContinuousRecording recording) {
+        this.recording = recording;
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> recording(@Nullable Long seconds) throws IOException {
+        if (!lock.tryLock()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+        try {
+            return new WebEndpointResponse<>(new TemporaryFileResource(recording.dump(window(seconds))));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @ReadOperation(produces = "text/plain")
+    public WebEndpointResponse<String> view(@Selector String view, @Nullable Long seconds) throws IOException {
+        RecordingViews.View parsed = RecordingViews.View.parse(view);
+        if (parsed == null) {
+            return new WebEndpointResponse<>("Unknown view " + view + "; expected cpu, allocation, lock or markers\n",
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        if (!lock.tryLock()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+        try {
+            Duration window = window(seconds);
+            Instant since = Instant.now().minus(window);
+            Path file = recording.dump(window);
+            try {
+                return new WebEndpointResponse<>(RecordingViews.render(file, parsed, since));
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Duration window(Long seconds) {
+        long requested = seconds == null ? DEFAULT_SECONDS : seconds;
+        return Duration.ofSeconds(Math.max(1, Math.min(requested, recording.maxAge().toSeconds())));
+    }
+
+    /**
+     * A dump that is deleted once it has been sent
+     */
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        private final Path path;
+
+        TemporaryFileResource(Path path) {
+            super(path);
+            this.path = path;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(path);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public boolean isFile() {
+            // makes the response be written from getInputStream, which deletes the file
+            return false;
+        }
+    }
+}
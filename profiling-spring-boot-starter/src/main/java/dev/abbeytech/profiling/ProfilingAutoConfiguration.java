@@ -0,0 +1,59 @@
+package dev.abbeytech.profiling;
+
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.io.IOException;
+import java.text.ParseException;
+
+/**
+ * Starts the {@link ContinuousRecording} unless {@code app.profiling.enabled=false}; adds the
+ * {@link ProfileEndpoint} when the actuator is present and the endpoint exposed, and the
+ * {@link SlowRequestFilter} in servlet web applications
+ */
+@AutoConfiguration
+@ConditionalOnProperty(name = "app.profiling.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(ProfilingProperties.class)
+public class ProfilingAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ContinuousRecording continuousRecording(ProfilingProperties properties) throws IOException, ParseException {
+        return new ContinuousRecording(properties);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(WebEndpoint.class)
+    static class EndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnAvailableEndpoint
+        public ProfileEndpoint profileEndpoint(ContinuousRecording recording) {
+            return new ProfileEndpoint(recording);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class SlowRequestConfiguration {
+
+        @Bean
+        public FilterRegistrationBean<SlowRequestFilter> slowRequestFilter() {
+            FilterRegistrationBean<SlowRequestFilter> registration = new FilterRegistrationBean<>(new SlowRequestFilter());
+            // first, so the time spent in the other filters counts too
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+            return registration;
+        }
+    }
+}
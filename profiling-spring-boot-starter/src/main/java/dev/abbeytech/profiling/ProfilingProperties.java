@@ -0,0 +1,29 @@
+package dev.abbeytech.profiling;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Continuous profiling settings mapped from properties with prefix "app.profiling"
+ *
+ * @param enabled              run the continuous JFR recording at all
+ * @param maxAge               how much recent history the recording keeps; also the longest window a dump can ask for
+ * @param maxSize              disk the recording may use, whichever of this and {@code maxAge} is reached first
+ * @param cpuSamplePeriod      interval between CPU samples of each running thread
+ * @param lockThreshold        shortest contended monitor enter or park that is recorded
+ * @param slowRequestThreshold shortest HTTP request that is recorded as a slow request
+ * @param dumpOnExit           file the recording is written to when the application shuts down, or unset for none
+ */
+@ConfigurationProperties(prefix = "app.profiling")
+public record ProfilingProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("10m") Duration maxAge,
+        @DefaultValue("100MB") DataSize maxSize,
+        @DefaultValue("20ms") Duration cpuSamplePeriod,
+        @DefaultValue("10ms") Duration lockThreshold,
+        @DefaultValue("500ms") Duration slowRequestThreshold,
+        String dumpOnExit) {
+}
@@ -0,0 +1,178 @@
+package dev.abbeytech.profiling;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Renders the events of a JFR file since a given instant as text.
+ *
+ * <p>The profiles are collapsed stacks, the input of flamegraph.pl, speedscope and most other
+ * flame-graph tools: one line per distinct stack, root frame first, frames separated by
+ * {@code ;}, then a space and the stack's weight. Lines are ordered heaviest first.
+ */
+final class RecordingViews {
+
+    enum View {
+        /** Running Java threads, weighted by samples */
+        CPU("jdk.ExecutionSample"),
+        /** Sampled allocations, weighted by the bytes each sample stands for; the leaf is the allocated class */
+        ALLOCATION("jdk.ObjectAllocationSample"),
+        /** Contended monitor enters and parks, weighted by microseconds blocked; the leaf is the lock's class */
+        LOCK("jdk.JavaMonitorEnter", "jdk.ThreadPark"),
+        /** GC pauses and slow requests, one per line in time order */
+        MARKERS("jdk.GarbageCollection", "dev.abbeytech.SlowRequest");
+
+        private final Set<String> eventTypes;
+
+        View(String... eventTypes) {
+            this.eventTypes = Set.of(eventTypes);
+        }
+
+        /**
+         * @return the view of that name in any case, or {@code null}
+         */
+        static View parse(String name) {
+            for (View view : values()) {
+                if (view.name().equalsIgnoreCase(name)) {
+                    return view;
+                }
+            }
+            return null;
+        }
+    }
+
+    private RecordingViews() {
+    }
+
+    static String render(Path recording, View view, Instant since) throws IOException {
+        List<RecordedEvent> events = new ArrayList<>();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                if (view.eventTypes.contains(event.getEventType().getName()) && !event.getStartTime().isBefore(since)) {
+                    events.add(event);
+                }
+            }
+        }
+        return view == View.MARKERS ? markers(events) : collapsedStacks(view, events);
+    }
+
+    private static String collapsedStacks(View view, List<RecordedEvent> events) {
+        Map<String, Long> weights = new HashMap<>();
+        StringBuilder stack = new StringBuilder(1024);
+        for (RecordedEvent event : events) {
+            RecordedStackTrace trace = event.getStackTrace();
+            if (trace == null) {
+                continue;
+            }
+            stack.setLength(0);
+            if (trace.isTruncated()) {
+                stack.append("[truncated]");
+            }
+            List<RecordedFrame> frames = trace.getFrames();
+            for (int i = frames.size() - 1; i >= 0; i--) {
+                RecordedFrame frame = frames.get(i);
+                appendFrame(stack, frame.getMethod().getType().getName() + "." + frame.getMethod().getName());
+            }
+            String leaf = switch (view) {
+                case ALLOCATION -> className(event.getClass("objectClass"));
+                case LOCK -> className(event.getClass(
+                        event.getEventType().getName().equals("jdk.ThreadPark") ? "parkedClass" : "monitorClass"));
+                default -> null;
+            };
+            if (leaf != null) {
+                appendFrame(stack, leaf);
+            }
+            long weight = switch (view) {
+                case ALLOCATION -> event.getLong("weight");
+                case LOCK -> Math.max(1, event.getDuration().toNanos() / 1000);
+                default -> 1;
+            };
+            weights.merge(stack.toString(), weight, Long::sum);
+        }
+        StringBuilder out = new StringBuilder();
+        weights.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(e -> out.append(e.getKey()).append(' ').append(e.getValue()).append('\n'));
+        return out.toString();
+    }
+
+    private static String markers(List<RecordedEvent> events) {
+        StringBuilder out = new StringBuilder();
+        events.sort(Comparator.comparing(RecordedEvent::getStartTime));
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals("jdk.GarbageCollection")) {
+                Duration pauses = event.getDuration("sumOfPauses");
+                if (!pauses.isZero()) {
+                    line(out, event.getStartTime(), "gc-pause", pauses,
+                            event.getString("name") + " (" + event.getString("cause") + ")");
+                }
+            } else {
+                RecordedThread thread = event.getThread("eventThread");
+                line(out, event.getStartTime(), "slow-request", event.getDuration(),
+                        event.getString("method") + " " + event.getString("uri") + " " + event.getInt("status")
+                                + (thread == null ? "" : " on " + thread.getJavaName()));
+            }
+        }
+        return out.toString();
+    }
+
+    private static void line(StringBuilder out, Instant at, String kind, Duration duration, String detail) {
+        out.append(at).append('\t').append(kind).append('\t')
+                .append(String.format(Locale.ROOT, "%.3f ms", duration.toNanos() / 1e6)).append('\t')
+                .append(detail).append('\n');
+    }
+
+    private static void appendFrame(StringBuilder stack, String frame) {
+        if (!stack.isEmpty()) {
+            stack.append(';');
+        }
+        // ';' separates frames and a space ends the stack, so neither may appear inside one
+        stack.append(frame.replace(';', ':').replace(' ', '_'));
+    }
+
+    /**
+     * The class name, with arrays as {@code byte[]} rather than JFR's {@code [B}
+     */
+    private static String className(RecordedClass type) {
+        if (type == null) {
+            return null;
+        }
+        String name = type.getName();
+        int dimensions = 0;
+        while (name.charAt(dimensions) == '[') {
+            dimensions++;
+        }
+        if (dimensions == 0) {
+            return name;
+        }
+        String element = switch (name.charAt(dimensions)) {
+            case 'Z' -> "boolean";
+            case 'B' -> "byte";
+            case 'C' -> "char";
+            case 'S' -> "short";
+            case 'I' -> "int";
+            case 'J' -> "long";
+            case 'F' -> "float";
+            case 'D' -> "double";
+            default -> name.substring(dimensions + 1, name.length() - 1);
+        };
+        return element + "[]".repeat(dimensions);
+    }
+}
@@ -0,0 +1,29 @@
+package dev.abbeytech.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * An HTTP request that took longer than {@code app.profiling.slow-request-threshold}, on the
+ * thread that served it
+ */
+@Name("dev.abbeytech.SlowRequest")
+@Label("Slow Request")
+@Category({"Application", "HTTP"})
+@Description("An HTTP request that took longer than the slow request threshold")
+@StackTrace(false)
+class SlowRequestEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("URI")
+    String uri;
+
+    @Label("Status")
+    int status;
+}
@@ -0,0 +1,134 @@
+package dev.abbeytech.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContinuousRecordingTest {
+
+    static volatile Object sink;
+
+    ContinuousRecording recording;
+    Instant started;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        started = Instant.now();
+        recording = new ContinuousRecording(new ProfilingProperties(true, Duration.ofMinutes(1), DataSize.ofMegabytes(20),
+                Duration.ofMillis(10), Duration.ofMillis(10), Duration.ofMillis(20), null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        recording.close();
+    }
+
+    @Test
+    void cpuProfileShowsTheBusyMethod() throws Exception {
+        burnCpu(Duration.ofSeconds(1));
+
+        String stacks = render(RecordingViews.View.CPU);
+
+        String busiest = stacks.lines().filter(line -> line.contains("ContinuousRecordingTest.burnCpu")).findFirst()
+                .orElseThrow(() -> new AssertionError("No samples of burnCpu in\n" + stacks));
+        // root first: the test method calls burnCpu
+        assertTrue(busiest.indexOf("cpuProfileShowsTheBusyMethod") < busiest.indexOf("burnCpu"), busiest);
+        assertTrue(Long.parseLong(busiest.substring(busiest.lastIndexOf(' ') + 1)) > 0, busiest);
+    }
+
+    @Test
+    void allocationProfileEndsInTheAllocatedClass() throws Exception {
+        allocate(Duration.ofSeconds(1));
+
+        String stacks = render(RecordingViews.View.ALLOCATION);
+
+        assertTrue(stacks.lines().anyMatch(line -> line.contains("ContinuousRecordingTest.allocate;byte[] ")), stacks);
+    }
+
+    @Test
+    void slowRequestsAndGcPausesAreMarked() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/slow");
+        new SlowRequestFilter().doFilter(request, new MockHttpServletResponse(), (req, res) -> sleep(50));
+        new SlowRequestFilter().doFilter(new MockHttpServletRequest("GET", "/api/fast"), new MockHttpServletResponse(),
+                (req, res) -> {
+                });
+        System.gc();
+
+        String markers = render(RecordingViews.View.MARKERS);
+
+        assertTrue(markers.lines().anyMatch(line -> line.contains("\tslow-request\t") && line.contains("GET /api/slow 200")),
+                markers);
+        assertFalse(markers.contains("/api/fast"), markers);
+        assertTrue(markers.lines().anyMatch(line -> line.contains("\tgc-pause\t") && line.contains("System.gc()")),
+                markers);
+    }
+
+    @Test
+    void dumpIsAReadableRecording() throws Exception {
+        Path file = recording.dump(Duration.ofSeconds(30));
+        try {
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            assertFalse(events.isEmpty());
+            // the environment and system properties hold secrets such as TOKEN_SECRET
+            assertTrue(events.stream().noneMatch(event ->
+                    ContinuousRecording.SENSITIVE_EVENTS.contains(event.getEventType().getName())));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private String render(RecordingViews.View view) throws Exception {
+        Path file = recording.dump(Duration.ofMinutes(1));
+        try {
+            return RecordingViews.render(file, view, started);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    static long burnCpu(Duration duration) {
+        long end = System.nanoTime() + duration.toNanos();
+        long x = 0;
+        while (System.nanoTime() < end) {
+            for (int i = 0; i < 10_000; i++) {
+                x = x * 31 + i;
+            }
+        }
+        return x;
+    }
+
+    static void allocate(Duration duration) {
+        long end = System.nanoTime() + duration.toNanos();
+        List<byte[]> kept = new ArrayList<>();
+        while (System.nanoTime() < end) {
+            kept.add(new byte[64 * 1024]);
+            if (kept.size() == 100) {
+                sink = kept;
+                kept = new ArrayList<>();
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
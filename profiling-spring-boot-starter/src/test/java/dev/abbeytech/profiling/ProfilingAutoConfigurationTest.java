@@ -0,0 +1,49 @@
+package dev.abbeytech.profiling;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.autoconfigure.endpoint.EndpointAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.endpoint.web.WebEndpointAutoConfiguration;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProfilingAutoConfigurationTest {
+
+    private final WebApplicationContextRunner runner = new WebApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(ProfilingAutoConfiguration.class, EndpointAutoConfiguration.class,
+                    WebEndpointAutoConfiguration.class));
+
+    @Test
+    void endpointIsAddedWhenExposed() {
+        runner.withPropertyValues("management.endpoints.web.exposure.include=profile").run(context -> {
+            assertThat(context).hasSingleBean(ContinuousRecording.class).hasBean("slowRequestFilter");
+            ProfileEndpoint endpoint = context.getBean(ProfileEndpoint.class);
+
+            WebEndpointResponse<String> cpu = endpoint.view("CPU", 5L);
+            assertThat(cpu.getStatus()).isEqualTo(WebEndpointResponse.STATUS_OK);
+            assertThat(endpoint.view("heap", 5L).getStatus()).isEqualTo(WebEndpointResponse.STATUS_BAD_REQUEST);
+
+            try (InputStream in = endpoint.recording(null).getBody().getInputStream()) {
+                // a JFR file starts with the magic "FLR\0"
+                assertThat(in.readNBytes(4)).containsExactly('F', 'L', 'R', 0);
+            }
+        });
+    }
+
+    @Test
+    void endpointIsLeftOutUnlessExposed() {
+        runner.run(context -> assertThat(context).hasSingleBean(ContinuousRecording.class)
+                .doesNotHaveBean(ProfileEndpoint.class));
+    }
+
+    @Test
+    void nothingRunsWhenDisabled() {
+        runner.withPropertyValues("app.profiling.enabled=false", "management.endpoints.web.exposure.include=profile")
+                .run(context -> assertThat(context).doesNotHaveBean(ContinuousRecording.class)
+                        .doesNotHaveBean(ProfileEndpoint.class).doesNotHaveBean("slowRequestFilter"));
+    }
+}
@@ -1,9 +1,19 @@
 package dev.abbeytech.imagestorage;
 
+import dev.abbeytech.imagestorage.config.CacheProperties;
+import dev.abbeytech.imagestorage.config.MaintenanceProperties;
+import dev.abbeytech.imagestorage.config.StorageProperties;
+import dev.abbeytech.imagestorage.config.ThumbnailProperties;
+import dev.abbeytech.imagestorage.config.WriteBehindProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableConfigurationProperties({StorageProperties.class, ThumbnailProperties.class, CacheProperties.class,
+        WriteBehindProperties.class, MaintenanceProperties.class})
+@EnableScheduling
 public class Application {
 
     public static void main(String[] args) {
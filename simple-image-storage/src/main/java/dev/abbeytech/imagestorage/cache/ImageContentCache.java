@@ -0,0 +1,150 @@
+package dev.abbeytech.imagestorage.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import dev.abbeytech.imagestorage.config.CacheProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * On-heap cache of small image and thumbnail files, keyed by content key (the SHA-256, plus
+ * the variant for derivatives). Since a key always names the same bytes, entries never go
+ * stale; they are only dropped when their image is deleted or when space runs out.
+ *
+ * <p>The cache is bounded by total bytes, not entries. Caffeine's W-TinyLFU admission keeps a
+ * frequency sketch of recent keys and only lets a new entry evict one that has been used less
+ * often, so a crawl over many cold images cannot flush the hot set.
+ *
+ * <p>Cached keys are also indexed by blob, so dropping a deleted blob touches only its own
+ * entries rather than scanning the whole cache.
+ *
+ * <p>Metrics: the standard {@code cache.*} meters tagged {@code cache=image.content}, plus
+ * {@code image.cache.content.bytes}.
+ */
+@Component
+public class ImageContentCache {
+
+    static final String NAME = "image.content";
+
+    private final Cache<String, CachedContent> cache;
+    // blob SHA-256 -> cached keys of the blob and its derivatives; sets are only changed inside compute
+    private final ConcurrentMap<String, Set<String>> keysByBlob = new ConcurrentHashMap<>();
+    private final long maxObjectBytes;
+
+    @Autowired
+    public ImageContentCache(CacheProperties properties, MeterRegistry meterRegistry) {
+        this(properties, ForkJoinPool.commonPool());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+        Gauge.builder("image.cache.content.bytes", this, ImageContentCache::weightedSize)
+                .description("Bytes of image content held in the cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    ImageContentCache(CacheProperties properties, Executor maintenance) {
+        this.maxObjectBytes = properties.contentMaxObject().toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.contentMaxSize().toBytes())
+                .weigher((String key, CachedContent content) -> content.bytes().length)
+                .evictionListener((String key, CachedContent content, RemovalCause cause) -> unindex(key))
+                .executor(maintenance)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * The bytes of a file and the modification time they were read at
+     */
+    public record CachedContent(byte[] bytes, long lastModified) {}
+
+    public CachedContent get(String contentKey) {
+        return cache.getIfPresent(contentKey);
+    }
+
+    /**
+     * Reads the file at {@code path} into the cache if it is small enough; returns {@code null}
+     * for files that are only ever streamed
+     */
+    public CachedContent load(String contentKey, Path path, long size, long lastModified) throws IOException {
+        if (size > maxObjectBytes) {
+            return null;
+        }
+        try {
+            return cache.get(contentKey, key -> {
+                try {
+                    CachedContent content = new CachedContent(Files.readAllBytes(path), lastModified);
+                    index(key);
+                    return content;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Drops the content of a blob and all of its derivatives
+     */
+    public void invalidate(String sha256) {
+        Set<String> keys = keysByBlob.remove(sha256);
+        if (keys != null) {
+            cache.invalidateAll(keys);
+        }
+    }
+
+    public long weightedSize() {
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    private void index(String key) {
+        keysByBlob.compute(blobOf(key), (blob, keys) -> {
+            Set<String> indexed = keys == null ? new HashSet<>() : keys;
+            indexed.add(key);
+            return indexed;
+        });
+    }
+
+    private void unindex(String key) {
+        keysByBlob.computeIfPresent(blobOf(key), (blob, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    /**
+     * The blob a content key belongs to: derivative keys are the SHA-256 plus {@code -variant}
+     */
+    static String blobOf(String contentKey) {
+        int variant = contentKey.indexOf('-');
+        return variant < 0 ? contentKey : contentKey.substring(0, variant);
+    }
+
+    long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    int indexedKeys() {
+        return keysByBlob.values().stream().mapToInt(Set::size).sum();
+    }
+
+    void cleanUp() {
+        cache.cleanUp();
+    }
+}
@@ -0,0 +1,53 @@
+package dev.abbeytech.imagestorage.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.abbeytech.imagestorage.config.CacheProperties;
+import dev.abbeytech.imagestorage.model.Image;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Cache of {@code images} rows by id, in front of single-image lookups. Entries are replaced
+ * on update and removed once the row is deleted; the TTL bounds staleness from writes made outside this
+ * application. Uses the same size-bounded W-TinyLFU policy as {@link ImageContentCache}.
+ *
+ * <p>Metrics: the standard {@code cache.*} meters tagged {@code cache=image.metadata}.
+ */
+@Component
+public class ImageMetadataCache {
+
+    static final String NAME = "image.metadata";
+
+    private final Cache<Long, Image> cache;
+
+    public ImageMetadataCache(CacheProperties properties, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.metadataMaxImages())
+                .expireAfterWrite(properties.metadataTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    }
+
+    /**
+     * Loads through the cache. The load runs atomically for its id, so an {@link #invalidate}
+     * issued after a delete waits for a load in flight and then drops what it read, rather
+     * than the load putting the deleted row back afterwards.
+     */
+    public Optional<Image> get(Long id, Function<Long, Optional<Image>> loader) {
+        return Optional.ofNullable(cache.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    public void put(Image image) {
+        cache.put(image.getId(), image);
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+}
@@ -0,0 +1,23 @@
+package dev.abbeytech.imagestorage.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Read cache settings mapped from properties with prefix "app.cache"
+ *
+ * @param contentMaxSize    total bytes of image and thumbnail content kept on the heap
+ * @param contentMaxObject  largest single file that is cached; bigger files are always streamed from disk
+ * @param metadataMaxImages number of {@code images} rows kept in the metadata cache
+ * @param metadataTtl       time after which a cached row is re-read even if it stays hot
+ */
+@ConfigurationProperties(prefix = "app.cache")
+public record CacheProperties(
+        @DefaultValue("64MB") DataSize contentMaxSize,
+        @DefaultValue("512KB") DataSize contentMaxObject,
+        @DefaultValue("10000") long metadataMaxImages,
+        @DefaultValue("10m") Duration metadataTtl) {
+}
@@ -0,0 +1,25 @@
+package dev.abbeytech.imagestorage.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Background storage maintenance settings mapped from properties with prefix
+ * "app.storage.maintenance"
+ *
+ * @param migrateLegacy   move files from the old flat layout into the blob store after startup
+ * @param scrubEnabled    periodically verify stored files against the {@code images} table
+ * @param readRate        bytes per second that migration and scrubbing may each read from disk
+ * @param legacyRetention how long a migrated file is kept at its old path, for requests that looked
+ *                        the image up just before it moved
+ */
+@ConfigurationProperties(prefix = "app.storage.maintenance")
+public record MaintenanceProperties(
+        @DefaultValue("true") boolean migrateLegacy,
+        @DefaultValue("true") boolean scrubEnabled,
+        @DefaultValue("16MB") DataSize readRate,
+        @DefaultValue("1m") Duration legacyRetention) {
+}
@@ -0,0 +1,23 @@
+package dev.abbeytech.imagestorage.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Storage settings mapped from properties with prefix "app.storage"
+ *
+ * @param location      directory that uploaded files are written to
+ * @param maxUploadSize largest accepted upload, also enforced for raw (non-multipart) bodies
+ * @param cacheMaxAge   {@code Cache-Control} max-age sent with served image bytes
+ * @param gcGracePeriod minimum age before an unreferenced blob is garbage collected
+ */
+@ConfigurationProperties(prefix = "app.storage")
+public record StorageProperties(
+        @DefaultValue("uploads") String location,
+        @DefaultValue("512MB") DataSize maxUploadSize,
+        @DefaultValue("1h") Duration cacheMaxAge,
+        @DefaultValue("1h") Duration gcGracePeriod) {
+}
@@ -0,0 +1,23 @@
+package dev.abbeytech.imagestorage.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Thumbnail settings mapped from properties with prefix "app.thumbnails"
+ *
+ * @param widths        derivative widths in pixels; requested widths snap up to the nearest one
+ * @param threads       size of the worker pool that decodes and scales images
+ * @param queueCapacity pending jobs beyond which upload-time generation is skipped
+ * @param timeout       how long a request waits for a derivative before the original is served
+ */
+@ConfigurationProperties(prefix = "app.thumbnails")
+public record ThumbnailProperties(
+        @DefaultValue({"160", "320", "640"}) List<Integer> widths,
+        @DefaultValue("2") int threads,
+        @DefaultValue("256") int queueCapacity,
+        @DefaultValue("10s") Duration timeout) {
+}
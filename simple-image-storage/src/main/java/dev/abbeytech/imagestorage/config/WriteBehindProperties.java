@@ -0,0 +1,23 @@
+package dev.abbeytech.imagestorage.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Write-behind settings for image metadata inserts mapped from properties with prefix
+ * "app.persistence.write-behind"
+ *
+ * @param enabled       group concurrent inserts into shared transactions instead of one each
+ * @param maxBatch      most rows committed in one transaction
+ * @param maxDelay      longest an insert waits for others to join its batch
+ * @param queueCapacity pending inserts before uploads block until the writer catches up
+ */
+@ConfigurationProperties(prefix = "app.persistence.write-behind")
+public record WriteBehindProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("256") int maxBatch,
+        @DefaultValue("5ms") Duration maxDelay,
+        @DefaultValue("4096") int queueCapacity) {
+}
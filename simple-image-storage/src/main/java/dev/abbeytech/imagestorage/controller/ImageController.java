@@ -0,0 +1,230 @@
+package dev.abbeytech.imagestorage.controller;
+
+import dev.abbeytech.imagestorage.dto.BatchResult;
+import dev.abbeytech.imagestorage.dto.ImageListPage;
+import dev.abbeytech.imagestorage.exception.InvalidImageException;
+import dev.abbeytech.imagestorage.model.Image;
+import dev.abbeytech.imagestorage.search.ImageSearchPage;
+import dev.abbeytech.imagestorage.service.ImageNdjsonExporter;
+import dev.abbeytech.imagestorage.service.ImageService;
+import dev.abbeytech.imagestorage.storage.ThumbnailGenerator;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+@Controller
+@RequiredArgsConstructor
+public class ImageController {
+
+    static final int GALLERY_PAGE_SIZE = 60;
+    static final int MAX_PAGE_SIZE = 500;
+
+    private final ImageService imageService;
+    private final ImageResponseWriter responseWriter;
+    private final ThumbnailGenerator thumbnailGenerator;
+    private final ImageNdjsonExporter exporter;
+
+    @GetMapping("/")
+    public String index(@RequestParam(required = false) String cursor, Model model) {
+        ImageListPage page = imageService.listImages(cursor, GALLERY_PAGE_SIZE);
+        model.addAttribute("images", page.items());
+        model.addAttribute("nextCursor", page.nextCursor());
+        return "index";
+    }
+
+    @GetMapping("/upload")
+    public String showUploadForm() {
+        return "upload";
+    }
+
+    @PostMapping("/upload")
+    public String uploadImage(@RequestParam("file") MultipartFile file,
+                              @RequestParam(value = "description", required = false) String description,
+                              RedirectAttributes redirectAttributes) {
+        try {
+            if (file.isEmpty()) {
+                redirectAttributes.addFlashAttribute("message", "Please select a file to upload");
+                return "redirect:/upload";
+            }
+
+            // The file type is verified from its header bytes while it is stored
+            Image savedImage = imageService.store(file, description);
+            redirectAttributes.addFlashAttribute("message",
+                    "Image uploaded successfully: " + savedImage.getName());
+
+            return "redirect:/";
+        } catch (InvalidImageException e) {
+            redirectAttributes.addFlashAttribute("message", e.getMessage());
+            return "redirect:/upload";
+        } catch (IOException e) {
+            redirectAttributes.addFlashAttribute("message",
+                    "Failed to upload image: " + e.getMessage());
+            return "redirect:/upload";
+        }
+    }
+
+    @GetMapping("/images/{id}")
+    public String viewImage(@PathVariable Long id, Model model) {
+        Image image = imageService.getImage(id);
+        model.addAttribute("image", image);
+        return "view";
+    }
+
+    /**
+     * Serves the image bytes; supports conditional requests and byte ranges
+     */
+    @GetMapping("/images/{id}/view")
+    public void serveImage(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        responseWriter.write(imageService.getImage(id), false, request, response);
+    }
+
+    @GetMapping("/images/{id}/download")
+    public void downloadImage(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        responseWriter.write(imageService.getImage(id), true, request, response);
+    }
+
+    /**
+     * Serves a downscaled derivative, snapped to the nearest configured width; falls back to
+     * the original when no smaller derivative applies
+     */
+    @GetMapping("/images/{id}/thumb")
+    public void serveThumbnail(@PathVariable Long id, @RequestParam(defaultValue = "320") int w,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Image image = imageService.getImage(id);
+        ThumbnailGenerator.Thumbnail thumbnail = thumbnailGenerator.thumbnail(image, w);
+        if (thumbnail == null) {
+            responseWriter.write(image, false, request, response);
+            return;
+        }
+        responseWriter.write(thumbnail.path(), thumbnail.contentKey(), thumbnail.contentType(),
+                image.getOriginalFilename(), false, request, response);
+    }
+
+    @PostMapping("/images/{id}/update")
+    public String updateImage(@PathVariable Long id,
+                              @RequestParam String description,
+                              RedirectAttributes redirectAttributes) {
+        try {
+            imageService.updateImage(id, description);
+            redirectAttributes.addFlashAttribute("message", "Image description updated successfully");
+            return "redirect:/images/" + id;
+        } catch (IOException e) {
+            redirectAttributes.addFlashAttribute("message",
+                    "Failed to update image: " + e.getMessage());
+            return "redirect:/images/" + id;
+        }
+    }
+
+    @PostMapping("/images/{id}/delete")
+    public String deleteImage(@PathVariable Long id, RedirectAttributes redirectAttributes) {
+        imageService.deleteImage(id);
+        redirectAttributes.addFlashAttribute("message", "Image deleted successfully");
+        return "redirect:/";
+    }
+
+    @GetMapping("/search")
+    public String searchImages(@RequestParam String keyword, Model model) {
+        List<Image> images = imageService.searchImages(keyword);
+        model.addAttribute("images", images);
+        model.addAttribute("keyword", keyword);
+        return "index";
+    }
+
+    // REST API endpoints
+
+    /**
+     * Lists images newest first; pass the returned {@code nextCursor} back to get the next page
+     */
+    @GetMapping("/api/images")
+    @ResponseBody
+    public ImageListPage getImages(@RequestParam(required = false) String cursor,
+                                   @RequestParam(defaultValue = "50") int limit) {
+        return imageService.listImages(cursor, Math.clamp(limit, 1, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Streams every image's metadata as newline-delimited JSON
+     */
+    @GetMapping("/api/images/export")
+    public ResponseEntity<StreamingResponseBody> exportImages() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(exporter::export);
+    }
+
+    /**
+     * Ranked search, e.g. {@code /api/images/search?q=sunset bea&type=image/jpeg&page=0&size=20}
+     */
+    @GetMapping("/api/images/search")
+    @ResponseBody
+    public ImageSearchPage searchImagesApi(@RequestParam String q,
+                                           @RequestParam(required = false) String type,
+                                           @RequestParam(defaultValue = "0") int page,
+                                           @RequestParam(defaultValue = "20") int size) {
+        return imageService.search(q, type, Math.max(0, page), Math.clamp(size, 1, 100));
+    }
+
+    /**
+     * Streams the raw request body straight to storage, without multipart parsing or temp
+     * files, e.g. {@code curl --data-binary @cat.jpg -H 'Content-Type: image/jpeg'
+     * '/api/images?filename=cat.jpg'}
+     */
+    @PostMapping(value = "/api/images", consumes = {"image/*", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @ResponseBody
+    public ResponseEntity<Image> uploadImageStream(@RequestParam String filename,
+                                                   @RequestParam(required = false) String description,
+                                                   HttpServletRequest request) throws IOException {
+        try (InputStream body = request.getInputStream()) {
+            Image saved = imageService.store(body, filename, description);
+            return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+        }
+    }
+
+    /**
+     * Uploads many files in one multipart request ({@code files} parts); results are per file
+     */
+    @PostMapping(value = "/api/images/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ResponseBody
+    public BatchResult uploadBatch(@RequestParam("files") List<MultipartFile> files,
+                                   @RequestParam(required = false) String description) {
+        return imageService.storeAll(files, description);
+    }
+
+    /**
+     * Deletes the images whose ids are given as a JSON array; results are per id. The rows are
+     * gone when this returns, the files only once they are outside {@code app.storage.gc-grace-period}.
+     */
+    @PostMapping(value = "/api/images/batch-delete", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public BatchResult deleteBatch(@RequestBody List<Long> ids) {
+        return imageService.deleteAll(ids);
+    }
+
+    @GetMapping("/api/images/{id}")
+    @ResponseBody
+    public Image getImage(@PathVariable Long id) {
+        return imageService.getImage(id);
+    }
+
+    @DeleteMapping("/api/images/{id}")
+    @ResponseBody
+    public ResponseEntity<Void> deleteImageApi(@PathVariable Long id) {
+        imageService.deleteImage(id);
+        return ResponseEntity.noContent().build();
+    }
+}
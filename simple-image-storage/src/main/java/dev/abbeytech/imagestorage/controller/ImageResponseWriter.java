@@ -0,0 +1,320 @@
+package dev.abbeytech.imagestorage.controller;
+
+import dev.abbeytech.imagestorage.cache.ImageContentCache;
+import dev.abbeytech.imagestorage.config.StorageProperties;
+import dev.abbeytech.imagestorage.exception.ImageNotFoundException;
+import dev.abbeytech.imagestorage.model.Image;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes stored image files to the response with HTTP caching and byte-range support.
+ *
+ * <ul>
+ *   <li>Strong {@code ETag} from the content SHA-256, {@code Last-Modified} and
+ *       {@code Cache-Control}; {@code If-None-Match}/{@code If-Modified-Since} yield 304.</li>
+ *   <li>Single and multiple {@code Range} requests (206, {@code multipart/byteranges}),
+ *       guarded by {@code If-Range}; unsatisfiable ranges yield 416.</li>
+ *   <li>Full and single-range bodies are handed to Tomcat's sendfile support, so the kernel
+ *       copies file pages straight to the socket. Small regions, multipart bodies and other
+ *       containers use {@link FileChannel#transferTo} instead.</li>
+ *   <li>Small files with a content key are kept in the {@link ImageContentCache}; hits are
+ *       answered from memory without touching the filesystem.</li>
+ * </ul>
+ */
+@Component
+public class ImageResponseWriter {
+
+    static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // below this, Tomcat's DefaultServlet also finds a plain copy cheaper than a sendfile hand-off
+    static final long SENDFILE_MIN_BYTES = 48 * 1024;
+
+    // more ranges than this are answered with the whole file rather than a huge multipart body
+    static final int MAX_RANGES = 16;
+
+    private final String cacheControl;
+    private final ImageContentCache contentCache;
+
+    public ImageResponseWriter(StorageProperties properties, ImageContentCache contentCache) {
+        this.cacheControl = "public, max-age=" + properties.cacheMaxAge().toSeconds();
+        this.contentCache = contentCache;
+    }
+
+    record ByteRange(long start, long end) {
+
+        long length() {
+            return end - start + 1;
+        }
+    }
+
+    public void write(Image image, boolean attachment, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        try {
+            write(Paths.get(image.getPath()), image.getSha256(), image.getContentType(), image.getOriginalFilename(),
+                    attachment, request, response);
+        } catch (NoSuchFileException e) {
+            throw new ImageNotFoundException("Image file missing for id: " + image.getId(), e);
+        }
+    }
+
+    /**
+     * Writes the file at {@code path}. A non-null {@code contentKey} must identify the bytes
+     * exactly and becomes the strong ETag; otherwise a weak one is derived from size and mtime.
+     */
+    public void write(Path path, String contentKey, String contentType, String filename, boolean attachment,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageContentCache.CachedContent cached = contentKey == null ? null : contentCache.get(contentKey);
+        long size;
+        long lastModified;
+        if (cached != null) {
+            size = cached.bytes().length;
+            lastModified = cached.lastModified();
+        } else {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            size = attributes.size();
+            // HTTP dates have one-second resolution
+            lastModified = attributes.lastModifiedTime().toMillis() / 1000 * 1000;
+        }
+        String etag = contentKey != null
+                ? "\"" + contentKey + "\""
+                : "W/\"" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (notModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.builder(attachment ? "attachment" : "inline")
+                        .filename(filename, StandardCharsets.UTF_8)
+                        .build().toString());
+        if (attachment || contentType == null) {
+            contentType = "application/octet-stream";
+        }
+        boolean head = HttpMethod.HEAD.matches(request.getMethod());
+        if (cached == null && contentKey != null && !head) {
+            cached = contentCache.load(contentKey, path, size, lastModified);
+        }
+        byte[] content = cached == null ? null : cached.bytes();
+
+        List<ByteRange> ranges = rangeApplies(request, etag, lastModified)
+                ? parseRanges(request.getHeader(HttpHeaders.RANGE), size) : null;
+        if (ranges != null && ranges.isEmpty()) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+
+        if (ranges == null || ranges.size() > MAX_RANGES) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType);
+            response.setContentLengthLong(size);
+            if (!head) {
+                sendRegion(path, content, 0, size, request, response);
+            }
+        } else if (ranges.size() == 1) {
+            ByteRange range = ranges.get(0);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + range.start() + "-" + range.end() + "/" + size);
+            response.setContentLengthLong(range.length());
+            if (!head) {
+                sendRegion(path, content, range.start(), range.length(), request, response);
+            }
+        } else {
+            writeMultipart(path, content, contentType, size, ranges, head, response);
+        }
+    }
+
+    private static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return weakMatch(ifNoneMatch, etag);
+        }
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+    }
+
+    private static boolean rangeApplies(HttpServletRequest request, String etag, long lastModified) {
+        if (request.getHeader(HttpHeaders.RANGE) == null) {
+            return false;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            // If-Range requires a strong comparison
+            return !etag.startsWith("W/") && ifRange.trim().equals(etag);
+        }
+        return dateHeader(request, HttpHeaders.IF_RANGE) == lastModified;
+    }
+
+    private static boolean weakMatch(String header, String etag) {
+        String target = stripWeak(etag);
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || stripWeak(tag).equals(target)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Parses a {@code bytes=} range header against a file of {@code size} bytes. Returns
+     * {@code null} when the header is malformed (serve the whole file) and an empty list when
+     * no range is satisfiable.
+     */
+    static List<ByteRange> parseRanges(String header, long size) {
+        if (header == null || !header.startsWith("bytes=")) {
+            return null;
+        }
+        List<ByteRange> ranges = new ArrayList<>();
+        for (String spec : header.substring(6).split(",")) {
+            String s = spec.trim();
+            int dash = s.indexOf('-');
+            if (dash < 0) {
+                return null;
+            }
+            long start;
+            long end;
+            try {
+                if (dash == 0) {
+                    long suffix = Long.parseLong(s.substring(1));
+                    if (suffix == 0) {
+                        continue;
+                    }
+                    start = Math.max(0, size - suffix);
+                    end = size - 1;
+                } else {
+                    start = Long.parseLong(s.substring(0, dash));
+                    long last = dash == s.length() - 1 ? Long.MAX_VALUE : Long.parseLong(s.substring(dash + 1));
+                    if (last < start) {
+                        return null;
+                    }
+                    end = Math.min(last, size - 1);
+                }
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (start < size && start <= end) {
+                ranges.add(new ByteRange(start, end));
+            }
+        }
+        return ranges;
+    }
+
+    private static void sendRegion(Path path, byte[] content, long position, long count, HttpServletRequest request,
+                                   HttpServletResponse response) throws IOException {
+        if (content != null) {
+            response.getOutputStream().write(content, (int) position, (int) count);
+            return;
+        }
+        if (count >= SENDFILE_MIN_BYTES && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat transmits the region with sendfile once the servlet returns
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, position);
+            request.setAttribute(SENDFILE_END, position + count);
+            return;
+        }
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            transfer(file, position, count, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    private static void writeMultipart(Path path, byte[] content, String contentType, long size,
+                                       List<ByteRange> ranges, boolean head, HttpServletResponse response)
+            throws IOException {
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long length = 0;
+        for (ByteRange range : ranges) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n"
+                    + "Content-Type: " + contentType + "\r\n"
+                    + "Content-Range: bytes " + range.start() + "-" + range.end() + "/" + size + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            length += partHeader.length + range.length();
+        }
+        byte[] trailer = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        length += trailer.length;
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(length);
+        if (head) {
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        if (content != null) {
+            for (int i = 0; i < ranges.size(); i++) {
+                out.write(partHeaders.get(i));
+                out.write(content, (int) ranges.get(i).start(), (int) ranges.get(i).length());
+            }
+            out.write(trailer);
+            return;
+        }
+        WritableByteChannel channel = Channels.newChannel(out);
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            for (int i = 0; i < ranges.size(); i++) {
+                out.write(partHeaders.get(i));
+                transfer(file, ranges.get(i).start(), ranges.get(i).length(), channel);
+            }
+        }
+        out.write(trailer);
+    }
+
+    private static void transfer(FileChannel file, long position, long count, WritableByteChannel target)
+            throws IOException {
+        long end = position + count;
+        while (position < end) {
+            long sent = file.transferTo(position, end - position, target);
+            if (sent <= 0) {
+                throw new IOException("File truncated while sending");
+            }
+            position += sent;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package dev.abbeytech.imagestorage.dto;
+
+/**
+ * Outcome of one item of a batch request
+ *
+ * @param index position of the item in the request
+ * @param name  file name (uploads) or {@code null} (deletes)
+ * @param id    image id, if the item has one
+ * @param error reason for a {@code FAILED} item
+ */
+public record BatchItemResult(int index, String name, Long id, Status status, String error) {
+
+    public enum Status {
+        CREATED, DELETED, NOT_FOUND, FAILED
+    }
+
+    public boolean succeeded() {
+        return status == Status.CREATED || status == Status.DELETED;
+    }
+}
@@ -0,0 +1,12 @@
+package dev.abbeytech.imagestorage.dto;
+
+import java.util.List;
+
+/**
+ * One page of images, newest first
+ *
+ * @param nextCursor opaque position to pass as {@code cursor} for the next page; {@code null}
+ *                   on the last page
+ */
+public record ImageListPage(List<ImageSummary> items, String nextCursor) {
+}
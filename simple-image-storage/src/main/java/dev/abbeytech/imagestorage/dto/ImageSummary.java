@@ -0,0 +1,18 @@
+package dev.abbeytech.imagestorage.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Listing view of an image row: everything the gallery and API show, selected by a JPQL
+ * constructor expression so the {@code data} LOB and file path are never read
+ */
+public record ImageSummary(
+        Long id,
+        String name,
+        String originalFilename,
+        String contentType,
+        Long size,
+        String dimensions,
+        String description,
+        LocalDateTime uploadedAt) {
+}
@@ -0,0 +1,12 @@
+package dev.abbeytech.imagestorage.exception;
+
+public class ImageNotFoundException extends RuntimeException {
+
+    public ImageNotFoundException(String message) {
+        super(message);
+    }
+
+    public ImageNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package dev.abbeytech.imagestorage.exception;
+
+/**
+ * Thrown when an upload is not a recognised image or exceeds the configured size limit
+ */
+public class InvalidImageException extends RuntimeException {
+
+    public InvalidImageException(String message) {
+        super(message);
+    }
+}
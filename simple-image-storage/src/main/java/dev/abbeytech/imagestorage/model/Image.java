@@ -0,0 +1,62 @@
+package dev.abbeytech.imagestorage.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "images", indexes = {
+        @Index(name = "idx_images_sha256", columnList = "sha256"),
+        @Index(name = "idx_images_content_type", columnList = "contentType"),
+        @Index(name = "idx_images_uploaded_at_id", columnList = "uploadedAt, id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Image {
+
+    // Ids reserved per sequence call; Hibernate hands them out from memory (pooled optimizer)
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // A sequence rather than IDENTITY lets Hibernate assign ids up front and batch the inserts
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "images_seq")
+    @SequenceGenerator(name = "images_seq", sequenceName = "images_seq", allocationSize = ID_ALLOCATION_SIZE)
+    private Long id;
+
+    private String name;
+    private String originalFilename;
+    private String contentType;
+    private Long size;
+    private String path;
+
+    // Hex SHA-256 of the stored bytes; names the shared blob and counts as a reference to it
+    @Column(length = 64)
+    private String sha256;
+
+    // Store metadata as JSON or specific fields
+    private String dimensions;
+    private String description;
+
+    // Additional metadata
+    private LocalDateTime uploadedAt;
+    private LocalDateTime modifiedAt;
+
+    // For small images, could store directly in DB
+    // For production, better to use file storage and keep only metadata in DB
+    @Lob
+    private byte[] data;
+}
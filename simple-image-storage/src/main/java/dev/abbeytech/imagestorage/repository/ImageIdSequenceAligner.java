@@ -0,0 +1,44 @@
+package dev.abbeytech.imagestorage.repository;
+
+import dev.abbeytech.imagestorage.model.Image;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves {@code images_seq} past the highest existing id. Databases created while ids were
+ * IDENTITY columns get the sequence added by schema update starting at 1, which would hand
+ * out ids that are already taken.
+ *
+ * <p>Runs once every singleton, the EntityManagerFactory and its schema update included, is
+ * created, and before the web server starts. No id has been handed out at that point, so
+ * Hibernate's pooled optimizer has no block from the old sequence cached either.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImageIdSequenceAligner implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        align();
+    }
+
+    void align() {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from images", Long.class);
+        List<Long> next = jdbcTemplate.queryForList("select base_value from information_schema.sequences "
+                + "where sequence_name = 'IMAGES_SEQ'", Long.class);
+        if (maxId != null && !next.isEmpty() && next.get(0) <= maxId) {
+            // the pooled optimizer hands out the block below each value it reads, so leave a block of room
+            long restart = maxId + Image.ID_ALLOCATION_SIZE + 1;
+            jdbcTemplate.execute("alter sequence images_seq restart with " + restart);
+            log.info("Restarted images_seq at {} past existing id {}", restart, maxId);
+        }
+    }
+}
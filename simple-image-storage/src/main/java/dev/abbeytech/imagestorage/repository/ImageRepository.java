@@ -0,0 +1,79 @@
+package dev.abbeytech.imagestorage.repository;
+
+import dev.abbeytech.imagestorage.dto.ImageSummary;
+import dev.abbeytech.imagestorage.model.Image;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+public interface ImageRepository extends JpaRepository<Image, Long> {
+
+    String SUMMARY = "select new dev.abbeytech.imagestorage.dto.ImageSummary(i.id, i.name, i.originalFilename, "
+            + "i.contentType, i.size, i.dimensions, i.description, i.uploadedAt) from Image i ";
+
+    List<Image> findByNameContainingIgnoreCase(String name);
+
+    List<Image> findByContentType(String contentType);
+
+    /**
+     * First page of the listing, newest first, served by {@code idx_images_uploaded_at_id}
+     */
+    @Query(SUMMARY + "order by i.uploadedAt desc, i.id desc")
+    List<ImageSummary> findNewestSummaries(Limit limit);
+
+    /**
+     * Page after the row {@code (uploadedAt, id)}. The leading {@code <=} bounds an index range
+     * scan; the second predicate only discards the ties already returned.
+     */
+    @Query(SUMMARY + "where i.uploadedAt <= :uploadedAt and (i.uploadedAt < :uploadedAt or i.id < :id) "
+            + "order by i.uploadedAt desc, i.id desc")
+    List<ImageSummary> findSummariesBefore(@Param("uploadedAt") LocalDateTime uploadedAt, @Param("id") Long id,
+                                           Limit limit);
+
+    List<Image> findTop1000ByIdGreaterThanOrderByIdAsc(Long id);
+
+    long countBySha256(String sha256);
+
+    /**
+     * Images still stored in the flat pre-blob-store layout, which have no content hash
+     */
+    List<Image> findTop500BySha256IsNullAndIdGreaterThanOrderByIdAsc(Long id);
+
+    long countBySha256IsNull();
+
+    /**
+     * Points a legacy image at its blob; returns 0 if the row is gone or was already moved
+     */
+    @Modifying
+    @Transactional
+    @Query("update Image i set i.path = :path, i.sha256 = :sha256 where i.id = :id and i.sha256 is null")
+    int moveToBlob(@Param("id") Long id, @Param("path") String path, @Param("sha256") String sha256);
+
+    /**
+     * Id and blob hash of an image, without loading the entity
+     */
+    interface BlobRef {
+
+        Long getId();
+
+        String getSha256();
+    }
+
+    List<BlobRef> findByIdIn(Collection<Long> ids);
+
+    /**
+     * Returns the hashes among {@code sha256s} that at least one image still references
+     */
+    @Query("select distinct i.sha256 from Image i where i.sha256 in :sha256s")
+    Set<String> findReferencedSha256(@Param("sha256s") Collection<String> sha256s);
+}
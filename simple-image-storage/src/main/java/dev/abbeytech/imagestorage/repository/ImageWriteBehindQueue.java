@@ -0,0 +1,168 @@
+package dev.abbeytech.imagestorage.repository;
+
+import dev.abbeytech.imagestorage.config.WriteBehindProperties;
+import dev.abbeytech.imagestorage.model.Image;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group commit for new image rows. Callers hand their row to a single writer thread and wait;
+ * the writer takes whatever has queued up (up to {@code maxBatch}, waiting at most
+ * {@code maxDelay} for more) and inserts it in one transaction of JDBC batches. A caller only
+ * returns once its row is committed, so durability is unchanged; concurrent uploads just share
+ * the commit instead of serialising on it.
+ *
+ * <p>Disabled by default, in which case {@link #save} is a plain repository save.
+ *
+ * <p>If the writer thread is gone, because the application is shutting down or it died, saves
+ * fail instead of waiting for it, including those already queued.
+ */
+@Slf4j
+@Component
+public class ImageWriteBehindQueue {
+
+    private record Pending(Image image, CompletableFuture<Image> saved) {}
+
+    private final ImageRepository imageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final WriteBehindProperties props;
+    private final BlockingQueue<Pending> queue;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public ImageWriteBehindQueue(ImageRepository imageRepository, PlatformTransactionManager transactionManager,
+                                 WriteBehindProperties props) {
+        this.imageRepository = imageRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.props = props;
+        if (props.enabled()) {
+            this.queue = new ArrayBlockingQueue<>(props.queueCapacity());
+            this.writer = Thread.ofPlatform().name("image-write-behind").daemon().start(this::run);
+        } else {
+            this.queue = null;
+            this.writer = null;
+        }
+    }
+
+    /**
+     * Saves a new image, returning it with its id once the row is committed
+     */
+    public Image save(Image image) {
+        if (writer == null) {
+            return imageRepository.save(image);
+        }
+        Pending pending = new Pending(image, new CompletableFuture<>());
+        try {
+            while (!queue.offer(pending, 100, TimeUnit.MILLISECONDS)) {
+                requireWriter();
+            }
+            while (true) {
+                try {
+                    return pending.saved().get(100, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    if (!writer.isAlive()) {
+                        // the writer may have exited after failing what was queued, but before this was added
+                        pending.saved().completeExceptionally(writerGone());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while saving image", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void requireWriter() {
+        if (!running || !writer.isAlive()) {
+            throw writerGone();
+        }
+    }
+
+    private static IllegalStateException writerGone() {
+        return new IllegalStateException("Image write-behind writer is not running");
+    }
+
+    private void run() {
+        try {
+            writeUntilStopped();
+        } finally {
+            List<Pending> left = new ArrayList<>();
+            queue.drainTo(left);
+            left.forEach(pending -> pending.saved().completeExceptionally(writerGone()));
+        }
+    }
+
+    private void writeUntilStopped() {
+        List<Pending> batch = new ArrayList<>(props.maxBatch());
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + props.maxDelay().toNanos();
+                while (batch.size() < props.maxBatch()) {
+                    queue.drainTo(batch, props.maxBatch() - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= props.maxBatch() || remaining <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        try {
+            List<Image> saved = transactionTemplate.execute(status ->
+                    imageRepository.saveAll(batch.stream().map(Pending::image).toList()));
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).saved().complete(saved.get(i));
+            }
+        } catch (RuntimeException e) {
+            // One bad row must not fail the uploads it happened to share a transaction with
+            log.warn("Batched insert of {} images failed, retrying one by one", batch.size(), e);
+            for (Pending pending : batch) {
+                pending.image().setId(null);
+                try {
+                    pending.saved().complete(imageRepository.save(pending.image()));
+                } catch (RuntimeException single) {
+                    pending.saved().completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writer != null) {
+            // Let the writer commit what is already queued before the datasource goes away
+            running = false;
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+}
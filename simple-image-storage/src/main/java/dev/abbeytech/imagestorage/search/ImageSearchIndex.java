@@ -0,0 +1,488 @@
+package dev.abbeytech.imagestorage.search;
+
+import dev.abbeytech.imagestorage.model.Image;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over image name, description and content type, ranked with BM25.
+ *
+ * <p>Every indexed version of an image gets a new dense ordinal, so postings lists are
+ * append-only and always sorted; replaced or deleted versions are tombstoned in a bitset. When
+ * tombstones outnumber half the live documents they are dropped from the postings and the live
+ * documents renumbered in order, so postings stay sorted and ordinals stay dense. The term
+ * dictionary is a skip list, so a prefix query is a range scan over adjacent terms.
+ *
+ * <p>A query matches images that contain every query token; a token ending in {@code *}, and
+ * the last token of a query when {@code prefix} is set, matches any term starting with it.
+ * Many readers may search concurrently; updates take a short write lock.
+ *
+ * <p>The index is rebuilt from the {@code images} table at startup by
+ * {@link SearchIndexInitializer} while the image service keeps it current. Images the service
+ * indexes or removes during the build are remembered, and the build skips them, as what it
+ * read from the table may be older than what the service already applied.
+ */
+@Component
+public class ImageSearchIndex {
+
+    static final int NAME_WEIGHT = 3;
+    static final int MAX_PREFIX_TERMS = 256;
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+
+    private final NavigableMap<String, Postings> dictionary = new ConcurrentSkipListMap<>();
+    private final Map<Long, Integer> ordinalById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] imageIds = new long[1024];
+    private int[] lengths = new int[1024];
+    private String[] contentTypes = new String[1024];
+    private final BitSet deleted = new BitSet();
+    private int ordinals;
+    private int tombstones;
+    private long totalLength;
+    // ids updated or removed by the service while the initial build runs; null once it is done
+    private Set<Long> changedDuringBuild = new HashSet<>();
+    private volatile boolean ready;
+
+    /**
+     * A ranked page of matching image ids
+     *
+     * @param total number of images matching the query
+     */
+    public record Result(int total, List<Hit> hits) {}
+
+    public record Hit(long imageId, double score) {}
+
+    /**
+     * Adds the image, replacing any earlier version of it
+     */
+    public void index(Image image) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        int length = terms(image, frequencies);
+        lock.writeLock().lock();
+        try {
+            if (changedDuringBuild != null) {
+                changedDuringBuild.add(image.getId());
+            }
+            indexLocked(image, frequencies, length);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long imageId) {
+        lock.writeLock().lock();
+        try {
+            if (changedDuringBuild != null) {
+                changedDuringBuild.add(imageId);
+            }
+            removeLocked(imageId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds an image read by the initial build, unless the service has indexed or removed it
+     * since the build started
+     */
+    void indexFromBuild(Image image) {
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        int length = terms(image, frequencies);
+        lock.writeLock().lock();
+        try {
+            if (!changedDuringBuild.contains(image.getId())) {
+                indexLocked(image, frequencies, length);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the initial build from the database has finished
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    void markReady() {
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ordinals handed out since the last compaction, live or tombstoned
+     */
+    int ordinals() {
+        lock.readLock().lock();
+        try {
+            return ordinals;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns page {@code page} (zero-based) of images matching every token of {@code query},
+     * optionally restricted to one content type, best matches first
+     */
+    public Result search(String query, String contentType, boolean prefix, int page, int size) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || size <= 0 || page < 0) {
+            return new Result(0, List.of());
+        }
+        lock.readLock().lock();
+        try {
+            int live = ordinalById.size();
+            double averageLength = live == 0 ? 1 : Math.max(1, (double) totalLength / live);
+
+            List<Matches> perToken = new ArrayList<>(tokens.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                boolean isPrefix = token.endsWith("*") || (prefix && i == tokens.size() - 1);
+                String term = token.endsWith("*") ? token.substring(0, token.length() - 1) : token;
+                if (term.isEmpty()) {
+                    continue;
+                }
+                Matches matches = match(term, isPrefix, live, averageLength);
+                if (matches.size == 0) {
+                    return new Result(0, List.of());
+                }
+                perToken.add(matches);
+            }
+            if (perToken.isEmpty()) {
+                return new Result(0, List.of());
+            }
+            // intersect starting from the rarest token, so the candidate set only shrinks
+            perToken.sort(Comparator.comparingInt(m -> m.size));
+            Matches result = perToken.get(0);
+            for (int i = 1; i < perToken.size() && result.size > 0; i++) {
+                result = result.intersect(perToken.get(i));
+            }
+            return topHits(result, contentType, page, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Matches match(String term, boolean isPrefix, int live, double averageLength) {
+        if (!isPrefix) {
+            Postings postings = dictionary.get(term);
+            return postings == null ? Matches.EMPTY : score(postings, live, averageLength);
+        }
+        Matches union = Matches.EMPTY;
+        int expanded = 0;
+        for (Postings postings : dictionary.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+            union = union.union(score(postings, live, averageLength));
+            if (++expanded == MAX_PREFIX_TERMS) {
+                break;
+            }
+        }
+        return union;
+    }
+
+    private Matches score(Postings postings, int live, double averageLength) {
+        // postings may still hold tombstones, so the document frequency is capped at the live count
+        int df = Math.min(postings.size, live);
+        double idf = Math.log(1 + (live - df + 0.5) / (df + 0.5));
+        Matches matches = new Matches(postings.size);
+        for (int i = 0; i < postings.size; i++) {
+            int ordinal = postings.docs[i];
+            if (deleted.get(ordinal)) {
+                continue;
+            }
+            int tf = postings.frequencies[i];
+            double norm = K1 * (1 - B + B * lengths[ordinal] / averageLength);
+            matches.append(ordinal, (float) (idf * tf * (K1 + 1) / (tf + norm)));
+        }
+        return matches;
+    }
+
+    private Result topHits(Matches matches, String contentType, int page, int size) {
+        long wanted = (long) (page + 1) * size;
+        Comparator<Integer> worstFirst = Comparator.<Integer>comparingDouble(i -> matches.scores[i])
+                .thenComparingLong(i -> imageIds[matches.docs[i]]);
+        PriorityQueue<Integer> top = new PriorityQueue<>(worstFirst);
+        int total = 0;
+        for (int i = 0; i < matches.size; i++) {
+            if (contentType != null && !contentType.equals(contentTypes[matches.docs[i]])) {
+                continue;
+            }
+            total++;
+            if (top.size() < wanted) {
+                top.add(i);
+            } else if (matches.scores[i] >= matches.scores[top.peek()] && worstFirst.compare(i, top.peek()) > 0) {
+                top.poll();
+                top.add(i);
+            }
+        }
+        List<Hit> hits = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            int i = top.poll();
+            hits.add(new Hit(imageIds[matches.docs[i]], matches.scores[i]));
+        }
+        // the heap drains worst first
+        List<Hit> ranked = hits.reversed();
+        int from = (int) Math.min((long) page * size, ranked.size());
+        return new Result(total, List.copyOf(ranked.subList(from, ranked.size())));
+    }
+
+    private static int terms(Image image, Map<String, Integer> frequencies) {
+        return addTerms(frequencies, image.getName(), NAME_WEIGHT)
+                + addTerms(frequencies, image.getDescription(), 1)
+                + addTerms(frequencies, subtype(image.getContentType()), 1);
+    }
+
+    private void indexLocked(Image image, Map<String, Integer> frequencies, int length) {
+        removeLocked(image.getId());
+        int ordinal = ordinals++;
+        ensureCapacity(ordinal + 1);
+        imageIds[ordinal] = image.getId();
+        lengths[ordinal] = length;
+        contentTypes[ordinal] = image.getContentType();
+        totalLength += length;
+        ordinalById.put(image.getId(), ordinal);
+        frequencies.forEach((term, frequency) ->
+                dictionary.computeIfAbsent(term, t -> new Postings()).add(ordinal, frequency));
+    }
+
+    private void removeLocked(Long imageId) {
+        Integer ordinal = ordinalById.remove(imageId);
+        if (ordinal == null) {
+            return;
+        }
+        deleted.set(ordinal);
+        totalLength -= lengths[ordinal];
+        if (++tombstones > Math.max(1024, ordinalById.size() / 2)) {
+            compact();
+        }
+    }
+
+    /**
+     * Drops tombstoned ordinals from every postings list and renumbers the live ones densely,
+     * keeping their order, so postings stay sorted and the per-ordinal arrays stop growing
+     */
+    private void compact() {
+        int[] renumbered = new int[ordinals];
+        int live = 0;
+        for (int ordinal = 0; ordinal < ordinals; ordinal++) {
+            renumbered[ordinal] = deleted.get(ordinal) ? -1 : live++;
+        }
+        dictionary.values().removeIf(postings -> postings.retainLive(renumbered) == 0);
+
+        int capacity = Math.max(1024, Integer.highestOneBit(Math.max(1, live)) * 2);
+        long[] compactIds = new long[capacity];
+        int[] compactLengths = new int[capacity];
+        String[] compactTypes = new String[capacity];
+        for (int ordinal = 0; ordinal < ordinals; ordinal++) {
+            int target = renumbered[ordinal];
+            if (target >= 0) {
+                compactIds[target] = imageIds[ordinal];
+                compactLengths[target] = lengths[ordinal];
+                compactTypes[target] = contentTypes[ordinal];
+            }
+        }
+        imageIds = compactIds;
+        lengths = compactLengths;
+        contentTypes = compactTypes;
+        ordinalById.replaceAll((id, ordinal) -> renumbered[ordinal]);
+        deleted.clear();
+        ordinals = live;
+        tombstones = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > imageIds.length) {
+            int grown = Math.max(capacity, imageIds.length * 2);
+            imageIds = Arrays.copyOf(imageIds, grown);
+            lengths = Arrays.copyOf(lengths, grown);
+            contentTypes = Arrays.copyOf(contentTypes, grown);
+        }
+    }
+
+    private static int addTerms(Map<String, Integer> frequencies, String text, int weight) {
+        List<String> terms = tokenize(text);
+        for (String term : terms) {
+            frequencies.merge(term, weight, Integer::sum);
+        }
+        return terms.size() * weight;
+    }
+
+    private static String subtype(String contentType) {
+        return contentType == null ? null : contentType.substring(contentType.indexOf('/') + 1);
+    }
+
+    /**
+     * Lower-cases {@code text} and splits it into runs of letters and digits; a trailing
+     * {@code *} is kept on a token as the prefix marker
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else {
+                if (c == '*' && !token.isEmpty()) {
+                    token.append('*');
+                }
+                if (!token.isEmpty()) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                }
+            }
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * Ordinals containing a term, ascending, with the term's weighted frequency in each
+     */
+    private static final class Postings {
+
+        int[] docs = new int[4];
+        int[] frequencies = new int[4];
+        int size;
+
+        void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        /**
+         * Keeps the ordinals {@code renumbered} maps to a new one (not -1), under their new number
+         */
+        int retainLive(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = renumbered[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            if (docs.length > 4 * Math.max(4, kept)) {
+                docs = Arrays.copyOf(docs, Math.max(4, kept));
+                frequencies = Arrays.copyOf(frequencies, Math.max(4, kept));
+            }
+            return kept;
+        }
+    }
+
+    /**
+     * Scored ordinals, ascending
+     */
+    private static final class Matches {
+
+        static final Matches EMPTY = new Matches(0);
+
+        int[] docs;
+        float[] scores;
+        int size;
+
+        Matches(int capacity) {
+            docs = new int[capacity];
+            scores = new float[capacity];
+        }
+
+        void append(int doc, float score) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, Math.max(4, size * 2));
+                scores = Arrays.copyOf(scores, Math.max(4, size * 2));
+            }
+            docs[size] = doc;
+            scores[size] = score;
+            size++;
+        }
+
+        Matches union(Matches other) {
+            if (size == 0) {
+                return other;
+            }
+            Matches merged = new Matches(size + other.size);
+            int i = 0;
+            int j = 0;
+            while (i < size || j < other.size) {
+                if (j == other.size || (i < size && docs[i] < other.docs[j])) {
+                    merged.append(docs[i], scores[i++]);
+                } else if (i == size || other.docs[j] < docs[i]) {
+                    merged.append(other.docs[j], other.scores[j++]);
+                } else {
+                    merged.append(docs[i], scores[i++] + other.scores[j++]);
+                }
+            }
+            return merged;
+        }
+
+        Matches intersect(Matches other) {
+            Matches common = new Matches(Math.min(size, other.size));
+            int j = 0;
+            for (int i = 0; i < size && j < other.size; i++) {
+                j = gallop(other.docs, j, other.size, docs[i]);
+                if (j < other.size && other.docs[j] == docs[i]) {
+                    common.append(docs[i], scores[i] + other.scores[j]);
+                }
+            }
+            return common;
+        }
+
+        // first index at or after from whose value is >= target, by exponential then binary search
+        private static int gallop(int[] values, int from, int to, int target) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < to && values[high] < target) {
+                low = high + 1;
+                high = from + step;
+                step <<= 1;
+            }
+            int index = Arrays.binarySearch(values, low, Math.min(high + 1, to), target);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+}
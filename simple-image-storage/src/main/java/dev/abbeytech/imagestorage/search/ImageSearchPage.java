@@ -0,0 +1,13 @@
+package dev.abbeytech.imagestorage.search;
+
+import dev.abbeytech.imagestorage.model.Image;
+
+import java.util.List;
+
+/**
+ * One page of ranked search results
+ *
+ * @param total number of images matching the query across all pages
+ */
+public record ImageSearchPage(List<Image> images, int total, int page, int size) {
+}
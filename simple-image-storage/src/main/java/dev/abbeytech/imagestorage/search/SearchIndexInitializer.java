@@ -0,0 +1,41 @@
+package dev.abbeytech.imagestorage.search;
+
+import dev.abbeytech.imagestorage.model.Image;
+import dev.abbeytech.imagestorage.repository.ImageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Builds the {@link ImageSearchIndex} from the {@code images} table once the application is
+ * up, walking the table by id so each batch is an index range scan. Searches fall back to the
+ * database until the build has finished; images uploaded, updated or deleted meanwhile are
+ * kept as the image service left them in the index, not as the build read them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchIndexInitializer {
+
+    private final ImageRepository imageRepository;
+    private final ImageSearchIndex index;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        long start = System.nanoTime();
+        long lastId = 0;
+        List<Image> batch;
+        while (!(batch = imageRepository.findTop1000ByIdGreaterThanOrderByIdAsc(lastId)).isEmpty()) {
+            for (Image image : batch) {
+                index.indexFromBuild(image);
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+        index.markReady();
+        log.info("Indexed {} images for search in {} ms", index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
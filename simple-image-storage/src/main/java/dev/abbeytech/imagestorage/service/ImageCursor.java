@@ -0,0 +1,36 @@
+package dev.abbeytech.imagestorage.service;
+
+import dev.abbeytech.imagestorage.dto.ImageSummary;
+import dev.abbeytech.imagestorage.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in the {@code (uploadedAt desc, id desc)} listing order, carried between
+ * requests as an opaque URL-safe string
+ */
+record ImageCursor(LocalDateTime uploadedAt, long id) {
+
+    static ImageCursor after(ImageSummary last) {
+        return new ImageCursor(last.uploadedAt(), last.id());
+    }
+
+    String encode() {
+        String position = uploadedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static ImageCursor decode(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf('|');
+            return new ImageCursor(LocalDateTime.parse(position.substring(0, separator)),
+                    Long.parseLong(position.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package dev.abbeytech.imagestorage.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Streams image metadata as newline-delimited JSON straight from a JDBC cursor. Rows are read
+ * {@value #FETCH_SIZE} at a time and written to the response as they arrive, so memory use is
+ * flat however large the table is, and no entities are materialised.
+ */
+@Service
+public class ImageNdjsonExporter {
+
+    static final int FETCH_SIZE = 1000;
+
+    static final String EXPORT_SQL = "select id, name, original_filename, content_type, size, dimensions, "
+            + "description, sha256, uploaded_at, modified_at from images order by id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ImageNdjsonExporter(DataSource dataSource, ObjectMapper objectMapper) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.objectMapper = objectMapper;
+    }
+
+    public void export(OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.setRootValueSeparator(null);
+            jdbcTemplate.query(EXPORT_SQL, (ResultSet row) -> {
+                try {
+                    writeRow(json, row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // the client went away; stop reading rows
+            throw e.getCause();
+        }
+    }
+
+    private static void writeRow(JsonGenerator json, ResultSet row) throws IOException, SQLException {
+        json.writeStartObject();
+        json.writeNumberField("id", row.getLong("id"));
+        json.writeStringField("name", row.getString("name"));
+        json.writeStringField("originalFilename", row.getString("original_filename"));
+        json.writeStringField("contentType", row.getString("content_type"));
+        json.writeNumberField("size", row.getLong("size"));
+        json.writeStringField("dimensions", row.getString("dimensions"));
+        json.writeStringField("description", row.getString("description"));
+        json.writeStringField("sha256", row.getString("sha256"));
+        json.writeStringField("uploadedAt", timestamp(row.getTimestamp("uploaded_at")));
+        json.writeStringField("modifiedAt", timestamp(row.getTimestamp("modified_at")));
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static String timestamp(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime().toString();
+    }
+}
@@ -0,0 +1,60 @@
+package dev.abbeytech.imagestorage.service;
+
+import dev.abbeytech.imagestorage.dto.BatchResult;
+import dev.abbeytech.imagestorage.dto.ImageListPage;
+import dev.abbeytech.imagestorage.model.Image;
+import dev.abbeytech.imagestorage.search.ImageSearchPage;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+public interface ImageService {
+
+    Image store(MultipartFile file, String description) throws IOException;
+
+    /**
+     * Stores an image read from a raw stream, e.g. a non-multipart request body
+     */
+    Image store(InputStream content, String filename, String description) throws IOException;
+
+    /**
+     * Stores many uploads at once: files are written in parallel and the rows inserted in
+     * JDBC batches. Failed files are reported per item and do not affect the others.
+     */
+    BatchResult storeAll(List<MultipartFile> files, String description);
+
+    Image getImage(Long id);
+
+    /**
+     * Lists images newest first with keyset pagination
+     *
+     * @param cursor {@code nextCursor} of the previous page, or {@code null} for the first page
+     */
+    ImageListPage listImages(String cursor, int limit);
+
+    List<Image> searchImages(String keyword);
+
+    /**
+     * Ranked full-text search over name, description and content type; the last query word
+     * also matches as a prefix
+     *
+     * @param contentType optional exact content type filter
+     * @param page        zero-based page number
+     */
+    ImageSearchPage search(String query, String contentType, int page, int size);
+
+    List<Image> getImagesByType(String contentType);
+
+    void deleteImage(Long id);
+
+    /**
+     * Deletes the given images with bulk statements. Files no longer referenced are removed in
+     * the background, but only once they are older than {@code app.storage.gc-grace-period}
+     * (1h by default); a file written more recently stays on disk until a later collection pass.
+     */
+    BatchResult deleteAll(List<Long> ids);
+
+    Image updateImage(Long id, String description) throws IOException;
+}
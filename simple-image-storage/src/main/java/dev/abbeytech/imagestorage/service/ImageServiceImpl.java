@@ -0,0 +1,276 @@
+package dev.abbeytech.imagestorage.service;
+
+import dev.abbeytech.imagestorage.cache.ImageContentCache;
+import dev.abbeytech.imagestorage.cache.ImageMetadataCache;
+import dev.abbeytech.imagestorage.dto.BatchItemResult;
+import dev.abbeytech.imagestorage.dto.BatchResult;
+import dev.abbeytech.imagestorage.dto.ImageListPage;
+import dev.abbeytech.imagestorage.dto.ImageSummary;
+import dev.abbeytech.imagestorage.exception.ImageNotFoundException;
+import dev.abbeytech.imagestorage.model.Image;
+import dev.abbeytech.imagestorage.repository.ImageRepository;
+import dev.abbeytech.imagestorage.repository.ImageWriteBehindQueue;
+import dev.abbeytech.imagestorage.search.ImageSearchIndex;
+import dev.abbeytech.imagestorage.search.ImageSearchPage;
+import dev.abbeytech.imagestorage.storage.BlobGarbageCollector;
+import dev.abbeytech.imagestorage.storage.BlobStore;
+import dev.abbeytech.imagestorage.storage.StoredUpload;
+import dev.abbeytech.imagestorage.storage.StreamingUploadWriter;
+import dev.abbeytech.imagestorage.storage.ThumbnailGenerator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageServiceImpl implements ImageService {
+
+    static final int SEARCH_RESULT_LIMIT = 100;
+
+    // concurrent file writes per batch upload; virtual threads make waiting cheap, the disk does not
+    static final int BATCH_IO_CONCURRENCY = 32;
+
+    // ids per IN list for bulk lookups and deletes
+    static final int BULK_CHUNK_SIZE = 1000;
+
+    private final ImageRepository imageRepository;
+    private final ImageWriteBehindQueue writeBehindQueue;
+    private final StreamingUploadWriter uploadWriter;
+    private final BlobStore blobStore;
+    private final ThumbnailGenerator thumbnailGenerator;
+    private final ImageMetadataCache metadataCache;
+    private final ImageContentCache contentCache;
+    private final ImageSearchIndex searchIndex;
+    private final BlobGarbageCollector blobGarbageCollector;
+
+    @Override
+    public Image store(MultipartFile file, String description) throws IOException {
+        // The container has spooled the part already; it is moved into storage, not copied
+        StoredUpload upload = uploadWriter.write(file);
+        Image saved = writeBehindQueue.save(prepare(upload, file.getOriginalFilename(), description));
+        afterSave(saved);
+        return saved;
+    }
+
+    @Override
+    public Image store(InputStream content, String filename, String description) throws IOException {
+        // Stream to disk once: hash, header metadata and the file itself come from the same pass
+        StoredUpload upload = uploadWriter.write(content);
+        Image saved = writeBehindQueue.save(prepare(upload, filename, description));
+        afterSave(saved);
+        return saved;
+    }
+
+    @Override
+    public BatchResult storeAll(List<MultipartFile> files, String description) {
+        Image[] prepared = new Image[files.size()];
+        BatchItemResult[] results = new BatchItemResult[files.size()];
+
+        // Hash and store the files in parallel; closing the executor waits for all of them
+        Semaphore permits = new Semaphore(BATCH_IO_CONCURRENCY);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < files.size(); i++) {
+                int index = i;
+                MultipartFile file = files.get(i);
+                executor.execute(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        StoredUpload upload = uploadWriter.write(file);
+                        prepared[index] = prepare(upload, file.getOriginalFilename(), description);
+                    } catch (Exception e) {
+                        results[index] = new BatchItemResult(index, file.getOriginalFilename(), null,
+                                BatchItemResult.Status.FAILED, e.getMessage());
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+
+        // One transaction for every file that was stored; Hibernate sends the inserts in JDBC batches
+        imageRepository.saveAll(Arrays.stream(prepared).filter(Objects::nonNull).toList());
+        for (int i = 0; i < prepared.length; i++) {
+            if (prepared[i] != null) {
+                afterSave(prepared[i]);
+                results[i] = new BatchItemResult(i, prepared[i].getName(), prepared[i].getId(),
+                        BatchItemResult.Status.CREATED, null);
+            }
+        }
+        return BatchResult.of(List.of(results));
+    }
+
+    private Image prepare(StoredUpload upload, String filename, String description) throws IOException {
+        // Clean the filename and drop any directory components
+        String cleanName = StringUtils.getFilename(StringUtils.cleanPath(filename == null ? "" : filename));
+        if (!StringUtils.hasText(cleanName)) {
+            cleanName = "image";
+        }
+
+        // Identical content is kept once; every image row referencing it counts towards the blob
+        Path destinationFile = blobStore.put(upload);
+
+        LocalDateTime now = LocalDateTime.now();
+        return Image.builder()
+                .name(cleanName)
+                .originalFilename(cleanName)
+                .contentType(upload.header().contentType())
+                .size(upload.size())
+                .path(destinationFile.toString())
+                .sha256(upload.sha256())
+                .description(description)
+                .dimensions(upload.header().dimensions())
+                .uploadedAt(now)
+                .modifiedAt(now)
+                .data(null) // Not storing in DB for this implementation
+                .build();
+    }
+
+    private void afterSave(Image saved) {
+        searchIndex.index(saved);
+        thumbnailGenerator.generateAll(saved);
+    }
+
+    @Override
+    public Image getImage(Long id) {
+        return metadataCache.get(id, imageRepository::findById)
+                .orElseThrow(() -> new ImageNotFoundException("Image not found with id: " + id));
+    }
+
+    @Override
+    public ImageListPage listImages(String cursor, int limit) {
+        // one extra row tells whether another page follows
+        Limit fetch = Limit.of(limit + 1);
+        List<ImageSummary> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = imageRepository.findNewestSummaries(fetch);
+        } else {
+            ImageCursor position = ImageCursor.decode(cursor);
+            rows = imageRepository.findSummariesBefore(position.uploadedAt(), position.id(), fetch);
+        }
+        if (rows.size() <= limit) {
+            return new ImageListPage(rows, null);
+        }
+        List<ImageSummary> items = List.copyOf(rows.subList(0, limit));
+        return new ImageListPage(items, ImageCursor.after(items.getLast()).encode());
+    }
+
+    @Override
+    public List<Image> searchImages(String keyword) {
+        return search(keyword, null, 0, SEARCH_RESULT_LIMIT).images();
+    }
+
+    @Override
+    public ImageSearchPage search(String query, String contentType, int page, int size) {
+        if (!searchIndex.isReady()) {
+            // Index still building after startup: answer from the database
+            List<Image> matches = imageRepository.findByNameContainingIgnoreCase(query).stream()
+                    .filter(image -> contentType == null || contentType.equals(image.getContentType()))
+                    .toList();
+            int from = (int) Math.min((long) page * size, matches.size());
+            return new ImageSearchPage(matches.subList(from, Math.min(from + size, matches.size())),
+                    matches.size(), page, size);
+        }
+        ImageSearchIndex.Result result = searchIndex.search(query, contentType, true, page, size);
+        List<Long> ids = result.hits().stream().map(ImageSearchIndex.Hit::imageId).toList();
+        Map<Long, Image> byId = imageRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Image::getId, Function.identity()));
+        List<Image> images = ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+        return new ImageSearchPage(images, result.total(), page, size);
+    }
+
+    @Override
+    public List<Image> getImagesByType(String contentType) {
+        return imageRepository.findByContentType(contentType);
+    }
+
+    @Override
+    public void deleteImage(Long id) {
+        Image image = getImage(id);
+
+        // The blob may be shared; BlobGarbageCollector deletes it once no row references it
+        imageRepository.delete(image);
+        metadataCache.invalidate(id);
+        searchIndex.remove(id);
+        if (image.getSha256() != null && imageRepository.countBySha256(image.getSha256()) == 0) {
+            contentCache.invalidate(image.getSha256());
+            blobGarbageCollector.collectAsync(List.of(image.getSha256()));
+        }
+    }
+
+    @Override
+    public BatchResult deleteAll(List<Long> ids) {
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        Map<Long, String> deleted = new HashMap<>();
+        for (int from = 0; from < distinct.size(); from += BULK_CHUNK_SIZE) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + BULK_CHUNK_SIZE, distinct.size()));
+            List<ImageRepository.BlobRef> refs = imageRepository.findByIdIn(chunk);
+            List<Long> existing = refs.stream().map(ImageRepository.BlobRef::getId).toList();
+            // a single DELETE ... WHERE id IN (...) per chunk
+            imageRepository.deleteAllByIdInBatch(existing);
+            refs.forEach(ref -> deleted.put(ref.getId(), ref.getSha256()));
+        }
+
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            boolean found = id != null && deleted.containsKey(id);
+            results.add(new BatchItemResult(i, null, id,
+                    found ? BatchItemResult.Status.DELETED : BatchItemResult.Status.NOT_FOUND, null));
+        }
+        deleted.keySet().forEach(id -> {
+            metadataCache.invalidate(id);
+            searchIndex.remove(id);
+        });
+
+        // Blobs may be shared; only those no row references any more are dropped, off the request thread
+        Set<String> hashes = new HashSet<>(deleted.values());
+        hashes.remove(null);
+        Set<String> unreferenced = new HashSet<>(hashes);
+        List<String> hashList = List.copyOf(hashes);
+        for (int from = 0; from < hashList.size(); from += BULK_CHUNK_SIZE) {
+            unreferenced.removeAll(imageRepository.findReferencedSha256(
+                    hashList.subList(from, Math.min(from + BULK_CHUNK_SIZE, hashList.size()))));
+        }
+        unreferenced.forEach(contentCache::invalidate);
+        blobGarbageCollector.collectAsync(unreferenced);
+        return BatchResult.of(results);
+    }
+
+    @Override
+    public Image updateImage(Long id, String description) throws IOException {
+        // Work on a fresh row rather than the shared cached instance
+        Image image = imageRepository.findById(id)
+                .orElseThrow(() -> new ImageNotFoundException("Image not found with id: " + id));
+
+        // Update only allowed fields
+        image.setDescription(description);
+        image.setModifiedAt(LocalDateTime.now());
+
+        Image saved = imageRepository.save(image);
+        metadataCache.put(saved);
+        searchIndex.index(saved);
+        return saved;
+    }
+}
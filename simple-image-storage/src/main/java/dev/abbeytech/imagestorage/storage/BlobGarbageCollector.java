@@ -0,0 +1,144 @@
+package dev.abbeytech.imagestorage.storage;
+
+import dev.abbeytech.imagestorage.config.StorageProperties;
+import dev.abbeytech.imagestorage.repository.ImageRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Deletes blobs that no {@code images} row references any more. The reference count of a blob
+ * is the number of rows carrying its hash, looked up in batches through the
+ * {@code sha256} index; deleting an image only removes its row and leaves the blob to this
+ * collector.
+ *
+ * <p>Blobs modified within {@code app.storage.gc-grace-period} are never collected, which
+ * covers uploads whose row has not been committed yet. The age is checked once more, under the
+ * blob's lock in {@link BlobStore}, right before deleting, so an upload that reuses a blob
+ * while the pass is looking up its references keeps it. Besides the periodic full pass, callers
+ * that just removed rows can have the affected blobs checked right away with
+ * {@link #collectAsync}.
+ */
+@Slf4j
+@Component
+public class BlobGarbageCollector {
+
+    static final int BATCH_SIZE = 500;
+
+    private final BlobStore blobStore;
+    private final ImageRepository imageRepository;
+    private final Duration gracePeriod;
+    private final Clock clock;
+    private final ExecutorService background = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Autowired
+    public BlobGarbageCollector(BlobStore blobStore, ImageRepository imageRepository, StorageProperties properties) {
+        this(blobStore, imageRepository, properties.gcGracePeriod(), Clock.systemUTC());
+    }
+
+    BlobGarbageCollector(BlobStore blobStore, ImageRepository imageRepository, Duration gracePeriod, Clock clock) {
+        this.blobStore = blobStore;
+        this.imageRepository = imageRepository;
+        this.gracePeriod = gracePeriod;
+        this.clock = clock;
+    }
+
+    @Scheduled(initialDelayString = "${app.storage.gc-interval:PT10M}",
+            fixedDelayString = "${app.storage.gc-interval:PT10M}")
+    public void scheduledCollect() {
+        try {
+            int deleted = collect();
+            if (deleted > 0) {
+                log.info("Blob garbage collection deleted {} unreferenced blobs", deleted);
+            }
+        } catch (IOException e) {
+            log.error("Blob garbage collection failed", e);
+        }
+    }
+
+    /**
+     * Runs one collection pass and returns the number of blobs deleted
+     */
+    public int collect() throws IOException {
+        Instant cutoff = clock.instant().minus(gracePeriod);
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        int[] deleted = {0};
+        blobStore.forEachBlob((sha256, lastModified) -> {
+            if (lastModified.isBefore(cutoff)) {
+                batch.add(sha256);
+                if (batch.size() == BATCH_SIZE) {
+                    deleted[0] += deleteUnreferenced(batch, cutoff);
+                    batch.clear();
+                }
+            }
+        });
+        if (!batch.isEmpty()) {
+            deleted[0] += deleteUnreferenced(batch, cutoff);
+        }
+        return deleted[0];
+    }
+
+    /**
+     * Checks just the given blobs, in the background, and deletes those that are unreferenced
+     * and outside the grace period
+     */
+    public CompletableFuture<Integer> collectAsync(Collection<String> sha256s) {
+        List<String> candidates = List.copyOf(sha256s);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return collect(candidates);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, background);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        background.shutdown();
+    }
+
+    private int collect(List<String> sha256s) throws IOException {
+        Instant cutoff = clock.instant().minus(gracePeriod);
+        List<String> candidates = new ArrayList<>(sha256s.size());
+        for (String sha256 : sha256s) {
+            Instant lastModified = blobStore.lastModified(sha256);
+            if (lastModified != null && lastModified.isBefore(cutoff)) {
+                candidates.add(sha256);
+            }
+        }
+        int deleted = 0;
+        for (int from = 0; from < candidates.size(); from += BATCH_SIZE) {
+            deleted += deleteUnreferenced(candidates.subList(from, Math.min(from + BATCH_SIZE, candidates.size())),
+                    cutoff);
+        }
+        return deleted;
+    }
+
+    private int deleteUnreferenced(List<String> candidates, Instant cutoff) throws IOException {
+        Set<String> referenced = imageRepository.findReferencedSha256(candidates);
+        int deleted = 0;
+        for (String sha256 : candidates) {
+            // an upload may have reused the blob since it was listed, before its row was committed
+            if (!referenced.contains(sha256) && blobStore.deleteIfNotModifiedSince(sha256, cutoff)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,241 @@
+package dev.abbeytech.imagestorage.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed store for image bytes under the storage root. A blob is named by its
+ * SHA-256 and fanned out over two directory levels, {@code ab/cd/abcd...}, so no directory
+ * grows beyond a few hundred entries and identical uploads share one file.
+ *
+ * <p>Blobs are immutable: an upload is written to a temporary file and renamed into place
+ * atomically, so readers never see a partial blob. Whether a blob is still in use is decided by
+ * the {@code images} rows that carry its hash; see {@code BlobGarbageCollector}. Derivatives
+ * such as thumbnails live next to their blob as {@code <sha256>.<variant>} and are deleted
+ * with it.
+ *
+ * <p>Putting, adopting and deleting a blob take a lock striped by its hash, so a collector
+ * deleting a blob it found unreferenced and an upload reusing that same blob happen one after
+ * the other.
+ */
+@Slf4j
+@Component
+public class BlobStore {
+
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern FAN_OUT = Pattern.compile("[0-9a-f]{2}");
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final Path root;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public BlobStore(StreamingUploadWriter uploadWriter) {
+        this.root = uploadWriter.root();
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public Path pathFor(String sha256) {
+        if (!SHA256.matcher(sha256).matches()) {
+            throw new IllegalArgumentException("Not a SHA-256 hex digest: " + sha256);
+        }
+        return root.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+
+    /**
+     * Location of a derivative of the blob, e.g. {@code variant = "w320.jpg"}
+     */
+    public Path derivativePath(String sha256, String variant) {
+        Path blob = pathFor(sha256);
+        return blob.resolveSibling(sha256 + "." + variant);
+    }
+
+    /**
+     * Moves a written upload into the store, or drops it if a blob with the same content
+     * already exists. Either way the blob's modification time is refreshed, which keeps it
+     * out of garbage collection until the referencing row has been committed.
+     */
+    public Path put(StoredUpload upload) throws IOException {
+        Path target = pathFor(upload.sha256());
+        ReentrantLock lock = lockFor(upload.sha256());
+        lock.lock();
+        try {
+            if (Files.exists(target)) {
+                Files.delete(upload.tempFile());
+            } else {
+                Files.createDirectories(target.getParent());
+                moveIntoPlace(upload.tempFile(), target);
+            }
+            Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            return target;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(upload.tempFile());
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds an existing file under the given content hash without touching the file itself: it
+     * is hard-linked into place where the file system allows, copied otherwise. The caller
+     * vouches for the hash.
+     */
+    public Path adopt(Path file, String sha256) throws IOException {
+        Path target = pathFor(sha256);
+        ReentrantLock lock = lockFor(sha256);
+        lock.lock();
+        try {
+            return adoptLocked(file, sha256, target);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Path adoptLocked(Path file, String sha256, Path target) throws IOException {
+        if (!Files.exists(target)) {
+            Files.createDirectories(target.getParent());
+            Path temp = target.resolveSibling(sha256 + ".adopt-" + UUID.randomUUID());
+            try {
+                Files.createLink(temp, file);
+            } catch (IOException | UnsupportedOperationException e) {
+                Files.copy(file, temp);
+            }
+            try {
+                moveIntoPlace(temp, target);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+        return target;
+    }
+
+    /**
+     * Returns the blob's last modification time, or {@code null} if it does not exist
+     */
+    public Instant lastModified(String sha256) throws IOException {
+        try {
+            return Files.getLastModifiedTime(pathFor(sha256)).toInstant();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Deletes the blob, its derivatives and any fan-out directories it leaves empty
+     */
+    public boolean delete(String sha256) throws IOException {
+        return deleteIfNotModifiedSince(sha256, Instant.MAX);
+    }
+
+    /**
+     * Deletes the blob as {@link #delete} does unless it was modified at or after
+     * {@code cutoff}. The check and the delete hold the blob's lock, so an upload that reused
+     * the blob after the caller last looked at it keeps it.
+     */
+    public boolean deleteIfNotModifiedSince(String sha256, Instant cutoff) throws IOException {
+        Path blob = pathFor(sha256);
+        ReentrantLock lock = lockFor(sha256);
+        lock.lock();
+        try {
+            Instant lastModified = lastModified(sha256);
+            if (lastModified != null && !lastModified.isBefore(cutoff)) {
+                return false;
+            }
+            return deleteLocked(sha256, blob);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean deleteLocked(String sha256, Path blob) throws IOException {
+        boolean deleted = Files.deleteIfExists(blob);
+        if (Files.isDirectory(blob.getParent())) {
+            try (DirectoryStream<Path> derivatives = Files.newDirectoryStream(blob.getParent(), sha256 + ".*")) {
+                for (Path derivative : derivatives) {
+                    Files.deleteIfExists(derivative);
+                }
+            }
+        }
+        deleteIfEmpty(blob.getParent());
+        deleteIfEmpty(blob.getParent().getParent());
+        return deleted;
+    }
+
+    /**
+     * Calls {@code visitor} for every blob, with its hash and last modification time
+     */
+    public void forEachBlob(BlobVisitor visitor) throws IOException {
+        try (DirectoryStream<Path> level1 = Files.newDirectoryStream(root, this::isFanOutDirectory)) {
+            for (Path first : level1) {
+                try (DirectoryStream<Path> level2 = Files.newDirectoryStream(first, this::isFanOutDirectory)) {
+                    for (Path second : level2) {
+                        try (DirectoryStream<Path> blobs = Files.newDirectoryStream(second)) {
+                            for (Path blob : blobs) {
+                                String name = blob.getFileName().toString();
+                                if (SHA256.matcher(name).matches()) {
+                                    visitor.visit(name, Files.getLastModifiedTime(blob).toInstant());
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface BlobVisitor {
+
+        void visit(String sha256, Instant lastModified) throws IOException;
+    }
+
+    private ReentrantLock lockFor(String sha256) {
+        return locks[Integer.parseInt(sha256, 0, 2, 16) % LOCK_STRIPES];
+    }
+
+    private boolean isFanOutDirectory(Path path) {
+        return FAN_OUT.matcher(path.getFileName().toString()).matches() && Files.isDirectory(path);
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // a concurrent upload of the same content won the rename; its bytes are identical
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void deleteIfEmpty(Path directory) {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            if (entries.iterator().hasNext()) {
+                return;
+            }
+        } catch (IOException e) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            // a concurrent put created a blob in it
+            log.debug("Kept fan-out directory {}", directory, e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package dev.abbeytech.imagestorage.storage;
+
+/**
+ * Format and pixel dimensions read from the first bytes of an image
+ *
+ * @param width  pixel width, or -1 if the header did not contain it
+ * @param height pixel height, or -1 if the header did not contain it
+ */
+public record ImageHeader(String contentType, int width, int height) {
+
+    public static final String UNKNOWN_DIMENSIONS = "Unknown";
+
+    public String dimensions() {
+        return width > 0 && height > 0 ? width + "x" + height : UNKNOWN_DIMENSIONS;
+    }
+}
@@ -0,0 +1,138 @@
+package dev.abbeytech.imagestorage.storage;
+
+/**
+ * Identifies PNG, JPEG, GIF, BMP and WebP images and reads their dimensions from the leading
+ * bytes of the file, without decoding pixels or needing the rest of the stream
+ */
+public final class ImageHeaderParser {
+
+    private ImageHeaderParser() {
+    }
+
+    /**
+     * Returns the image type of {@code bytes[0, length)} from its signature alone, or
+     * {@code null} if it is not a supported image
+     */
+    public static String detectContentType(byte[] bytes, int length) {
+        if (startsWith(bytes, length, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) return "image/png";
+        if (startsWith(bytes, length, 0xFF, 0xD8, 0xFF)) return "image/jpeg";
+        if (startsWith(bytes, length, 'G', 'I', 'F', '8')) return "image/gif";
+        if (startsWith(bytes, length, 'B', 'M') && length >= 26) return "image/bmp";
+        if (startsWith(bytes, length, 'R', 'I', 'F', 'F') && length >= 16
+                && bytes[8] == 'W' && bytes[9] == 'E' && bytes[10] == 'B' && bytes[11] == 'P') return "image/webp";
+        return null;
+    }
+
+    /**
+     * Parses the header in {@code bytes[0, length)}; returns {@code null} if it is not a
+     * supported image. Dimensions are -1 when they lie beyond {@code length}.
+     */
+    public static ImageHeader parse(byte[] bytes, int length) {
+        String contentType = detectContentType(bytes, length);
+        if (contentType == null) {
+            return null;
+        }
+        return switch (contentType) {
+            case "image/png" -> length >= 24
+                    ? new ImageHeader(contentType, int32be(bytes, 16), int32be(bytes, 20))
+                    : unknown(contentType);
+            case "image/gif" -> length >= 10
+                    ? new ImageHeader(contentType, uint16le(bytes, 6), uint16le(bytes, 8))
+                    : unknown(contentType);
+            case "image/bmp" -> parseBmp(bytes, length);
+            case "image/webp" -> parseWebp(bytes, length);
+            default -> parseJpeg(bytes, length);
+        };
+    }
+
+    private static ImageHeader parseBmp(byte[] b, int length) {
+        int dibSize = int32le(b, 14);
+        if (dibSize == 12) {
+            return new ImageHeader("image/bmp", uint16le(b, 18), uint16le(b, 20));
+        }
+        // height is negative for top-down bitmaps
+        return new ImageHeader("image/bmp", int32le(b, 18), Math.abs(int32le(b, 22)));
+    }
+
+    private static ImageHeader parseWebp(byte[] b, int length) {
+        if (length >= 30 && b[12] == 'V' && b[13] == 'P' && b[14] == '8') {
+            switch (b[15]) {
+                case ' ':
+                    return new ImageHeader("image/webp", uint16le(b, 26) & 0x3FFF, uint16le(b, 28) & 0x3FFF);
+                case 'L': {
+                    int bits = int32le(b, 21);
+                    return new ImageHeader("image/webp", (bits & 0x3FFF) + 1, ((bits >>> 14) & 0x3FFF) + 1);
+                }
+                case 'X':
+                    return new ImageHeader("image/webp", uint24le(b, 24) + 1, uint24le(b, 27) + 1);
+                default:
+                    break;
+            }
+        }
+        return unknown("image/webp");
+    }
+
+    private static ImageHeader parseJpeg(byte[] b, int length) {
+        int pos = 2;
+        while (pos + 9 <= length) {
+            if ((b[pos] & 0xFF) != 0xFF) {
+                break;
+            }
+            int marker = b[pos + 1] & 0xFF;
+            if (marker == 0xFF) {
+                pos++;
+                continue;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD7)) {
+                pos += 2;
+                continue;
+            }
+            boolean startOfFrame = marker >= 0xC0 && marker <= 0xCF
+                    && marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+            if (startOfFrame) {
+                return new ImageHeader("image/jpeg", uint16be(b, pos + 7), uint16be(b, pos + 5));
+            }
+            if (marker == 0xDA || marker == 0xD9) {
+                break;
+            }
+            pos += 2 + uint16be(b, pos + 2);
+        }
+        return unknown("image/jpeg");
+    }
+
+    private static ImageHeader unknown(String contentType) {
+        return new ImageHeader(contentType, -1, -1);
+    }
+
+    private static boolean startsWith(byte[] b, int length, int... signature) {
+        if (length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((b[i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int uint16be(byte[] b, int i) {
+        return (b[i] & 0xFF) << 8 | (b[i + 1] & 0xFF);
+    }
+
+    private static int int32be(byte[] b, int i) {
+        return (b[i] & 0xFF) << 24 | (b[i + 1] & 0xFF) << 16 | (b[i + 2] & 0xFF) << 8 | (b[i + 3] & 0xFF);
+    }
+
+    private static int uint16le(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8;
+    }
+
+    private static int uint24le(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16;
+    }
+
+    private static int int32le(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16 | (b[i + 3] & 0xFF) << 24;
+    }
+}
@@ -0,0 +1,177 @@
+package dev.abbeytech.imagestorage.storage;
+
+import dev.abbeytech.imagestorage.config.MaintenanceProperties;
+import dev.abbeytech.imagestorage.model.Image;
+import dev.abbeytech.imagestorage.repository.ImageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Periodically checks that what the {@code images} table describes is actually on disk, in
+ * two passes:
+ * <ol>
+ *     <li>every row: its file exists and has the recorded size (metadata only, no reads)</li>
+ *     <li>every blob: its contents still hash to its name, read at no more than
+ *     {@code app.storage.maintenance.read-rate}; each blob is read once however many rows
+ *     share it</li>
+ * </ol>
+ * Problems are logged and counted; nothing is repaired automatically.
+ *
+ * <p>Metrics: {@code storage.scrub.problems} tagged {@code type=missing|size_mismatch|checksum_mismatch},
+ * {@code storage.scrub.bytes.read}, and for the pass in progress {@code storage.scrub.rows.checked},
+ * {@code storage.scrub.blobs.checked} and {@code storage.scrub.running}; the end of the last
+ * complete pass is {@code storage.scrub.last.completed} (epoch seconds).
+ */
+@Slf4j
+@Component
+public class IntegrityScrubber {
+
+    /**
+     * Outcome of one scrub pass
+     */
+    public record Report(long rows, long blobs, long missing, long sizeMismatches, long checksumMismatches) {
+
+        public boolean clean() {
+            return missing == 0 && sizeMismatches == 0 && checksumMismatches == 0;
+        }
+    }
+
+    private final ImageRepository imageRepository;
+    private final BlobStore blobStore;
+    private final ThrottledHasher hasher;
+    private final boolean enabled;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong rowsChecked = new AtomicLong();
+    private final AtomicLong blobsChecked = new AtomicLong();
+    private final AtomicLong lastCompleted = new AtomicLong();
+    private final Counter missing;
+    private final Counter sizeMismatch;
+    private final Counter checksumMismatch;
+
+    @Autowired
+    public IntegrityScrubber(ImageRepository imageRepository, BlobStore blobStore, MaintenanceProperties properties,
+                             MeterRegistry meterRegistry) {
+        this(imageRepository, blobStore, properties.scrubEnabled(), properties.readRate().toBytes(), meterRegistry);
+    }
+
+    IntegrityScrubber(ImageRepository imageRepository, BlobStore blobStore, boolean enabled, long readBytesPerSecond,
+                      MeterRegistry meterRegistry) {
+        this.imageRepository = imageRepository;
+        this.blobStore = blobStore;
+        this.enabled = enabled;
+        this.hasher = new ThrottledHasher(readBytesPerSecond);
+        this.missing = problems(meterRegistry, "missing");
+        this.sizeMismatch = problems(meterRegistry, "size_mismatch");
+        this.checksumMismatch = problems(meterRegistry, "checksum_mismatch");
+        FunctionCounter.builder("storage.scrub.bytes.read", hasher, ThrottledHasher::bytesRead)
+                .description("Bytes read to verify blob checksums")
+                .register(meterRegistry);
+        Gauge.builder("storage.scrub.rows.checked", rowsChecked, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("storage.scrub.blobs.checked", blobsChecked, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("storage.scrub.running", running, r -> r.get() ? 1 : 0).register(meterRegistry);
+        Gauge.builder("storage.scrub.last.completed", lastCompleted, AtomicLong::get).register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${app.storage.maintenance.scrub-interval:P1D}",
+            fixedDelayString = "${app.storage.maintenance.scrub-interval:P1D}")
+    public void scheduledScrub() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Report report = scrub();
+            if (report != null) {
+                log.info("Storage scrub checked {} images and {} blobs: {} missing, {} wrong size, {} corrupt",
+                        report.rows(), report.blobs(), report.missing(), report.sizeMismatches(),
+                        report.checksumMismatches());
+            }
+        } catch (IOException e) {
+            log.error("Storage scrub failed", e);
+        }
+    }
+
+    /**
+     * Runs one full pass; returns {@code null} if a pass is already running
+     */
+    public Report scrub() throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            rowsChecked.set(0);
+            blobsChecked.set(0);
+            long[] problems = new long[3];
+            checkRows(problems);
+            checkBlobs(problems);
+            lastCompleted.set(Instant.now().getEpochSecond());
+            return new Report(rowsChecked.get(), blobsChecked.get(), problems[0], problems[1], problems[2]);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void checkRows(long[] problems) {
+        long lastId = 0;
+        List<Image> batch;
+        while (!(batch = imageRepository.findTop1000ByIdGreaterThanOrderByIdAsc(lastId)).isEmpty()) {
+            for (Image image : batch) {
+                Path file = Paths.get(image.getPath());
+                try {
+                    long size = Files.size(file);
+                    if (image.getSize() != null && size != image.getSize()) {
+                        problems[1]++;
+                        sizeMismatch.increment();
+                        log.error("Image {} is {} bytes on disk at {}, expected {}",
+                                image.getId(), size, file, image.getSize());
+                    }
+                } catch (IOException e) {
+                    problems[0]++;
+                    missing.increment();
+                    log.error("Image {} is missing its file {}", image.getId(), file);
+                }
+                rowsChecked.incrementAndGet();
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+    }
+
+    private void checkBlobs(long[] problems) throws IOException {
+        blobStore.forEachBlob((sha256, lastModified) -> {
+            Path blob = blobStore.pathFor(sha256);
+            try {
+                String actual = hasher.sha256(blob);
+                if (!actual.equals(sha256)) {
+                    problems[2]++;
+                    checksumMismatch.increment();
+                    log.error("Blob {} is corrupt: contents hash to {}; {} images reference it",
+                            blob, actual, imageRepository.countBySha256(sha256));
+                }
+            } catch (NoSuchFileException e) {
+                // garbage collected since it was listed
+            }
+            blobsChecked.incrementAndGet();
+        });
+    }
+
+    private static Counter problems(MeterRegistry meterRegistry, String type) {
+        return Counter.builder("storage.scrub.problems").tag("type", type)
+                .description("Stored files found missing, of the wrong size or corrupt")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,170 @@
+package dev.abbeytech.imagestorage.storage;
+
+import dev.abbeytech.imagestorage.cache.ImageMetadataCache;
+import dev.abbeytech.imagestorage.config.MaintenanceProperties;
+import dev.abbeytech.imagestorage.model.Image;
+import dev.abbeytech.imagestorage.repository.ImageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves images uploaded before the blob store existed, which sit in one flat directory as
+ * {@code <uuid>_<name>} and have no content hash, into the sharded {@link BlobStore} layout.
+ *
+ * <p>The migration runs online, in the background after startup, one row at a time: the file
+ * is hashed (throttled to {@code app.storage.maintenance.read-rate}), linked into the blob
+ * store, and the row is repointed. The old file stays where it was for
+ * {@code app.storage.maintenance.legacy-retention} after that, so a request that looked the
+ * image up just before the switch, or a cached row, still finds it: such reads fall back to the
+ * legacy path while the migration runs. Files still waiting are removed on shutdown; after a
+ * crash they stay behind in the flat directory. Rows whose file is missing are skipped and left
+ * to the {@link IntegrityScrubber} to report.
+ *
+ * <p>Metrics: {@code storage.migration.files} tagged {@code result=migrated|missing|failed}
+ * and {@code storage.migration.pending}.
+ */
+@Slf4j
+@Component
+public class LegacyLayoutMigrator {
+
+    private final ImageRepository imageRepository;
+    private final BlobStore blobStore;
+    private final ImageMetadataCache metadataCache;
+    private final ThumbnailGenerator thumbnailGenerator;
+    private final MaintenanceProperties properties;
+    private final ThrottledHasher hasher;
+    private final AtomicLong pending = new AtomicLong();
+    // migrated files still kept at their old path
+    private final Set<Path> retiring = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService retirement = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofVirtual().name("legacy-file-retirement").factory());
+    private final Counter migrated;
+    private final Counter missing;
+    private final Counter failed;
+
+    public LegacyLayoutMigrator(ImageRepository imageRepository, BlobStore blobStore,
+                                ImageMetadataCache metadataCache, ThumbnailGenerator thumbnailGenerator,
+                                MaintenanceProperties properties, MeterRegistry meterRegistry) {
+        this.imageRepository = imageRepository;
+        this.blobStore = blobStore;
+        this.metadataCache = metadataCache;
+        this.thumbnailGenerator = thumbnailGenerator;
+        this.properties = properties;
+        this.hasher = new ThrottledHasher(properties.readRate().toBytes());
+        this.migrated = Counter.builder("storage.migration.files").tag("result", "migrated").register(meterRegistry);
+        this.missing = Counter.builder("storage.migration.files").tag("result", "missing").register(meterRegistry);
+        this.failed = Counter.builder("storage.migration.files").tag("result", "failed").register(meterRegistry);
+        Gauge.builder("storage.migration.pending", pending, AtomicLong::get)
+                .description("Images left in the flat legacy layout")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (properties.migrateLegacy() && imageRepository.countBySha256IsNull() > 0) {
+            Thread.ofVirtual().name("legacy-layout-migration").start(() -> {
+                try {
+                    int moved = migrate();
+                    log.info("Moved {} images from the flat layout into the blob store", moved);
+                } catch (RuntimeException e) {
+                    log.error("Legacy layout migration stopped", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Migrates every legacy image and returns how many were moved. Safe to run again: moved
+     * rows carry a hash and are not selected a second time.
+     */
+    public int migrate() {
+        pending.set(imageRepository.countBySha256IsNull());
+        int moved = 0;
+        long lastId = 0;
+        List<Image> batch;
+        while (!(batch = imageRepository.findTop500BySha256IsNullAndIdGreaterThanOrderByIdAsc(lastId)).isEmpty()) {
+            for (Image image : batch) {
+                if (migrate(image)) {
+                    moved++;
+                }
+                pending.decrementAndGet();
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+        return moved;
+    }
+
+    /**
+     * Deletes the old files that are still being kept; nothing is served any more
+     */
+    @PreDestroy
+    public void shutdown() {
+        retirement.shutdownNow();
+        retiring.forEach(this::delete);
+    }
+
+    private void retire(Path legacy) {
+        long retention = properties.legacyRetention().toMillis();
+        if (retention <= 0) {
+            delete(legacy);
+            return;
+        }
+        retiring.add(legacy);
+        retirement.schedule(() -> delete(legacy), retention, TimeUnit.MILLISECONDS);
+    }
+
+    private void delete(Path legacy) {
+        try {
+            Files.deleteIfExists(legacy);
+            retiring.remove(legacy);
+        } catch (IOException e) {
+            log.warn("Could not delete migrated file {}", legacy, e);
+        }
+    }
+
+    private boolean migrate(Image image) {
+        Path legacy = Paths.get(image.getPath());
+        if (!Files.isRegularFile(legacy)) {
+            missing.increment();
+            log.warn("Image {} has no file at {}; left in place", image.getId(), legacy);
+            return false;
+        }
+        try {
+            String sha256 = hasher.sha256(legacy);
+            Path blob = blobStore.adopt(legacy, sha256);
+            if (imageRepository.moveToBlob(image.getId(), blob.toString(), sha256) == 0) {
+                // deleted meanwhile; the collector drops the blob if nothing else uses it
+                return false;
+            }
+            metadataCache.invalidate(image.getId());
+            retire(legacy);
+            image.setPath(blob.toString());
+            image.setSha256(sha256);
+            thumbnailGenerator.generateAll(image);
+            migrated.increment();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            log.warn("Could not move image {} from {} into the blob store", image.getId(), legacy, e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package dev.abbeytech.imagestorage.storage;
+
+import java.nio.file.Path;
+
+/**
+ * An upload that has been streamed to a temporary file in the storage directory
+ *
+ * @param tempFile file holding the bytes until it is moved into the blob store
+ * @param size     number of bytes received
+ * @param sha256   lower-case hex SHA-256 of the bytes
+ * @param header   format and dimensions parsed from the leading bytes
+ */
+public record StoredUpload(Path tempFile, long size, String sha256, ImageHeader header) {
+}
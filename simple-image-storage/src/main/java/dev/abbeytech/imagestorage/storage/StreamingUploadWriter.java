@@ -0,0 +1,154 @@
+package dev.abbeytech.imagestorage.storage;
+
+import dev.abbeytech.imagestorage.config.StorageProperties;
+import dev.abbeytech.imagestorage.exception.InvalidImageException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Streams an upload into the storage directory in a single pass. While the bytes are written
+ * through a {@link FileChannel}, the same chunks feed the SHA-256 digest and the first
+ * {@value #HEADER_BYTES} bytes are kept for {@link ImageHeaderParser}. Heap use per upload is
+ * two fixed buffers regardless of the file size, and non-images are rejected as soon as the
+ * header has arrived.
+ *
+ * <p>Multipart uploads are the exception: the servlet container has already written each part
+ * to its own temporary file before the controller runs, so those are moved rather than copied
+ * and only read here. Clients that want a single write should use the raw-body endpoint.
+ */
+@Component
+public class StreamingUploadWriter {
+
+    static final int CHUNK_BYTES = 64 * 1024;
+    static final int HEADER_BYTES = 64 * 1024;
+
+    private final Path root;
+    private final long maxUploadBytes;
+
+    public StreamingUploadWriter(StorageProperties properties) {
+        this.root = Paths.get(properties.location()).toAbsolutePath().normalize();
+        this.maxUploadBytes = properties.maxUploadSize().toBytes();
+        try {
+            Files.createDirectories(root);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create storage directory " + root, e);
+        }
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    /**
+     * Writes {@code in} to a temporary file under the storage root. The caller owns the
+     * returned file and must either move it into the {@link BlobStore} or delete it.
+     */
+    public StoredUpload write(InputStream in) throws IOException {
+        Path temp = Files.createTempFile(root, ".upload-", ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            return consume(in, temp, channel);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Takes over a multipart file the servlet container has already spooled to disk. The
+     * container's file is moved under the storage root (a rename when both are on the same
+     * file system) and then read once for the hash and header, instead of being copied.
+     * Ownership of the returned file is as for {@link #write(InputStream)}.
+     */
+    public StoredUpload write(MultipartFile file) throws IOException {
+        if (file.getSize() > maxUploadBytes) {
+            throw new MaxUploadSizeExceededException(maxUploadBytes);
+        }
+        Path temp = Files.createTempFile(root, ".upload-", ".tmp");
+        try {
+            // transferTo(File) lets the container move its spool file; the Path overload always copies
+            file.transferTo(temp.toFile());
+            try (InputStream in = Files.newInputStream(temp)) {
+                return consume(in, temp, null);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Reads {@code in} to the end, hashing it and checking its header; the bytes are also
+     * written to {@code channel} unless it is {@code null}
+     */
+    private StoredUpload consume(InputStream in, Path temp, FileChannel channel) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] chunk = new byte[CHUNK_BYTES];
+        byte[] header = new byte[HEADER_BYTES];
+        int headerLength = 0;
+        boolean signatureChecked = false;
+        long size = 0;
+
+        ByteBuffer buffer = ByteBuffer.wrap(chunk);
+        int n;
+        while ((n = in.read(chunk)) != -1) {
+            size += n;
+            if (size > maxUploadBytes) {
+                throw new MaxUploadSizeExceededException(maxUploadBytes);
+            }
+            if (headerLength < HEADER_BYTES) {
+                int copy = Math.min(n, HEADER_BYTES - headerLength);
+                System.arraycopy(chunk, 0, header, headerLength, copy);
+                headerLength += copy;
+            }
+            if (!signatureChecked && headerLength == HEADER_BYTES) {
+                requireImage(header, headerLength);
+                signatureChecked = true;
+            }
+            digest.update(chunk, 0, n);
+            if (channel != null) {
+                buffer.clear().limit(n);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        }
+
+        ImageHeader imageHeader = ImageHeaderParser.parse(header, headerLength);
+        if (imageHeader == null) {
+            throw unsupported();
+        }
+        return new StoredUpload(temp, size, HexFormat.of().formatHex(digest.digest()), imageHeader);
+    }
+
+    private static void requireImage(byte[] header, int length) {
+        if (ImageHeaderParser.detectContentType(header, length) == null) {
+            throw unsupported();
+        }
+    }
+
+    private static InvalidImageException unsupported() {
+        return new InvalidImageException("Only PNG, JPEG, GIF, BMP and WebP images are allowed");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package dev.abbeytech.imagestorage.storage;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SHA-256 of files on disk, read at no more than a fixed number of bytes per second so that
+ * background work leaves the disk to uploads and downloads. The limit is a token bucket holding
+ * one second of reads; a read that overdraws it sleeps off the debt.
+ */
+final class ThrottledHasher {
+
+    private final long bytesPerSecond;
+    private final LongAdder bytesRead = new LongAdder();
+    private long available;
+    private long lastRefill = System.nanoTime();
+
+    /**
+     * @param bytesPerSecond read limit, or zero or less for none
+     */
+    ThrottledHasher(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+        this.available = bytesPerSecond;
+    }
+
+    String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(StreamingUploadWriter.CHUNK_BYTES);
+        try (FileChannel channel = FileChannel.open(file)) {
+            int read;
+            while ((read = channel.read(buffer)) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+                bytesRead.add(read);
+                acquire(read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    long bytesRead() {
+        return bytesRead.sum();
+    }
+
+    void acquire(long bytes) throws InterruptedIOException {
+        if (bytesPerSecond <= 0) {
+            return;
+        }
+        long debtNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            // a full second refills the bucket; capping the gap also keeps the product from overflowing
+            long elapsed = Math.min(now - lastRefill, TimeUnit.SECONDS.toNanos(1));
+            available = Math.min(bytesPerSecond,
+                    available + elapsed * bytesPerSecond / TimeUnit.SECONDS.toNanos(1));
+            lastRefill = now;
+            available -= bytes;
+            debtNanos = available < 0 ? -available * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond : 0;
+        }
+        if (debtNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(debtNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while throttling reads");
+            }
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package dev.abbeytech.imagestorage.storage;
+
+import dev.abbeytech.imagestorage.config.ThumbnailProperties;
+import dev.abbeytech.imagestorage.model.Image;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates downscaled derivatives of stored images with {@code javax.imageio} and keeps them
+ * next to their blob, so they are shared by duplicate uploads and collected with the blob.
+ *
+ * <p>Work runs on a bounded pool. Uploads queue every configured width but are dropped when the
+ * queue is full; a request for a missing derivative generates it on demand, in the caller's
+ * thread if the pool is saturated. Concurrent requests for the same derivative share one
+ * generation job. Decoding uses source subsampling, so a large original is never decoded at
+ * more than twice the target width.
+ */
+@Slf4j
+@Component
+public class ThumbnailGenerator {
+
+    static final float JPEG_QUALITY = 0.85f;
+
+    private final BlobStore blobStore;
+    private final int[] widths;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentHashMap<Path, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong generated = new AtomicLong();
+
+    public ThumbnailGenerator(BlobStore blobStore, ThumbnailProperties properties) {
+        this.blobStore = blobStore;
+        this.widths = properties.widths().stream().mapToInt(Integer::intValue).filter(w -> w > 0).sorted().distinct()
+                .toArray();
+        if (widths.length == 0) {
+            throw new IllegalArgumentException("app.thumbnails.widths must contain at least one positive width");
+        }
+        this.timeoutMillis = properties.timeout().toMillis();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(properties.threads(), properties.threads(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.queueCapacity()), r -> {
+                    Thread thread = new Thread(r, "thumbnail-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * A generated derivative
+     *
+     * @param contentKey identifies the derivative's bytes, usable as a strong ETag
+     */
+    public record Thumbnail(Path path, String contentKey, String contentType) {}
+
+    /**
+     * Returns the smallest configured width at or above {@code requested}, or the largest one
+     */
+    public int snapWidth(int requested) {
+        int index = Arrays.binarySearch(widths, requested);
+        if (index >= 0) {
+            return widths[index];
+        }
+        int insertion = -index - 1;
+        return widths[Math.min(insertion, widths.length - 1)];
+    }
+
+    /**
+     * Queues every configured derivative of a newly stored image; skipped while the pool is saturated
+     */
+    public void generateAll(Image image) {
+        for (int width : widths) {
+            if (needsDerivative(image, width) && !Files.exists(derivativePath(image, width))) {
+                request(image, width, false);
+            }
+        }
+    }
+
+    /**
+     * Returns the derivative of {@code image} for {@code requestedWidth}, generating it if needed.
+     * Returns {@code null} when the original should be served instead: it is no wider than the
+     * derivative, cannot be decoded, or generation did not finish in time.
+     */
+    public Thumbnail thumbnail(Image image, int requestedWidth) {
+        int width = snapWidth(requestedWidth);
+        if (!needsDerivative(image, width)) {
+            return null;
+        }
+        Path path = derivativePath(image, width);
+        if (!Files.exists(path)) {
+            try {
+                path = request(image, width, true).get(timeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                log.debug("Thumbnail of image {} at width {} not ready in time", image.getId(), width);
+                return null;
+            } catch (ExecutionException e) {
+                log.warn("Could not generate thumbnail of image {} at width {}", image.getId(), width, e.getCause());
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            if (path == null) {
+                return null;
+            }
+        }
+        return new Thumbnail(path, image.getSha256() + "-w" + width, opaque(image) ? "image/jpeg" : "image/png");
+    }
+
+    long generatedCount() {
+        return generated.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private CompletableFuture<Path> request(Image image, int width, boolean required) {
+        Path source = Paths.get(image.getPath());
+        Path target = derivativePath(image, width);
+        boolean jpeg = opaque(image);
+
+        CompletableFuture<Path> future = new CompletableFuture<>();
+        CompletableFuture<Path> existing = inFlight.putIfAbsent(target, future);
+        if (existing != null) {
+            return existing;
+        }
+        Runnable job = () -> {
+            try {
+                future.complete(Files.exists(target) ? target : generate(source, target, width, jpeg));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                inFlight.remove(target, future);
+            }
+        };
+        try {
+            executor.execute(job);
+        } catch (RejectedExecutionException e) {
+            if (required) {
+                job.run();
+            } else {
+                inFlight.remove(target, future);
+                future.complete(null);
+            }
+        }
+        return future;
+    }
+
+    private Path generate(Path source, Path target, int width, boolean jpeg) throws IOException {
+        BufferedImage decoded = decode(source, width);
+        if (decoded == null) {
+            return null;
+        }
+        BufferedImage scaled = scale(decoded, Math.min(width, decoded.getWidth()), jpeg);
+
+        Path temp = Files.createTempFile(target.getParent(), ".thumb-", ".tmp");
+        try {
+            encode(scaled, jpeg, temp);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        generated.incrementAndGet();
+        return target;
+    }
+
+    /**
+     * Decodes the first image in {@code source}, subsampled to no less than twice
+     * {@code width}; {@code null} if no installed reader supports the format
+     */
+    static BufferedImage decode(Path source, int width) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int step = Math.max(1, reader.getWidth(0) / (width * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales {@code source} to {@code width} by repeated bilinear halving, which keeps the
+     * quality of an area filter at a fraction of the cost of a bicubic pass
+     */
+    static BufferedImage scale(BufferedImage source, int width, boolean opaque) {
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        int type = opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = currentWidth == width ? height : Math.max(height, currentHeight / 2);
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, type);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (currentWidth != width);
+        return current;
+    }
+
+    private static void encode(BufferedImage image, boolean jpeg, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(jpeg ? "jpeg" : "png").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (jpeg) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+            }
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private Path derivativePath(Image image, int width) {
+        return blobStore.derivativePath(image.getSha256(), "w" + width + (opaque(image) ? ".jpg" : ".png"));
+    }
+
+    private static boolean needsDerivative(Image image, int width) {
+        if (image.getSha256() == null) {
+            return false;
+        }
+        String dimensions = image.getDimensions();
+        int x = dimensions == null ? -1 : dimensions.indexOf('x');
+        if (x <= 0) {
+            return true;
+        }
+        try {
+            return Integer.parseInt(dimensions.substring(0, x)) > width;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    // formats without an alpha channel get JPEG derivatives; everything else keeps transparency in PNG
+    private static boolean opaque(Image image) {
+        return "image/jpeg".equals(image.getContentType()) || "image/bmp".equals(image.getContentType());
+    }
+}
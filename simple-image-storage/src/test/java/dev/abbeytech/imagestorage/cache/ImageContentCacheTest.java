@@ -0,0 +1,97 @@
+package dev.abbeytech.imagestorage.cache;
+
+import dev.abbeytech.imagestorage.config.CacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageContentCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private ImageContentCache cache;
+
+    @BeforeEach
+    void setUp() {
+        // synchronous maintenance makes eviction deterministic
+        cache = new ImageContentCache(new CacheProperties(DataSize.ofKilobytes(64), DataSize.ofKilobytes(8),
+                100, Duration.ofMinutes(1)), Runnable::run);
+    }
+
+    @Test
+    void cacheIsBoundedByBytesAndSkipsLargeFiles() throws IOException {
+        for (int i = 0; i < 40; i++) {
+            load("key" + i, 4 * 1024);
+        }
+        cache.cleanUp();
+
+        assertTrue(cache.weightedSize() <= 64 * 1024, "weighted size " + cache.weightedSize());
+        assertNull(load("large", 16 * 1024));
+    }
+
+    @Test
+    void hotEntriesSurviveAScanOfOneHitWonders() throws IOException {
+        // the frequency sketch starts counting once the cache has filled up
+        for (int i = 0; i < 16; i++) {
+            load("warm" + i, 4 * 1024);
+        }
+        byte[] hot = load("hot", 4 * 1024).bytes();
+        for (int i = 0; i < 20; i++) {
+            assertNotNull(cache.get("hot"));
+        }
+        for (int i = 0; i < 500; i++) {
+            load("cold" + i, 4 * 1024);
+        }
+        cache.cleanUp();
+
+        assertArrayEquals(hot, cache.get("hot").bytes());
+    }
+
+    @Test
+    void invalidationDropsTheBlobAndItsDerivatives() throws IOException {
+        String sha = "ab".repeat(32);
+        load(sha, 100);
+        load(sha + "-w160", 50);
+        load("cd".repeat(32), 100);
+
+        cache.invalidate(sha);
+
+        assertNull(cache.get(sha));
+        assertNull(cache.get(sha + "-w160"));
+        assertNotNull(cache.get("cd".repeat(32)));
+    }
+
+    @Test
+    void evictedEntriesLeaveTheBlobIndex() throws IOException {
+        for (int i = 0; i < 40; i++) {
+            String sha = String.format("%064x", i);
+            load(sha, 4 * 1024);
+            load(sha + "-w160", 1024);
+        }
+        cache.cleanUp();
+
+        assertEquals(cache.estimatedSize(), cache.indexedKeys());
+        assertTrue(cache.indexedKeys() < 80);
+    }
+
+    private ImageContentCache.CachedContent load(String key, int size) throws IOException {
+        Path file = dir.resolve(key);
+        byte[] bytes = new byte[size];
+        bytes[0] = (byte) key.hashCode();
+        Files.write(file, bytes);
+        return cache.load(key, file, size, 0);
+    }
+}
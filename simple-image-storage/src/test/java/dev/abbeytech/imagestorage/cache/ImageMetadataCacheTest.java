@@ -0,0 +1,44 @@
+package dev.abbeytech.imagestorage.cache;
+
+import dev.abbeytech.imagestorage.config.CacheProperties;
+import dev.abbeytech.imagestorage.model.Image;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageMetadataCacheTest {
+
+    @Test
+    void aLoadInFlightDoesNotPutADeletedRowBack() throws Exception {
+        ImageMetadataCache cache = new ImageMetadataCache(new CacheProperties(DataSize.ofKilobytes(64),
+                DataSize.ofKilobytes(8), 100, Duration.ofMinutes(1)), new SimpleMeterRegistry());
+        Image row = Image.builder().id(1L).name("a.png").build();
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch deleted = new CountDownLatch(1);
+
+        // a reader fetched the row just before it was deleted
+        Thread reader = Thread.ofVirtual().start(() -> cache.get(1L, id -> {
+            reading.countDown();
+            try {
+                deleted.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Optional.of(row);
+        }));
+        reading.await();
+        Thread invalidator = Thread.ofVirtual().start(() -> cache.invalidate(1L));
+        invalidator.join(Duration.ofMillis(100));
+        deleted.countDown();
+        reader.join();
+        invalidator.join();
+
+        assertTrue(cache.get(1L, id -> Optional.empty()).isEmpty());
+    }
+}
@@ -0,0 +1,260 @@
+package dev.abbeytech.imagestorage.controller;
+
+import dev.abbeytech.imagestorage.dto.BatchItemResult;
+import dev.abbeytech.imagestorage.dto.BatchResult;
+import dev.abbeytech.imagestorage.dto.ImageListPage;
+import dev.abbeytech.imagestorage.dto.ImageSummary;
+import dev.abbeytech.imagestorage.model.Image;
+import dev.abbeytech.imagestorage.repository.ImageRepository;
+import dev.abbeytech.imagestorage.service.ImageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs against the embedded Tomcat, so full and single-range bodies go through sendfile
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ImageControllerTest {
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    ImageService imageService;
+
+    @Autowired
+    ImageRepository imageRepository;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private byte[] bytes;
+    private Image image;
+
+    @BeforeEach
+    void storeImage() throws Exception {
+        BufferedImage pixels = new BufferedImage(200, 100, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < 200; x++) {
+            pixels.setRGB(x, x % 100, x * 0x010203);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(pixels, "bmp", out);
+        bytes = out.toByteArray();
+        image = imageService.store(new ByteArrayInputStream(bytes), "wide.bmp", null);
+    }
+
+    @Test
+    void fullBodyCarriesValidators() throws Exception {
+        HttpResponse<byte[]> response = get(image.getId(), "/view");
+
+        assertEquals(200, response.statusCode());
+        assertArrayEquals(bytes, response.body());
+        assertEquals("\"" + image.getSha256() + "\"", header(response, "ETag"));
+        assertEquals("bytes", header(response, "Accept-Ranges"));
+        assertEquals("public, max-age=3600", header(response, "Cache-Control"));
+        assertEquals("image/bmp", header(response, "Content-Type"));
+    }
+
+    @Test
+    void matchingValidatorsYieldNotModified() throws Exception {
+        HttpResponse<byte[]> first = get(image.getId(), "/view");
+
+        assertEquals(304, get(image.getId(), "/view", "If-None-Match", header(first, "ETag")).statusCode());
+        assertEquals(304, get(image.getId(), "/view",
+                "If-Modified-Since", header(first, "Last-Modified")).statusCode());
+        assertEquals(200, get(image.getId(), "/view", "If-None-Match", "\"other\"").statusCode());
+    }
+
+    @Test
+    void singleRangeIsServedPartially() throws Exception {
+        HttpResponse<byte[]> response = get(image.getId(), "/view", "Range", "bytes=10-99");
+
+        assertEquals(206, response.statusCode());
+        assertEquals("bytes 10-99/" + bytes.length, header(response, "Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(bytes, 10, 100), response.body());
+
+        HttpResponse<byte[]> suffix = get(image.getId(), "/download", "Range", "bytes=-16");
+        assertEquals(206, suffix.statusCode());
+        assertArrayEquals(Arrays.copyOfRange(bytes, bytes.length - 16, bytes.length), suffix.body());
+    }
+
+    @Test
+    void multipleRangesAreServedAsMultipart() throws Exception {
+        HttpResponse<byte[]> response = get(image.getId(), "/view", "Range", "bytes=0-3,20-29");
+
+        assertEquals(206, response.statusCode());
+        assertTrue(header(response, "Content-Type").startsWith("multipart/byteranges; boundary="));
+        String body = new String(response.body(), StandardCharsets.ISO_8859_1);
+        assertTrue(body.contains("Content-Range: bytes 0-3/" + bytes.length));
+        assertTrue(body.contains("Content-Range: bytes 20-29/" + bytes.length));
+        assertTrue(body.contains(new String(Arrays.copyOfRange(bytes, 20, 30), StandardCharsets.ISO_8859_1)));
+    }
+
+    @Test
+    void staleIfRangeAndUnsatisfiableRangesAreHandled() throws Exception {
+        HttpResponse<byte[]> stale = get(image.getId(), "/view", "Range", "bytes=0-9", "If-Range", "\"stale\"");
+        assertEquals(200, stale.statusCode());
+        assertArrayEquals(bytes, stale.body());
+
+        HttpResponse<byte[]> unsatisfiable = get(image.getId(), "/view", "Range", "bytes=" + bytes.length + "-");
+        assertEquals(416, unsatisfiable.statusCode());
+        assertEquals("bytes */" + bytes.length, header(unsatisfiable, "Content-Range"));
+    }
+
+    @Test
+    void thumbnailIsScaledDownAndCacheable() throws Exception {
+        HttpResponse<byte[]> response = get(image.getId(), "/thumb?w=150");
+
+        assertEquals(200, response.statusCode());
+        assertEquals("image/jpeg", header(response, "Content-Type"));
+        assertEquals("\"" + image.getSha256() + "-w160\"", header(response, "ETag"));
+        assertEquals(160, ImageIO.read(new ByteArrayInputStream(response.body())).getWidth());
+        assertEquals(304, get(image.getId(), "/thumb?w=150", "If-None-Match", header(response, "ETag")).statusCode());
+    }
+
+    @Test
+    void searchRanksByNameDescriptionAndType() throws Exception {
+        Image named = imageService.store(new ByteArrayInputStream(bytes), "zebra-crossing.bmp", "street");
+        imageService.updateImage(image.getId(), "a zebra in the street");
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/api/images/search?q=zebra%20stre&type=image/bmp")).build(),
+                HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        String body = response.body();
+        assertTrue(body.indexOf("\"id\":" + named.getId()) < body.indexOf("\"id\":" + image.getId()), body);
+    }
+
+    @Test
+    void listingWalksEveryImageNewestFirstByCursor() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            imageService.store(new ByteArrayInputStream(bytes), "page-" + i + ".bmp", null);
+        }
+        long total = imageRepository.count();
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            ImageListPage page = imageService.listImages(cursor, 2);
+            page.items().forEach(item -> seen.add(item.id()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(total, seen.size());
+        assertEquals(total, seen.stream().distinct().count());
+        List<ImageSummary> first = imageService.listImages(null, 3).items();
+        assertTrue(!first.get(0).uploadedAt().isBefore(first.get(2).uploadedAt()));
+        assertEquals(400, getText("/api/images?cursor=bogus").statusCode());
+        assertTrue(getText("/").body().contains("page-3.bmp"));
+    }
+
+    @Test
+    void exportStreamsOneJsonObjectPerImage() throws Exception {
+        HttpResponse<String> response = getText("/api/images/export");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(header(response, "Content-Type").startsWith("application/x-ndjson"));
+        List<String> lines = response.body().lines().toList();
+        assertEquals(imageRepository.count(), lines.size());
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"sha256\":\"" + image.getSha256() + "\"")));
+    }
+
+    @Test
+    void batchUploadReportsEachFile() throws Exception {
+        String boundary = "batch-boundary";
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (String name : List.of("batch-a.bmp", "batch-b.bmp")) {
+            body.write(("--" + boundary + "\r\nContent-Disposition: form-data; name=\"files\"; filename=\""
+                    + name + "\"\r\nContent-Type: image/bmp\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            body.write(bytes);
+            body.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+        }
+        body.write(("--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/images/batch"))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"succeeded\":2"), response.body());
+
+        MockMultipartFile unreadable = new MockMultipartFile("files", "broken.bmp", "image/bmp", new byte[0]) {
+            @Override
+            public InputStream getInputStream() throws IOException {
+                throw new IOException("unreadable part");
+            }
+        };
+        BatchResult result = imageService.storeAll(List.of(
+                new MockMultipartFile("files", "ok.bmp", "image/bmp", bytes), unreadable), "batch");
+        assertEquals(1, result.succeeded());
+        assertEquals(1, result.failed());
+        BatchItemResult created = result.items().get(0);
+        assertEquals(BatchItemResult.Status.CREATED, created.status());
+        assertEquals("batch", imageService.getImage(created.id()).getDescription());
+        assertEquals(BatchItemResult.Status.FAILED, result.items().get(1).status());
+    }
+
+    @Test
+    void batchDeleteRemovesExistingImagesOnly() throws Exception {
+        Image other = imageService.store(new ByteArrayInputStream(bytes), "doomed.bmp", null);
+        long missing = other.getId() + 1_000_000;
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/images/batch-delete"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("[" + other.getId() + "," + missing + "]"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains("\"succeeded\":1"), response.body());
+        assertTrue(response.body().contains("\"status\":\"NOT_FOUND\""), response.body());
+        assertFalse(imageRepository.existsById(other.getId()));
+        assertEquals(404, get(other.getId(), "/view").statusCode());
+        // the blob is still referenced by the image stored in @BeforeEach
+        assertEquals(200, get(image.getId(), "/view").statusCode());
+    }
+
+    private HttpResponse<String> getText(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<byte[]> get(long id, String suffix, String... headers) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/images/" + id + suffix));
+        for (int i = 0; i < headers.length; i += 2) {
+            request.header(headers[i], headers[i + 1]);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String header(HttpResponse<?> response, String name) {
+        return response.headers().firstValue(name).orElse(null);
+    }
+}
@@ -0,0 +1,48 @@
+package dev.abbeytech.imagestorage.repository;
+
+import dev.abbeytech.imagestorage.config.WriteBehindProperties;
+import dev.abbeytech.imagestorage.model.Image;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImageWriteBehindQueueTest {
+
+    private final ImageRepository repository = mock(ImageRepository.class);
+    private final WriteBehindProperties props = new WriteBehindProperties(true, 16, Duration.ofMillis(1), 16);
+
+    @Test
+    void savesAreCommittedByTheWriter() {
+        Image image = new Image();
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        ImageWriteBehindQueue queue = new ImageWriteBehindQueue(repository, mock(PlatformTransactionManager.class), props);
+
+        assertEquals(image, queue.save(image));
+    }
+
+    @Test
+    void saveFailsOnceTheWriterHasStopped() throws Exception {
+        ImageWriteBehindQueue queue = new ImageWriteBehindQueue(repository, mock(PlatformTransactionManager.class), props);
+        queue.shutdown();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(IllegalStateException.class, () -> queue.save(new Image())));
+    }
+
+    @Test
+    void saveFailsWhenTheWriterDies() {
+        when(repository.saveAll(anyList())).thenThrow(new StackOverflowError("writer dies"));
+        ImageWriteBehindQueue queue = new ImageWriteBehindQueue(repository, mock(PlatformTransactionManager.class), props);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> assertThrows(IllegalStateException.class, () -> queue.save(new Image())));
+    }
+}
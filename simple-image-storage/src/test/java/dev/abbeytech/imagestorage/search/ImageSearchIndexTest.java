@@ -0,0 +1,125 @@
+package dev.abbeytech.imagestorage.search;
+
+import dev.abbeytech.imagestorage.model.Image;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageSearchIndexTest {
+
+    private final ImageSearchIndex index = new ImageSearchIndex();
+
+    @Test
+    void nameMatchesOutrankDescriptionMatches() {
+        index.index(image(1, "holiday.jpg", "a sunset over the beach", "image/jpeg"));
+        index.index(image(2, "sunset-beach.png", null, "image/png"));
+        index.index(image(3, "cat.gif", "sleeping", "image/gif"));
+
+        assertEquals(List.of(2L, 1L), ids(index.search("sunset", null, false, 0, 10)));
+        assertEquals(List.of(2L, 1L), ids(index.search("Beach SUNSET", null, false, 0, 10)));
+    }
+
+    @Test
+    void everyTokenMustMatchAndTheLastMayBeAPrefix() {
+        index.index(image(1, "sunset beach", null, "image/jpeg"));
+        index.index(image(2, "sunset mountains", null, "image/jpeg"));
+
+        assertEquals(List.of(1L), ids(index.search("sunset bea", null, true, 0, 10)));
+        assertEquals(List.of(), ids(index.search("sunset bea", null, false, 0, 10)));
+        assertEquals(2, index.search("sun*", null, false, 0, 10).total());
+        assertEquals(List.of(), ids(index.search("sunset snow", null, true, 0, 10)));
+    }
+
+    @Test
+    void contentTypeIsSearchableAndFilterable() {
+        index.index(image(1, "one", null, "image/png"));
+        index.index(image(2, "two", null, "image/jpeg"));
+
+        assertEquals(List.of(1L), ids(index.search("png", null, false, 0, 10)));
+        assertEquals(List.of(2L), ids(index.search("t*", "image/jpeg", false, 0, 10)));
+    }
+
+    @Test
+    void updatesAndDeletesAreReflectedImmediately() {
+        index.index(image(1, "red car", null, "image/png"));
+        index.index(image(1, "blue car", null, "image/png"));
+        index.index(image(2, "red bus", null, "image/png"));
+
+        assertEquals(List.of(2L), ids(index.search("red", null, false, 0, 10)));
+        index.remove(2);
+        assertEquals(0, index.search("red", null, false, 0, 10).total());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void resultsArePagedInRankOrder() {
+        for (int i = 1; i <= 2500; i++) {
+            // remove and re-add to exercise tombstone compaction
+            index.index(image(i, "photo " + i, null, "image/jpeg"));
+            index.index(image(i, "photo " + i, i % 2 == 0 ? "photo" : null, "image/jpeg"));
+        }
+
+        ImageSearchIndex.Result first = index.search("photo", null, false, 0, 10);
+        ImageSearchIndex.Result second = index.search("photo", null, false, 1, 10);
+
+        assertEquals(2500, first.total());
+        assertEquals(10, first.hits().size());
+        assertTrue(first.hits().get(9).score() >= second.hits().get(0).score());
+        assertTrue(first.hits().stream().allMatch(hit -> hit.imageId() % 2 == 0));
+        assertEquals(List.of(42L), ids(index.search("42", null, false, 0, 10)));
+    }
+
+    @Test
+    void compactionReusesOrdinals() {
+        for (int round = 0; round < 100; round++) {
+            for (int i = 1; i <= 100; i++) {
+                index.index(image(i, "photo " + round, null, "image/jpeg"));
+            }
+        }
+
+        // 10,000 versions of 100 images, compacted whenever tombstones pass 1024
+        assertTrue(index.ordinals() <= 100 + 1025, "ordinals: " + index.ordinals());
+        assertEquals(100, index.search("photo 99", null, false, 0, 200).total());
+        assertEquals(0, index.search("98", null, false, 0, 200).total());
+        assertEquals(List.of(7L), ids(index.search("photo", null, false, 0, 200)).stream()
+                .filter(id -> id == 7L).toList());
+    }
+
+    @Test
+    void farPagesAreEmptyRatherThanOverflowing() {
+        index.index(image(1, "photo", null, "image/jpeg"));
+
+        ImageSearchIndex.Result result = index.search("photo", null, false, Integer.MAX_VALUE / 2, 100);
+
+        assertEquals(1, result.total());
+        assertEquals(List.of(), result.hits());
+    }
+
+    @Test
+    void theInitialBuildDoesNotOverwriteLiveChanges() {
+        index.index(image(1, "renamed", null, "image/png"));
+        index.remove(2);
+
+        // rows the build read before the service changed them
+        index.indexFromBuild(image(1, "original", null, "image/png"));
+        index.indexFromBuild(image(2, "deleted", null, "image/png"));
+        index.indexFromBuild(image(3, "untouched", null, "image/png"));
+        index.markReady();
+
+        assertEquals(List.of(1L), ids(index.search("renamed", null, false, 0, 10)));
+        assertEquals(0, index.search("original", null, false, 0, 10).total());
+        assertEquals(0, index.search("deleted", null, false, 0, 10).total());
+        assertEquals(List.of(3L), ids(index.search("untouched", null, false, 0, 10)));
+    }
+
+    private static List<Long> ids(ImageSearchIndex.Result result) {
+        return result.hits().stream().map(ImageSearchIndex.Hit::imageId).toList();
+    }
+
+    private static Image image(long id, String name, String description, String contentType) {
+        return Image.builder().id(id).name(name).description(description).contentType(contentType).build();
+    }
+}
@@ -0,0 +1,107 @@
+package dev.abbeytech.imagestorage.service;
+
+import dev.abbeytech.imagestorage.repository.ImageRepository;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Concurrent upload throughput against a file database, with each upload committing its own
+ * row and with write-behind group commit. Run with {@code mvn test -Pload}.
+ */
+@Tag("load")
+class UploadThroughputLoadTest {
+
+    static final int THREADS = 32;
+    static final int UPLOADS = 4000;
+
+    @Nested
+    @SpringBootTest
+    @ActiveProfiles("test")
+    @TestPropertySource(properties = {
+            "spring.datasource.url=jdbc:h2:file:./target/load-db/per-row",
+            "app.persistence.write-behind.enabled=false",
+            "app.thumbnails.widths=160"})
+    class PerRowCommit {
+
+        @Autowired
+        ImageService imageService;
+
+        @Autowired
+        ImageRepository imageRepository;
+
+        @Test
+        void uploadsPerSecond() throws Exception {
+            run("per-row commit", imageService, imageRepository);
+        }
+    }
+
+    @Nested
+    @SpringBootTest
+    @ActiveProfiles("test")
+    @TestPropertySource(properties = {
+            "spring.datasource.url=jdbc:h2:file:./target/load-db/write-behind;CACHE_SIZE=65536",
+            "app.persistence.write-behind.enabled=true",
+            "app.thumbnails.widths=160"})
+    class WriteBehind {
+
+        @Autowired
+        ImageService imageService;
+
+        @Autowired
+        ImageRepository imageRepository;
+
+        @Test
+        void uploadsPerSecond() throws Exception {
+            run("write-behind", imageService, imageRepository);
+        }
+    }
+
+    static void run(String label, ImageService imageService, ImageRepository imageRepository) throws Exception {
+        long before = imageRepository.count();
+        // Smaller than every thumbnail width, so the measurement is hashing, blob storage and the insert
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB), "png", png);
+        byte[] content = png.toByteArray();
+        // warm up the JIT and the connection pool
+        upload(imageService, content, 500);
+
+        long start = System.nanoTime();
+        upload(imageService, content, UPLOADS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%-16s %,8.0f uploads/s (%d uploads, %d threads)%n",
+                label, UPLOADS / seconds, UPLOADS, THREADS);
+        assertEquals(before + 500 + UPLOADS, imageRepository.count());
+    }
+
+    private static void upload(ImageService imageService, byte[] content, int count) throws Exception {
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            List<Future<?>> uploads = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String name = "load-" + i + ".bin";
+                uploads.add(executor.submit(() ->
+                        imageService.store(new ByteArrayInputStream(content), name, null)));
+            }
+            for (Future<?> upload : uploads) {
+                upload.get();
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package dev.abbeytech.imagestorage.storage;
+
+import dev.abbeytech.imagestorage.model.Image;
+import dev.abbeytech.imagestorage.repository.ImageRepository;
+import dev.abbeytech.imagestorage.service.ImageService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BlobGarbageCollectorTest {
+
+    @Autowired
+    ImageService imageService;
+
+    @Autowired
+    ImageRepository imageRepository;
+
+    @Autowired
+    StreamingUploadWriter uploadWriter;
+
+    @Autowired
+    BlobStore blobStore;
+
+    @Test
+    void duplicateUploadsShareOneBlobUntilTheLastReferenceIsGone() throws Exception {
+        byte[] bytes = StreamingUploadWriterTest.encode("png", 97, 31);
+        Image first = imageService.store(new ByteArrayInputStream(bytes), "a.png", null);
+        Image second = imageService.store(new ByteArrayInputStream(bytes), "b.png", null);
+        Path blob = Path.of(first.getPath());
+
+        assertEquals(first.getPath(), second.getPath());
+        assertEquals(blobStore.pathFor(first.getSha256()), blob);
+        assertEquals(2, imageRepository.countBySha256(first.getSha256()));
+
+        BlobGarbageCollector collector = new BlobGarbageCollector(
+                blobStore, imageRepository, Duration.ZERO, Clock.offset(Clock.systemUTC(), Duration.ofSeconds(1)));
+        imageService.deleteImage(first.getId());
+        collector.collect();
+        assertTrue(Files.exists(blob));
+
+        imageService.deleteImage(second.getId());
+        collector.collect();
+        assertFalse(Files.exists(blob));
+        assertFalse(Files.exists(blob.getParent()));
+    }
+
+    @Test
+    void blobsWithinTheGracePeriodAreKept() throws Exception {
+        byte[] bytes = StreamingUploadWriterTest.encode("gif", 13, 17);
+        Path orphan = blobStore.put(uploadWriter.write(new ByteArrayInputStream(bytes)));
+
+        assertEquals(0, new BlobGarbageCollector(blobStore, imageRepository, Duration.ofHours(1), Clock.systemUTC())
+                .collect());
+        assertTrue(Files.exists(orphan));
+    }
+
+    @Test
+    void bulkDeletedBlobsAreCollectedOnlyOutsideTheGracePeriod() throws Exception {
+        byte[] bytes = StreamingUploadWriterTest.encode("png", 41, 29);
+        Image image = imageService.store(new ByteArrayInputStream(bytes), "bulk.png", null);
+        Path blob = Path.of(image.getPath());
+
+        imageService.deleteAll(List.of(image.getId()));
+        // the application's collector runs with the default grace period, so the fresh blob stays
+        List<String> unreferenced = List.of(image.getSha256());
+        assertEquals(0, new BlobGarbageCollector(blobStore, imageRepository, Duration.ofHours(1), Clock.systemUTC())
+                .collectAsync(unreferenced).get());
+        assertTrue(Files.exists(blob));
+
+        assertEquals(1, new BlobGarbageCollector(blobStore, imageRepository, Duration.ofMinutes(30),
+                Clock.offset(Clock.systemUTC(), Duration.ofHours(1))).collectAsync(unreferenced).get());
+        assertFalse(Files.exists(blob));
+    }
+
+    @Test
+    void blobsReusedAfterThePassLookedAreKept() throws Exception {
+        byte[] bytes = StreamingUploadWriterTest.encode("gif", 19, 23);
+        Path orphan = blobStore.put(uploadWriter.write(new ByteArrayInputStream(bytes)));
+        String sha256 = orphan.getFileName().toString();
+        Instant passStarted = Instant.now().minusSeconds(60);
+
+        // a deduplicating upload refreshed it after the pass took its cutoff
+        assertFalse(blobStore.deleteIfNotModifiedSince(sha256, passStarted));
+        assertTrue(Files.exists(orphan));
+        assertTrue(blobStore.deleteIfNotModifiedSince(sha256, Instant.now().plusSeconds(1)));
+        assertFalse(Files.exists(orphan));
+    }
+}
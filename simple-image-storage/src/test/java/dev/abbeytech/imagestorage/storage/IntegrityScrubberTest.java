@@ -0,0 +1,82 @@
+package dev.abbeytech.imagestorage.storage;
+
+import dev.abbeytech.imagestorage.model.Image;
+import dev.abbeytech.imagestorage.repository.ImageRepository;
+import dev.abbeytech.imagestorage.service.ImageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class IntegrityScrubberTest {
+
+    @Autowired
+    ImageService imageService;
+
+    @Autowired
+    ImageRepository imageRepository;
+
+    @Autowired
+    BlobStore blobStore;
+
+    @Test
+    void missingResizedAndCorruptFilesAreReported() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        IntegrityScrubber scrubber = new IntegrityScrubber(imageRepository, blobStore, true, 0, registry);
+        Image corrupt = store(StreamingUploadWriterTest.encode("png", 61, 7), "corrupt.png");
+        Image truncated = store(StreamingUploadWriterTest.encode("gif", 63, 9), "truncated.gif");
+        Image deleted = store(StreamingUploadWriterTest.encode("bmp", 65, 11), "deleted.bmp");
+        // other tests share the database and storage directory, so compare against a baseline
+        IntegrityScrubber.Report before = scrubber.scrub();
+
+        byte[] flipped = Files.readAllBytes(Path.of(corrupt.getPath()));
+        flipped[flipped.length - 1] ^= 1;
+        Files.write(Path.of(corrupt.getPath()), flipped);
+        Files.write(Path.of(truncated.getPath()), new byte[10]);
+        Files.delete(Path.of(deleted.getPath()));
+        IntegrityScrubber.Report after = scrubber.scrub();
+
+        assertEquals(before.missing() + 1, after.missing());
+        // the truncated blob is both the wrong size and no longer matches its hash
+        assertEquals(before.sizeMismatches() + 1, after.sizeMismatches());
+        assertEquals(before.checksumMismatches() + 2, after.checksumMismatches());
+        assertEquals(before.rows(), after.rows());
+        assertTrue(registry.get("storage.scrub.bytes.read").functionCounter().count() > 0);
+        assertEquals(after.rows(), registry.get("storage.scrub.rows.checked").gauge().value());
+
+        imageService.deleteImage(corrupt.getId());
+        imageService.deleteImage(truncated.getId());
+        imageService.deleteImage(deleted.getId());
+        blobStore.delete(corrupt.getSha256());
+        blobStore.delete(truncated.getSha256());
+    }
+
+    @Test
+    void readsAreThrottledToTheConfiguredRate(@TempDir Path dir) throws Exception {
+        Path file = Files.write(dir.resolve("big"), new byte[3 * 1024 * 1024]);
+        ThrottledHasher hasher = new ThrottledHasher(1024 * 1024);
+
+        long start = System.nanoTime();
+        hasher.sha256(file);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // one second of burst, then 1MB/s for the remaining 2MB
+        assertTrue(seconds > 1.8, "took " + seconds + "s");
+        assertEquals(3 * 1024 * 1024, hasher.bytesRead());
+    }
+
+    private Image store(byte[] bytes, String name) throws Exception {
+        return imageService.store(new ByteArrayInputStream(bytes), name, null);
+    }
+}
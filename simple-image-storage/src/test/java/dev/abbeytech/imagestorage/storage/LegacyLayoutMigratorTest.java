@@ -0,0 +1,102 @@
+package dev.abbeytech.imagestorage.storage;
+
+import dev.abbeytech.imagestorage.cache.ImageMetadataCache;
+import dev.abbeytech.imagestorage.config.MaintenanceProperties;
+import dev.abbeytech.imagestorage.model.Image;
+import dev.abbeytech.imagestorage.repository.ImageRepository;
+import dev.abbeytech.imagestorage.service.ImageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class LegacyLayoutMigratorTest {
+
+    @Autowired
+    LegacyLayoutMigrator migrator;
+
+    @Autowired
+    ImageRepository imageRepository;
+
+    @Autowired
+    ImageService imageService;
+
+    @Autowired
+    StreamingUploadWriter uploadWriter;
+
+    @Autowired
+    BlobStore blobStore;
+
+    @Autowired
+    ImageMetadataCache metadataCache;
+
+    @Autowired
+    ThumbnailGenerator thumbnailGenerator;
+
+    @Test
+    void flatFilesMoveIntoTheBlobStoreAndMissingOnesAreLeftAlone() throws Exception {
+        byte[] bytes = StreamingUploadWriterTest.encode("png", 41, 23);
+        Path legacyFile = uploadWriter.root().resolve(UUID.randomUUID() + "_legacy.png");
+        Files.write(legacyFile, bytes);
+        Image legacy = imageRepository.save(legacyImage(legacyFile, bytes.length));
+        Image lost = imageRepository.save(legacyImage(uploadWriter.root().resolve(UUID.randomUUID() + "_lost.png"), 1));
+
+        migrator.migrate();
+
+        Image moved = imageService.getImage(legacy.getId());
+        assertEquals(blobStore.pathFor(moved.getSha256()).toString(), moved.getPath());
+        assertArrayEquals(bytes, Files.readAllBytes(Path.of(moved.getPath())));
+        assertFalse(Files.exists(legacyFile));
+        assertNull(imageRepository.findById(lost.getId()).orElseThrow().getSha256());
+        imageRepository.deleteById(lost.getId());
+    }
+
+    @Test
+    void aMovedFileStaysAtItsOldPathForTheRetention() throws Exception {
+        LegacyLayoutMigrator retaining = new LegacyLayoutMigrator(imageRepository, blobStore, metadataCache,
+                thumbnailGenerator, new MaintenanceProperties(true, true, DataSize.ofMegabytes(16), Duration.ofHours(1)),
+                new SimpleMeterRegistry());
+        byte[] bytes = StreamingUploadWriterTest.encode("png", 43, 29);
+        Path legacyFile = uploadWriter.root().resolve(UUID.randomUUID() + "_retained.png");
+        Files.write(legacyFile, bytes);
+        // a reader looked the row up before the move
+        Image stale = imageService.getImage(imageRepository.save(legacyImage(legacyFile, bytes.length)).getId());
+
+        retaining.migrate();
+
+        assertNotNull(imageService.getImage(stale.getId()).getSha256());
+        assertArrayEquals(bytes, Files.readAllBytes(Path.of(stale.getPath())));
+        retaining.shutdown();
+        assertFalse(Files.exists(legacyFile));
+        imageRepository.deleteById(stale.getId());
+    }
+
+    private static Image legacyImage(Path file, long size) {
+        LocalDateTime now = LocalDateTime.now();
+        return Image.builder()
+                .name(file.getFileName().toString())
+                .originalFilename(file.getFileName().toString())
+                .contentType("image/png")
+                .size(size)
+                .path(file.toString())
+                .uploadedAt(now)
+                .modifiedAt(now)
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package dev.abbeytech.imagestorage.storage;
+
+import dev.abbeytech.imagestorage.config.StorageProperties;
+import dev.abbeytech.imagestorage.exception.InvalidImageException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StreamingUploadWriterTest {
+
+    @TempDir
+    Path storage;
+
+    @Test
+    void headersOfCommonFormatsAreParsed() throws IOException {
+        for (String format : new String[]{"png", "jpeg", "gif", "bmp"}) {
+            byte[] bytes = encode(format, 321, 123);
+
+            ImageHeader header = ImageHeaderParser.parse(bytes, bytes.length);
+
+            assertEquals("image/" + format, header.contentType(), format);
+            assertEquals("321x123", header.dimensions(), format);
+        }
+    }
+
+    @Test
+    void uploadIsStreamedHashedAndStoredByContent() throws Exception {
+        StreamingUploadWriter writer = writer(DataSize.ofMegabytes(1));
+        byte[] bytes = encode("png", 640, 480);
+
+        StoredUpload upload = writer.write(new ByteArrayInputStream(bytes));
+        Path committed = new BlobStore(writer).put(upload);
+
+        assertEquals(bytes.length, upload.size());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes)), upload.sha256());
+        assertEquals("640x480", upload.header().dimensions());
+        assertEquals(storage.resolve(upload.sha256().substring(0, 2)).resolve(upload.sha256().substring(2, 4))
+                .resolve(upload.sha256()), committed);
+        assertArrayEquals(bytes, Files.readAllBytes(committed));
+    }
+
+    @Test
+    void aSpooledMultipartFileIsMovedRatherThanCopied(@TempDir Path spool) throws Exception {
+        StreamingUploadWriter writer = writer(DataSize.ofMegabytes(1));
+        byte[] bytes = encode("png", 64, 48);
+        Path spooled = Files.write(spool.resolve("upload_part.tmp"), bytes);
+        // what the servlet container's part does: its spool file is moved to the destination
+        MockMultipartFile part = new MockMultipartFile("file", "cat.png", "image/png", bytes) {
+            @Override
+            public void transferTo(File dest) throws IOException {
+                Files.move(spooled, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            @Override
+            public void transferTo(Path dest) {
+                throw new AssertionError("copies the part");
+            }
+        };
+
+        StoredUpload upload = writer.write(part);
+
+        assertFalse(Files.exists(spooled));
+        assertEquals(storage, upload.tempFile().getParent());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes)), upload.sha256());
+        assertEquals("64x48", upload.header().dimensions());
+        assertArrayEquals(bytes, Files.readAllBytes(upload.tempFile()));
+    }
+
+    @Test
+    void nonImagesAndOversizedUploadsAreRejectedAndCleanedUp() throws IOException {
+        StreamingUploadWriter writer = writer(DataSize.ofBytes(100));
+
+        assertThrows(InvalidImageException.class,
+                () -> writer.write(new ByteArrayInputStream("plain text".getBytes())));
+        assertThrows(MaxUploadSizeExceededException.class,
+                () -> writer.write(new ByteArrayInputStream(encode("png", 64, 64))));
+        assertThrows(InvalidImageException.class,
+                () -> writer.write(new MockMultipartFile("file", "a.txt", "text/plain", "plain text".getBytes())));
+        try (var files = Files.list(storage)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private StreamingUploadWriter writer(DataSize maxUploadSize) {
+        return new StreamingUploadWriter(new StorageProperties(storage.toString(), maxUploadSize, Duration.ofHours(1), Duration.ofHours(1)));
+    }
+
+    static byte[] encode(String format, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, x * 31 ^ y * 17);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,119 @@
+package dev.abbeytech.imagestorage.storage;
+
+import dev.abbeytech.imagestorage.config.StorageProperties;
+import dev.abbeytech.imagestorage.config.ThumbnailProperties;
+import dev.abbeytech.imagestorage.model.Image;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ThumbnailGeneratorTest {
+
+    @TempDir
+    Path storage;
+
+    private StreamingUploadWriter writer;
+    private BlobStore blobStore;
+    private ThumbnailGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        writer = new StreamingUploadWriter(new StorageProperties(storage.toString(), DataSize.ofMegabytes(10),
+                Duration.ofHours(1), Duration.ofHours(1)));
+        blobStore = new BlobStore(writer);
+        generator = new ThumbnailGenerator(blobStore,
+                new ThumbnailProperties(List.of(320, 160, 640), 2, 16, Duration.ofSeconds(10)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        generator.shutdown();
+    }
+
+    @Test
+    void requestedWidthsSnapUpToConfiguredWidths() {
+        assertEquals(160, generator.snapWidth(1));
+        assertEquals(320, generator.snapWidth(320));
+        assertEquals(640, generator.snapWidth(321));
+        assertEquals(640, generator.snapWidth(5000));
+    }
+
+    @Test
+    void derivativeIsGeneratedOnceAndStoredNextToTheBlob() throws Exception {
+        Image image = store("jpeg", 1000, 500);
+
+        ThumbnailGenerator.Thumbnail thumbnail = generator.thumbnail(image, 300);
+        BufferedImage scaled = ImageIO.read(thumbnail.path().toFile());
+
+        assertEquals(blobStore.derivativePath(image.getSha256(), "w320.jpg"), thumbnail.path());
+        assertEquals("image/jpeg", thumbnail.contentType());
+        assertEquals(320, scaled.getWidth());
+        assertEquals(160, scaled.getHeight());
+        assertEquals(thumbnail, generator.thumbnail(image, 320));
+        assertEquals(1, generator.generatedCount());
+
+        blobStore.delete(image.getSha256());
+        assertFalse(Files.exists(thumbnail.path()));
+    }
+
+    @Test
+    void concurrentRequestsShareOneGeneration() throws Exception {
+        Image image = store("png", 1600, 1200);
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ThumbnailGenerator.Thumbnail>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return generator.thumbnail(image, 640);
+            }));
+        }
+        start.countDown();
+        for (Future<ThumbnailGenerator.Thumbnail> result : results) {
+            assertNotNull(result.get());
+        }
+        pool.shutdown();
+
+        assertEquals(1, generator.generatedCount());
+    }
+
+    @Test
+    void imagesNoWiderThanTheDerivativeAreServedAsIs() throws Exception {
+        assertNull(generator.thumbnail(store("gif", 120, 80), 160));
+        assertEquals(0, generator.generatedCount());
+    }
+
+    private Image store(String format, int width, int height) throws Exception {
+        byte[] bytes = StreamingUploadWriterTest.encode(format, width, height);
+        StoredUpload upload = writer.write(new ByteArrayInputStream(bytes));
+        Path blob = blobStore.put(upload);
+        return Image.builder()
+                .id(1L)
+                .path(blob.toString())
+                .sha256(upload.sha256())
+                .contentType(upload.header().contentType())
+                .dimensions(upload.header().dimensions())
+                .build();
+    }
+}